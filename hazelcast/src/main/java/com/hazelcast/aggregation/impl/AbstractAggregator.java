@@ -55,9 +55,31 @@ public abstract class AbstractAggregator<I, E, R> implements Aggregator<I, R> {
         this.attributePath = attributePath;
     }
 
+    /**
+     * @return the path of the attribute this aggregator accumulates or {@code
+     * null} if it accumulates the whole values.
+     */
+    public String getAttributePath() {
+        return attributePath;
+    }
+
     @Override
     public final void accumulate(I entry) {
+        process(entry, false);
+    }
+
+    /**
+     * Reverts the effect of a previous {@link #accumulate(Object)} call with
+     * an equal entry. Only aggregators implementing {@link RetractableAggregator}
+     * support it, the rest throw {@link UnsupportedOperationException}.
+     *
+     * @param entry the entry to retract
+     */
+    public final void retract(I entry) {
+        process(entry, true);
+    }
 
+    private void process(I entry, boolean retract) {
         E extractedValue = extract(entry);
         if (extractedValue instanceof MultiResult) {
             boolean nullEmptyTargetSkipped = false;
@@ -73,10 +95,18 @@ public abstract class AbstractAggregator<I, E, R> implements Aggregator<I, R> {
                     nullEmptyTargetSkipped = true;
                     continue;
                 }
-                accumulateExtracted(entry, results.get(i));
+                processExtracted(entry, results.get(i), retract);
             }
         } else if (extractedValue != NonTerminalJsonValue.INSTANCE) {
-            accumulateExtracted(entry, extractedValue);
+            processExtracted(entry, extractedValue, retract);
+        }
+    }
+
+    private void processExtracted(I entry, E value, boolean retract) {
+        if (retract) {
+            retractExtracted(entry, value);
+        } else {
+            accumulateExtracted(entry, value);
         }
     }
 
@@ -105,6 +135,16 @@ public abstract class AbstractAggregator<I, E, R> implements Aggregator<I, R> {
      */
     protected abstract void accumulateExtracted(I entry, E value);
 
+    /**
+     * Retracts a single extracted value, the inverse of {@link #accumulateExtracted(Object, Object)}.
+     *
+     * @param entry The entry containing the value.
+     * @param value The value to retract, extracted the same way as in the accumulation phase.
+     */
+    protected void retractExtracted(I entry, E value) {
+        throw new UnsupportedOperationException(getClass().getName() + " does not support retraction");
+    }
+
     @Override
     public boolean equals(Object o) {
         if (this == o) {
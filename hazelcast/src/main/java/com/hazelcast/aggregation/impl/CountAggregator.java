@@ -24,7 +24,8 @@ import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
 import java.io.IOException;
 import java.util.Objects;
 
-public final class CountAggregator<I> extends AbstractAggregator<I, Object, Long> implements IdentifiedDataSerializable {
+public final class CountAggregator<I> extends AbstractAggregator<I, Object, Long>
+        implements RetractableAggregator<I, Long>, IdentifiedDataSerializable {
     private long count;
 
     public CountAggregator() {
@@ -40,6 +41,21 @@ public final class CountAggregator<I> extends AbstractAggregator<I, Object, Long
         count++;
     }
 
+    @Override
+    protected void retractExtracted(I entry, Object value) {
+        count--;
+    }
+
+    /**
+     * Accumulates the given number of values at once, as if {@link
+     * #accumulateExtracted} was called for each of them.
+     *
+     * @param count the number of values to accumulate.
+     */
+    public void accumulateCount(long count) {
+        this.count += count;
+    }
+
     @Override
     public void combine(Aggregator aggregator) {
         CountAggregator countAggregator = (CountAggregator) aggregator;
@@ -0,0 +1,41 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.aggregation.impl;
+
+import com.hazelcast.aggregation.Aggregator;
+
+/**
+ * An {@link Aggregator} whose accumulation is exactly invertible: retracting
+ * an entry that has been accumulated before leaves the aggregator in the same
+ * state as if the entry had never been accumulated.
+ * <p>
+ * Floating point aggregators are deliberately not retractable since
+ * subtracting a previously added value does not restore the former sum.
+ *
+ * @param <I> input type
+ * @param <R> result type
+ */
+public interface RetractableAggregator<I, R> {
+
+    /**
+     * Reverts the accumulation of the given entry.
+     *
+     * @param entry the entry to retract
+     */
+    void retract(I entry);
+}
@@ -16,10 +16,12 @@
 
 package com.hazelcast.config;
 
+import com.hazelcast.internal.cluster.Versions;
 import com.hazelcast.internal.config.ConfigDataSerializerHook;
 import com.hazelcast.nio.ObjectDataInput;
 import com.hazelcast.nio.ObjectDataOutput;
 import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.nio.serialization.impl.Versioned;
 import com.hazelcast.query.impl.IndexUtils;
 
 import java.io.IOException;
@@ -42,10 +44,13 @@ import static com.hazelcast.internal.util.Preconditions.checkNotNull;
  * @see com.hazelcast.config.IndexType
  * @see com.hazelcast.config.MapConfig#setIndexConfigs(List)
  */
-public class IndexConfig implements IdentifiedDataSerializable {
+public class IndexConfig implements IdentifiedDataSerializable, Versioned {
     /** Default index type. */
     public static final IndexType DEFAULT_TYPE = IndexType.SORTED;
 
+    /** Default data structure of sorted indexes. */
+    public static final SortedIndexStructure DEFAULT_SORTED_INDEX_STRUCTURE = SortedIndexStructure.SKIP_LIST;
+
     /** Name of the index. */
     private String name;
 
@@ -57,6 +62,9 @@ public class IndexConfig implements IdentifiedDataSerializable {
 
     private BitmapIndexOptions bitmapIndexOptions;
 
+    /** Data structure used if the index is sorted. */
+    private SortedIndexStructure sortedIndexStructure = DEFAULT_SORTED_INDEX_STRUCTURE;
+
     public IndexConfig() {
         // No-op.
     }
@@ -90,6 +98,7 @@ public class IndexConfig implements IdentifiedDataSerializable {
         this.name = other.name;
         this.type = other.type;
         this.bitmapIndexOptions = other.bitmapIndexOptions == null ? null : new BitmapIndexOptions(other.bitmapIndexOptions);
+        this.sortedIndexStructure = other.sortedIndexStructure;
 
         for (String attribute : other.getAttributes()) {
             addAttributeInternal(attribute);
@@ -218,6 +227,32 @@ public class IndexConfig implements IdentifiedDataSerializable {
         return this;
     }
 
+    /**
+     * Gets the data structure backing the index if it's {@link IndexType#SORTED sorted}.
+     * <p>
+     * Defaults to {@link SortedIndexStructure#SKIP_LIST}.
+     *
+     * @return Data structure of the sorted index.
+     */
+    public SortedIndexStructure getSortedIndexStructure() {
+        return sortedIndexStructure;
+    }
+
+    /**
+     * Sets the data structure backing the index if it's {@link IndexType#SORTED sorted}.
+     * Ignored for other index types.
+     * <p>
+     * Defaults to {@link SortedIndexStructure#SKIP_LIST}.
+     *
+     * @param sortedIndexStructure Data structure of the sorted index.
+     * @return This instance for chaining.
+     */
+    public IndexConfig setSortedIndexStructure(SortedIndexStructure sortedIndexStructure) {
+        this.sortedIndexStructure = checkNotNull(sortedIndexStructure, "Sorted index structure cannot be null.");
+
+        return this;
+    }
+
     @Override
     public int getFactoryId() {
         return ConfigDataSerializerHook.F_ID;
@@ -234,6 +269,11 @@ public class IndexConfig implements IdentifiedDataSerializable {
         out.writeInt(type.getId());
         writeNullableList(attributes, out);
         out.writeObject(bitmapIndexOptions);
+
+        // RU_COMPAT_4_0
+        if (out.getVersion().isGreaterOrEqual(Versions.V4_1)) {
+            out.writeInt(sortedIndexStructure.getId());
+        }
     }
 
     @Override
@@ -242,6 +282,11 @@ public class IndexConfig implements IdentifiedDataSerializable {
         type = IndexType.getById(in.readInt());
         attributes = readNullableList(in);
         bitmapIndexOptions = in.readObject();
+
+        // RU_COMPAT_4_0
+        if (in.getVersion().isGreaterOrEqual(Versions.V4_1)) {
+            sortedIndexStructure = SortedIndexStructure.getById(in.readInt());
+        }
     }
 
     @Override
@@ -268,6 +313,10 @@ public class IndexConfig implements IdentifiedDataSerializable {
             return false;
         }
 
+        if (sortedIndexStructure != that.sortedIndexStructure) {
+            return false;
+        }
+
         return getAttributes().equals(that.getAttributes());
     }
 
@@ -278,6 +327,7 @@ public class IndexConfig implements IdentifiedDataSerializable {
         result = 31 * result + (type != null ? type.hashCode() : 0);
         result = 31 * result + getAttributes().hashCode();
         result = 31 * result + getBitmapIndexOptions().hashCode();
+        result = 31 * result + sortedIndexStructure.hashCode();
 
         return result;
     }
@@ -288,6 +338,9 @@ public class IndexConfig implements IdentifiedDataSerializable {
         if (bitmapIndexOptions != null && !bitmapIndexOptions.areDefault()) {
             string += ", bitmapIndexOptions=" + bitmapIndexOptions;
         }
+        if (sortedIndexStructure != DEFAULT_SORTED_INDEX_STRUCTURE) {
+            string += ", sortedIndexStructure=" + sortedIndexStructure;
+        }
         return string + '}';
     }
 }
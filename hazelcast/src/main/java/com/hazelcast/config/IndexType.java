@@ -27,7 +27,22 @@ public enum IndexType {
     HASH(1),
 
     /** Bitmap index. Can be used with equality predicates. */
-    BITMAP(2);
+    BITMAP(2),
+
+    /**
+     * Full-text index of the terms of a text attribute. Can be used with
+     * {@link com.hazelcast.query.Predicates#match match} predicates.
+     */
+    FULL_TEXT(3),
+
+    /**
+     * Geospatial index of the positions given by a latitude and a longitude
+     * attribute, in this order. Can be used with
+     * {@link com.hazelcast.query.Predicates#within within} and
+     * {@link com.hazelcast.query.Predicates#withinDistance withinDistance}
+     * predicates.
+     */
+    GEOSPATIAL(4);
 
     private final int id;
 
@@ -0,0 +1,65 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.config;
+
+/**
+ * Data structure backing a {@link IndexType#SORTED sorted} index.
+ */
+public enum SortedIndexStructure {
+    /**
+     * Concurrent skip list keyed by the distinct attribute values, holding a
+     * hash map of the matching entries per value.
+     */
+    SKIP_LIST(0),
+
+    /**
+     * B+tree of compact pages holding (attribute value, entry) pairs. Readers
+     * work on immutable snapshots without taking locks and it needs
+     * considerably less heap than the skip list for large indexes.
+     */
+    B_TREE(1);
+
+    private final int id;
+
+    SortedIndexStructure(int id) {
+        this.id = id;
+    }
+
+    /**
+     * Gets the ID for the given {@link SortedIndexStructure}.
+     *
+     * @return the ID
+     */
+    public int getId() {
+        return id;
+    }
+
+    /**
+     * Returns the SortedIndexStructure as an enum.
+     *
+     * @return the SortedIndexStructure as an enum
+     */
+    public static SortedIndexStructure getById(final int id) {
+        for (SortedIndexStructure structure : values()) {
+            if (structure.id == id) {
+                return structure;
+            }
+        }
+        return null;
+    }
+}
@@ -35,6 +35,7 @@ import com.hazelcast.internal.util.InstantiationUtils;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.logging.impl.LoggingServiceImpl;
 import com.hazelcast.spi.MemberAddressProvider;
+import com.hazelcast.spi.impl.operationexecutor.impl.OperationExecutorImpl;
 import com.hazelcast.spi.properties.HazelcastProperties;
 
 import java.util.List;
@@ -42,9 +43,15 @@ import java.util.Properties;
 
 import static com.hazelcast.config.ConfigAccessor.getActiveMemberNetworkConfig;
 import static com.hazelcast.internal.util.ThreadAffinity.newSystemThreadAffinity;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_BALANCER_ADAPTIVE;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_BALANCER_INTERVAL_SECONDS;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_INPUT_THREAD_COUNT;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_OUTPUT_THREAD_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_TRAFFIC_CLASSES_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_BULK_WEIGHT;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_INTERACTIVE_WEIGHT;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_QUEUE_CAPACITY;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_QUEUE_HIGH_WATER_MARK_BYTES;
 import static com.hazelcast.spi.properties.ClusterProperty.IO_WRITE_THROUGH_ENABLED;
 import static java.util.Arrays.asList;
 import static java.util.Collections.unmodifiableList;
@@ -163,19 +170,33 @@ public class DefaultNodeContext implements NodeContext {
         ChannelErrorHandler errorHandler = new TcpServerConnectionChannelErrorHandler(logger);
         HazelcastProperties props = node.getProperties();
 
-        return new NioNetworking(
-                new NioNetworking.Context()
-                        .loggingService(loggingService)
-                        .metricsRegistry(node.nodeEngine.getMetricsRegistry())
-                        .threadNamePrefix(node.hazelcastInstance.getName())
-                        .errorHandler(errorHandler)
-                        .inputThreadCount(props.getInteger(IO_INPUT_THREAD_COUNT))
-                        .inputThreadAffinity(newSystemThreadAffinity("hazelcast.io.input.thread.affinity"))
-                        .outputThreadCount(props.getInteger(IO_OUTPUT_THREAD_COUNT))
-                        .outputThreadAffinity(newSystemThreadAffinity("hazelcast.io.output.thread.affinity"))
-                        .balancerIntervalSeconds(props.getInteger(IO_BALANCER_INTERVAL_SECONDS))
-                        .writeThroughEnabled(props.getBoolean(IO_WRITE_THROUGH_ENABLED))
-                        .concurrencyDetection(node.nodeEngine.getConcurrencyDetection())
-        );
+        NioNetworking.Context context = new NioNetworking.Context()
+                .loggingService(loggingService)
+                .metricsRegistry(node.nodeEngine.getMetricsRegistry())
+                .threadNamePrefix(node.hazelcastInstance.getName())
+                .errorHandler(errorHandler)
+                .inputThreadCount(props.getInteger(IO_INPUT_THREAD_COUNT))
+                .inputThreadAffinity(newSystemThreadAffinity("hazelcast.io.input.thread.affinity"))
+                .outputThreadCount(props.getInteger(IO_OUTPUT_THREAD_COUNT))
+                .outputThreadAffinity(newSystemThreadAffinity("hazelcast.io.output.thread.affinity"))
+                .balancerIntervalSeconds(props.getInteger(IO_BALANCER_INTERVAL_SECONDS))
+                .balancerAdaptive(props.getBoolean(IO_BALANCER_ADAPTIVE))
+                .writeThroughEnabled(props.getBoolean(IO_WRITE_THROUGH_ENABLED))
+                .writeQueueCapacity(props.getInteger(IO_WRITE_QUEUE_CAPACITY))
+                .writeQueueHighWaterMark(props.getLong(IO_WRITE_QUEUE_HIGH_WATER_MARK_BYTES))
+                .concurrencyDetection(node.nodeEngine.getConcurrencyDetection());
+
+        if (props.getBoolean(IO_TRAFFIC_CLASSES_ENABLED)) {
+            context.writeWeights(props.getInteger(IO_WRITE_INTERACTIVE_WEIGHT), props.getInteger(IO_WRITE_BULK_WEIGHT));
+        }
+
+        OperationExecutorImpl operationExecutor = (OperationExecutorImpl) node.nodeEngine.getOperationService()
+                .getOperationExecutor();
+        if (operationExecutor.isReactorEnabled()) {
+            // every partition thread hosts the event loop of one input thread
+            context.inputThreadCount(operationExecutor.getPartitionThreadCount())
+                    .inputThreadHost(operationExecutor);
+        }
+        return new NioNetworking(context);
     }
 }
@@ -21,8 +21,10 @@ import com.hazelcast.auditlog.impl.NoOpAuditlogService;
 import com.hazelcast.cache.impl.CacheService;
 import com.hazelcast.cache.impl.ICacheService;
 import com.hazelcast.client.impl.ClusterViewListenerService;
+import com.hazelcast.cluster.Address;
 import com.hazelcast.cluster.ClusterState;
 import com.hazelcast.config.AuditlogConfig;
+import com.hazelcast.config.CacheSimpleConfig;
 import com.hazelcast.config.Config;
 import com.hazelcast.config.HotRestartPersistenceConfig;
 import com.hazelcast.config.InstanceTrackingConfig;
@@ -40,10 +42,12 @@ import com.hazelcast.hotrestart.HotRestartService;
 import com.hazelcast.instance.BuildInfo;
 import com.hazelcast.instance.BuildInfoProvider;
 import com.hazelcast.instance.EndpointQualifier;
+import com.hazelcast.instance.ProtocolType;
 import com.hazelcast.internal.ascii.TextCommandService;
 import com.hazelcast.internal.ascii.TextCommandServiceImpl;
 import com.hazelcast.internal.cluster.ClusterStateListener;
 import com.hazelcast.internal.cluster.ClusterVersionListener;
+import com.hazelcast.internal.cluster.impl.ClusterServiceImpl;
 import com.hazelcast.internal.cluster.impl.JoinMessage;
 import com.hazelcast.internal.cluster.impl.VersionMismatchException;
 import com.hazelcast.internal.diagnostics.BuildInfoPlugin;
@@ -70,6 +74,7 @@ import com.hazelcast.internal.dynamicconfig.EmptyDynamicConfigListener;
 import com.hazelcast.internal.hotrestart.InternalHotRestartService;
 import com.hazelcast.internal.hotrestart.NoOpHotRestartService;
 import com.hazelcast.internal.hotrestart.NoopInternalHotRestartService;
+import com.hazelcast.internal.hotrestart.impl.LocalHotRestartService;
 import com.hazelcast.internal.jmx.ManagementService;
 import com.hazelcast.internal.management.TimedMemberStateFactory;
 import com.hazelcast.internal.memory.DefaultMemoryStats;
@@ -116,6 +121,7 @@ import java.util.List;
 import java.util.Map;
 import java.util.UUID;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.function.BooleanSupplier;
 import java.util.function.Function;
 import java.util.function.Supplier;
 
@@ -126,6 +132,7 @@ import static com.hazelcast.config.InstanceTrackingConfig.InstanceTrackingProper
 import static com.hazelcast.config.InstanceTrackingConfig.InstanceTrackingProperties.PRODUCT;
 import static com.hazelcast.config.InstanceTrackingConfig.InstanceTrackingProperties.START_TIMESTAMP;
 import static com.hazelcast.config.InstanceTrackingConfig.InstanceTrackingProperties.VERSION;
+import static com.hazelcast.internal.cluster.Versions.V4_1;
 import static com.hazelcast.internal.util.InstanceTrackingUtil.writeInstanceTrackingFile;
 import static com.hazelcast.map.impl.MapServiceConstructor.getDefaultMapServiceConstructor;
 
@@ -139,6 +146,7 @@ public class DefaultNodeExtension implements NodeExtension {
     protected PhoneHome phoneHome;
 
     private final MemoryStats memoryStats = new DefaultMemoryStats();
+    private final InternalHotRestartService hotRestartService;
 
     public DefaultNodeExtension(Node node) {
         this.node = node;
@@ -147,22 +155,42 @@ public class DefaultNodeExtension implements NodeExtension {
         checkSecurityAllowed();
         checkPersistenceAllowed();
         createAndSetPhoneHome();
+        this.hotRestartService = createHotRestartService();
     }
 
-    private void checkPersistenceAllowed() {
+    /**
+     * Creates the open source hot restart persistence, which persists the
+     * IMap data of the local member only. The features it does not cover
+     * are rejected by {@link #checkPersistenceAllowed()}.
+     */
+    private InternalHotRestartService createHotRestartService() {
         HotRestartPersistenceConfig hotRestartPersistenceConfig = node.getConfig().getHotRestartPersistenceConfig();
         if (hotRestartPersistenceConfig != null && hotRestartPersistenceConfig.isEnabled()) {
-            if (!BuildInfoProvider.getBuildInfo().isEnterprise()) {
-                throw new IllegalStateException("Hot Restart requires Hazelcast Enterprise Edition");
-            }
+            return new LocalHotRestartService(node);
         }
+        return new NoopInternalHotRestartService();
+    }
 
+    private void checkPersistenceAllowed() {
         CPSubsystemConfig cpSubsystemConfig = node.getConfig().getCPSubsystemConfig();
         if (cpSubsystemConfig != null && cpSubsystemConfig.isPersistenceEnabled()) {
             if (!BuildInfoProvider.getBuildInfo().isEnterprise()) {
                 throw new IllegalStateException("CP persistence requires Hazelcast Enterprise Edition");
             }
         }
+        HotRestartPersistenceConfig hotRestartPersistenceConfig = node.getConfig().getHotRestartPersistenceConfig();
+        if (hotRestartPersistenceConfig != null && hotRestartPersistenceConfig.isEnabled()) {
+            if (hotRestartPersistenceConfig.getEncryptionAtRestConfig().isEnabled()
+                    && !BuildInfoProvider.getBuildInfo().isEnterprise()) {
+                throw new IllegalStateException("Hot Restart encryption at rest requires Hazelcast Enterprise Edition");
+            }
+            for (CacheSimpleConfig cacheConfig : node.getConfig().getCacheConfigs().values()) {
+                if (cacheConfig.getHotRestartConfig().isEnabled()
+                        && !BuildInfoProvider.getBuildInfo().isEnterprise()) {
+                    throw new IllegalStateException("Hot Restart of ICache requires Hazelcast Enterprise Edition");
+                }
+            }
+        }
     }
 
     private void checkSecurityAllowed() {
@@ -189,6 +217,9 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public void beforeStart() {
+        if (hotRestartService instanceof LocalHotRestartService) {
+            ((LocalHotRestartService) hotRestartService).prepare();
+        }
     }
 
     @Override
@@ -257,6 +288,9 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public void afterStart() {
+        if (hotRestartService instanceof LocalHotRestartService) {
+            ((LocalHotRestartService) hotRestartService).start();
+        }
     }
 
     @Override
@@ -360,7 +394,26 @@ public class DefaultNodeExtension implements NodeExtension {
     @Override
     public OutboundHandler[] createOutboundHandlers(EndpointQualifier qualifier,
                                                     ServerConnection connection, ServerContext serverContext) {
-        return new OutboundHandler[]{new PacketEncoder()};
+        int gatheringThreshold = node.getProperties().getInteger(PacketEncoder.GATHERING_WRITE_THRESHOLD);
+        BooleanSupplier responseBatchingAllowed = null;
+        if (qualifier.getType() == ProtocolType.MEMBER
+                && node.getProperties().getBoolean(PacketEncoder.RESPONSE_BATCHING_ENABLED)) {
+            responseBatchingAllowed = () -> isResponseBatchingAllowed(connection);
+        }
+        return new OutboundHandler[]{new PacketEncoder(gatheringThreshold, responseBatchingAllowed)};
+    }
+
+    /**
+     * The batched responses can be sent only to the members of this cluster,
+     * not e.g. to the WAN publishers of another one, and only once all of them
+     * are able to split the batches.
+     */
+    private boolean isResponseBatchingAllowed(ServerConnection connection) {
+        Address remoteAddress = connection.getRemoteAddress();
+        ClusterServiceImpl clusterService = node.getClusterService();
+        return remoteAddress != null
+                && clusterService.getMember(remoteAddress) != null
+                && clusterService.getClusterVersion().isGreaterOrEqual(V4_1);
     }
 
     @Override
@@ -385,11 +438,17 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public void beforeShutdown() {
+        if (hotRestartService instanceof LocalHotRestartService) {
+            ((LocalHotRestartService) hotRestartService).beforeShutdown();
+        }
     }
 
     @Override
     public void shutdown() {
         logger.info("Destroying node NodeExtension.");
+        if (hotRestartService instanceof LocalHotRestartService) {
+            ((LocalHotRestartService) hotRestartService).shutdown();
+        }
         if (phoneHome != null) {
             phoneHome.shutdown();
         }
@@ -496,7 +555,7 @@ public class DefaultNodeExtension implements NodeExtension {
 
     @Override
     public InternalHotRestartService getInternalHotRestartService() {
-        return new NoopInternalHotRestartService();
+        return hotRestartService;
     }
 
     @Override
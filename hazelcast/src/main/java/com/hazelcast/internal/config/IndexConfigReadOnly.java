@@ -18,6 +18,7 @@ package com.hazelcast.internal.config;
 
 import com.hazelcast.config.IndexConfig;
 import com.hazelcast.config.IndexType;
+import com.hazelcast.config.SortedIndexStructure;
 
 import java.util.ArrayList;
 import java.util.Collections;
@@ -59,4 +60,9 @@ public class IndexConfigReadOnly extends IndexConfig {
     public IndexConfig setAttributes(List<String> attributes) {
         throw new UnsupportedOperationException("This config is read-only");
     }
+
+    @Override
+    public IndexConfig setSortedIndexStructure(SortedIndexStructure sortedIndexStructure) {
+        throw new UnsupportedOperationException("This config is read-only");
+    }
 }
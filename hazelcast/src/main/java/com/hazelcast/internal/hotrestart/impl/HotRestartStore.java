@@ -0,0 +1,496 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.hotrestart.impl;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+
+import java.io.BufferedInputStream;
+import java.io.DataInputStream;
+import java.io.EOFException;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.StandardOpenOption;
+import java.util.AbstractMap.SimpleImmutableEntry;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.zip.CRC32;
+
+import static com.hazelcast.internal.nio.Bits.BYTE_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.Bits.LONG_SIZE_IN_BYTES;
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static com.hazelcast.internal.nio.IOUtil.deleteQuietly;
+
+/**
+ * Log-structured store of the records of one partition of one map.
+ * <p>
+ * Every mutation is appended to the active chunk file of the partition
+ * directory, removals are recorded as tombstones. A chunk is sealed once
+ * it reaches the configured size and a new active chunk is started. An
+ * in-memory index of key to the location of its latest record tracks
+ * how much of every sealed chunk is garbage, {@link #compact(int)} moves
+ * the live records of mostly-garbage chunks to the active chunk and
+ * deletes them. Tombstones are dropped once no older chunk is left.
+ * <p>
+ * Record layout: {@code payloadLength:int, crc32:int, payload} where the
+ * payload is {@code type:byte, expirationTime:long, keyLength:int, key,
+ * [valueLength:int, value]}. A torn write at the tail of a chunk is
+ * detected by the length and checksum and ignored on reload.
+ * <p>
+ * Writes are done by the partition thread and serialized on the store
+ * instance. The background compaction takes the store monitor only to
+ * pick its candidates and to move one record at a time.
+ */
+public final class HotRestartStore {
+
+    static final String CHUNK_FILE_SUFFIX = ".chunk";
+    static final int DEFAULT_CHUNK_SIZE_MB = 8;
+
+    private static final byte TYPE_VALUE = 1;
+    private static final byte TYPE_TOMBSTONE = 2;
+    private static final int HEADER_SIZE = 2 * INT_SIZE_IN_BYTES;
+    private static final int PAYLOAD_PREFIX_SIZE = BYTE_SIZE_IN_BYTES + LONG_SIZE_IN_BYTES + INT_SIZE_IN_BYTES;
+    private static final int HUNDRED_PERCENT = 100;
+    private static final int INITIAL_BUFFER_SIZE = 1024;
+
+    private final File directory;
+    private final long chunkSize;
+    private final boolean fsync;
+    private final CRC32 crc = new CRC32();
+    private final Map<Data, Slot> index = new HashMap<>();
+    private final List<Chunk> chunks = new ArrayList<>();
+
+    private ByteBuffer writeBuffer = ByteBuffer.allocate(INITIAL_BUFFER_SIZE);
+    private Chunk activeChunk;
+    private long nextChunkSeq;
+    private boolean closed;
+
+    HotRestartStore(File directory, long chunkSize, boolean fsync) {
+        this.directory = directory;
+        this.chunkSize = chunkSize;
+        this.fsync = fsync;
+    }
+
+    /**
+     * Appends the latest value of the given key.
+     */
+    public synchronized void put(Data key, Data value, long expirationTime) {
+        if (closed) {
+            return;
+        }
+        writeRecord(key, value, expirationTime);
+    }
+
+    /**
+     * Appends a tombstone for the given key if any older record of it exists.
+     */
+    public synchronized void remove(Data key) {
+        if (closed) {
+            return;
+        }
+        Slot slot = index.get(key);
+        if (slot == null || slot.tombstone) {
+            return;
+        }
+        writeRecord(key, null, 0);
+    }
+
+    /**
+     * Deletes all records and chunk files, the store stays usable.
+     */
+    public synchronized void clear() {
+        for (Chunk chunk : chunks) {
+            chunk.delete();
+        }
+        chunks.clear();
+        index.clear();
+        activeChunk = null;
+    }
+
+    /**
+     * Closes the chunk files and keeps them on disk to be reloaded.
+     */
+    public synchronized void close() {
+        for (Chunk chunk : chunks) {
+            chunk.close();
+        }
+        closed = true;
+    }
+
+    /**
+     * Deletes all chunk files and the partition directory.
+     */
+    public synchronized void destroy() {
+        clear();
+        deleteQuietly(directory);
+        closed = true;
+    }
+
+    /**
+     * Compacts the sealed chunks which have at least
+     * {@code thresholdPercentage} of garbage.
+     * <p>
+     * The live records of a candidate chunk are read without holding the
+     * store monitor and moved to the active chunk one at a time, so the
+     * partition thread writing to this store waits for at most one record
+     * copy. Records overwritten or removed in the meantime are skipped.
+     *
+     * @return number of compacted chunks
+     */
+    public int compact(int thresholdPercentage) {
+        List<Chunk> candidates = new ArrayList<>();
+        Map<Chunk, List<Map.Entry<Data, Slot>>> liveRecords = new HashMap<>();
+        synchronized (this) {
+            if (closed) {
+                return 0;
+            }
+            for (Chunk chunk : chunks) {
+                if (chunk != activeChunk
+                        && chunk.garbage * HUNDRED_PERCENT >= chunk.size * thresholdPercentage) {
+                    candidates.add(chunk);
+                }
+            }
+            if (candidates.isEmpty()) {
+                return 0;
+            }
+            for (Map.Entry<Data, Slot> entry : index.entrySet()) {
+                Chunk chunk = entry.getValue().chunk;
+                if (candidates.contains(chunk)) {
+                    liveRecords.computeIfAbsent(chunk, c -> new ArrayList<>())
+                            .add(new SimpleImmutableEntry<>(entry.getKey(), entry.getValue()));
+                }
+            }
+        }
+
+        int compacted = 0;
+        for (Chunk candidate : candidates) {
+            List<Map.Entry<Data, Slot>> records = liveRecords.getOrDefault(candidate, Collections.emptyList());
+            if (compact(candidate, records)) {
+                compacted++;
+            }
+        }
+        return compacted;
+    }
+
+    private boolean compact(Chunk candidate, List<Map.Entry<Data, Slot>> records) {
+        List<ByteBuffer> contents = readRecords(candidate, records);
+        if (contents == null) {
+            // the chunk was deleted by a concurrent clear or destroy
+            return false;
+        }
+        for (int i = 0; i < records.size(); i++) {
+            Map.Entry<Data, Slot> record = records.get(i);
+            synchronized (this) {
+                if (closed || !chunks.contains(candidate)) {
+                    return false;
+                }
+                moveToActiveChunk(record.getKey(), record.getValue(), contents.get(i), chunks.get(0) == candidate);
+            }
+        }
+        synchronized (this) {
+            if (closed || !chunks.contains(candidate)) {
+                return false;
+            }
+            candidate.delete();
+            chunks.remove(candidate);
+            return true;
+        }
+    }
+
+    /**
+     * Reads the given records of a sealed chunk through a channel of its
+     * own, sealed chunks are not written anymore.
+     */
+    private static List<ByteBuffer> readRecords(Chunk chunk, List<Map.Entry<Data, Slot>> records) {
+        List<ByteBuffer> contents = new ArrayList<>(records.size());
+        try (FileChannel channel = FileChannel.open(chunk.file.toPath(), StandardOpenOption.READ)) {
+            for (Map.Entry<Data, Slot> record : records) {
+                Slot slot = record.getValue();
+                contents.add(Chunk.read(channel, chunk.file, slot.offset, slot.length));
+            }
+        } catch (NoSuchFileException e) {
+            return null;
+        } catch (IOException e) {
+            throw new HazelcastException("Could not read hot restart chunk " + chunk.file, e);
+        }
+        return contents;
+    }
+
+    synchronized int getChunkCount() {
+        return chunks.size();
+    }
+
+    synchronized long getLiveBytes() {
+        long liveBytes = 0;
+        for (Chunk chunk : chunks) {
+            liveBytes += chunk.size - chunk.garbage;
+        }
+        return liveBytes;
+    }
+
+    private void moveToActiveChunk(Data key, Slot slot, ByteBuffer record, boolean dropTombstone) {
+        if (index.get(key) != slot) {
+            // overwritten or removed since the compaction started
+            return;
+        }
+        if (slot.tombstone && dropTombstone) {
+            // no older chunk can hold a value of this key anymore
+            index.remove(key);
+            return;
+        }
+
+        Chunk chunk = ensureActiveChunk(slot.length);
+        long offset = chunk.append(record, fsync);
+        index.put(key, new Slot(chunk, offset, slot.length, slot.tombstone));
+    }
+
+    private void writeRecord(Data key, Data value, long expirationTime) {
+        byte[] keyBytes = key.toByteArray();
+        byte[] valueBytes = value == null ? null : value.toByteArray();
+        int payloadLength = PAYLOAD_PREFIX_SIZE + keyBytes.length
+                + (valueBytes == null ? 0 : INT_SIZE_IN_BYTES + valueBytes.length);
+        int recordLength = HEADER_SIZE + payloadLength;
+
+        ByteBuffer buffer = writeBuffer(recordLength);
+        buffer.position(HEADER_SIZE);
+        buffer.put(valueBytes == null ? TYPE_TOMBSTONE : TYPE_VALUE);
+        buffer.putLong(expirationTime);
+        buffer.putInt(keyBytes.length);
+        buffer.put(keyBytes);
+        if (valueBytes != null) {
+            buffer.putInt(valueBytes.length);
+            buffer.put(valueBytes);
+        }
+        crc.reset();
+        crc.update(buffer.array(), HEADER_SIZE, payloadLength);
+        buffer.putInt(0, payloadLength);
+        buffer.putInt(INT_SIZE_IN_BYTES, (int) crc.getValue());
+        buffer.flip();
+
+        Chunk chunk = ensureActiveChunk(recordLength);
+        long offset = chunk.append(buffer, fsync);
+        Slot previous = index.put(key, new Slot(chunk, offset, recordLength, valueBytes == null));
+        if (previous != null) {
+            previous.chunk.garbage += previous.length;
+        }
+    }
+
+    private ByteBuffer writeBuffer(int length) {
+        if (writeBuffer.capacity() < length) {
+            writeBuffer = ByteBuffer.allocate(Math.max(length, writeBuffer.capacity() << 1));
+        }
+        writeBuffer.clear();
+        return writeBuffer;
+    }
+
+    private Chunk ensureActiveChunk(int recordLength) {
+        if (activeChunk != null && activeChunk.size + recordLength <= chunkSize) {
+            return activeChunk;
+        }
+        if (activeChunk != null && activeChunk.size == 0) {
+            // a record larger than a chunk gets a chunk on its own
+            return activeChunk;
+        }
+        if (activeChunk != null) {
+            activeChunk.seal();
+        }
+        if (!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+            throw new HazelcastException("Could not create hot restart directory " + directory);
+        }
+        activeChunk = new Chunk(new File(directory, nextChunkSeq++ + CHUNK_FILE_SUFFIX));
+        chunks.add(activeChunk);
+        return activeChunk;
+    }
+
+    /**
+     * Reads all chunk files of a partition directory in the order
+     * they were written and returns the latest value of every live key.
+     */
+    static Map<Data, ReloadedRecord> reload(File directory) throws IOException {
+        Map<Data, ReloadedRecord> records = new LinkedHashMap<>();
+        for (File file : chunkFilesInOrder(directory)) {
+            try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+                readChunk(in, records);
+            }
+        }
+        return records;
+    }
+
+    private static void readChunk(DataInputStream in, Map<Data, ReloadedRecord> records) throws IOException {
+        CRC32 crc = new CRC32();
+        for (; ; ) {
+            byte[] payload;
+            int checksum;
+            try {
+                int payloadLength = in.readInt();
+                checksum = in.readInt();
+                if (payloadLength < PAYLOAD_PREFIX_SIZE) {
+                    return;
+                }
+                payload = new byte[payloadLength];
+                in.readFully(payload);
+            } catch (EOFException e) {
+                // end of chunk or a torn write at its tail
+                return;
+            }
+            crc.reset();
+            crc.update(payload, 0, payload.length);
+            if ((int) crc.getValue() != checksum) {
+                return;
+            }
+
+            ByteBuffer buffer = ByteBuffer.wrap(payload);
+            byte type = buffer.get();
+            long expirationTime = buffer.getLong();
+            Data key = new HeapData(readBytes(buffer));
+            if (type == TYPE_TOMBSTONE) {
+                records.remove(key);
+            } else {
+                records.put(key, new ReloadedRecord(new HeapData(readBytes(buffer)), expirationTime));
+            }
+        }
+    }
+
+    private static byte[] readBytes(ByteBuffer buffer) {
+        byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static List<File> chunkFilesInOrder(File directory) {
+        File[] files = directory.listFiles((dir, name) -> name.endsWith(CHUNK_FILE_SUFFIX));
+        if (files == null) {
+            return new ArrayList<>();
+        }
+        Arrays.sort(files, (f1, f2) -> Long.compare(chunkSeq(f1), chunkSeq(f2)));
+        return Arrays.asList(files);
+    }
+
+    private static long chunkSeq(File file) {
+        String name = file.getName();
+        return Long.parseLong(name.substring(0, name.length() - CHUNK_FILE_SUFFIX.length()));
+    }
+
+    /**
+     * The latest value of a key read back from chunk files.
+     */
+    static final class ReloadedRecord {
+        final Data value;
+        final long expirationTime;
+
+        ReloadedRecord(Data value, long expirationTime) {
+            this.value = value;
+            this.expirationTime = expirationTime;
+        }
+    }
+
+    /**
+     * Location of the latest record of a key.
+     */
+    private static final class Slot {
+        final Chunk chunk;
+        final long offset;
+        final int length;
+        final boolean tombstone;
+
+        Slot(Chunk chunk, long offset, int length, boolean tombstone) {
+            this.chunk = chunk;
+            this.offset = offset;
+            this.length = length;
+            this.tombstone = tombstone;
+        }
+    }
+
+    /**
+     * A chunk file, open for writing while it is the active chunk.
+     */
+    private static final class Chunk {
+        final File file;
+        long size;
+        long garbage;
+        FileChannel channel;
+
+        Chunk(File file) {
+            this.file = file;
+        }
+
+        long append(ByteBuffer record, boolean fsync) {
+            long offset = size;
+            try {
+                FileChannel channel = channel();
+                while (record.hasRemaining()) {
+                    size += channel.write(record, size);
+                }
+                if (fsync) {
+                    channel.force(false);
+                }
+            } catch (IOException e) {
+                throw new HazelcastException("Could not write hot restart chunk " + file, e);
+            }
+            return offset;
+        }
+
+        static ByteBuffer read(FileChannel channel, File file, long offset, int length) throws IOException {
+            ByteBuffer buffer = ByteBuffer.allocate(length);
+            while (buffer.hasRemaining()) {
+                if (channel.read(buffer, offset + buffer.position()) < 0) {
+                    throw new EOFException("Unexpected end of hot restart chunk " + file);
+                }
+            }
+            buffer.flip();
+            return buffer;
+        }
+
+        void seal() {
+            close();
+        }
+
+        void close() {
+            closeResource(channel);
+            channel = null;
+        }
+
+        void delete() {
+            close();
+            deleteQuietly(file);
+        }
+
+        private FileChannel channel() throws IOException {
+            if (channel == null) {
+                channel = new RandomAccessFile(file, "rw").getChannel();
+            }
+            return channel;
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "HotRestartStore{directory=" + directory + '}';
+    }
+}
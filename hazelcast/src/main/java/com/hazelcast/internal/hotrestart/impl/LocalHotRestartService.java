@@ -0,0 +1,454 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.hotrestart.impl;
+
+import com.hazelcast.config.HotRestartPersistenceConfig;
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.instance.impl.Node;
+import com.hazelcast.internal.hotrestart.NoopInternalHotRestartService;
+import com.hazelcast.internal.hotrestart.impl.HotRestartStore.ReloadedRecord;
+import com.hazelcast.internal.partition.InternalPartitionService;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.util.ExceptionUtil;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.HotRestartMutationObserver;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.memory.MemoryUnit;
+import com.hazelcast.spi.impl.InternalCompletableFuture;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.spi.properties.HazelcastProperty;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.UnsupportedEncodingException;
+import java.net.URLDecoder;
+import java.net.URLEncoder;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.internal.nio.IOUtil.deleteQuietly;
+import static com.hazelcast.internal.nio.IOUtil.rename;
+import static com.hazelcast.internal.util.FutureUtil.waitWithDeadline;
+import static com.hazelcast.internal.util.ThreadUtil.createThreadName;
+import static java.util.concurrent.TimeUnit.SECONDS;
+
+/**
+ * Hot Restart persistence of {@link com.hazelcast.map.IMap} data on the
+ * local disk.
+ * <p>
+ * Every member writes the records of the primary replicas it owns of the
+ * maps with hot restart enabled to one {@link HotRestartStore} per map and
+ * partition under {@code <base-dir>/<member-address>/maps}. Backup replicas
+ * are not persisted: a member promoted to the primary replica persists the
+ * whole partition when the promotion is committed and a member losing it
+ * clears its copy, so every record is replayed by exactly one member and a
+ * stale backup can never overwrite the latest value.
+ * <p>
+ * During startup the existing directory is moved aside. After the member
+ * joined, the data is reloaded in the background, in parallel per
+ * partition directory, and put to the current owners of the partitions,
+ * unless the member rejoined the same running cluster, in which case its
+ * data is migrated back by the cluster and the persisted copy is
+ * discarded. A running cluster is recognized by the cluster id persisted
+ * next to the data.
+ * <p>
+ * Member identities and the partition table are not persisted, so
+ * {@link #isEnabled()} keeps returning {@code false} and restarted
+ * members join the cluster as new members.
+ */
+public class LocalHotRestartService extends NoopInternalHotRestartService {
+
+    /**
+     * Size of a chunk file after which a new chunk is started.
+     */
+    public static final HazelcastProperty CHUNK_SIZE_BYTES
+            = new HazelcastProperty("hazelcast.hotrestart.chunk.size.bytes",
+            (int) MemoryUnit.MEGABYTES.toBytes(HotRestartStore.DEFAULT_CHUNK_SIZE_MB));
+
+    /**
+     * Percentage of garbage in a sealed chunk file which makes it
+     * eligible for compaction.
+     */
+    public static final HazelcastProperty COMPACTION_THRESHOLD_PERCENTAGE
+            = new HazelcastProperty("hazelcast.hotrestart.compaction.threshold.percentage", 50);
+
+    /**
+     * Period of the background compaction of chunk files.
+     */
+    public static final HazelcastProperty COMPACTION_PERIOD_SECONDS
+            = new HazelcastProperty("hazelcast.hotrestart.compaction.period.seconds", 10, SECONDS);
+
+    static final String MAPS_DIR_NAME = "maps";
+    static final String CLUSTER_ID_FILE_NAME = "cluster-id";
+    static final String RELOAD_DIR_PREFIX = "reload-";
+
+    private static final int RELOAD_BATCH_SIZE = 1000;
+    private static final int SEQUENCE_ITEMS_PER_RECORD = 3;
+
+    private final Node node;
+    private final ILogger logger;
+    private final HotRestartPersistenceConfig config;
+    private final int chunkSize;
+    private final int compactionThreshold;
+    private final long compactionPeriodSeconds;
+    private final ConcurrentMap<File, HotRestartStore> stores = new ConcurrentHashMap<>();
+    private final AtomicLong compactedChunks = new AtomicLong();
+
+    private volatile File memberDir;
+    private volatile File mapsDir;
+    private volatile File reloadDir;
+    private volatile UUID persistedClusterId;
+    private volatile boolean shuttingDown;
+    private ScheduledFuture<?> compactionFuture;
+    private Thread reloadThread;
+
+    public LocalHotRestartService(Node node) {
+        this.node = node;
+        this.logger = node.getLogger(LocalHotRestartService.class);
+        this.config = node.getConfig().getHotRestartPersistenceConfig();
+        HazelcastProperties properties = node.getProperties();
+        this.chunkSize = properties.getInteger(CHUNK_SIZE_BYTES);
+        this.compactionThreshold = properties.getInteger(COMPACTION_THRESHOLD_PERCENTAGE);
+        this.compactionPeriodSeconds = properties.getSeconds(COMPACTION_PERIOD_SECONDS);
+    }
+
+    /**
+     * Moves the data persisted by the previous run of this member aside
+     * to be reloaded after join. Called before the node services start.
+     */
+    public void prepare() {
+        memberDir = new File(config.getBaseDir(),
+                node.getThisAddress().getHost() + "-" + node.getThisAddress().getPort()).getAbsoluteFile();
+        mapsDir = new File(memberDir, MAPS_DIR_NAME);
+        persistedClusterId = readClusterId();
+        File[] unfinishedReloads = memberDir.listFiles((dir, name) -> name.startsWith(RELOAD_DIR_PREFIX));
+        if (unfinishedReloads != null && unfinishedReloads.length > 0) {
+            // the previous run was interrupted while reloading, retry that reload and drop what it wrote
+            reloadDir = unfinishedReloads[0];
+            deleteQuietly(mapsDir);
+        } else if (mapsDir.exists()) {
+            reloadDir = new File(memberDir, RELOAD_DIR_PREFIX + System.currentTimeMillis());
+            rename(mapsDir, reloadDir);
+        }
+        if (!mapsDir.mkdirs() && !mapsDir.exists()) {
+            throw new HazelcastException("Could not create hot restart directory " + mapsDir);
+        }
+        logger.info("Hot restart data directory is " + memberDir);
+    }
+
+    /**
+     * Starts reloading the persisted data in the background if the cluster
+     * was restarted and starts the background compaction. Called after the
+     * node joined the cluster.
+     */
+    public void start() {
+        File dir = reloadDir;
+        UUID clusterId = node.getClusterService().getClusterId();
+        if (dir != null && clusterId != null && clusterId.equals(persistedClusterId)) {
+            logger.info("Rejoined running cluster " + clusterId + ", discarding persisted hot restart data");
+            deleteQuietly(dir);
+            reloadDir = null;
+        }
+        if (reloadDir == null) {
+            updateClusterId();
+        } else {
+            reloadThread = new Thread(() -> reloadAndUpdateClusterId(dir),
+                    createThreadName(node.hazelcastInstance.getName(), "hot-restart-reload"));
+            reloadThread.start();
+        }
+
+        compactionFuture = node.getNodeEngine().getExecutionService()
+                .scheduleWithRepetition(this::compactAndUpdateClusterId,
+                        compactionPeriodSeconds, compactionPeriodSeconds, SECONDS);
+    }
+
+    /**
+     * Stops writing and closes all chunk files, keeping them for the next
+     * start. Called before the node services are shut down.
+     */
+    public void beforeShutdown() {
+        shuttingDown = true;
+    }
+
+    public void shutdown() {
+        shuttingDown = true;
+        if (reloadThread != null) {
+            reloadThread.interrupt();
+        }
+        if (compactionFuture != null) {
+            compactionFuture.cancel(false);
+        }
+        for (HotRestartStore store : stores.values()) {
+            store.close();
+        }
+        stores.clear();
+    }
+
+    /**
+     * Returns {@code true} once the node started shutting down, from
+     * that point the cleanup of record stores is not persisted anymore.
+     */
+    public boolean isShuttingDown() {
+        return shuttingDown;
+    }
+
+    /**
+     * Returns the store of the given map partition, creating it if needed.
+     */
+    public HotRestartStore getOrCreateStore(String mapName, int partitionId, boolean fsync) {
+        return stores.computeIfAbsent(storeDir(mapName, partitionId), d -> new HotRestartStore(d, chunkSize, fsync));
+    }
+
+    /**
+     * Deletes the store of the given map partition with all its chunk files.
+     */
+    public void destroyStore(String mapName, int partitionId) {
+        HotRestartStore store = stores.remove(storeDir(mapName, partitionId));
+        if (store != null) {
+            store.destroy();
+        }
+    }
+
+    /**
+     * Returns {@code true} if this member owns the primary replica of the
+     * given partition, only primary replicas are persisted.
+     */
+    public boolean isPrimaryReplica(int partitionId) {
+        return node.getPartitionService().getPartition(partitionId, false).isLocal();
+    }
+
+    /**
+     * Persists the whole partition of the given map when this member
+     * became its primary replica and clears the persisted copy when it
+     * stopped being the primary replica. Called on the partition thread
+     * when a migration or promotion of the partition is committed.
+     *
+     * @param recordStore record store of the map partition
+     * @param primary     {@code true} if this member is the primary replica
+     *                    of the partition after the migration
+     * @param fsync       whether the writes are forced to the disk
+     */
+    public void commitMigration(RecordStore recordStore, boolean primary, boolean fsync) {
+        int partitionId = recordStore.getPartitionId();
+        String mapName = recordStore.getName();
+        if (!primary) {
+            HotRestartStore store = stores.get(storeDir(mapName, partitionId));
+            if (store != null) {
+                store.clear();
+            }
+            return;
+        }
+        HotRestartStore store = getOrCreateStore(mapName, partitionId, fsync);
+        store.clear();
+        InternalSerializationService serializationService = node.getSerializationService();
+        recordStore.forEach((BiConsumer<Data, Record>) (key, record)
+                -> HotRestartMutationObserver.persist(store, serializationService, key, record), false, false);
+    }
+
+    boolean isReloading() {
+        return reloadDir != null;
+    }
+
+    long getCompactedChunkCount() {
+        return compactedChunks.get();
+    }
+
+    File getMemberDir() {
+        return memberDir;
+    }
+
+    private File storeDir(String mapName, int partitionId) {
+        return new File(new File(mapsDir, encode(mapName)), Integer.toString(partitionId));
+    }
+
+    private void compactAndUpdateClusterId() {
+        if (reloadDir == null) {
+            // until the reload completed, a restart has to reload the same data again
+            updateClusterId();
+        }
+        for (HotRestartStore store : stores.values()) {
+            if (shuttingDown) {
+                return;
+            }
+            try {
+                compactedChunks.addAndGet(store.compact(compactionThreshold));
+            } catch (Exception e) {
+                logger.warning("Could not compact " + store, e);
+            }
+        }
+    }
+
+    private void reloadAndUpdateClusterId(File dir) {
+        try {
+            reload(dir);
+            deleteQuietly(dir);
+        } catch (Exception e) {
+            if (!shuttingDown) {
+                logger.severe("Could not reload hot restart data from " + dir, e);
+            }
+        } finally {
+            reloadDir = null;
+            updateClusterId();
+        }
+    }
+
+    private void reload(File dir) {
+        long start = System.currentTimeMillis();
+        List<File> partitionDirs = new ArrayList<>();
+        File[] mapDirs = dir.listFiles(File::isDirectory);
+        if (mapDirs != null) {
+            for (File mapDir : mapDirs) {
+                File[] files = mapDir.listFiles(File::isDirectory);
+                if (files != null) {
+                    for (File partitionDir : files) {
+                        partitionDirs.add(partitionDir);
+                    }
+                }
+            }
+        }
+
+        ExecutorService executor = Executors.newFixedThreadPool(Math.max(1, config.getParallelism()),
+                r -> new Thread(r, createThreadName(node.hazelcastInstance.getName(), "hot-restart-reload")));
+        AtomicLong reloadedRecords = new AtomicLong();
+        try {
+            List<Future> futures = new ArrayList<>(partitionDirs.size());
+            for (File partitionDir : partitionDirs) {
+                String mapName = decode(partitionDir.getParentFile().getName());
+                futures.add(executor.submit(() -> reloadedRecords.addAndGet(reloadPartition(mapName, partitionDir))));
+            }
+            waitWithDeadline(futures, config.getDataLoadTimeoutSeconds(), SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+        logger.info("Reloaded " + reloadedRecords.get() + " hot restart records from " + partitionDirs.size()
+                + " partition directories in " + (System.currentTimeMillis() - start) + " ms");
+    }
+
+    private long reloadPartition(String mapName, File partitionDir) throws IOException {
+        Map<Data, ReloadedRecord> records = HotRestartStore.reload(partitionDir);
+        if (records.isEmpty()) {
+            return 0;
+        }
+
+        NodeEngineImpl nodeEngine = node.getNodeEngine();
+        InternalSerializationService serializationService = node.getSerializationService();
+        InternalPartitionService partitionService = node.getPartitionService();
+        long now = System.currentTimeMillis();
+
+        Map<Integer, List<Data>> sequences = new HashMap<>();
+        List<InternalCompletableFuture<Object>> futures = new ArrayList<>();
+        long reloaded = 0;
+        for (Map.Entry<Data, ReloadedRecord> entry : records.entrySet()) {
+            ReloadedRecord record = entry.getValue();
+            if (record.expirationTime <= now) {
+                continue;
+            }
+            int partitionId = partitionService.getPartitionId(entry.getKey());
+            List<Data> sequence = sequences.computeIfAbsent(partitionId, id -> new ArrayList<>());
+            sequence.add(entry.getKey());
+            sequence.add(record.value);
+            sequence.add(serializationService.toData(record.expirationTime));
+            reloaded++;
+            if (sequence.size() >= SEQUENCE_ITEMS_PER_RECORD * RELOAD_BATCH_SIZE) {
+                futures.add(invokePutFromLoadAll(nodeEngine, mapName, partitionId, sequence));
+                sequences.remove(partitionId);
+            }
+        }
+        for (Map.Entry<Integer, List<Data>> entry : sequences.entrySet()) {
+            futures.add(invokePutFromLoadAll(nodeEngine, mapName, entry.getKey(), entry.getValue()));
+        }
+        for (InternalCompletableFuture<Object> future : futures) {
+            future.joinInternal();
+        }
+        return reloaded;
+    }
+
+    private static InternalCompletableFuture<Object> invokePutFromLoadAll(NodeEngineImpl nodeEngine, String mapName,
+                                                                          int partitionId, List<Data> sequence) {
+        MapService mapService = nodeEngine.getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        Operation operation = mapServiceContext.getMapOperationProvider(mapName)
+                .createPutFromLoadAllOperation(mapName, sequence, true);
+        OperationService operationService = nodeEngine.getOperationService();
+        return operationService.invokeOnPartition(MapService.SERVICE_NAME, operation, partitionId);
+    }
+
+    private UUID readClusterId() {
+        File file = new File(memberDir, CLUSTER_ID_FILE_NAME);
+        if (!file.exists()) {
+            return null;
+        }
+        try {
+            return UUID.fromString(new String(Files.readAllBytes(file.toPath()), StandardCharsets.UTF_8).trim());
+        } catch (Exception e) {
+            logger.warning("Could not read " + file, e);
+            return null;
+        }
+    }
+
+    private void updateClusterId() {
+        UUID clusterId = node.getClusterService().getClusterId();
+        if (clusterId == null || clusterId.equals(persistedClusterId)) {
+            return;
+        }
+        File file = new File(memberDir, CLUSTER_ID_FILE_NAME);
+        File tmp = new File(memberDir, CLUSTER_ID_FILE_NAME + ".tmp");
+        try {
+            Files.write(tmp.toPath(), clusterId.toString().getBytes(StandardCharsets.UTF_8));
+            rename(tmp, file);
+            persistedClusterId = clusterId;
+        } catch (IOException e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
+
+    private static String encode(String mapName) {
+        try {
+            return URLEncoder.encode(mapName, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
+
+    private static String decode(String dirName) {
+        try {
+            return URLDecoder.decode(dirName, "UTF-8");
+        } catch (UnsupportedEncodingException e) {
+            throw ExceptionUtil.rethrow(e);
+        }
+    }
+}
@@ -206,10 +206,14 @@ public final class MetricDescriptorConstants {
     // ===[MAP]=========================================================
     public static final String MAP_PREFIX = "map";
     public static final String MAP_PREFIX_INDEX = "map.index";
+    public static final String MAP_PREFIX_INDEX_ADVICE = "map.indexAdvice";
     public static final String MAP_PREFIX_NEARCACHE = "map.nearcache";
+    public static final String MAP_PREFIX_TIERED_STORAGE = "map.tieredStorage";
     public static final String MAP_PREFIX_ENTRY_PROCESSOR_OFFLOADABLE_EXECUTOR = "map.entry.processor.offloadable.executor";
     public static final String MAP_DISCRIMINATOR_NAME = "name";
     public static final String MAP_TAG_INDEX = "index";
+    public static final String MAP_TAG_INDEX_ADVICE_TYPE = "indexType";
+    public static final String MAP_TAG_INDEX_ADVICE_ATTRIBUTES = "attributes";
     public static final String MAP_METRIC_LAST_ACCESS_TIME = "lastAccessTime";
     public static final String MAP_METRIC_LAST_UPDATE_TIME = "lastUpdateTime";
     public static final String MAP_METRIC_HITS = "hits";
@@ -250,7 +254,24 @@ public final class MetricDescriptorConstants {
     public static final String MAP_METRIC_INDEX_TOTAL_UPDATE_LATENCY = "totalUpdateLatency";
     public static final String MAP_METRIC_INDEX_REMOVE_COUNT = "removeCount";
     public static final String MAP_METRIC_INDEX_TOTAL_REMOVE_LATENCY = "totalRemoveLatency";
+    public static final String MAP_METRIC_INDEX_POPULATION_COUNT = "populationCount";
+    public static final String MAP_METRIC_INDEX_POPULATED_ENTRY_COUNT = "populatedEntryCount";
+    public static final String MAP_METRIC_INDEX_TOTAL_POPULATION_LATENCY = "totalPopulationLatency";
     public static final String MAP_METRIC_INDEX_MEMORY_COST = "memoryCost";
+    public static final String MAP_METRIC_INDEX_ADVICE_QUERY_COUNT = "queryCount";
+    public static final String MAP_METRIC_INDEX_ADVICE_SCANNED_ENTRY_COUNT = "scannedEntryCount";
+    public static final String MAP_METRIC_INDEX_ADVICE_MATCHED_ENTRY_COUNT = "matchedEntryCount";
+    public static final String MAP_METRIC_INDEX_ADVICE_ESTIMATED_SAVED_ENTRY_READS = "estimatedSavedEntryReads";
+    public static final String MAP_METRIC_TIERED_STORAGE_HOT_ENTRY_COUNT = "hotEntryCount";
+    public static final String MAP_METRIC_TIERED_STORAGE_COLD_ENTRY_COUNT = "coldEntryCount";
+    public static final String MAP_METRIC_TIERED_STORAGE_HOT_HITS = "hotHits";
+    public static final String MAP_METRIC_TIERED_STORAGE_COLD_HITS = "coldHits";
+    public static final String MAP_METRIC_TIERED_STORAGE_HOT_HIT_RATIO = "hotHitRatio";
+    public static final String MAP_METRIC_TIERED_STORAGE_DEMOTIONS = "demotions";
+    public static final String MAP_METRIC_TIERED_STORAGE_PROMOTIONS = "promotions";
+    public static final String MAP_METRIC_TIERED_STORAGE_COMPACTIONS = "compactions";
+    public static final String MAP_METRIC_TIERED_STORAGE_COLD_LIVE_BYTES = "coldLiveBytes";
+    public static final String MAP_METRIC_TIERED_STORAGE_COLD_FILE_BYTES = "coldFileBytes";
     // ===[/MAP]========================================================
 
     // ===[MEMORY]======================================================
@@ -328,9 +349,17 @@ public final class MetricDescriptorConstants {
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_PENDING_BYTES = "writeQueuePendingBytes";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_WRITE_QUEUE_PENDING_BYTES =
             "priorityWriteQueuePendingBytes";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BULK_WRITE_QUEUE_SIZE = "bulkWriteQueueSize";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BULK_FRAMES_WRITTEN = "bulkFramesWritten";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BULK_WRITE_QUEUE_PENDING_BYTES =
+            "bulkWriteQueuePendingBytes";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_IDLE_TIME_MILLIS = "idleTimeMillis";
     public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_SCHEDULED = "scheduled";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_CALLS = "writeCalls";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_GATHERING_WRITE_CALLS = "gatheringWriteCalls";
+    public static final String NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_FRAMES_PER_WRITE = "framesPerWrite";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_PROCESS_COUNT = "processCount";
+    public static final String NETWORKING_METRIC_NIO_PIPELINE_PROCESS_TIME_NANOS = "processTimeNanos";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_OWNER_ID = "ownerId";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_STARTED_MIGRATIONS = "startedMigrations";
     public static final String NETWORKING_METRIC_NIO_PIPELINE_COMPLETED_MIGRATIONS = "completedMigrations";
@@ -341,6 +370,7 @@ public final class MetricDescriptorConstants {
     public static final String NETWORKING_METRIC_NIO_THREAD_FRAMES_TRANSCEIVED = "framesTransceived";
     public static final String NETWORKING_METRIC_NIO_THREAD_PRIORITY_FRAMES_TRANSCEIVED = "priorityFramesTransceived";
     public static final String NETWORKING_METRIC_NIO_THREAD_PROCESS_COUNT = "processCount";
+    public static final String NETWORKING_METRIC_NIO_THREAD_PROCESS_TIME_NANOS = "processTimeNanos";
     public static final String NETWORKING_METRIC_NIO_THREAD_TASK_QUEUE_SIZE = "taskQueueSize";
     public static final String NETWORKING_METRIC_NIO_THREAD_EVENT_COUNT = "eventCount";
     public static final String NETWORKING_METRIC_NIO_THREAD_SELECTOR_IO_EXCEPTION_COUNT = "selectorIOExceptionCount";
@@ -382,6 +412,7 @@ public final class MetricDescriptorConstants {
     public static final String OPERATION_METRIC_THREAD_COMPLETED_OPERATION_BATCH_COUNT = "completedOperationBatchCount";
     public static final String OPERATION_METRIC_PARTITION_OPERATION_THREAD_NORMAL_PENDING_COUNT = "normalPendingCount";
     public static final String OPERATION_METRIC_PARTITION_OPERATION_THREAD_PRIORITY_PENDING_COUNT = "priorityPendingCount";
+    public static final String OPERATION_METRIC_PARTITION_OPERATION_THREAD_STOLEN_TASK_COUNT = "stolenTaskCount";
     public static final String OPERATION_METRIC_PARKER_PARK_QUEUE_COUNT = "parkQueueCount";
     public static final String OPERATION_METRIC_PARKER_TOTAL_PARKED_OPERATION_COUNT = "totalParkedOperationCount";
     public static final String OPERATION_METRIC_INBOUND_RESPONSE_HANDLER_RESPONSE_QUEUE_SIZE = "responseQueueSize";
@@ -71,6 +71,12 @@ public class GlobalPerIndexStats implements PerIndexStats {
             "removeCount");
     private static final AtomicLongFieldUpdater<GlobalPerIndexStats> TOTAL_REMOVE_LATENCY = newUpdater(GlobalPerIndexStats.class,
             "totalRemoveLatency");
+    private static final AtomicLongFieldUpdater<GlobalPerIndexStats> POPULATION_COUNT = newUpdater(GlobalPerIndexStats.class,
+            "populationCount");
+    private static final AtomicLongFieldUpdater<GlobalPerIndexStats> POPULATED_ENTRY_COUNT = newUpdater(
+            GlobalPerIndexStats.class, "populatedEntryCount");
+    private static final AtomicLongFieldUpdater<GlobalPerIndexStats> TOTAL_POPULATION_LATENCY = newUpdater(
+            GlobalPerIndexStats.class, "totalPopulationLatency");
     private static final AtomicLongFieldUpdater<GlobalPerIndexStats> VALUES_MEMORY_COST = newUpdater(GlobalPerIndexStats.class,
             "valuesMemoryCost");
 
@@ -89,6 +95,9 @@ public class GlobalPerIndexStats implements PerIndexStats {
     private volatile long totalUpdateLatency;
     private volatile long removeCount;
     private volatile long totalRemoveLatency;
+    private volatile long populationCount;
+    private volatile long populatedEntryCount;
+    private volatile long totalPopulationLatency;
     private volatile long valuesMemoryCost;
 
     /**
@@ -173,6 +182,21 @@ public class GlobalPerIndexStats implements PerIndexStats {
         return totalRemoveLatency;
     }
 
+    @Override
+    public long getPopulationCount() {
+        return populationCount;
+    }
+
+    @Override
+    public long getPopulatedEntryCount() {
+        return populatedEntryCount;
+    }
+
+    @Override
+    public long getTotalPopulationLatency() {
+        return totalPopulationLatency;
+    }
+
     @Override
     public long getMemoryCost() {
         return IndexHeapMemoryCostUtil.estimateMapCost(entryCount, ordered, usesCachedQueryableEntries) + valuesMemoryCost;
@@ -223,6 +247,13 @@ public class GlobalPerIndexStats implements PerIndexStats {
         valuesMemoryCost = 0;
     }
 
+    @Override
+    public void onPopulate(long timestamp, long entryCount) {
+        TOTAL_POPULATION_LATENCY.addAndGet(this, Timer.nanosElapsed(timestamp));
+        POPULATED_ENTRY_COUNT.addAndGet(this, entryCount);
+        POPULATION_COUNT.incrementAndGet(this);
+    }
+
     @Override
     public void onIndexHit(long timestamp, long hitCardinality) {
         long localEntryCount = entryCount;
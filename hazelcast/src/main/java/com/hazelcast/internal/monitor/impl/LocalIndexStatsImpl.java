@@ -26,8 +26,11 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRI
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_INSERT_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_MEMORY_COST;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_QUERY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_POPULATED_ENTRY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_POPULATION_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_REMOVE_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_TOTAL_INSERT_LATENCY;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_TOTAL_POPULATION_LATENCY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_TOTAL_REMOVE_LATENCY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_TOTAL_UPDATE_LATENCY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_UPDATE_COUNT;
@@ -76,6 +79,15 @@ public class LocalIndexStatsImpl implements LocalIndexStats {
     @Probe(name = MAP_METRIC_INDEX_TOTAL_REMOVE_LATENCY, unit = NS)
     private volatile long totalRemoveLatency;
 
+    @Probe(name = MAP_METRIC_INDEX_POPULATION_COUNT)
+    private volatile long populationCount;
+
+    @Probe(name = MAP_METRIC_INDEX_POPULATED_ENTRY_COUNT)
+    private volatile long populatedEntryCount;
+
+    @Probe(name = MAP_METRIC_INDEX_TOTAL_POPULATION_LATENCY, unit = NS)
+    private volatile long totalPopulationLatency;
+
     @Probe(name = MAP_METRIC_INDEX_MEMORY_COST, unit = BYTES)
     private volatile long memoryCost;
 
@@ -238,6 +250,54 @@ public class LocalIndexStatsImpl implements LocalIndexStats {
         this.totalRemoveLatency = totalRemoveLatency;
     }
 
+    /**
+     * Returns the population count of this stats.
+     */
+    public long getPopulationCount() {
+        return populationCount;
+    }
+
+    /**
+     * Sets the population count of this stats to the given population count.
+     *
+     * @param populationCount the population count to set.
+     */
+    public void setPopulationCount(long populationCount) {
+        this.populationCount = populationCount;
+    }
+
+    /**
+     * Returns the populated entry count of this stats.
+     */
+    public long getPopulatedEntryCount() {
+        return populatedEntryCount;
+    }
+
+    /**
+     * Sets the populated entry count of this stats to the given populated entry count.
+     *
+     * @param populatedEntryCount the populated entry count to set.
+     */
+    public void setPopulatedEntryCount(long populatedEntryCount) {
+        this.populatedEntryCount = populatedEntryCount;
+    }
+
+    /**
+     * Returns the total population latency of this stats.
+     */
+    public long getTotalPopulationLatency() {
+        return totalPopulationLatency;
+    }
+
+    /**
+     * Sets the total population latency of this stats to the given total population latency.
+     *
+     * @param totalPopulationLatency the total population latency to set.
+     */
+    public void setTotalPopulationLatency(long totalPopulationLatency) {
+        this.totalPopulationLatency = totalPopulationLatency;
+    }
+
     @Override
     public long getMemoryCost() {
         return memoryCost;
@@ -270,6 +330,9 @@ public class LocalIndexStatsImpl implements LocalIndexStats {
         this.totalUpdateLatency = onDemandStats.getTotalUpdateLatency();
         this.removeCount = onDemandStats.getRemoveCount();
         this.totalRemoveLatency = onDemandStats.getTotalRemoveLatency();
+        this.populationCount = onDemandStats.getPopulationCount();
+        this.populatedEntryCount = onDemandStats.getPopulatedEntryCount();
+        this.totalPopulationLatency = onDemandStats.getTotalPopulationLatency();
         this.memoryCost = onDemandStats.getMemoryCost();
     }
 
@@ -287,6 +350,9 @@ public class LocalIndexStatsImpl implements LocalIndexStats {
                 + ", totalUpdateLatency=" + totalUpdateLatency
                 + ", removeCount=" + removeCount
                 + ", totalRemoveLatency=" + totalRemoveLatency
+                + ", populationCount=" + populationCount
+                + ", populatedEntryCount=" + populatedEntryCount
+                + ", totalPopulationLatency=" + totalPopulationLatency
                 + ", memoryCost=" + memoryCost
                 + '}';
     }
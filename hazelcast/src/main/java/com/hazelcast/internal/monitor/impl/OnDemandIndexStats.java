@@ -47,6 +47,12 @@ public class OnDemandIndexStats {
 
     private long totalRemoveLatency;
 
+    private long populationCount;
+
+    private long populatedEntryCount;
+
+    private long totalPopulationLatency;
+
     private long memoryCost;
 
     private long totalHitCount;
@@ -227,6 +233,54 @@ public class OnDemandIndexStats {
         this.totalRemoveLatency = totalRemoveLatency;
     }
 
+    /**
+     * Returns the population count.
+     */
+    public long getPopulationCount() {
+        return populationCount;
+    }
+
+    /**
+     * Sets the population count to the given value.
+     *
+     * @param populationCount the population count value to set.
+     */
+    public void setPopulationCount(long populationCount) {
+        this.populationCount = populationCount;
+    }
+
+    /**
+     * Returns the populated entry count.
+     */
+    public long getPopulatedEntryCount() {
+        return populatedEntryCount;
+    }
+
+    /**
+     * Sets the populated entry count to the given value.
+     *
+     * @param populatedEntryCount the populated entry count value to set.
+     */
+    public void setPopulatedEntryCount(long populatedEntryCount) {
+        this.populatedEntryCount = populatedEntryCount;
+    }
+
+    /**
+     * Returns the total population latency.
+     */
+    public long getTotalPopulationLatency() {
+        return totalPopulationLatency;
+    }
+
+    /**
+     * Sets the total population latency to the given value.
+     *
+     * @param totalPopulationLatency the total population latency value to set.
+     */
+    public void setTotalPopulationLatency(long totalPopulationLatency) {
+        this.totalPopulationLatency = totalPopulationLatency;
+    }
+
     /**
      * Returns the memory cost.
      */
@@ -265,7 +319,9 @@ public class OnDemandIndexStats {
                 + ", queryCount=" + queryCount + ", averageHitSelectivity=" + averageHitSelectivity + ", averageHitLatency="
                 + averageHitLatency + ", insertCount=" + insertCount + ", totalInsertLatency=" + totalInsertLatency
                 + ", updateCount=" + updateCount + ", totalUpdateLatency=" + totalUpdateLatency + ", removeCount=" + removeCount
-                + ", totalRemoveLatency=" + totalRemoveLatency + ", memoryCost=" + memoryCost + ", totalHitCount=" + totalHitCount
+                + ", totalRemoveLatency=" + totalRemoveLatency + ", populationCount=" + populationCount
+                + ", populatedEntryCount=" + populatedEntryCount + ", totalPopulationLatency=" + totalPopulationLatency
+                + ", memoryCost=" + memoryCost + ", totalHitCount=" + totalHitCount
                 + '}';
     }
 
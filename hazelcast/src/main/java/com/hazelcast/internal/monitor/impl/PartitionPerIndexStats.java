@@ -55,6 +55,12 @@ public class PartitionPerIndexStats implements PerIndexStats {
             "removeCount");
     private static final AtomicLongFieldUpdater<PartitionPerIndexStats> TOTAL_REMOVE_LATENCY = newUpdater(
             PartitionPerIndexStats.class, "totalRemoveLatency");
+    private static final AtomicLongFieldUpdater<PartitionPerIndexStats> POPULATION_COUNT = newUpdater(
+            PartitionPerIndexStats.class, "populationCount");
+    private static final AtomicLongFieldUpdater<PartitionPerIndexStats> POPULATED_ENTRY_COUNT = newUpdater(
+            PartitionPerIndexStats.class, "populatedEntryCount");
+    private static final AtomicLongFieldUpdater<PartitionPerIndexStats> TOTAL_POPULATION_LATENCY = newUpdater(
+            PartitionPerIndexStats.class, "totalPopulationLatency");
     private static final AtomicLongFieldUpdater<PartitionPerIndexStats> MEMORY_COST = newUpdater(PartitionPerIndexStats.class,
             "memoryCost");
 
@@ -76,6 +82,9 @@ public class PartitionPerIndexStats implements PerIndexStats {
     private volatile long totalUpdateLatency;
     private volatile long removeCount;
     private volatile long totalRemoveLatency;
+    private volatile long populationCount;
+    private volatile long populatedEntryCount;
+    private volatile long totalPopulationLatency;
     private volatile long memoryCost;
 
     private boolean hasQueries;
@@ -159,6 +168,21 @@ public class PartitionPerIndexStats implements PerIndexStats {
         return totalRemoveLatency;
     }
 
+    @Override
+    public long getPopulationCount() {
+        return populationCount;
+    }
+
+    @Override
+    public long getPopulatedEntryCount() {
+        return populatedEntryCount;
+    }
+
+    @Override
+    public long getTotalPopulationLatency() {
+        return totalPopulationLatency;
+    }
+
     @Override
     public long getMemoryCost() {
         return memoryCost;
@@ -206,6 +230,13 @@ public class PartitionPerIndexStats implements PerIndexStats {
         ENTRY_COUNT.lazySet(this, 0);
     }
 
+    @Override
+    public void onPopulate(long timestamp, long entryCount) {
+        TOTAL_POPULATION_LATENCY.lazySet(this, totalPopulationLatency + Timer.nanosElapsed(timestamp));
+        POPULATED_ENTRY_COUNT.lazySet(this, populatedEntryCount + entryCount);
+        POPULATION_COUNT.lazySet(this, populationCount + 1);
+    }
+
     @Override
     public void onIndexHit(long startNanos, long hitCardinality) {
         // To compute the average hit cardinality we need to track the total
@@ -102,6 +102,21 @@ public interface PerIndexStats {
             return 0;
         }
 
+        @Override
+        public long getPopulationCount() {
+            return 0;
+        }
+
+        @Override
+        public long getPopulatedEntryCount() {
+            return 0;
+        }
+
+        @Override
+        public long getTotalPopulationLatency() {
+            return 0;
+        }
+
         @Override
         public void onInsert(long timestamp, IndexOperationStats operationStats, Index.OperationSource operationSource) {
             // do nothing
@@ -122,6 +137,11 @@ public interface PerIndexStats {
             // do nothing
         }
 
+        @Override
+        public void onPopulate(long timestamp, long entryCount) {
+            // do nothing
+        }
+
         @Override
         public void onIndexHit(long timestamp, long hitCardinality) {
             // do nothing
@@ -245,6 +265,28 @@ public interface PerIndexStats {
      */
     long getMemoryCost();
 
+    /**
+     * Returns the number of bulk populations performed on the index, every
+     * population inserts the entries of a single partition while the index is
+     * being built.
+     */
+    long getPopulationCount();
+
+    /**
+     * Returns the number of entries inserted into the index by bulk
+     * populations.
+     */
+    long getPopulatedEntryCount();
+
+    /**
+     * Returns the total latency (in nanoseconds) of bulk populations performed
+     * on the index.
+     * <p>
+     * To compute the average latency divide the returned value by {@link
+     * #getPopulationCount() population count}.
+     */
+    long getTotalPopulationLatency();
+
     /**
      * Invoked by the associated index after every insert operation.
      *
@@ -285,6 +327,16 @@ public interface PerIndexStats {
      */
     void onClear();
 
+    /**
+     * Invoked by the associated index after every bulk population.
+     *
+     * @param timestamp  the time at which the population was started.
+     * @param entryCount the number of entries inserted by the population.
+     * @see #makeTimestamp
+     * @see com.hazelcast.query.impl.Index#putEntries
+     */
+    void onPopulate(long timestamp, long entryCount);
+
     /**
      * Invoked by the associated index after every index hit.
      * <p>
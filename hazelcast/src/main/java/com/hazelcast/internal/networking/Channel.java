@@ -257,6 +257,19 @@ public interface Channel extends Closeable {
      */
     boolean write(OutboundFrame frame);
 
+    /**
+     * Checks if the frames queued for writing are below the high water mark.
+     *
+     * Frames are never rejected because of a write backlog; this method lets
+     * callers that are able to defer or shed work apply backpressure instead
+     * of letting the backlog grow.
+     *
+     * This method is thread-safe and cheap to make.
+     *
+     * @return true if the write backlog is below the high water mark, false otherwise.
+     */
+    boolean isWritable();
+
     /**
      * Returns current count of bytes read from the Channel.
      * The read values might not reflect the most recent value.
@@ -0,0 +1,59 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking;
+
+import java.nio.ByteBuffer;
+import java.nio.channels.GatheringByteChannel;
+
+/**
+ * An {@link OutboundHandler} able to hand its output over as a sequence of
+ * buffers instead of copying all of it into its destination buffer, e.g.
+ * the payloads of the frames can be referenced directly.
+ *
+ * If the handler is the last one of the pipeline, the pipeline writes the
+ * buffers to the socket with a single {@link GatheringByteChannel#write(
+ * ByteBuffer[], int, int) gathering write}. Otherwise the handler must not
+ * gather, since the next handler consumes the destination buffer only.
+ */
+public interface GatheringOutboundHandler {
+
+    /**
+     * Called by the pipeline whenever the handlers of the pipeline change.
+     *
+     * @param gatheringAllowed {@code true} if the handler is the last one of
+     *                         the pipeline and may gather.
+     */
+    void setGatheringAllowed(boolean gatheringAllowed);
+
+    /**
+     * Returns the buffers to write produced by the last {@link
+     * OutboundHandler#onWrite()} call, the destination buffer of the handler
+     * has nothing remaining in this case. The buffers are written until
+     * nothing remains in them, the handler checks that on the next {@code
+     * onWrite} call.
+     *
+     * @return the buffers, only the first {@link #gatheredCount()} are
+     * valid.
+     */
+    ByteBuffer[] gathered();
+
+    /**
+     * @return the number of the valid {@link #gathered()} buffers, {@code 0}
+     * if the output is in the destination buffer.
+     */
+    int gatheredCount();
+}
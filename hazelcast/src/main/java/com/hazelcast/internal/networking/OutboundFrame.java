@@ -50,6 +50,21 @@ public interface OutboundFrame {
      */
     boolean isUrgent();
 
+    /**
+     * Checks if this Frame carries bulk data, like partition migration data.
+     *
+     * Frames are scheduled in one of three traffic classes: urgent frames are
+     * written before anything else, bulk frames share the remaining bandwidth
+     * with the regular (interactive) frames in a weighted fair way so that large
+     * transfers can't starve regular operations. This is a local property of the
+     * frame on the sending side, it isn't written to the wire.
+     *
+     * @return true if bulk, false otherwise.
+     */
+    default boolean isBulk() {
+        return false;
+    }
+
     /**
      * Returns the frame length. This includes header and payload size.
      *
@@ -51,4 +51,20 @@ public interface MigratablePipeline {
      * @return total load recorded by this pipeline
      */
     long load();
+
+    /**
+     * Get the number of bytes read or written by the current pipeline.
+     *
+     * @return total number of bytes transceived by this pipeline
+     */
+    long bytesTransceived();
+
+    /**
+     * Get the time spent by the owning {@link NioThread NioThreads} processing
+     * the current pipeline. The processing done by other threads, e.g. the
+     * write-through, isn't included.
+     *
+     * @return total processing time in nanoseconds
+     */
+    long processTime();
 }
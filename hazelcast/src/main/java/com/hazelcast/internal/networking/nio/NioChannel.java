@@ -79,6 +79,11 @@ public final class NioChannel extends AbstractChannel {
         return true;
     }
 
+    @Override
+    public boolean isWritable() {
+        return outboundPipeline.isWritable();
+    }
+
     @Override
     public long lastReadTimeMillis() {
         return inboundPipeline.lastReadTimeMillis();
@@ -142,7 +147,7 @@ public final class NioChannel extends AbstractChannel {
 
     @Override
     public long bytesWritten() {
-        return outboundPipeline.bytesWritten();
+        return outboundPipeline.bytesTransceived();
     }
 
     @Override
@@ -43,7 +43,6 @@ import static com.hazelcast.internal.util.collection.ArrayUtils.append;
 import static com.hazelcast.internal.util.collection.ArrayUtils.replaceFirst;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static java.lang.System.currentTimeMillis;
-import static java.lang.Thread.currentThread;
 import static java.nio.channels.SelectionKey.OP_READ;
 
 /**
@@ -69,6 +68,7 @@ public final class NioInboundPipeline extends NioPipeline implements InboundPipe
     private volatile long normalFramesReadLastPublish;
     private volatile long priorityFramesReadLastPublish;
     private volatile long processCountLastPublish;
+    private volatile long processTimeLastPublish;
 
     NioInboundPipeline(NioChannel channel,
                        NioThread owner,
@@ -173,9 +173,14 @@ public final class NioInboundPipeline extends NioPipeline implements InboundPipe
         return bytesRead.get();
     }
 
+    @Override
+    public long bytesTransceived() {
+        return bytesRead.get();
+    }
+
     @Override
     void publishMetrics() {
-        if (currentThread() != owner) {
+        if (!owner.isEventLoopThread()) {
             return;
         }
         // since this is executed by the owner, the owner field can't change while
@@ -184,11 +189,13 @@ public final class NioInboundPipeline extends NioPipeline implements InboundPipe
         owner.framesTransceived += normalFramesRead.get() - normalFramesReadLastPublish;
         owner.priorityFramesTransceived += priorityFramesRead.get() - priorityFramesReadLastPublish;
         owner.processCount += processCount.get() - processCountLastPublish;
+        owner.processTime += processTime.get() - processTimeLastPublish;
 
         bytesReadLastPublish = bytesRead.get();
         normalFramesReadLastPublish = normalFramesRead.get();
         priorityFramesReadLastPublish = priorityFramesRead.get();
         processCountLastPublish = processCount.get();
+        processTimeLastPublish = processTime.get();
     }
 
     @Override
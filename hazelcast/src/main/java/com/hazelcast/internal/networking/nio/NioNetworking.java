@@ -65,6 +65,7 @@ import static com.hazelcast.internal.networking.nio.SelectorMode.SELECT_NOW_STRI
 import static com.hazelcast.internal.networking.nio.SelectorMode.SELECT_WITH_FIX;
 import static com.hazelcast.internal.nio.IOUtil.closeResource;
 import static com.hazelcast.internal.util.HashUtil.hashToIndex;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
 import static com.hazelcast.internal.util.ThreadUtil.createThreadPoolName;
 import static com.hazelcast.internal.util.concurrent.BackoffIdleStrategy.createBackoffIdleStrategy;
 import static java.util.Collections.newSetFromMap;
@@ -99,6 +100,9 @@ import static java.util.logging.Level.FINE;
  */
 public final class NioNetworking implements Networking, DynamicMetricsProvider {
 
+    private static final int DEFAULT_WRITE_QUEUE_CAPACITY = 1024;
+    private static final long DEFAULT_WRITE_QUEUE_HIGH_WATER_MARK = 64L * 1024 * 1024;
+
     private final AtomicBoolean started = new AtomicBoolean();
     private final AtomicInteger nextInputThreadIndex = new AtomicInteger();
     private final AtomicInteger nextOutputThreadIndex = new AtomicInteger();
@@ -108,6 +112,7 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
     private final String threadNamePrefix;
     private final ChannelErrorHandler errorHandler;
     private final int balancerIntervalSeconds;
+    private final boolean balancerAdaptive;
     private final int inputThreadCount;
     private final int outputThreadCount;
     private final Set<NioChannel> channels = newSetFromMap(new ConcurrentHashMap<>());
@@ -120,7 +125,12 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
     private volatile ExecutorService closeListenerExecutor;
     private final ConcurrencyDetection concurrencyDetection;
     private final boolean writeThroughEnabled;
+    private final int writeQueueCapacity;
+    private final long writeQueueHighWaterMark;
+    private final int interactiveWriteWeight;
+    private final int bulkWriteWeight;
     private final ThreadAffinity inputThreadAffinity;
+    private final NioThreadHost inputThreadHost;
     private volatile IOBalancer ioBalancer;
     private volatile NioThread[] inputThreads;
     private volatile NioThread[] outputThreads;
@@ -137,6 +147,7 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
     @Probe(name = NETWORKING_METRIC_NIO_NETWORKING_PACKETS_RECEIVED)
     private volatile long packetsReceived;
 
+    @SuppressWarnings("checkstyle:executablestatementcount")
     public NioNetworking(Context ctx) {
         this.threadNamePrefix = ctx.threadNamePrefix;
         this.metricsRegistry = ctx.metricsRegistry;
@@ -148,10 +159,16 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
         this.inputThreadAffinity = ctx.inputThreadAffinity;
         this.outputThreadAffinity = ctx.outputThreadAffinity;
         this.balancerIntervalSeconds = ctx.balancerIntervalSeconds;
+        this.balancerAdaptive = ctx.balancerAdaptive;
         this.selectorMode = ctx.selectorMode;
         this.selectorWorkaroundTest = ctx.selectorWorkaroundTest;
         this.idleStrategy = ctx.idleStrategy;
         this.concurrencyDetection = ctx.concurrencyDetection;
+        this.writeQueueCapacity = ctx.writeQueueCapacity;
+        this.writeQueueHighWaterMark = ctx.writeQueueHighWaterMark;
+        this.interactiveWriteWeight = ctx.interactiveWriteWeight;
+        this.bulkWriteWeight = ctx.bulkWriteWeight;
+        this.inputThreadHost = ctx.inputThreadHost;
         // selector mode SELECT_WITH_FIX requires that a single thread
         // accesses a selector & its selectionKeys. Selection key wake-up
         // and write through break this requirement, therefore must be
@@ -222,9 +239,14 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
             thread.setSelectorWorkaroundTest(selectorWorkaroundTest);
             thread.setThreadAffinity(inputThreadAffinity);
             inThreads[i] = thread;
-            thread.start();
+            if (inputThreadHost == null) {
+                thread.start();
+            }
         }
         this.inputThreads = inThreads;
+        if (inputThreadHost != null) {
+            inputThreadHost.host(inThreads);
+        }
 
         NioThread[] outThreads = new NioThread[outputThreadCount];
         for (int i = 0; i < outThreads.length; i++) {
@@ -248,7 +270,8 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
     }
 
     private void startIOBalancer() {
-        ioBalancer = new IOBalancer(inputThreads, outputThreads, threadNamePrefix, balancerIntervalSeconds, loggingService);
+        ioBalancer = new IOBalancer(inputThreads, outputThreads, threadNamePrefix, balancerIntervalSeconds,
+                balancerAdaptive, loggingService);
         ioBalancer.start();
     }
 
@@ -333,7 +356,11 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
                 ioBalancer,
                 concurrencyDetection,
                 writeThroughEnabled,
-                selectionKeyWakeupEnabled);
+                selectionKeyWakeupEnabled,
+                writeQueueCapacity,
+                writeQueueHighWaterMark,
+                interactiveWriteWeight,
+                bulkWriteWeight);
     }
 
     private NioInboundPipeline newInboundPipeline(NioChannel channel) {
@@ -482,6 +509,7 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
         private int inputThreadCount = 1;
         private int outputThreadCount = 1;
         private int balancerIntervalSeconds;
+        private boolean balancerAdaptive;
         private ThreadAffinity inputThreadAffinity = ThreadAffinity.DISABLED;
         private ThreadAffinity outputThreadAffinity = ThreadAffinity.DISABLED;
 
@@ -491,6 +519,8 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
         //  selectwithfix:  use Selector.select(timeout) with workaround for bug occurring when
         //                  SelectorImpl.select returns immediately with no channels selected,
         //                  resulting in 100% CPU usage while doing no progress.
+        //  selectbusypoll: spin on Selector.selectNow() for hazelcast.io.busy.poll.micros after
+        //                  the last event before blocking in Selector.select(long timeout).
         // See issue: https://github.com/hazelcast/hazelcast/issues/7943
         // In Hazelcast 3.8, selector mode must be set via HazelcastProperties
         private SelectorMode selectorMode = SelectorMode.getConfiguredValue();
@@ -503,6 +533,18 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
         // this is an optimization that can speed up low threaded setups
         private boolean writeThroughEnabled;
 
+        // the number of frames a write queue holds without allocating, and the
+        // pending bytes above which a channel reports itself as not writable
+        private int writeQueueCapacity = DEFAULT_WRITE_QUEUE_CAPACITY;
+        private long writeQueueHighWaterMark = DEFAULT_WRITE_QUEUE_HIGH_WATER_MARK;
+        // the relative shares of the regular and the bulk frames when both are
+        // pending; if 0, bulk frames aren't separated from the other frames
+        private int interactiveWriteWeight;
+        private int bulkWriteWeight;
+        // if set, the input threads aren't started, but their event loops are
+        // run by the threads of the host
+        private NioThreadHost inputThreadHost;
+
         public Context() {
             String selectorModeString = SelectorMode.getConfiguredString();
             if (selectorModeString.startsWith(SELECT_NOW_STRING + ",")) {
@@ -520,6 +562,27 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
             return this;
         }
 
+        public Context writeQueueCapacity(int writeQueueCapacity) {
+            this.writeQueueCapacity = checkPositive("writeQueueCapacity", writeQueueCapacity);
+            return this;
+        }
+
+        public Context writeQueueHighWaterMark(long writeQueueHighWaterMark) {
+            this.writeQueueHighWaterMark = writeQueueHighWaterMark;
+            return this;
+        }
+
+        public Context writeWeights(int interactiveWriteWeight, int bulkWriteWeight) {
+            this.interactiveWriteWeight = checkPositive("interactiveWriteWeight", interactiveWriteWeight);
+            this.bulkWriteWeight = checkPositive("bulkWriteWeight", bulkWriteWeight);
+            return this;
+        }
+
+        public Context inputThreadHost(NioThreadHost inputThreadHost) {
+            this.inputThreadHost = inputThreadHost;
+            return this;
+        }
+
         public Context concurrencyDetection(ConcurrencyDetection concurrencyDetection) {
             this.concurrencyDetection = concurrencyDetection;
             return this;
@@ -593,5 +656,10 @@ public final class NioNetworking implements Networking, DynamicMetricsProvider {
             this.balancerIntervalSeconds = balancerIntervalSeconds;
             return this;
         }
+
+        public Context balancerAdaptive(boolean balancerAdaptive) {
+            this.balancerAdaptive = balancerAdaptive;
+            return this;
+        }
     }
 }
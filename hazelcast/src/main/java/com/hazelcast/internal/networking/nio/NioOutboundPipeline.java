@@ -19,6 +19,7 @@ package com.hazelcast.internal.networking.nio;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.networking.ChannelErrorHandler;
 import com.hazelcast.internal.networking.ChannelHandler;
+import com.hazelcast.internal.networking.GatheringOutboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.networking.OutboundFrame;
 import com.hazelcast.internal.networking.OutboundHandler;
@@ -31,18 +32,22 @@ import com.hazelcast.logging.ILogger;
 import java.io.IOException;
 import java.nio.ByteBuffer;
 import java.util.Arrays;
-import java.util.Queue;
-import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.atomic.AtomicReference;
 import java.util.function.Supplier;
 
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BULK_FRAMES_WRITTEN;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BULK_WRITE_QUEUE_PENDING_BYTES;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BULK_WRITE_QUEUE_SIZE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_WRITTEN;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_FRAMES_PER_WRITE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_GATHERING_WRITE_CALLS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_IDLE_TIME_MILLIS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_NORMAL_FRAMES_WRITTEN;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_FRAMES_WRITTEN;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_WRITE_QUEUE_PENDING_BYTES;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_WRITE_QUEUE_SIZE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_SCHEDULED;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_CALLS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_PENDING_BYTES;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_SIZE;
 import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
@@ -55,14 +60,18 @@ import static com.hazelcast.internal.util.collection.ArrayUtils.append;
 import static com.hazelcast.internal.util.collection.ArrayUtils.replaceFirst;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static java.lang.Math.max;
+import static java.lang.Math.min;
 import static java.lang.System.currentTimeMillis;
-import static java.lang.Thread.currentThread;
 import static java.nio.channels.SelectionKey.OP_WRITE;
 
+@SuppressWarnings("checkstyle:methodcount")
 public final class NioOutboundPipeline
         extends NioPipeline
         implements Supplier<OutboundFrame>, OutboundPipeline {
 
+    // the number of bytes a weight of 1 adds to the deficit of a traffic class per round
+    static final int WRITE_QUANTUM_BYTES = 16 * 1024;
+
     public enum State {
         /*
          * The pipeline isn't scheduled (nothing to do).
@@ -105,13 +114,18 @@ public final class NioOutboundPipeline
 
     @SuppressWarnings("checkstyle:visibilitymodifier")
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_SIZE)
-    public final Queue<OutboundFrame> writeQueue = new ConcurrentLinkedQueue<>();
+    public final OutboundFrameQueue writeQueue;
     @SuppressWarnings("checkstyle:visibilitymodifier")
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_WRITE_QUEUE_SIZE)
-    public final Queue<OutboundFrame> priorityWriteQueue = new ConcurrentLinkedQueue<>();
+    public final OutboundFrameQueue priorityWriteQueue;
+    @SuppressWarnings("checkstyle:visibilitymodifier")
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BULK_WRITE_QUEUE_SIZE)
+    public final OutboundFrameQueue bulkWriteQueue;
 
     private OutboundHandler[] handlers = new OutboundHandler[0];
     private ByteBuffer sendBuffer;
+    // the last handler, if it hands its output over in gathered buffers
+    private GatheringOutboundHandler gatheringHandler;
 
     private final AtomicReference<State> scheduled = new AtomicReference<>(State.SCHEDULED);
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BYTES_WRITTEN, unit = BYTES)
@@ -120,17 +134,33 @@ public final class NioOutboundPipeline
     private final SwCounter normalFramesWritten = newSwCounter();
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_FRAMES_WRITTEN)
     private final SwCounter priorityFramesWritten = newSwCounter();
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BULK_FRAMES_WRITTEN)
+    private final SwCounter bulkFramesWritten = newSwCounter();
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_CALLS)
+    private final SwCounter writeCalls = newSwCounter();
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_GATHERING_WRITE_CALLS)
+    private final SwCounter gatheringWriteCalls = newSwCounter();
 
     private volatile long lastWriteTime;
 
     private long bytesWrittenLastPublish;
     private long normalFramesWrittenLastPublish;
     private long priorityFramesWrittenLastPublish;
+    private long bulkFramesWrittenLastPublish;
     private long processCountLastPublish;
+    private long processTimeLastPublish;
     private final ConcurrencyDetection concurrencyDetection;
     private final boolean writeThroughEnabled;
     private final boolean selectionKeyWakeupEnabled;
-
+    private final long writeQueueHighWaterMark;
+    // the deficit round robin state between the regular (interactive) and the
+    // bulk frames; bulk frames aren't separated if the bulk quantum is 0
+    private final int interactiveQuantum;
+    private final int bulkQuantum;
+    private long interactiveDeficit;
+    private long bulkDeficit;
+
+    @SuppressWarnings("checkstyle:parameternumber")
     NioOutboundPipeline(NioChannel channel,
                         NioThread owner,
                         ChannelErrorHandler errorHandler,
@@ -138,11 +168,21 @@ public final class NioOutboundPipeline
                         IOBalancer balancer,
                         ConcurrencyDetection concurrencyDetection,
                         boolean writeThroughEnabled,
-                        boolean selectionKeyWakeupEnabled) {
+                        boolean selectionKeyWakeupEnabled,
+                        int writeQueueCapacity,
+                        long writeQueueHighWaterMark,
+                        int interactiveWeight,
+                        int bulkWeight) {
         super(channel, owner, errorHandler, OP_WRITE, logger, balancer);
         this.concurrencyDetection = concurrencyDetection;
         this.writeThroughEnabled = writeThroughEnabled;
         this.selectionKeyWakeupEnabled = selectionKeyWakeupEnabled;
+        this.writeQueue = new OutboundFrameQueue(writeQueueCapacity);
+        this.priorityWriteQueue = new OutboundFrameQueue(writeQueueCapacity);
+        this.bulkWriteQueue = new OutboundFrameQueue(writeQueueCapacity);
+        this.writeQueueHighWaterMark = writeQueueHighWaterMark;
+        this.interactiveQuantum = interactiveWeight * WRITE_QUANTUM_BYTES;
+        this.bulkQuantum = bulkWeight * WRITE_QUANTUM_BYTES;
     }
 
     @Override
@@ -153,14 +193,14 @@ public final class NioOutboundPipeline
             case LOAD_BALANCING_BYTE:
                 return bytesWritten.get();
             case LOAD_BALANCING_FRAME:
-                return normalFramesWritten.get() + priorityFramesWritten.get();
+                return normalFramesWritten.get() + priorityFramesWritten.get() + bulkFramesWritten.get();
             default:
                 throw new RuntimeException();
         }
     }
 
     public int totalFramesPending() {
-        return writeQueue.size() + priorityWriteQueue.size();
+        return writeQueue.size() + priorityWriteQueue.size() + bulkWriteQueue.size();
     }
 
     public long lastWriteTimeMillis() {
@@ -169,20 +209,28 @@ public final class NioOutboundPipeline
 
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_WRITE_QUEUE_PENDING_BYTES, level = DEBUG, unit = BYTES)
     public long bytesPending() {
-        return bytesPending(writeQueue);
+        return writeQueue.bytesPending();
     }
 
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_PRIORITY_WRITE_QUEUE_PENDING_BYTES, level = DEBUG, unit = BYTES)
     public long priorityBytesPending() {
-        return bytesPending(priorityWriteQueue);
+        return priorityWriteQueue.bytesPending();
     }
 
-    private long bytesPending(Queue<OutboundFrame> writeQueue) {
-        long bytesPending = 0;
-        for (OutboundFrame frame : writeQueue) {
-            bytesPending += frame.getFrameLength();
-        }
-        return bytesPending;
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_BULK_WRITE_QUEUE_PENDING_BYTES, level = DEBUG, unit = BYTES)
+    public long bulkBytesPending() {
+        return bulkWriteQueue.bytesPending();
+    }
+
+    /**
+     * Checks if the bytes pending in the (normal) write queue are below the
+     * high water mark. Writes are never rejected because of the backlog; this
+     * only lets callers that are able to hold back work do so.
+     *
+     * @return true if the write queue is below the high water mark.
+     */
+    public boolean isWritable() {
+        return writeQueue.bytesPending() < writeQueueHighWaterMark;
     }
 
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_IDLE_TIME_MILLIS, unit = MS)
@@ -190,13 +238,22 @@ public final class NioOutboundPipeline
         return max(currentTimeMillis() - lastWriteTime, 0);
     }
 
+    @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_FRAMES_PER_WRITE)
+    private double framesPerWrite() {
+        long writes = writeCalls.get();
+        long frames = normalFramesWritten.get() + priorityFramesWritten.get() + bulkFramesWritten.get();
+        return writes == 0 ? 0 : (double) frames / writes;
+    }
+
     @Probe(name = NETWORKING_METRIC_NIO_OUTBOUND_PIPELINE_SCHEDULED)
     private long scheduled() {
         return scheduled.get().ordinal();
     }
 
     public void write(OutboundFrame frame) {
-        if (frame.isUrgent()) {
+        if (bulkQuantum > 0 && frame.isBulk()) {
+            bulkWriteQueue.offer(frame);
+        } else if (frame.isUrgent()) {
             priorityWriteQueue.offer(frame);
         } else {
             writeQueue.offer(frame);
@@ -270,18 +327,55 @@ public final class NioOutboundPipeline
     @Override
     public OutboundFrame get() {
         OutboundFrame frame = priorityWriteQueue.poll();
-        if (frame == null) {
-            frame = writeQueue.poll();
+        if (frame != null) {
+            priorityFramesWritten.inc();
+            return frame;
+        }
 
-            if (frame == null) {
+        // the queues have a single consumer, so the peeked frames are the ones polled
+        frame = writeQueue.peek();
+        OutboundFrame bulkFrame = bulkWriteQueue.peek();
+        if (frame == null || bulkFrame == null) {
+            // no competition, so nothing to account for
+            interactiveDeficit = 0;
+            bulkDeficit = 0;
+            if (frame == null && bulkFrame == null) {
                 return null;
             }
+        }
+
+        if (bulkFrame == null
+                || frame != null && nextIsInteractive(frame.getFrameLength(), bulkFrame.getFrameLength())) {
             normalFramesWritten.inc();
-        } else {
-            priorityFramesWritten.inc();
+            return writeQueue.poll();
+        }
+        bulkFramesWritten.inc();
+        return bulkWriteQueue.poll();
+    }
+
+    /**
+     * Deficit round robin between the interactive and the bulk frames. Instead
+     * of visiting the classes round by round, the deficits are topped up at once
+     * with the number of rounds needed before one of the head frames fits.
+     */
+    private boolean nextIsInteractive(int interactiveLength, int bulkLength) {
+        if (interactiveLength > interactiveDeficit && bulkLength > bulkDeficit) {
+            long rounds = min(ceilDiv(interactiveLength - interactiveDeficit, interactiveQuantum),
+                    ceilDiv(bulkLength - bulkDeficit, bulkQuantum));
+            interactiveDeficit += rounds * interactiveQuantum;
+            bulkDeficit += rounds * bulkQuantum;
         }
 
-        return frame;
+        if (interactiveLength <= interactiveDeficit) {
+            interactiveDeficit -= interactiveLength;
+            return true;
+        }
+        bulkDeficit -= bulkLength;
+        return false;
+    }
+
+    private static long ceilDiv(long value, int divisor) {
+        return (value + divisor - 1) / divisor;
     }
 
     // is never called concurrently!
@@ -316,7 +410,7 @@ public final class NioOutboundPipeline
             return;
         }
 
-        if (sendBuffer.remaining() > 0) {
+        if (sendBuffer.remaining() > 0 || gatheredRemaining()) {
             pipelineStatus = DIRTY;
         }
 
@@ -400,7 +494,7 @@ public final class NioOutboundPipeline
 
             // we manage to unschedule the pipeline. From this point on we have released ownership of the pipeline
             // and another thread could call the process method.
-            if (writeQueue.isEmpty() && priorityWriteQueue.isEmpty()) {
+            if (writeQueue.isEmpty() && priorityWriteQueue.isEmpty() && bulkWriteQueue.isEmpty()) {
                 //pipeline is clean, we are done.
                 return;
             }
@@ -422,35 +516,71 @@ public final class NioOutboundPipeline
 
     private void flushToSocket() throws IOException {
         lastWriteTime = currentTimeMillis();
-        int written = socketChannel.write(sendBuffer);
+        int gatheredCount = gatheringHandler == null ? 0 : gatheringHandler.gatheredCount();
+        long written;
+        if (gatheredCount > 0) {
+            written = socketChannel.write(gatheringHandler.gathered(), 0, gatheredCount);
+            gatheringWriteCalls.inc();
+        } else if (sendBuffer.hasRemaining()) {
+            written = socketChannel.write(sendBuffer);
+        } else {
+            return;
+        }
+        writeCalls.inc();
         bytesWritten.inc(written);
         //System.out.println(channel + " bytes written:" + written);
     }
 
+    private boolean gatheredRemaining() {
+        int gatheredCount = gatheringHandler == null ? 0 : gatheringHandler.gatheredCount();
+        ByteBuffer[] gathered = gatheredCount == 0 ? null : gatheringHandler.gathered();
+        for (int i = 0; i < gatheredCount; i++) {
+            if (gathered[i].hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
     void drainWriteQueues() {
-        writeQueue.clear();
-        priorityWriteQueue.clear();
+        // The write queues allow only a single consumer, so they are only drained
+        // if no other thread owns the pipeline. Otherwise the remaining frames are
+        // released together with the closed channel.
+        if (scheduled.compareAndSet(State.UNSCHEDULED, State.SCHEDULED)) {
+            writeQueue.clear();
+            priorityWriteQueue.clear();
+            bulkWriteQueue.clear();
+        }
     }
 
-    long bytesWritten() {
+    @Override
+    public long bytesTransceived() {
         return bytesWritten.get();
     }
 
+    long gatheringWriteCalls() {
+        return gatheringWriteCalls.get();
+    }
+
     @Override
     protected void publishMetrics() {
-        if (currentThread() != owner) {
+        if (!owner.isEventLoopThread()) {
             return;
         }
 
         owner.bytesTransceived += bytesWritten.get() - bytesWrittenLastPublish;
-        owner.framesTransceived += normalFramesWritten.get() - normalFramesWrittenLastPublish;
+        owner.framesTransceived += normalFramesWritten.get() - normalFramesWrittenLastPublish
+                + bulkFramesWritten.get() - bulkFramesWrittenLastPublish;
         owner.priorityFramesTransceived += priorityFramesWritten.get() - priorityFramesWrittenLastPublish;
         owner.processCount += processCount.get() - processCountLastPublish;
+        owner.processTime += processTime.get() - processTimeLastPublish;
 
         bytesWrittenLastPublish = bytesWritten.get();
         normalFramesWrittenLastPublish = normalFramesWritten.get();
         priorityFramesWrittenLastPublish = priorityFramesWritten.get();
+        bulkFramesWrittenLastPublish = bulkFramesWritten.get();
         processCountLastPublish = processCount.get();
+        processTimeLastPublish = processTime.get();
     }
 
     @Override
@@ -499,6 +629,16 @@ public final class NioOutboundPipeline
     private void updatePipeline(OutboundHandler[] newHandlers) {
         this.handlers = newHandlers;
         this.sendBuffer = newHandlers.length == 0 ? null : (ByteBuffer) newHandlers[newHandlers.length - 1].dst();
+        this.gatheringHandler = null;
+        for (int k = 0; k < newHandlers.length; k++) {
+            if (newHandlers[k] instanceof GatheringOutboundHandler) {
+                boolean last = k == newHandlers.length - 1;
+                ((GatheringOutboundHandler) newHandlers[k]).setGatheringAllowed(last);
+                if (last) {
+                    gatheringHandler = (GatheringOutboundHandler) newHandlers[k];
+                }
+            }
+        }
 
         OutboundHandler prev = null;
         for (OutboundHandler handler : handlers) {
@@ -35,8 +35,10 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKIN
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_PIPELINE_OPS_READY;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_PIPELINE_OWNER_ID;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_PIPELINE_PROCESS_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_PIPELINE_PROCESS_TIME_NANOS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_PIPELINE_STARTED_MIGRATIONS;
 import static com.hazelcast.internal.metrics.ProbeLevel.DEBUG;
+import static com.hazelcast.internal.metrics.ProbeUnit.NS;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static java.lang.Thread.currentThread;
 
@@ -52,6 +54,9 @@ public abstract class NioPipeline implements MigratablePipeline, Runnable {
     // the number of time the NioPipeline.process() method has been called.
     @Probe(name = NETWORKING_METRIC_NIO_PIPELINE_PROCESS_COUNT)
     protected final SwCounter processCount = newSwCounter();
+    // the time spent by the owning NioThread in the NioPipeline.process() method.
+    @Probe(name = NETWORKING_METRIC_NIO_PIPELINE_PROCESS_TIME_NANOS, unit = NS)
+    protected final SwCounter processTime = newSwCounter();
     protected final ILogger logger;
     protected final NioChannel channel;
     protected final SocketChannel socketChannel;
@@ -120,6 +125,11 @@ public abstract class NioPipeline implements MigratablePipeline, Runnable {
         return owner;
     }
 
+    @Override
+    public long processTime() {
+        return processTime.get();
+    }
+
     void start() {
         owner.addTaskAndWakeup(() -> {
             try {
@@ -165,6 +175,15 @@ public abstract class NioPipeline implements MigratablePipeline, Runnable {
      */
     abstract void process() throws Exception;
 
+    /**
+     * Records the time spent by the owning {@link NioThread} in {@link #process()}.
+     *
+     * @param nanos the time in nanoseconds
+     */
+    void addProcessTime(long nanos) {
+        processTime.inc(nanos);
+    }
+
     /**
      * Adds a task to be executed on the {@link NioThread owner}.
      * <p>
@@ -225,11 +244,14 @@ public abstract class NioPipeline implements MigratablePipeline, Runnable {
 
     @Override
     public final void run() {
-        if (owner == currentThread()) {
+        if (owner.isEventLoopThread()) {
+            long startNanos = System.nanoTime();
             try {
                 process();
             } catch (Throwable t) {
                 onError(t);
+            } finally {
+                addProcessTime(System.nanoTime() - startNanos);
             }
         } else {
             // the pipeline is executed on the wrong IOThread, so send the
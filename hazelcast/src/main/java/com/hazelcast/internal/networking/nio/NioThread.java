@@ -34,6 +34,7 @@ import java.util.Iterator;
 import java.util.Queue;
 import java.util.Random;
 import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.function.BooleanSupplier;
 
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_BYTES_TRANSCEIVED;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_COMPLETED_TASK_COUNT;
@@ -43,18 +44,24 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKIN
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_IO_THREAD_ID;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_PRIORITY_FRAMES_TRANSCEIVED;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_PROCESS_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_PROCESS_TIME_NANOS;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_SELECTOR_IO_EXCEPTION_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_SELECTOR_REBUILD_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.NETWORKING_METRIC_NIO_THREAD_TASK_QUEUE_SIZE;
 import static com.hazelcast.internal.metrics.MetricTarget.MANAGEMENT_CENTER;
 import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
 import static com.hazelcast.internal.metrics.ProbeUnit.MS;
+import static com.hazelcast.internal.metrics.ProbeUnit.NS;
+import static com.hazelcast.internal.networking.nio.SelectorMode.SELECT_BUSY_POLL;
 import static com.hazelcast.internal.networking.nio.SelectorMode.SELECT_NOW;
 import static com.hazelcast.internal.networking.nio.SelectorOptimizer.newSelector;
 import static com.hazelcast.internal.util.EmptyStatement.ignore;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 import static java.lang.Math.max;
 import static java.lang.System.currentTimeMillis;
+import static java.lang.System.nanoTime;
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.TimeUnit.MICROSECONDS;
 
 @ExcludedMetricTargets(MANAGEMENT_CENTER)
 public class NioThread extends HazelcastManagedThread implements OperationHostileThread {
@@ -62,6 +69,10 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
     // WARNING: This value has significant effect on idle CPU usage!
     private static final int SELECT_WAIT_TIME_MILLIS
             = Integer.getInteger("hazelcast.io.select.wait.time.millis", 5000);
+    // How long the thread keeps spinning on selectNow after the last event
+    // before it blocks on the selector; only used with SELECT_BUSY_POLL.
+    private static final long BUSY_POLL_NANOS
+            = MICROSECONDS.toNanos(Long.getLong("hazelcast.io.busy.poll.micros", 50));
     private static final int SELECT_FAILURE_PAUSE_MILLIS = 1000;
     // When we detect Selector.select returning prematurely
     // for more than SELECT_IDLE_COUNT_THRESHOLD then we rebuild the selector
@@ -86,6 +97,8 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
     volatile long priorityFramesTransceived;
     @Probe(name = NETWORKING_METRIC_NIO_THREAD_PROCESS_COUNT)
     volatile long processCount;
+    @Probe(name = NETWORKING_METRIC_NIO_THREAD_PROCESS_TIME_NANOS, unit = NS)
+    volatile long processTime;
 
     @Probe(name = NETWORKING_METRIC_NIO_THREAD_TASK_QUEUE_SIZE)
     private final Queue<Runnable> taskQueue = new ConcurrentLinkedQueue<>();
@@ -114,6 +127,14 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
 
     private volatile boolean stop;
 
+    // set while a SELECT_BUSY_POLL thread is blocked (or about to block) on
+    // the selector, so that only then producers need to pay for a wakeup
+    private volatile boolean parked;
+
+    // the thread running the event loop if this NioThread isn't started itself,
+    // but is hosted by another thread; see runHosted
+    private volatile Thread host;
+
     // set to true while testing
     private boolean selectorWorkaroundTest;
 
@@ -166,6 +187,10 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
         return processCount;
     }
 
+    public long processTime() {
+        return processTime;
+    }
+
     public long eventCount() {
         return eventCount.get();
     }
@@ -221,9 +246,60 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
      */
     public void addTaskAndWakeup(Runnable task) {
         taskQueue.add(task);
-        if (selectMode != SELECT_NOW) {
-            selector.wakeup();
+        if (host == null && (selectMode == SELECT_NOW || (selectMode == SELECT_BUSY_POLL && !parked))) {
+            // the thread is spinning and will pick up the task without a wakeup
+            return;
         }
+        selector.wakeup();
+    }
+
+    /**
+     * Checks if the calling thread runs the event loop of this NioThread: the
+     * NioThread itself, or the thread hosting its event loop.
+     */
+    boolean isEventLoopThread() {
+        Thread current = currentThread();
+        return current == this || current == host;
+    }
+
+    /**
+     * Runs a single iteration of the event loop on the calling thread. This is
+     * used instead of starting this NioThread when its event loop is hosted by
+     * another thread, e.g. a partition thread in reactor mode. It should always
+     * be called by that same thread.
+     *
+     * @param mayBlock checked after the pending tasks are processed; if it
+     *                 returns true, the selector blocks until there is an event
+     *                 or a wakeup, otherwise it is only polled.
+     * @return false if this NioThread has been shut down or failed and the
+     * event loop shouldn't be run anymore, true otherwise.
+     */
+    public boolean runHosted(BooleanSupplier mayBlock) {
+        if (host == null) {
+            host = currentThread();
+        }
+
+        try {
+            if (!stop) {
+                processTaskQueue();
+                int selectedKeys = mayBlock.getAsBoolean()
+                        ? selector.select(SELECT_WAIT_TIME_MILLIS)
+                        : selector.selectNow();
+                if (selectedKeys > 0) {
+                    processSelectionKeys();
+                }
+                return true;
+            }
+        } catch (IOException nonFatalException) {
+            selectorIOExceptionCount.inc();
+            logger.warning(getName() + " " + nonFatalException.toString(), nonFatalException);
+            return true;
+        } catch (Throwable e) {
+            stop = true;
+            errorHandler.onError(null, e);
+        }
+        closeSelector();
+        return false;
     }
 
     @Override
@@ -245,13 +321,16 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
                         case SELECT_NOW:
                             selectNowLoop();
                             break;
+                        case SELECT_BUSY_POLL:
+                            busyPollLoop();
+                            break;
                         case SELECT:
                             selectLoop();
                             break;
                         default:
                             throw new IllegalArgumentException("Selector.select mode not set, use -Dhazelcast.io.selectorMode="
-                                    + "{select|selectnow|selectwithfix} to explicitly specify select mode or leave empty for "
-                                    + "default select mode.");
+                                    + "{select|selectnow|selectwithfix|selectbusypoll} to explicitly specify select mode or "
+                                    + "leave empty for default select mode.");
                     }
                     // break the for loop; we are done
                     break;
@@ -345,6 +424,36 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
         }
     }
 
+    private void busyPollLoop() throws IOException {
+        long lastActiveNanos = nanoTime();
+        while (!stop) {
+            boolean tasksProcessed = processTaskQueue();
+
+            int selectedKeys = selector.selectNow();
+
+            if (selectedKeys > 0) {
+                processSelectionKeys();
+                lastActiveNanos = nanoTime();
+            } else if (tasksProcessed) {
+                lastActiveNanos = nanoTime();
+            } else if (nanoTime() - lastActiveNanos >= BUSY_POLL_NANOS) {
+                // The spin budget is exhausted; block until there is work. The
+                // parked flag is published before the task queue is re-checked,
+                // and addTaskAndWakeup reads it after offering the task, so
+                // either we see the task or the producer sees the flag.
+                parked = true;
+                try {
+                    if (taskQueue.isEmpty() && selector.select(SELECT_WAIT_TIME_MILLIS) > 0) {
+                        processSelectionKeys();
+                    }
+                } finally {
+                    parked = false;
+                }
+                lastActiveNanos = nanoTime();
+            }
+        }
+    }
+
     private boolean processTaskQueue() {
         boolean tasksProcessed = false;
         while (!stop) {
@@ -380,7 +489,12 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
             // we don't need to check for sk.isReadable/sk.isWritable since the pipeline has only registered
             // for events it can handle.
             eventCount.inc();
-            pipeline.process();
+            long startNanos = System.nanoTime();
+            try {
+                pipeline.process();
+            } finally {
+                pipeline.addProcessTime(System.nanoTime() - startNanos);
+            }
         } catch (Throwable t) {
              pipeline.onError(t);
         }
@@ -402,6 +516,16 @@ public class NioThread extends HazelcastManagedThread implements OperationHostil
         stop = true;
         taskQueue.clear();
         interrupt();
+
+        Thread host = this.host;
+        if (host != null) {
+            // the hosting thread closes the selector once it notices the
+            // shutdown, unless it is gone already
+            selector.wakeup();
+            if (!host.isAlive()) {
+                closeSelector();
+            }
+        }
     }
 
     // this method is always invoked in this thread
@@ -0,0 +1,36 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio;
+
+/**
+ * Runs the event loops of {@link NioThread}s on threads that aren't owned by
+ * the {@link NioNetworking}. The hosted NioThreads are never started; their
+ * event loops are run using {@link NioThread#runHosted}.
+ */
+@FunctionalInterface
+public interface NioThreadHost {
+
+    /**
+     * Takes over the event loops of the given threads. The event loop of each
+     * of them should be run by exactly one thread.
+     *
+     * This method is called every time the networking is (re)started.
+     *
+     * @param threads the threads to host.
+     */
+    void host(NioThread[] threads);
+}
@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.internal.networking.OutboundFrame;
+import com.hazelcast.internal.util.concurrent.ManyToOneConcurrentArrayQueue;
+
+import java.util.AbstractQueue;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLongFieldUpdater;
+
+import static java.lang.Math.max;
+import static java.util.Collections.unmodifiableList;
+
+/**
+ * The write queue of the {@link NioOutboundPipeline}.
+ *
+ * Frames are offered by any number of threads, but polled by a single thread at
+ * a time: the thread that owns the pipeline. Frames go into a fixed size array
+ * so that offering a frame doesn't allocate; only when the array is full they
+ * go into an unbounded linked overflow queue. As long as the overflow queue
+ * isn't empty, new frames are added to it as well, so the frames offered by a
+ * single thread are polled in the order they were offered.
+ *
+ * The number of pending bytes is tracked by counters, so it can be read cheaply
+ * without traversing the queue.
+ */
+public final class OutboundFrameQueue extends AbstractQueue<OutboundFrame> {
+
+    private static final AtomicLongFieldUpdater<OutboundFrameQueue> BYTES_OFFERED
+            = AtomicLongFieldUpdater.newUpdater(OutboundFrameQueue.class, "bytesOffered");
+    private static final AtomicLongFieldUpdater<OutboundFrameQueue> BYTES_POLLED
+            = AtomicLongFieldUpdater.newUpdater(OutboundFrameQueue.class, "bytesPolled");
+
+    private final FrameArrayQueue array;
+    private final Queue<OutboundFrame> overflow = new ConcurrentLinkedQueue<>();
+
+    private volatile long bytesOffered;
+    // only written by the thread owning the pipeline
+    private volatile long bytesPolled;
+
+    public OutboundFrameQueue(int capacity) {
+        this.array = new FrameArrayQueue(capacity);
+    }
+
+    @Override
+    public boolean offer(OutboundFrame frame) {
+        BYTES_OFFERED.getAndAdd(this, frame.getFrameLength());
+        if (overflow.isEmpty() && array.offer(frame)) {
+            return true;
+        }
+        return overflow.offer(frame);
+    }
+
+    /**
+     * Polls a frame. Should only be called by the thread owning the pipeline.
+     */
+    @Override
+    public OutboundFrame poll() {
+        OutboundFrame frame = array.poll();
+        if (frame == null) {
+            frame = overflow.poll();
+            if (frame == null) {
+                return null;
+            }
+        }
+        BYTES_POLLED.lazySet(this, bytesPolled + frame.getFrameLength());
+        return frame;
+    }
+
+    @Override
+    public OutboundFrame peek() {
+        OutboundFrame frame = array.peek();
+        return frame != null ? frame : overflow.peek();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return array.isEmpty() && overflow.isEmpty();
+    }
+
+    @Override
+    public int size() {
+        return array.size() + overflow.size();
+    }
+
+    /**
+     * Returns the total length of the frames that have been offered, but not
+     * yet polled.
+     */
+    public long bytesPending() {
+        long polled = bytesPolled;
+        return max(bytesOffered - polled, 0);
+    }
+
+    /**
+     * Returns a weakly consistent snapshot of the queued frames. Only meant
+     * for diagnostics; the iterator doesn't support removal.
+     */
+    @Override
+    public Iterator<OutboundFrame> iterator() {
+        List<OutboundFrame> frames = new ArrayList<>();
+        array.copyTo(frames);
+        frames.addAll(overflow);
+        return unmodifiableList(frames).iterator();
+    }
+
+    private static final class FrameArrayQueue extends ManyToOneConcurrentArrayQueue<OutboundFrame> {
+
+        FrameArrayQueue(int requestedCapacity) {
+            super(requestedCapacity);
+        }
+
+        void copyTo(Collection<OutboundFrame> target) {
+            long mask = capacity - 1;
+            for (long i = head, limit = tail; i < limit; i++) {
+                OutboundFrame frame = buffer.get(seqToArrayIndex(i, mask));
+                if (frame != null) {
+                    target.add(frame);
+                }
+            }
+        }
+    }
+}
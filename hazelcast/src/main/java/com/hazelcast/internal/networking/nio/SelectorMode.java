@@ -26,11 +26,19 @@ import static java.lang.String.format;
 public enum SelectorMode {
     SELECT,
     SELECT_NOW,
-    SELECT_WITH_FIX;
+    SELECT_WITH_FIX,
+    /**
+     * Spins on {@link java.nio.channels.Selector#selectNow()} for a bounded
+     * period after the last event (see {@code hazelcast.io.busy.poll.micros})
+     * before falling back to a blocking select, trading some idle CPU for
+     * lower wake-up latency without burning a core when the member is idle.
+     */
+    SELECT_BUSY_POLL;
 
     public static final String SELECT_STRING = "select";
     public static final String SELECT_WITH_FIX_STRING = "selectwithfix";
     public static final String SELECT_NOW_STRING = "selectnow";
+    public static final String SELECT_BUSY_POLL_STRING = "selectbusypoll";
 
     public static SelectorMode getConfiguredValue() {
         return fromString(getConfiguredString());
@@ -47,6 +55,8 @@ public enum SelectorMode {
             return SELECT_WITH_FIX;
         } else if (value.equals(SELECT_NOW_STRING) || value.startsWith(SELECT_NOW_STRING + ",")) {
             return SELECT_NOW;
+        } else if (value.equals(SELECT_BUSY_POLL_STRING)) {
+            return SELECT_BUSY_POLL;
         } else {
             throw new IllegalArgumentException(format("Unrecognized selectorMode [%s]", value));
         }
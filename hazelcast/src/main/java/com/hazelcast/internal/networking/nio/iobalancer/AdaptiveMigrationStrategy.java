@@ -0,0 +1,122 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio.iobalancer;
+
+import com.hazelcast.internal.networking.nio.MigratablePipeline;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A {@link MigrationStrategy} meant to be used with the adaptive load tracking,
+ * where the load of a pipeline reflects both the bytes it transceived and the
+ * time spent processing it.
+ *
+ * Unlike the {@link LoadMigrationStrategy} it doesn't act upon every imbalance
+ * observed:
+ * <ul>
+ * <li>an imbalance has to be seen for {@link #CONFIRMATION_ROUNDS} consecutive
+ * rounds before the migrations start; the migrations stop only once the least
+ * busy NioThread gets more than {@link #EXIT_IMBALANCE_RATIO} of the load of
+ * the busiest one, which is above the {@link #ENTER_IMBALANCE_RATIO} starting
+ * them. So a load hovering around a single threshold doesn't cause migrations
+ * back and forth.</li>
+ * <li>there are at least {@link #MIGRATION_INTERVAL_ROUNDS} rounds between two
+ * migrations, and a migrated pipeline stays with its new NioThread for at least
+ * {@link #PIPELINE_COOLDOWN_ROUNDS} rounds.</li>
+ * <li>the NioThreads processing the pipelines for less than
+ * {@link #MIN_PROCESS_TIME_NANOS} in total are considered idle, whatever the
+ * ratio of their loads.</li>
+ * </ul>
+ *
+ * An instance keeps the state of a single {@link LoadTracker}, it isn't
+ * thread-safe.
+ */
+class AdaptiveMigrationStrategy implements MigrationStrategy {
+
+    static final double ENTER_IMBALANCE_RATIO = 0.7;
+    static final double EXIT_IMBALANCE_RATIO = 0.85;
+    static final int CONFIRMATION_ROUNDS = 2;
+    static final int MIGRATION_INTERVAL_ROUNDS = 2;
+    static final int PIPELINE_COOLDOWN_ROUNDS = 10;
+    static final long MIN_PROCESS_TIME_NANOS = MILLISECONDS.toNanos(10);
+
+    // the round in which a pipeline got migrated, for the pipelines cooling down
+    private final Map<MigratablePipeline, Long> migrationRounds = new HashMap<>();
+    private long round;
+    private long lastMigrationRound = -MIGRATION_INTERVAL_ROUNDS;
+    private int imbalancedRounds;
+    private boolean imbalanced;
+
+    @Override
+    public boolean imbalanceDetected(LoadImbalance imbalance) {
+        round++;
+        migrationRounds.values().removeIf(migrationRound -> round - migrationRound >= PIPELINE_COOLDOWN_ROUNDS);
+
+        long min = imbalance.minimumLoad;
+        long max = imbalance.maximumLoad;
+        if (max == Long.MIN_VALUE || min == Long.MAX_VALUE || imbalance.processTime < MIN_PROCESS_TIME_NANOS) {
+            imbalancedRounds = 0;
+            imbalanced = false;
+            return false;
+        }
+
+        if (imbalanced) {
+            imbalanced = min < EXIT_IMBALANCE_RATIO * max;
+        } else {
+            imbalancedRounds = min < ENTER_IMBALANCE_RATIO * max ? imbalancedRounds + 1 : 0;
+            if (imbalancedRounds >= CONFIRMATION_ROUNDS) {
+                imbalancedRounds = 0;
+                imbalanced = true;
+            }
+        }
+        return imbalanced && round - lastMigrationRound >= MIGRATION_INTERVAL_ROUNDS;
+    }
+
+    /**
+     * Finds the pipeline whose load is the closest to a half of the gap between
+     * the busiest and the least busy NioThreads, skipping the pipelines cooling
+     * down after a migration and the ones which would make the destination
+     * NioThread busier than the source one.
+     */
+    @Override
+    public MigratablePipeline findPipelineToMigrate(LoadImbalance imbalance) {
+        long gap = imbalance.maximumLoad - imbalance.minimumLoad;
+        long target = gap / 2;
+        MigratablePipeline candidate = null;
+        long candidateDistance = Long.MAX_VALUE;
+        for (MigratablePipeline pipeline : imbalance.getPipelinesOwnedBy(imbalance.srcOwner)) {
+            long load = imbalance.getLoad(pipeline);
+            if (load == 0 || load >= gap || migrationRounds.containsKey(pipeline)) {
+                continue;
+            }
+            long distance = Math.abs(load - target);
+            if (distance < candidateDistance) {
+                candidateDistance = distance;
+                candidate = pipeline;
+            }
+        }
+
+        if (candidate != null) {
+            migrationRounds.put(candidate, round);
+            lastMigrationRound = round;
+        }
+        return candidate;
+    }
+}
@@ -55,7 +55,9 @@ import static com.hazelcast.spi.properties.ClusterProperty.IO_THREAD_COUNT;
  * The exact migration strategy can be customized via
  * {@link com.hazelcast.internal.networking.nio.iobalancer.MigrationStrategy}.
  *
- * Measuring interval can be customized via {@link ClusterProperty#IO_BALANCER_INTERVAL_SECONDS}
+ * Measuring interval can be customized via {@link ClusterProperty#IO_BALANCER_INTERVAL_SECONDS}.
+ * The load of a pipeline is based on the bytes it transceived and the time spent processing
+ * it if {@link ClusterProperty#IO_BALANCER_ADAPTIVE} is enabled, see {@link AdaptiveMigrationStrategy}.
  *
  * It doesn't leverage {@link ConnectionListener} capability
  * provided by {@link ServerConnectionManager} to observe connections
@@ -68,7 +70,9 @@ public class IOBalancer {
     private final ILogger logger;
 
     private final int balancerIntervalSeconds;
-    private final MigrationStrategy strategy;
+    private final boolean adaptive;
+    private final MigrationStrategy inStrategy;
+    private final MigrationStrategy outStrategy;
 
     private final LoadTracker inLoadTracker;
     private final LoadTracker outLoadTracker;
@@ -89,14 +93,23 @@ public class IOBalancer {
                       NioThread[] outputThreads,
                       String hzName,
                       int balancerIntervalSeconds, LoggingService loggingService) {
+        this(inputThreads, outputThreads, hzName, balancerIntervalSeconds, false, loggingService);
+    }
+
+    public IOBalancer(NioThread[] inputThreads,
+                      NioThread[] outputThreads,
+                      String hzName,
+                      int balancerIntervalSeconds, boolean adaptive, LoggingService loggingService) {
         this.logger = loggingService.getLogger(IOBalancer.class);
         this.balancerIntervalSeconds = balancerIntervalSeconds;
+        this.adaptive = adaptive;
 
-        this.strategy = createMigrationStrategy();
+        this.inStrategy = createMigrationStrategy();
+        this.outStrategy = createMigrationStrategy();
         this.hzName = hzName;
 
-        this.inLoadTracker = new LoadTracker(inputThreads, logger);
-        this.outLoadTracker = new LoadTracker(outputThreads, logger);
+        this.inLoadTracker = new LoadTracker(inputThreads, logger, adaptive);
+        this.outLoadTracker = new LoadTracker(outputThreads, logger, adaptive);
 
         this.enabled = isEnabled(inputThreads, outputThreads);
     }
@@ -146,15 +159,15 @@ public class IOBalancer {
     }
 
     void rebalance() {
-        scheduleMigrationIfNeeded(inLoadTracker);
-        scheduleMigrationIfNeeded(outLoadTracker);
+        scheduleMigrationIfNeeded(inLoadTracker, inStrategy);
+        scheduleMigrationIfNeeded(outLoadTracker, outStrategy);
     }
 
-    private void scheduleMigrationIfNeeded(LoadTracker loadTracker) {
+    private void scheduleMigrationIfNeeded(LoadTracker loadTracker, MigrationStrategy strategy) {
         LoadImbalance loadImbalance = loadTracker.updateImbalance();
         if (strategy.imbalanceDetected(loadImbalance)) {
             imbalanceDetectedCount.inc();
-            tryMigrate(loadImbalance);
+            tryMigrate(loadImbalance, strategy);
         } else {
             if (logger.isFinestEnabled()) {
                 long min = loadImbalance.minimumLoad;
@@ -174,6 +187,9 @@ public class IOBalancer {
             logger.warning("Using Monkey IO Balancer Strategy. This is for stress tests only. Do not user in production! "
                     + "Disable by not setting the property '" + PROP_MONKEY_BALANCER + "' to true.");
             return new MonkeyMigrationStrategy();
+        } else if (adaptive) {
+            logger.finest("Using adaptive IO Balancer Strategy.");
+            return new AdaptiveMigrationStrategy();
         } else {
             logger.finest("Using normal IO Balancer Strategy.");
             return new LoadMigrationStrategy();
@@ -200,7 +216,7 @@ public class IOBalancer {
         return true;
     }
 
-    private void tryMigrate(LoadImbalance loadImbalance) {
+    private void tryMigrate(LoadImbalance loadImbalance, MigrationStrategy strategy) {
         MigratablePipeline pipeline = strategy.findPipelineToMigrate(loadImbalance);
         if (pipeline == null) {
             logger.finest("I/O imbalance is detected, but no suitable migration candidate is found.");
@@ -39,6 +39,8 @@ class LoadImbalance {
     NioThread srcOwner;
     //least busy NioThread
     NioThread dstOwner;
+    //time spent processing the pipelines by all NioThreads, only tracked by the adaptive load tracking
+    long processTime;
 
     private final Map<NioThread, Set<MigratablePipeline>> ownerToPipelines;
     private final ItemCounter<MigratablePipeline> pipelineLoadCounter;
@@ -31,12 +31,26 @@ import static com.hazelcast.internal.util.StringUtil.LINE_SEPARATOR;
 /**
  * Tracks the load of of NioThread(s) and creates a mapping between NioThread -> NioPipeline.
  * <p>
+ * By default the load of a pipeline is the difference of its {@link MigratablePipeline#load()}
+ * since the last calculation. If the adaptive load tracking is enabled, the load of a pipeline
+ * is its share of all the bytes transceived plus its share of all the time spent processing
+ * the pipelines since the last calculation, in {@link #LOAD_SCALE} units. This way a pipeline
+ * transferring a few large packets and one processing plenty of tiny ones are both accounted
+ * for.
+ * <p>
  * This class is not thread-safe with the exception of
  * {@link #addPipeline(MigratablePipeline)}   and
  * {@link #removePipeline(MigratablePipeline)}
  */
 class LoadTracker {
+    /**
+     * The load of a pipeline having all the bytes and all the processing time
+     * to itself is twice this value.
+     */
+    static final long LOAD_SCALE = 1000000;
+
     private final ILogger logger;
+    private final boolean adaptive;
 
     //all known IO ioThreads. we assume no. of ioThreads is constant during a lifespan of a member
     private final NioThread[] ioThreads;
@@ -50,13 +64,25 @@ class LoadTracker {
     //load per pipeline since last calculation
     private final ItemCounter<MigratablePipeline> pipelineLoadCount = new ItemCounter<MigratablePipeline>();
 
+    //bytes and processing time per pipeline since an instance started, adaptive tracking only
+    private final ItemCounter<MigratablePipeline> lastBytesCounter = new ItemCounter<MigratablePipeline>();
+    private final ItemCounter<MigratablePipeline> lastProcessTimeCounter = new ItemCounter<MigratablePipeline>();
+    //bytes and processing time per pipeline since last calculation, adaptive tracking only
+    private final ItemCounter<MigratablePipeline> pipelineBytes = new ItemCounter<MigratablePipeline>();
+    private final ItemCounter<MigratablePipeline> pipelineProcessTime = new ItemCounter<MigratablePipeline>();
+
     //contains all known pipelines
     private final Set<MigratablePipeline> pipelines = new HashSet<MigratablePipeline>();
 
     private final LoadImbalance imbalance;
 
     LoadTracker(NioThread[] ioThreads, ILogger logger) {
+        this(ioThreads, logger, false);
+    }
+
+    LoadTracker(NioThread[] ioThreads, ILogger logger, boolean adaptive) {
         this.logger = logger;
+        this.adaptive = adaptive;
 
         this.ioThreads = new NioThread[ioThreads.length];
         System.arraycopy(ioThreads, 0, this.ioThreads, 0, ioThreads.length);
@@ -122,14 +148,46 @@ class LoadTracker {
     }
 
     private void updateNewWorkingImbalance() {
+        if (adaptive) {
+            updateAdaptivePipelineLoads();
+        } else {
+            for (MigratablePipeline pipeline : pipelines) {
+                pipelineLoadCount.set(pipeline, getLoadSinceLastCheck(pipeline));
+            }
+        }
         for (MigratablePipeline pipeline : pipelines) {
             updatePipelineState(pipeline);
         }
     }
 
+    private void updateAdaptivePipelineLoads() {
+        long totalBytes = 0;
+        long totalProcessTime = 0;
+        for (MigratablePipeline pipeline : pipelines) {
+            long bytes = pipeline.bytesTransceived();
+            bytes -= lastBytesCounter.getAndSet(pipeline, bytes);
+            long processTime = pipeline.processTime();
+            processTime -= lastProcessTimeCounter.getAndSet(pipeline, processTime);
+            pipelineBytes.set(pipeline, bytes);
+            pipelineProcessTime.set(pipeline, processTime);
+            totalBytes += bytes;
+            totalProcessTime += processTime;
+        }
+        imbalance.processTime = totalProcessTime;
+
+        for (MigratablePipeline pipeline : pipelines) {
+            long load = share(pipelineBytes.get(pipeline), totalBytes)
+                    + share(pipelineProcessTime.get(pipeline), totalProcessTime);
+            pipelineLoadCount.set(pipeline, load);
+        }
+    }
+
+    private static long share(long value, long total) {
+        return total <= 0 ? 0 : (long) ((double) value * LOAD_SCALE / total);
+    }
+
     private void updatePipelineState(MigratablePipeline pipeline) {
-        long pipelineLoad = getLoadSinceLastCheck(pipeline);
-        pipelineLoadCount.set(pipeline, pipelineLoad);
+        long pipelineLoad = pipelineLoadCount.get(pipeline);
         NioThread owner = pipeline.owner();
         if (owner == null) {
             // the pipeline is currently being migrated - owner is null
@@ -147,6 +205,8 @@ class LoadTracker {
 
     private void clearWorkingImbalance() {
         pipelineLoadCount.reset();
+        pipelineBytes.reset();
+        pipelineProcessTime.reset();
         ownerLoad.reset();
         for (Set<MigratablePipeline> pipelines : ownerToPipelines.values()) {
             pipelines.clear();
@@ -161,6 +221,8 @@ class LoadTracker {
         pipelines.remove(pipeline);
         pipelineLoadCount.remove(pipeline);
         lastLoadCounter.remove(pipeline);
+        lastBytesCounter.remove(pipeline);
+        lastProcessTimeCounter.remove(pipeline);
     }
 
     private void printDebugTable() {
@@ -43,7 +43,7 @@ public final class Packet extends HeapData implements OutboundFrame {
     // Flags are dispatched against in a cascade:
     // 1. URGENT (bit 4)
     // 2. Packet type (bits 0, 2, 5)
-    // 3. Flags specific to a given packet type (bits 1, 6)
+    // 3. Flags specific to a given packet type (bits 1, 3, 6)
 
 
     // 1. URGENT flag
@@ -88,6 +88,12 @@ public final class Packet extends HeapData implements OutboundFrame {
      * Marks an Operation packet as Operation control (like invocation-heartbeats)
      */
     public static final int FLAG_OP_CONTROL = 1 << 6;
+    /**
+     * Marks an Operation response packet as a batch of responses. The payload
+     * of such a packet is a sequence of {@code [int length][response]} entries,
+     * the length is big-endian.
+     */
+    public static final int FLAG_OP_RESPONSE_BATCH = 1 << 3;
 
     // 3.b Jet packet flags
 
@@ -105,6 +111,7 @@ public final class Packet extends HeapData implements OutboundFrame {
 
     private int partitionId;
     private transient ServerConnection conn;
+    private transient boolean bulk;
 
     public Packet() {
     }
@@ -141,6 +148,19 @@ public final class Packet extends HeapData implements OutboundFrame {
         return this;
     }
 
+    /**
+     * Marks this Packet as bulk traffic on the sending side. The mark isn't
+     * part of the serialized packet.
+     *
+     * @param bulk true if the packet carries bulk data.
+     * @return {@code this} (for fluent interface)
+     * @see OutboundFrame#isBulk()
+     */
+    public Packet setBulk(boolean bulk) {
+        this.bulk = bulk;
+        return this;
+    }
+
     public Type getPacketType() {
         return Type.fromFlags(flags);
     }
@@ -215,6 +235,11 @@ public final class Packet extends HeapData implements OutboundFrame {
         return isFlagRaised(FLAG_URGENT);
     }
 
+    @Override
+    public boolean isBulk() {
+        return bulk;
+    }
+
     @Override
     public int getFrameLength() {
         return (payload != null ? totalSize() : 0) + HEADER_SIZE;
@@ -281,6 +306,7 @@ public final class Packet extends HeapData implements OutboundFrame {
             @Override
             public String describeFlags(char flags) {
                 return "[isResponse=" + isFlagRaised(flags, FLAG_OP_RESPONSE)
+                        + ", isResponseBatch=" + isFlagRaised(flags, FLAG_OP_RESPONSE_BATCH)
                         + ", isOpControl=" + isFlagRaised(flags, FLAG_OP_CONTROL) + ']';
             }
         },
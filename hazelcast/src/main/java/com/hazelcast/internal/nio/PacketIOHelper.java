@@ -36,7 +36,7 @@ import static com.hazelcast.internal.nio.Packet.VERSION;
  * A {@link PacketIOHelper} is designed to be reused.
  */
 public class PacketIOHelper {
-    static final int HEADER_SIZE = BYTE_SIZE_IN_BYTES + SHORT_SIZE_IN_BYTES + INT_SIZE_IN_BYTES + INT_SIZE_IN_BYTES;
+    public static final int HEADER_SIZE = BYTE_SIZE_IN_BYTES + SHORT_SIZE_IN_BYTES + INT_SIZE_IN_BYTES + INT_SIZE_IN_BYTES;
 
     private int valueOffset;
     private int size;
@@ -58,11 +58,8 @@ public class PacketIOHelper {
                 return false;
             }
 
-            dst.put(VERSION);
-            dst.putChar(packet.getFlags());
-            dst.putInt(packet.getPartitionId());
+            writeHeader(packet, dst);
             size = packet.totalSize();
-            dst.putInt(size);
             headerComplete = true;
         }
 
@@ -74,6 +71,34 @@ public class PacketIOHelper {
         }
     }
 
+    /**
+     * Writes the header of the packet to the supplied {@code ByteBuffer}, which must have at least
+     * {@link #HEADER_SIZE} bytes remaining. The payload of the packet follows the header.
+     *
+     * @param packet the packet to write the header of
+     * @param dst    the destination byte buffer
+     */
+    public static void writeHeader(Packet packet, ByteBuffer dst) {
+        writeHeader(packet.getFlags(), packet.getPartitionId(), packet.totalSize(), dst);
+    }
+
+    /**
+     * Writes a packet header made of the given fields to the supplied
+     * {@code ByteBuffer}, which must have at least {@link #HEADER_SIZE} bytes
+     * remaining.
+     *
+     * @param flags       the flags of the packet
+     * @param partitionId the partition ID of the packet
+     * @param size        the size of the payload following the header
+     * @param dst         the destination byte buffer
+     */
+    public static void writeHeader(char flags, int partitionId, int size, ByteBuffer dst) {
+        dst.put(VERSION);
+        dst.putChar(flags);
+        dst.putInt(partitionId);
+        dst.putInt(size);
+    }
+
     private boolean writeValue(Packet packet, ByteBuffer dst) {
         if (size > 0) {
             // the number of bytes that can be written to the bb.
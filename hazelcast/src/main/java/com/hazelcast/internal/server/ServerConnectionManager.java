@@ -199,6 +199,22 @@ public interface ServerConnectionManager
      */
     boolean transmit(Packet packet, Address target, int streamId);
 
+    /**
+     * Returns the stream id to send bulk data, like partition migration data,
+     * on instead of the given stream id. Bulk packets that are transmitted are
+     * rerouted this way implicitly.
+     * <p>
+     * By default bulk data shares the stream; a connection manager that keeps a
+     * dedicated connection for bulk data returns the stream of that connection.
+     *
+     * @param streamId the stream id the data would be sent on otherwise
+     * @return the stream id for the bulk data
+     * @see Packet#isBulk()
+     */
+    default int bulkStreamId(int streamId) {
+        return streamId;
+    }
+
     /**
      * Returns network stats for inbound and outbound traffic.
      * Stats are available only when Advanced Networking is enabled.
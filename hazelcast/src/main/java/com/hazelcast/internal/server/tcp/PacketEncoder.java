@@ -16,17 +16,25 @@
 
 package com.hazelcast.internal.server.tcp;
 
+import com.hazelcast.internal.networking.GatheringOutboundHandler;
 import com.hazelcast.internal.networking.OutboundHandler;
 import com.hazelcast.internal.networking.HandlerStatus;
 import com.hazelcast.internal.nio.Packet;
 import com.hazelcast.internal.nio.PacketIOHelper;
+import com.hazelcast.spi.properties.HazelcastProperty;
 
 import java.nio.ByteBuffer;
+import java.util.Arrays;
+import java.util.function.BooleanSupplier;
 import java.util.function.Supplier;
 
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
 import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
+import static com.hazelcast.internal.nio.Packet.FLAG_OP_RESPONSE;
+import static com.hazelcast.internal.nio.Packet.FLAG_OP_RESPONSE_BATCH;
+import static com.hazelcast.internal.nio.PacketIOHelper.HEADER_SIZE;
 
 /**
  * A {@link OutboundHandler} that for member to member communication.
@@ -37,31 +45,134 @@ import static com.hazelcast.internal.nio.IOUtil.compactOrClear;
  * multiple connections. The flyweight contains the actual 'position' state of
  * what has been written.
  *
+ * If gathering writes are enabled, see {@link #GATHERING_WRITE_THRESHOLD},
+ * and the encoder is the last handler of the pipeline, the payloads of the
+ * large packets aren't copied into the {@link ByteBuffer}: the encoder
+ * writes their headers only and hands the payload arrays over to the pipeline
+ * along with the {@link ByteBuffer} chunks between them, see
+ * {@link GatheringOutboundHandler}.
+ *
+ * If response batching is enabled, see {@link #RESPONSE_BATCHING_ENABLED},
+ * the operation responses found queued one after another are coalesced into
+ * a single {@link Packet#FLAG_OP_RESPONSE_BATCH} packet. Only the responses
+ * already pending are batched, so no response waits for another one.
+ *
  * @see PacketDecoder
  */
-public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer> {
+public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer> implements GatheringOutboundHandler {
+
+    /**
+     * The minimum payload size, in bytes, of the packets written to the socket
+     * directly from their payload arrays by a gathering write instead of being
+     * copied into the send buffer first. The payloads larger than the send
+     * buffer are always copied, chunk by chunk. {@code -1} disables the
+     * gathering writes.
+     */
+    public static final HazelcastProperty GATHERING_WRITE_THRESHOLD
+            = new HazelcastProperty("hazelcast.io.gathering.write.threshold", -1);
+
+    /**
+     * Enables coalescing of the operation responses queued on a member to
+     * member connection into batch packets, which saves a packet header per
+     * response and lets the receiving side dispatch them in a single go.
+     * The batches are sent only to the members of the cluster once it runs
+     * on a version supporting them.
+     */
+    public static final HazelcastProperty RESPONSE_BATCHING_ENABLED
+            = new HazelcastProperty("hazelcast.io.response.batching.enabled", false);
+
+    /**
+     * The maximum number of buffers written by a single gathering write.
+     */
+    static final int MAX_GATHERED = 64;
+
+    private static final char BATCH_FLAGS = new Packet()
+            .setPacketType(Packet.Type.OPERATION)
+            .raiseFlags(FLAG_OP_RESPONSE | FLAG_OP_RESPONSE_BATCH)
+            .getFlags();
 
     private final PacketIOHelper packetWriter = new PacketIOHelper();
+    private final int gatheringThreshold;
+    private final ByteBuffer[] gathered;
+    private final BooleanSupplier responseBatchingAllowed;
 
     private Packet packet;
+    // the packet polled ahead while batching the responses
+    private Packet next;
+    private boolean batchingConfirmed;
+    private boolean gatheringAllowed;
+    private int gatheredCount;
+    private long gatheredBytes;
+    // the start of the dst chunk not gathered yet
+    private int chunkStart;
+
+    public PacketEncoder() {
+        this(-1);
+    }
+
+    /**
+     * @param gatheringThreshold see {@link #GATHERING_WRITE_THRESHOLD}
+     */
+    public PacketEncoder(int gatheringThreshold) {
+        this(gatheringThreshold, null);
+    }
+
+    /**
+     * @param gatheringThreshold      see {@link #GATHERING_WRITE_THRESHOLD}
+     * @param responseBatchingAllowed tells if the peer accepts batched
+     *                                responses, {@code null} if the responses
+     *                                must not be batched. Once it returns
+     *                                {@code true} it isn't asked again.
+     */
+    public PacketEncoder(int gatheringThreshold, BooleanSupplier responseBatchingAllowed) {
+        this.gatheringThreshold = gatheringThreshold;
+        this.gathered = gatheringThreshold < 0 ? null : new ByteBuffer[MAX_GATHERED];
+        this.responseBatchingAllowed = responseBatchingAllowed;
+    }
 
     @Override
     public void handlerAdded() {
         initDstBuffer();
     }
 
+    @Override
+    public void setGatheringAllowed(boolean gatheringAllowed) {
+        this.gatheringAllowed = gatheringAllowed && gathered != null;
+    }
+
+    @Override
+    public ByteBuffer[] gathered() {
+        return gathered;
+    }
+
+    @Override
+    public int gatheredCount() {
+        return gatheredCount;
+    }
+
     @Override
     public HandlerStatus onWrite() {
+        if (gatheredCount > 0 && !releaseGathered()) {
+            // the previous gathering write is still in progress
+            return DIRTY;
+        }
+
         compactOrClear(dst);
+        chunkStart = 0;
         try {
             for (; ; ) {
                 if (packet == null) {
-                    packet = src.get();
+                    packet = poll();
 
                     if (packet == null) {
                         // everything is processed, so we are done
                         return CLEAN;
                     }
+
+                    if (gather(packet) || batch(packet)) {
+                        packet = null;
+                        continue;
+                    }
                 }
 
                 if (packetWriter.writeTo(packet, dst)) {
@@ -73,7 +184,147 @@ public class PacketEncoder extends OutboundHandler<Supplier<Packet>, ByteBuffer>
                 }
             }
         } finally {
-            dst.flip();
+            if (gatheredCount > 0) {
+                gatherChunk();
+                dst.flip();
+                // the content of dst is handed over in the gathered chunks
+                dst.position(dst.limit());
+            } else {
+                dst.flip();
+            }
+        }
+    }
+
+    /**
+     * Writes the header of the freshly polled packet to dst and gathers its
+     * payload, if gathering is allowed and the packet is large enough.
+     *
+     * @return {@code true} if the packet got gathered, {@code false} if it
+     * has to be copied.
+     */
+    private boolean gather(Packet packet) {
+        if (!gatheringAllowed || !isGatherable(packet.totalSize())) {
+            return false;
+        }
+        int size = packet.totalSize();
+
+        PacketIOHelper.writeHeader(packet, dst);
+        gatherChunk();
+        gathered[gatheredCount++] = ByteBuffer.wrap(packet.toByteArray(), 0, size);
+        gatheredBytes += size;
+        return true;
+    }
+
+    private Packet poll() {
+        Packet polled = next;
+        if (polled == null) {
+            return src.get();
+        }
+        next = null;
+        return polled;
+    }
+
+    /**
+     * Writes the freshly polled packet to dst together with the batchable
+     * responses queued behind it as a single batch packet. The first packet
+     * not fitting the batch is kept as the {@link #next} one to write.
+     *
+     * @return {@code true} if the packet got written as a part of a batch,
+     * {@code false} if it has to be written on its own.
+     */
+    private boolean batch(Packet first) {
+        if (responseBatchingAllowed == null || !isBatchable(first)) {
+            return false;
+        }
+        int batchSize = INT_SIZE_IN_BYTES + first.totalSize();
+        int maxBatchSize = dst.remaining() - HEADER_SIZE;
+        if (batchSize > maxBatchSize) {
+            return false;
+        }
+        Packet second = poll();
+        if (second == null || !isBatchable(second)
+                || batchSize + INT_SIZE_IN_BYTES + second.totalSize() > maxBatchSize || !isBatchingAllowed()) {
+            next = second;
+            return false;
+        }
+
+        int headerPosition = dst.position();
+        dst.position(headerPosition + HEADER_SIZE);
+        writeBatchEntry(first);
+        writeBatchEntry(second);
+        for (; ; ) {
+            Packet response = poll();
+            if (response == null) {
+                break;
+            }
+            if (!isBatchable(response) || INT_SIZE_IN_BYTES + response.totalSize() > dst.remaining()) {
+                next = response;
+                break;
+            }
+            writeBatchEntry(response);
+        }
+
+        int end = dst.position();
+        dst.position(headerPosition);
+        PacketIOHelper.writeHeader(BATCH_FLAGS, -1, end - headerPosition - HEADER_SIZE, dst);
+        dst.position(end);
+        return true;
+    }
+
+    private boolean isBatchingAllowed() {
+        if (!batchingConfirmed) {
+            batchingConfirmed = responseBatchingAllowed.getAsBoolean();
+        }
+        return batchingConfirmed;
+    }
+
+    private void writeBatchEntry(Packet response) {
+        int size = response.totalSize();
+        dst.putInt(size);
+        if (size > 0) {
+            dst.put(response.toByteArray(), 0, size);
+        }
+    }
+
+    private static boolean isBatchable(Packet packet) {
+        return packet.getPacketType() == Packet.Type.OPERATION
+                && packet.isFlagRaised(FLAG_OP_RESPONSE)
+                && !packet.isFlagRaised(FLAG_OP_RESPONSE_BATCH)
+                && !packet.isUrgent();
+    }
+
+    private boolean isGatherable(int size) {
+        if (size == 0 || size < gatheringThreshold || size > dst.capacity()) {
+            return false;
+        }
+        // a header chunk and a payload are gathered, a trailing chunk may follow
+        return dst.remaining() >= HEADER_SIZE && gatheredCount + 3 <= MAX_GATHERED && gatheredBytes <= dst.capacity();
+    }
+
+    private void gatherChunk() {
+        if (dst.position() == chunkStart) {
+            return;
+        }
+        ByteBuffer chunk = dst.duplicate();
+        chunk.flip();
+        chunk.position(chunkStart);
+        gathered[gatheredCount++] = chunk;
+        chunkStart = dst.position();
+    }
+
+    /**
+     * @return {@code true} if the gathered buffers got written and released,
+     * {@code false} otherwise.
+     */
+    private boolean releaseGathered() {
+        for (int i = 0; i < gatheredCount; i++) {
+            if (gathered[i].hasRemaining()) {
+                return false;
+            }
         }
+        Arrays.fill(gathered, 0, gatheredCount, null);
+        gatheredCount = 0;
+        gatheredBytes = 0;
+        return true;
     }
 }
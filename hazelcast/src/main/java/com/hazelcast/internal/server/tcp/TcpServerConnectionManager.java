@@ -40,6 +40,7 @@ import com.hazelcast.internal.util.MutableLong;
 import com.hazelcast.internal.util.counters.MwCounter;
 import com.hazelcast.internal.util.executor.StripedRunnable;
 import com.hazelcast.logging.ILogger;
+import com.hazelcast.spi.properties.HazelcastProperties;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import java.io.IOException;
@@ -80,6 +81,8 @@ import static com.hazelcast.internal.util.ConcurrencyUtil.getOrPutIfAbsent;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
 import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
 import static com.hazelcast.spi.properties.ClusterProperty.CHANNEL_COUNT;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_BULK_CONNECTION_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.IO_TRAFFIC_CLASSES_ENABLED;
 import static java.lang.Math.abs;
 import static java.util.Arrays.stream;
 import static java.util.Collections.newSetFromMap;
@@ -91,9 +94,15 @@ public class TcpServerConnectionManager
 
     private static final int RETRY_NUMBER = 5;
     private static final long DELAY_FACTOR = 100L;
+    // the stream of the dedicated bulk plane
+    private static final int BULK_STREAM_ID = -2;
 
     final Plane[] planes;
     final int planeCount;
+    // the planes the streams are spread over; if there is a dedicated plane for
+    // the bulk packets, it comes after them
+    final int streamPlaneCount;
+    final int bulkPlaneIndex;
 
     @Probe(name = TCP_METRIC_ENDPOINT_MANAGER_ACTIVE_COUNT, level = MANDATORY)
     final Set<TcpServerConnection> connections = newSetFromMap(new ConcurrentHashMap<>());
@@ -136,7 +145,9 @@ public class TcpServerConnectionManager
         this.endpointConfig = endpointConfig;
         this.endpointQualifier = endpointConfig != null ? endpointConfig.getQualifier() : null;
         this.channelInitializerFn = channelInitializerFn;
-        this.planeCount = serverContext.properties().getInteger(CHANNEL_COUNT);
+        this.streamPlaneCount = serverContext.properties().getInteger(CHANNEL_COUNT);
+        this.bulkPlaneIndex = isBulkPlaneEnabled(serverContext.properties()) ? streamPlaneCount : -1;
+        this.planeCount = bulkPlaneIndex == -1 ? streamPlaneCount : streamPlaneCount + 1;
         this.serverContext = serverContext;
         this.logger = serverContext.getLoggingService().getLogger(TcpServerConnectionManager.class);
         this.connector = new TcpServerConnector(this);
@@ -148,6 +159,13 @@ public class TcpServerConnectionManager
         }
     }
 
+    private boolean isBulkPlaneEnabled(HazelcastProperties properties) {
+        boolean memberConnections = endpointQualifier == null || endpointQualifier.getType() == ProtocolType.MEMBER;
+        return memberConnections
+                && properties.getBoolean(IO_TRAFFIC_CLASSES_ENABLED)
+                && properties.getBoolean(IO_BULK_CONNECTION_ENABLED);
+    }
+
     @Override
     public TcpServer getServer() {
         return server;
@@ -246,10 +264,12 @@ public class TcpServerConnectionManager
 
     public Plane getPlane(int streamId) {
         int planeIndex;
-        if (streamId == -1 || streamId == Integer.MIN_VALUE) {
+        if (streamId == BULK_STREAM_ID && bulkPlaneIndex != -1) {
+            planeIndex = bulkPlaneIndex;
+        } else if (streamId == -1 || streamId == Integer.MIN_VALUE) {
             planeIndex = 0;
         } else {
-            planeIndex = abs(streamId) % planeCount;
+            planeIndex = abs(streamId) % streamPlaneCount;
         }
 
         return planes[planeIndex];
@@ -294,9 +314,17 @@ public class TcpServerConnectionManager
     public boolean transmit(Packet packet, Address target, int streamId) {
         checkNotNull(packet, "packet can't be null");
         checkNotNull(target, "target can't be null");
+        if (packet.isBulk()) {
+            streamId = bulkStreamId(streamId);
+        }
         return send(packet, target, null, streamId);
     }
 
+    @Override
+    public int bulkStreamId(int streamId) {
+        return bulkPlaneIndex == -1 ? streamId : BULK_STREAM_ID;
+    }
+
     @Override
     public NetworkStats getNetworkStats() {
         return networkStats;
@@ -35,7 +35,6 @@ import java.util.Set;
 import java.util.logging.Level;
 
 import static com.hazelcast.spi.properties.ClusterProperty.BIND_SPOOFING_CHECKS;
-import static com.hazelcast.spi.properties.ClusterProperty.CHANNEL_COUNT;
 
 /**
  * The ServerControl is responsible for sending/receiving TcpServerControl messages.
@@ -60,7 +59,7 @@ public final class TcpServerControl {
         this.spoofingChecks = serverContext.properties().getBoolean(BIND_SPOOFING_CHECKS);
         this.supportedProtocolTypes = supportedProtocolTypes;
         this.unifiedEndpointManager = connectionManager.getEndpointQualifier() == null;
-        this.expectedPlaneCount = serverContext.properties().getInteger(CHANNEL_COUNT);
+        this.expectedPlaneCount = connectionManager.planeCount;
     }
 
     public void process(Packet packet) {
@@ -0,0 +1,158 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.util.collection;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static com.hazelcast.internal.util.Preconditions.checkPositive;
+import static com.hazelcast.internal.util.QuickMath.nextPowerOfTwo;
+
+/**
+ * A concurrent map specialised for {@code long} keys. The keys are spread over
+ * a number of stripes by their lowest bits, each stripe being a
+ * {@link Long2ObjectHashMap} guarded by its own lock. So sequentially assigned
+ * keys, like call IDs, end up in different stripes, and threads working on
+ * different keys hardly contend. The keys are never boxed.
+ * <p>
+ * Iteration is weakly consistent: the values of a stripe are copied when the
+ * iterator arrives at the stripe.
+ * <p>
+ * NOTE: This map doesn't support {@code null} values.
+ *
+ * @param <V> values stored in the map
+ */
+public final class StripedLong2ObjectHashMap<V> implements Iterable<V> {
+
+    private final Long2ObjectHashMap<V>[] stripes;
+    private final int mask;
+
+    /**
+     * @param stripeCount    the number of stripes, rounded up to the next power of two
+     * @param stripeCapacity the initial capacity of each stripe
+     */
+    @SuppressWarnings("unchecked")
+    public StripedLong2ObjectHashMap(int stripeCount, int stripeCapacity) {
+        checkPositive(stripeCount, "stripeCount should be positive");
+        this.stripes = new Long2ObjectHashMap[nextPowerOfTwo(stripeCount)];
+        for (int i = 0; i < stripes.length; i++) {
+            stripes[i] = new Long2ObjectHashMap<>(stripeCapacity);
+        }
+        this.mask = stripes.length - 1;
+    }
+
+    private Long2ObjectHashMap<V> stripe(long key) {
+        return stripes[(int) key & mask];
+    }
+
+    /**
+     * @return the value mapped to the key, or {@code null} if there is none
+     */
+    public V get(long key) {
+        Long2ObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.get(key);
+        }
+    }
+
+    /**
+     * @return the value previously mapped to the key, or {@code null} if there was none
+     */
+    public V put(long key, V value) {
+        checkNotNull(value, "value can't be null");
+        Long2ObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.put(key, value);
+        }
+    }
+
+    /**
+     * @return the value that was mapped to the key, or {@code null} if there was none
+     */
+    public V remove(long key) {
+        Long2ObjectHashMap<V> stripe = stripe(key);
+        synchronized (stripe) {
+            return stripe.remove(key);
+        }
+    }
+
+    /**
+     * Returns the number of mappings. Not atomic over all stripes; it can be
+     * off while mappings are added or removed concurrently.
+     */
+    public int size() {
+        int size = 0;
+        for (Long2ObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                size += stripe.size();
+            }
+        }
+        return size;
+    }
+
+    public boolean isEmpty() {
+        for (Long2ObjectHashMap<V> stripe : stripes) {
+            synchronized (stripe) {
+                if (!stripe.isEmpty()) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns a weakly consistent iterator over the values. The iterator
+     * doesn't support removal.
+     */
+    @Override
+    public Iterator<V> iterator() {
+        return new ValueIterator();
+    }
+
+    private final class ValueIterator implements Iterator<V> {
+        private int nextStripe;
+        private Object[] values = new Object[0];
+        private int index;
+
+        @Override
+        public boolean hasNext() {
+            while (index == values.length) {
+                if (nextStripe == stripes.length) {
+                    return false;
+                }
+                Long2ObjectHashMap<V> stripe = stripes[nextStripe++];
+                synchronized (stripe) {
+                    values = stripe.values().toArray();
+                }
+                index = 0;
+            }
+            return true;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        public V next() {
+            if (!hasNext()) {
+                throw new NoSuchElementException();
+            }
+            return (V) values[index++];
+        }
+    }
+}
@@ -97,6 +97,7 @@ public class LazyMapEntry<K, V> extends CachedQueryEntry<K, V>
             valueData = (Data) value;
             valueObject = null;
         }
+        resetAttributeValues();
     }
 
     @Override
@@ -105,6 +106,7 @@ public class LazyMapEntry<K, V> extends CachedQueryEntry<K, V>
         V oldValue = getValue();
         this.valueObject = value;
         this.valueData = null;
+        resetAttributeValues();
         return oldValue;
     }
 
@@ -121,6 +123,7 @@ public class LazyMapEntry<K, V> extends CachedQueryEntry<K, V>
         modified = true;
         valueObject = null;
         valueData = null;
+        resetAttributeValues();
     }
 
     /**
@@ -202,6 +205,8 @@ public class LazyMapEntry<K, V> extends CachedQueryEntry<K, V>
 
     public void setMetadata(Metadata metadata) {
         this.metadata = metadata;
+        // the metadata drives the extraction of the JSON attributes
+        resetAttributeValues();
     }
 
 }
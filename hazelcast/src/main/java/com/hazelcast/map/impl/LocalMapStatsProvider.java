@@ -412,6 +412,11 @@ public class LocalMapStatsProvider {
             freshIndexStats.setTotalUpdateLatency(freshIndexStats.getTotalUpdateLatency() + indexStats.getTotalUpdateLatency());
             freshIndexStats.setRemoveCount(freshIndexStats.getRemoveCount() + indexStats.getRemoveCount());
             freshIndexStats.setTotalRemoveLatency(freshIndexStats.getTotalRemoveLatency() + indexStats.getTotalRemoveLatency());
+            freshIndexStats.setPopulationCount(freshIndexStats.getPopulationCount() + indexStats.getPopulationCount());
+            freshIndexStats.setPopulatedEntryCount(
+                    freshIndexStats.getPopulatedEntryCount() + indexStats.getPopulatedEntryCount());
+            freshIndexStats.setTotalPopulationLatency(
+                    freshIndexStats.getTotalPopulationLatency() + indexStats.getTotalPopulationLatency());
         }
 
         return freshStats;
@@ -42,10 +42,13 @@ import com.hazelcast.map.impl.eviction.Evictor;
 import com.hazelcast.map.impl.eviction.EvictorImpl;
 import com.hazelcast.map.impl.mapstore.MapStoreContext;
 import com.hazelcast.map.impl.nearcache.invalidation.InvalidationListener;
+import com.hazelcast.map.impl.query.IndexAdvisor;
+import com.hazelcast.map.impl.query.MaterializedAggregations;
 import com.hazelcast.map.impl.query.QueryEntryFactory;
 import com.hazelcast.map.impl.record.DataRecordFactory;
 import com.hazelcast.map.impl.record.ObjectRecordFactory;
 import com.hazelcast.map.impl.record.RecordFactory;
+import com.hazelcast.map.impl.recordstore.AsyncIndexUpdater;
 import com.hazelcast.partition.PartitioningStrategy;
 import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.Indexes;
@@ -68,6 +71,8 @@ import static com.hazelcast.config.InMemoryFormat.OBJECT;
 import static com.hazelcast.internal.eviction.EvictionPolicyEvaluatorProvider.getEvictionPolicyComparator;
 import static com.hazelcast.map.impl.eviction.Evictor.NULL_EVICTOR;
 import static com.hazelcast.map.impl.mapstore.MapStoreContextFactory.createMapStoreContext;
+import static com.hazelcast.map.impl.query.MaterializedAggregations.MATERIALIZED_AGGREGATION_LIMIT;
+import static com.hazelcast.map.impl.recordstore.AsyncIndexUpdater.ASYNC_INDEX_ENABLED;
 import static com.hazelcast.spi.properties.ClusterProperty.MAP_EVICTION_BATCH_SIZE;
 import static java.lang.System.getProperty;
 
@@ -91,6 +96,10 @@ public class MapContainer {
     protected final QueryEntryFactory queryEntryFactory;
     protected final EventJournalConfig eventJournalConfig;
     protected final PartitioningStrategy partitioningStrategy;
+    protected final MaterializedAggregations materializedAggregations;
+    protected final IndexAdvisor indexAdvisor;
+    // null unless the global indexes are maintained asynchronously
+    protected final AsyncIndexUpdater asyncIndexUpdater;
     protected final InternalSerializationService serializationService;
     protected final Function<Object, Data> toDataFunction = new ObjectToData();
     protected final InterceptorRegistry interceptorRegistry = new InterceptorRegistry();
@@ -134,6 +143,13 @@ public class MapContainer {
         this.queryEntryFactory = new QueryEntryFactory(mapConfig.getCacheDeserializedValues(),
                 serializationService, extractors);
         this.globalIndexes = shouldUseGlobalIndex() ? createIndexes(true) : null;
+        this.materializedAggregations = new MaterializedAggregations(
+                nodeEngine.getProperties().getInteger(MATERIALIZED_AGGREGATION_LIMIT),
+                nodeEngine.getPartitionService().getPartitionCount(), mapConfig.getInMemoryFormat(),
+                mapConfig.getTimeToLiveSeconds() > 0 || mapConfig.getMaxIdleSeconds() > 0, serializationService);
+        this.indexAdvisor = new IndexAdvisor(name, nodeEngine);
+        this.asyncIndexUpdater = globalIndexes != null && nodeEngine.getProperties().getBoolean(ASYNC_INDEX_ENABLED)
+                ? new AsyncIndexUpdater(globalIndexes, nodeEngine) : null;
         this.mapStoreContext = createMapStoreContext(this);
         initWanReplication(mapServiceContext.getNodeEngine());
     }
@@ -275,6 +291,23 @@ public class MapContainer {
     /**
      * @return the global index, if the global index is in use or null.
      */
+    public MaterializedAggregations getMaterializedAggregations() {
+        return materializedAggregations;
+    }
+
+    public IndexAdvisor getIndexAdvisor() {
+        return indexAdvisor;
+    }
+
+    /**
+     * @return the updater applying the updates of the global indexes
+     * asynchronously or {@code null} if the indexes are updated
+     * synchronously.
+     */
+    public AsyncIndexUpdater getAsyncIndexUpdater() {
+        return asyncIndexUpdater;
+    }
+
     public Indexes getIndexes() {
         return globalIndexes;
     }
@@ -25,6 +25,7 @@ import com.hazelcast.internal.serialization.impl.ArrayDataSerializableFactory;
 import com.hazelcast.internal.serialization.impl.FactoryIdHelper;
 import com.hazelcast.internal.util.ConstructorFunction;
 import com.hazelcast.map.impl.iterator.MapEntriesWithCursor;
+import com.hazelcast.map.impl.iterator.MapEntriesWithIndexCursor;
 import com.hazelcast.map.impl.iterator.MapKeysWithCursor;
 import com.hazelcast.map.impl.journal.DeserializingEventJournalMapEvent;
 import com.hazelcast.map.impl.journal.InternalEventJournalMapEvent;
@@ -65,6 +66,7 @@ import com.hazelcast.map.impl.operation.KeyLoadStatusOperationFactory;
 import com.hazelcast.map.impl.operation.LoadAllOperation;
 import com.hazelcast.map.impl.operation.LoadMapOperation;
 import com.hazelcast.map.impl.operation.MapFetchEntriesOperation;
+import com.hazelcast.map.impl.operation.MapFetchIndexOperation;
 import com.hazelcast.map.impl.operation.MapFetchKeysOperation;
 import com.hazelcast.map.impl.operation.MapFetchWithQueryOperation;
 import com.hazelcast.map.impl.operation.MapFlushBackupOperation;
@@ -316,8 +318,10 @@ public final class MapDataSerializerHook implements DataSerializerHook {
     public static final int COMPUTE_MAP_OPERATION_PROCESSOR = 151;
     public static final int MERGE_MAP_OPERATION_PROCESSOR = 152;
     public static final int MAP_ENTRY_REPLACING_PROCESSOR = 153;
+    public static final int FETCH_INDEX = 154;
+    public static final int ENTRIES_WITH_INDEX_CURSOR = 155;
 
-    private static final int LEN = MAP_ENTRY_REPLACING_PROCESSOR + 1;
+    private static final int LEN = ENTRIES_WITH_INDEX_CURSOR + 1;
 
     @Override
     public int getFactoryId() {
@@ -479,6 +483,8 @@ public final class MapDataSerializerHook implements DataSerializerHook {
         constructors[COMPUTE_MAP_OPERATION_PROCESSOR] = arg -> new ComputeEntryProcessor<>();
         constructors[MERGE_MAP_OPERATION_PROCESSOR] = arg -> new MergeEntryProcessor<>();
         constructors[MAP_ENTRY_REPLACING_PROCESSOR] = arg -> new MapEntryReplacingEntryProcessor<>();
+        constructors[FETCH_INDEX] = arg -> new MapFetchIndexOperation();
+        constructors[ENTRIES_WITH_INDEX_CURSOR] = arg -> new MapEntriesWithIndexCursor();
 
         return new ArrayDataSerializableFactory(constructors);
     }
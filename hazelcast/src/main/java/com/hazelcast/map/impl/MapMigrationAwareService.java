@@ -16,6 +16,9 @@
 
 package com.hazelcast.map.impl;
 
+import com.hazelcast.config.HotRestartConfig;
+import com.hazelcast.internal.hotrestart.InternalHotRestartService;
+import com.hazelcast.internal.hotrestart.impl.LocalHotRestartService;
 import com.hazelcast.internal.nearcache.impl.invalidation.MetaDataGenerator;
 import com.hazelcast.internal.partition.FragmentedMigrationAwareService;
 import com.hazelcast.internal.partition.MigrationEndpoint;
@@ -31,12 +34,14 @@ import com.hazelcast.map.impl.querycache.QueryCacheContext;
 import com.hazelcast.map.impl.querycache.publisher.PublisherContext;
 import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.Records;
+import com.hazelcast.map.impl.recordstore.AsyncIndexUpdater;
 import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.map.impl.recordstore.RecordStoreAdapter;
 import com.hazelcast.query.impl.Index;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.InternalIndex;
 import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.impl.NodeEngineImpl;
 import com.hazelcast.spi.impl.operationservice.Operation;
 
 import java.util.Collection;
@@ -171,6 +176,33 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
         mapServiceContext.nullifyOwnedPartitions();
 
         removeOrRegenerateNearCacheUuid(event);
+        updateHotRestartStores(event);
+    }
+
+    /**
+     * Only primary replicas are persisted by the hot restart persistence,
+     * the new primary replica persists the partition and the old one
+     * clears its persisted copy.
+     */
+    private void updateHotRestartStores(PartitionMigrationEvent event) {
+        InternalHotRestartService hotRestartService = ((NodeEngineImpl) mapServiceContext.getNodeEngine())
+                .getNode().getNodeExtension().getInternalHotRestartService();
+        if (!(hotRestartService instanceof LocalHotRestartService)) {
+            return;
+        }
+        boolean promoted = DESTINATION == event.getMigrationEndpoint() && event.getNewReplicaIndex() == 0;
+        boolean demoted = SOURCE == event.getMigrationEndpoint() && event.getNewReplicaIndex() > 0;
+        if (!promoted && !demoted) {
+            return;
+        }
+        PartitionContainer partitionContainer = mapServiceContext.getPartitionContainer(event.getPartitionId());
+        for (RecordStore recordStore : partitionContainer.getAllRecordStores()) {
+            HotRestartConfig hotRestartConfig = recordStore.getMapContainer().getMapConfig().getHotRestartConfig();
+            if (hotRestartConfig.isEnabled()) {
+                ((LocalHotRestartService) hotRestartService)
+                        .commitMigration(recordStore, promoted, hotRestartConfig.isFsync());
+            }
+        }
     }
 
     private void removeOrRegenerateNearCacheUuid(PartitionMigrationEvent event) {
@@ -280,6 +312,8 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
                 continue;
             }
 
+            applyQueuedIndexUpdates(mapContainer, event.getPartitionId());
+
             InternalIndex[] indexesSnapshot = indexes.getIndexes();
 
             Indexes.beginPartitionUpdate(indexesSnapshot);
@@ -320,6 +354,8 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
                 continue;
             }
 
+            applyQueuedIndexUpdates(mapContainer, event.getPartitionId());
+
             InternalIndex[] indexesSnapshot = indexes.getIndexes();
 
             Indexes.beginPartitionUpdate(indexesSnapshot);
@@ -337,6 +373,18 @@ class MapMigrationAwareService implements FragmentedMigrationAwareService {
         }
     }
 
+    /**
+     * Applies the index updates of the partition still queued for the
+     * asynchronous application, so they can't bring back the entries
+     * depopulated from the indexes or override the populated ones.
+     */
+    private static void applyQueuedIndexUpdates(MapContainer mapContainer, int partitionId) {
+        AsyncIndexUpdater asyncIndexUpdater = mapContainer.getAsyncIndexUpdater();
+        if (asyncIndexUpdater != null) {
+            asyncIndexUpdater.applyQueued(partitionId);
+        }
+    }
+
     private enum TargetIndexes {
         GLOBAL, NON_GLOBAL
     }
@@ -45,7 +45,10 @@ import com.hazelcast.internal.services.TransactionalService;
 import com.hazelcast.internal.services.WanSupportingService;
 import com.hazelcast.map.LocalMapStats;
 import com.hazelcast.map.impl.event.MapEventPublishingService;
+import com.hazelcast.map.impl.query.IndexAdvice;
 import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.map.impl.recordstore.TieredStorageImpl;
+import com.hazelcast.map.impl.recordstore.TieredStorageStats;
 import com.hazelcast.nearcache.NearCacheStats;
 import com.hazelcast.query.LocalIndexStats;
 import com.hazelcast.spi.impl.CountingMigrationAwareService;
@@ -70,8 +73,12 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_DISCR
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_ENTRY_PROCESSOR_OFFLOADABLE_EXECUTOR;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_INDEX;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_INDEX_ADVICE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_NEARCACHE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_TIERED_STORAGE;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_TAG_INDEX;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_TAG_INDEX_ADVICE_ATTRIBUTES;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_TAG_INDEX_ADVICE_TYPE;
 
 /**
  * Defines map service behavior.
@@ -313,6 +320,22 @@ public class MapService implements ManagedService, FragmentedMigrationAwareServi
                 context.collect(indexDescriptor, indexEntry.getValue());
             }
 
+            // index advice
+            MapContainer mapContainer = mapServiceContext.getMapContainers().get(mapName);
+            if (mapContainer != null) {
+                // the attributes are joined with a character neither JMX nor
+                // the metric string escape
+                for (IndexAdvice advice : mapContainer.getIndexAdvisor().getAdvices()) {
+                    MetricDescriptor adviceDescriptor = descriptor
+                            .copy()
+                            .withPrefix(MAP_PREFIX_INDEX_ADVICE)
+                            .withDiscriminator(MAP_DISCRIMINATOR_NAME, mapName)
+                            .withTag(MAP_TAG_INDEX_ADVICE_TYPE, advice.getCandidateType().name())
+                            .withTag(MAP_TAG_INDEX_ADVICE_ATTRIBUTES, String.join("+", advice.getAttributes()));
+                    context.collect(adviceDescriptor, advice);
+                }
+            }
+
             // near cache
             NearCacheStats nearCacheStats = localInstanceStats.getNearCacheStats();
             if (nearCacheStats != null) {
@@ -323,6 +346,15 @@ public class MapService implements ManagedService, FragmentedMigrationAwareServi
                 context.collect(nearCacheDescriptor, nearCacheStats);
             }
 
+            // tiered storage
+            TieredStorageStats tieredStorageStats = createTieredStorageStats(mapName);
+            if (tieredStorageStats != null) {
+                MetricDescriptor tieredStorageDescriptor = descriptor
+                        .copy()
+                        .withPrefix(MAP_PREFIX_TIERED_STORAGE)
+                        .withDiscriminator(MAP_DISCRIMINATOR_NAME, mapName);
+                context.collect(tieredStorageDescriptor, tieredStorageStats);
+            }
         }
         // stats of offloaded-entry-processor's executor
         ExecutorStats executorStats = mapServiceContext.getOffloadedEntryProcessorExecutorStats();
@@ -334,4 +366,22 @@ public class MapService implements ManagedService, FragmentedMigrationAwareServi
             context.collect(nearCacheDescriptor, offloadedExecutorStats);
         });
     }
+
+    private TieredStorageStats createTieredStorageStats(String mapName) {
+        if (!mapServiceContext.getNodeEngine().getProperties().getBoolean(TieredStorageImpl.TIERED_STORAGE_ENABLED)) {
+            return null;
+        }
+
+        TieredStorageStats stats = null;
+        for (PartitionContainer partitionContainer : mapServiceContext.getPartitionContainers()) {
+            RecordStore recordStore = partitionContainer.getExistingRecordStore(mapName);
+            if (recordStore != null && recordStore.getStorage() instanceof TieredStorageImpl) {
+                if (stats == null) {
+                    stats = new TieredStorageStats();
+                }
+                stats.add((TieredStorageImpl) recordStore.getStorage());
+            }
+        }
+        return stats;
+    }
 }
@@ -59,6 +59,7 @@ import com.hazelcast.map.impl.query.AggregationResult;
 import com.hazelcast.map.impl.query.AggregationResultProcessor;
 import com.hazelcast.map.impl.query.CallerRunsAccumulationExecutor;
 import com.hazelcast.map.impl.query.CallerRunsPartitionScanExecutor;
+import com.hazelcast.map.impl.query.ForkJoinPartitionScanExecutor;
 import com.hazelcast.map.impl.query.ParallelAccumulationExecutor;
 import com.hazelcast.map.impl.query.ParallelPartitionScanExecutor;
 import com.hazelcast.map.impl.query.PartitionScanExecutor;
@@ -108,6 +109,8 @@ import static com.hazelcast.map.impl.MapKeyLoader.LOADED_KEY_LIMITER_PER_NODE;
 import static com.hazelcast.map.impl.MapKeyLoader.PROP_LOADED_KEY_LIMITER_PER_NODE;
 import static com.hazelcast.map.impl.MapListenerFlagOperator.setAndGetListenerFlags;
 import static com.hazelcast.map.impl.MapService.SERVICE_NAME;
+import static com.hazelcast.map.impl.query.ForkJoinPartitionScanExecutor.WORK_STEALING_ENABLED;
+import static com.hazelcast.map.impl.query.ForkJoinPartitionScanExecutor.WORK_STEALING_PARALLELISM;
 import static com.hazelcast.query.impl.predicates.QueryOptimizerFactory.newOptimizer;
 import static com.hazelcast.spi.impl.executionservice.ExecutionService.QUERY_EXECUTOR;
 import static com.hazelcast.spi.impl.operationservice.Operation.GENERIC_PARTITION_ID;
@@ -156,6 +159,7 @@ class MapServiceContextImpl implements MapServiceContext {
     private final Semaphore nodeWideLoadedKeyLimiter;
 
     private MapService mapService;
+    private ForkJoinPartitionScanExecutor forkJoinPartitionScanExecutor;
 
     private volatile PartitionIdSet ownedPartitions;
 
@@ -241,7 +245,14 @@ class MapServiceContextImpl implements MapServiceContext {
                                                PartitionScanRunner partitionScanRunner) {
         boolean parallelEvaluation = nodeEngine.getProperties().getBoolean(QUERY_PREDICATE_PARALLEL_EVALUATION);
         PartitionScanExecutor partitionScanExecutor;
-        if (parallelEvaluation) {
+        if (parallelEvaluation && nodeEngine.getProperties().getBoolean(WORK_STEALING_ENABLED)) {
+            int opTimeoutInMillis = nodeEngine.getProperties().getInteger(OPERATION_CALL_TIMEOUT_MILLIS);
+            int parallelism = nodeEngine.getProperties().getInteger(WORK_STEALING_PARALLELISM);
+            forkJoinPartitionScanExecutor = new ForkJoinPartitionScanExecutor(partitionScanRunner,
+                    nodeEngine.getHazelcastInstance().getName(), parallelism,
+                    nodeEngine.getPartitionService().getPartitionCount(), opTimeoutInMillis);
+            partitionScanExecutor = forkJoinPartitionScanExecutor;
+        } else if (parallelEvaluation) {
             int opTimeoutInMillis = nodeEngine.getProperties().getInteger(OPERATION_CALL_TIMEOUT_MILLIS);
             ManagedExecutorService queryExecutorService = nodeEngine.getExecutionService().getExecutor(QUERY_EXECUTOR);
             partitionScanExecutor = new ParallelPartitionScanExecutor(partitionScanRunner, queryExecutorService,
@@ -466,6 +477,9 @@ class MapServiceContextImpl implements MapServiceContext {
         mapContainers.clear();
         expirationManager.onShutdown();
         offloadedExecutorStats.clear();
+        if (forkJoinPartitionScanExecutor != null) {
+            forkJoinPartitionScanExecutor.shutdown();
+        }
     }
 
     @Override
@@ -0,0 +1,121 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.iterator;
+
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Container class for a chunk of entries read from a sorted index of a
+ * single member, in the order of the index. Along with every entry, the
+ * index value it's sorted by is carried, so the caller is able to merge
+ * the chunks of all members and to continue the iteration after the last
+ * returned entry.
+ *
+ * @see MapIndexOrderedIterator
+ */
+public class MapEntriesWithIndexCursor implements IdentifiedDataSerializable {
+
+    private List<Map.Entry<Data, Data>> entries;
+    private List<Comparable> values;
+    private boolean exhausted;
+    private long partitionStateStamp;
+
+    public MapEntriesWithIndexCursor() {
+    }
+
+    /**
+     * @param entries             the entries in the index order.
+     * @param values              the index values of the entries, {@code null}
+     *                            for the entries having no value.
+     * @param exhausted           {@code true} if there are no more entries
+     *                            after the given ones on the member.
+     * @param partitionStateStamp the partition state stamp of the member at
+     *                            the time the entries were read.
+     */
+    public MapEntriesWithIndexCursor(List<Map.Entry<Data, Data>> entries, List<Comparable> values, boolean exhausted,
+                                     long partitionStateStamp) {
+        this.entries = entries;
+        this.values = values;
+        this.exhausted = exhausted;
+        this.partitionStateStamp = partitionStateStamp;
+    }
+
+    public List<Map.Entry<Data, Data>> getEntries() {
+        return entries;
+    }
+
+    public List<Comparable> getValues() {
+        return values;
+    }
+
+    public boolean isExhausted() {
+        return exhausted;
+    }
+
+    public long getPartitionStateStamp() {
+        return partitionStateStamp;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MapDataSerializerHook.ENTRIES_WITH_INDEX_CURSOR;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeBoolean(exhausted);
+        out.writeLong(partitionStateStamp);
+        out.writeInt(entries.size());
+        for (int i = 0; i < entries.size(); ++i) {
+            Map.Entry<Data, Data> entry = entries.get(i);
+            IOUtil.writeData(out, entry.getKey());
+            IOUtil.writeData(out, entry.getValue());
+            out.writeObject(values.get(i));
+        }
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        exhausted = in.readBoolean();
+        partitionStateStamp = in.readLong();
+        int size = in.readInt();
+        entries = new ArrayList<>(size);
+        values = new ArrayList<>(size);
+        for (int i = 0; i < size; ++i) {
+            Data key = IOUtil.readData(in);
+            Data value = IOUtil.readData(in);
+            entries.add(new AbstractMap.SimpleEntry<>(key, value));
+            values.add(in.readObject());
+        }
+    }
+}
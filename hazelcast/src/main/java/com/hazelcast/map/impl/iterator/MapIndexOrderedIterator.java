@@ -0,0 +1,194 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.iterator;
+
+import com.hazelcast.cluster.Member;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.query.impl.BTreeIndexStore;
+import com.hazelcast.query.impl.Comparables;
+import com.hazelcast.spi.impl.InternalCompletableFuture;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.operationservice.Operation;
+
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.ConcurrentModificationException;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.PriorityQueue;
+
+import static com.hazelcast.cluster.memberselector.MemberSelectors.DATA_MEMBER_SELECTOR;
+
+/**
+ * Iterates the entries of a map in the order of a sorted index.
+ * <p>
+ * Every data member is asked for chunks of at most {@code fetchSize}
+ * entries of its local partitions, already ordered by its index. The
+ * chunks of all the members are merged on the caller, so the caller never
+ * holds more than one chunk per member. Each member continues after the
+ * last entry it returned, which is identified by its index value and key,
+ * instead of skipping the preceding entries, so reading any chunk costs
+ * the same no matter how far the iteration is. The request for the next
+ * chunk of a member is sent as soon as its previous chunk arrives.
+ * <p>
+ * The entries are ordered by their index values, the entries without a
+ * value come first, and the entries having equal values are ordered by
+ * their serialized keys. Entries which are not mutated during the
+ * iteration are returned exactly once. If partitions migrate during the
+ * iteration, {@link ConcurrentModificationException} is thrown since the
+ * members no longer own the entries they started with.
+ *
+ * @param <K> the type of the keys.
+ * @param <V> the type of the values.
+ */
+public class MapIndexOrderedIterator<K, V> implements Iterator<Map.Entry<K, V>> {
+
+    private final MapProxyImpl<K, V> mapProxy;
+    private final String attribute;
+    private final int fetchSize;
+    private final PriorityQueue<MemberCursor> cursors = new PriorityQueue<>();
+    private final List<MemberCursor> pendingCursors = new ArrayList<>();
+
+    private long partitionStateStamp;
+    private boolean partitionStateStampKnown;
+
+    public MapIndexOrderedIterator(MapProxyImpl<K, V> mapProxy, String attribute, int fetchSize) {
+        this.mapProxy = mapProxy;
+        this.attribute = attribute;
+        this.fetchSize = fetchSize;
+        Collection<Member> members = mapProxy.getNodeEngine().getClusterService().getMembers(DATA_MEMBER_SELECTOR);
+        for (Member member : members) {
+            MemberCursor cursor = new MemberCursor(member);
+            cursor.fetch(null, null);
+            pendingCursors.add(cursor);
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        // every member has to be positioned before the smallest entry is known
+        for (MemberCursor cursor : pendingCursors) {
+            if (cursor.advance()) {
+                cursors.add(cursor);
+            }
+        }
+        pendingCursors.clear();
+        return !cursors.isEmpty();
+    }
+
+    @Override
+    public Map.Entry<K, V> next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        MemberCursor cursor = cursors.poll();
+        Map.Entry<Data, Data> entry = cursor.entries.get(cursor.position);
+        cursor.position++;
+        pendingCursors.add(cursor);
+        NodeEngine nodeEngine = mapProxy.getNodeEngine();
+        return new AbstractMap.SimpleImmutableEntry<>(nodeEngine.toObject(entry.getKey()), nodeEngine.toObject(entry.getValue()));
+    }
+
+    private void checkPartitionStateStamp(long stamp) {
+        if (!partitionStateStampKnown) {
+            partitionStateStamp = stamp;
+            partitionStateStampKnown = true;
+        } else if (stamp != partitionStateStamp) {
+            throw new ConcurrentModificationException("Partitions of map " + mapProxy.getName()
+                    + " migrated during the ordered iteration");
+        }
+    }
+
+    /**
+     * The position of the iteration within the entries of a single member.
+     */
+    private final class MemberCursor implements Comparable<MemberCursor> {
+
+        private final Member member;
+        private InternalCompletableFuture<MapEntriesWithIndexCursor> pendingChunk;
+        private List<Map.Entry<Data, Data>> entries = new ArrayList<>();
+        private List<Comparable> values = new ArrayList<>();
+        private int position;
+
+        private MemberCursor(Member member) {
+            this.member = member;
+        }
+
+        /**
+         * Moves to the next entry, fetching the next chunk if the current
+         * one is consumed.
+         *
+         * @return {@code true} if there is an entry at the position,
+         * {@code false} if the member has no more entries.
+         */
+        private boolean advance() {
+            while (position == entries.size()) {
+                if (pendingChunk == null) {
+                    return false;
+                }
+                MapEntriesWithIndexCursor chunk = pendingChunk.joinInternal();
+                checkPartitionStateStamp(chunk.getPartitionStateStamp());
+                entries = chunk.getEntries();
+                values = chunk.getValues();
+                position = 0;
+                pendingChunk = null;
+                if (!chunk.isExhausted() && !entries.isEmpty()) {
+                    int last = entries.size() - 1;
+                    fetch(values.get(last), entries.get(last).getKey());
+                }
+            }
+            return true;
+        }
+
+        private void fetch(Comparable lastValue, Data lastKey) {
+            Operation op = mapProxy.getOperationProvider()
+                    .createFetchIndexOperation(mapProxy.getName(), attribute, lastValue, lastKey, fetchSize);
+            pendingChunk = mapProxy.getOperationService()
+                    .invokeOnTarget(mapProxy.getServiceName(), op, member.getAddress());
+        }
+
+        @Override
+        public int compareTo(MemberCursor that) {
+            Comparable value = values.get(position);
+            Comparable thatValue = that.values.get(that.position);
+            if (value != thatValue) {
+                if (value == null || thatValue == null) {
+                    return value == null ? -1 : 1;
+                }
+                int order = Comparables.compare(value, thatValue);
+                if (order != 0) {
+                    return order;
+                }
+            }
+            return BTreeIndexStore.compareKeys(entries.get(position).getKey(), that.entries.get(that.position).getKey());
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return this == o;
+        }
+
+        @Override
+        public int hashCode() {
+            return member.hashCode();
+        }
+    }
+}
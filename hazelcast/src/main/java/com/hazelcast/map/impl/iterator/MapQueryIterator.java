@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.iterator;
+
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.map.impl.operation.MapOperation;
+import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.map.impl.query.Query;
+import com.hazelcast.map.impl.query.QueryResult;
+import com.hazelcast.map.impl.query.QueryResultRow;
+import com.hazelcast.map.impl.query.ResultSegment;
+import com.hazelcast.spi.impl.InternalCompletableFuture;
+
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Streams the results of a query over all partitions of a map.
+ * <p>
+ * Up to {@code maxConcurrentPartitions} partitions are queried at the
+ * same time, each in chunks of at most {@code fetchSize} matching entries.
+ * Every chunk response carries the iteration pointers from which the
+ * partition scan is continued by the next request, which is sent as soon
+ * as the chunk arrives, so fetching overlaps with the consumption of the
+ * previous chunks. Once a partition is exhausted, the next partition not
+ * queried yet takes its place. Members therefore never build more than one
+ * chunk of the result per partition, the caller holds at most
+ * {@code maxConcurrentPartitions} chunks and the query is not subject to
+ * the query result size limit.
+ * <p>
+ * The same consistency guarantees apply as for the
+ * {@link MapQueryPartitionIterator}: entries which are not mutated during
+ * the iteration are returned exactly once.
+ */
+public class MapQueryIterator implements Iterator<QueryResultRow> {
+
+    private final MapProxyImpl<?, ?> mapProxy;
+    private final int fetchSize;
+    private final Query query;
+    private final int partitionCount;
+    private final Deque<PartitionCursor> cursors = new ArrayDeque<>();
+
+    private int nextPartitionId;
+    private Iterator<QueryResultRow> chunk = Collections.emptyIterator();
+
+    public MapQueryIterator(MapProxyImpl<?, ?> mapProxy, int fetchSize, int maxConcurrentPartitions, Query query) {
+        this.mapProxy = mapProxy;
+        this.fetchSize = fetchSize;
+        this.query = query;
+        this.partitionCount = mapProxy.getNodeEngine().getPartitionService().getPartitionCount();
+        while (cursors.size() < maxConcurrentPartitions && nextPartitionId < partitionCount) {
+            startNextPartition();
+        }
+    }
+
+    @Override
+    public boolean hasNext() {
+        while (!chunk.hasNext()) {
+            PartitionCursor cursor = cursors.poll();
+            if (cursor == null) {
+                return false;
+            }
+            ResultSegment segment = cursor.pendingChunk.joinInternal();
+            QueryResult result = (QueryResult) segment.getResult();
+            IterationPointer[] pointers = segment.getPointers();
+            if (result.isEmpty() || pointers[pointers.length - 1].getIndex() < 0) {
+                // the partition is exhausted, continue with the next one
+                if (nextPartitionId < partitionCount) {
+                    startNextPartition();
+                }
+            } else {
+                cursor.fetch(pointers);
+                cursors.add(cursor);
+            }
+            chunk = result.iterator();
+        }
+        return true;
+    }
+
+    @Override
+    public QueryResultRow next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        return chunk.next();
+    }
+
+    private void startNextPartition() {
+        PartitionCursor cursor = new PartitionCursor(nextPartitionId++);
+        cursor.fetch(new IterationPointer[]{new IterationPointer(Integer.MAX_VALUE, -1)});
+        cursors.add(cursor);
+    }
+
+    /**
+     * The partition scan of one partition with its outstanding chunk request.
+     */
+    private final class PartitionCursor {
+        private final int partitionId;
+        private InternalCompletableFuture<ResultSegment> pendingChunk;
+
+        PartitionCursor(int partitionId) {
+            this.partitionId = partitionId;
+        }
+
+        void fetch(IterationPointer[] pointers) {
+            MapOperation op = mapProxy.getOperationProvider()
+                    .createFetchWithQueryOperation(mapProxy.getName(), pointers, fetchSize, query);
+            pendingChunk = mapProxy.getOperationService().invokeOnPartition(mapProxy.getServiceName(), op, partitionId);
+        }
+    }
+}
@@ -35,6 +35,8 @@ import com.hazelcast.spi.impl.operationservice.Operation;
 import com.hazelcast.spi.impl.operationservice.PartitionAwareOperation;
 
 import java.io.IOException;
+import java.util.ArrayList;
+import java.util.List;
 
 public class AddIndexOperation extends MapOperation
         implements PartitionAwareOperation, MutatingOperation, BackupAwareOperation {
@@ -93,13 +95,15 @@ public class AddIndexOperation extends MapOperation
 
         index.beginPartitionUpdate();
 
+        List<QueryableEntry> entries = new ArrayList<>(recordStore.size());
         recordStore.forEach((dataKey, record) -> {
             Object value = Records.getValueOrCachedValue(record, serializationService);
             QueryableEntry queryEntry = mapContainer.newQueryEntry(dataKey, value);
             queryEntry.setRecord(record);
             queryEntry.setStoreAdapter(recordStoreAdapter);
-            index.putEntry(queryEntry, null, Index.OperationSource.USER);
+            entries.add(queryEntry);
         }, false);
+        index.putEntries(entries, Index.OperationSource.USER);
 
         index.markPartitionAsIndexed(partitionId);
     }
@@ -303,4 +303,10 @@ public class DefaultMapOperationProvider implements MapOperationProvider {
                                                       Query query) {
         return new MapFetchWithQueryOperation(name, pointers, fetchSize, query);
     }
+
+    @Override
+    public Operation createFetchIndexOperation(String name, String attribute, Comparable lastValue, Data lastKey,
+                                               int fetchSize) {
+        return new MapFetchIndexOperation(name, attribute, lastValue, lastKey, fetchSize);
+    }
 }
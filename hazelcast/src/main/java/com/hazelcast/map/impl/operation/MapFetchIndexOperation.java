@@ -0,0 +1,287 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.operation;
+
+import com.hazelcast.core.MemberLeftException;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.nio.IOUtil;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapDataSerializerHook;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.iterator.MapEntriesWithIndexCursor;
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.query.impl.BTreeIndexStore;
+import com.hazelcast.query.impl.Comparables;
+import com.hazelcast.query.impl.Comparison;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.InternalIndex;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.getters.MultiResult;
+import com.hazelcast.spi.exception.RetryableHazelcastException;
+import com.hazelcast.spi.exception.TargetNotMemberException;
+import com.hazelcast.spi.impl.operationservice.AbstractNamedOperation;
+import com.hazelcast.spi.impl.operationservice.ExceptionAction;
+import com.hazelcast.spi.impl.operationservice.ReadonlyOperation;
+
+import java.io.IOException;
+import java.util.AbstractMap;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static com.hazelcast.query.impl.IndexUtils.canonicalizeAttribute;
+import static com.hazelcast.spi.impl.operationservice.ExceptionAction.THROW_EXCEPTION;
+
+/**
+ * Fetches a chunk of the entries of the local partitions of a map in the
+ * order of a sorted global index.
+ * <p>
+ * The entries are ordered by their index values, the entries without a
+ * value come first, and the entries having equal values are ordered by
+ * their serialized keys. The chunk starts right after the entry identified
+ * by the given last value and key, so continuing the iteration costs as
+ * much as reading the chunk itself and not the entries preceding it.
+ */
+public class MapFetchIndexOperation extends AbstractNamedOperation implements ReadonlyOperation {
+
+    private String attribute;
+    private Comparable lastValue;
+    private Data lastKey;
+    private int fetchSize;
+
+    private transient InternalIndex index;
+    private transient String canonicalAttribute;
+    private transient List<QueryableEntry> chunk;
+    private transient List<Comparable> chunkValues;
+    private transient MapEntriesWithIndexCursor response;
+
+    public MapFetchIndexOperation() {
+    }
+
+    /**
+     * @param name      the name of the map.
+     * @param attribute the attribute of the sorted index to iterate.
+     * @param lastValue the index value of the last entry returned by the
+     *                  previous chunk, {@code null} if it has no value.
+     * @param lastKey   the key of the last entry returned by the previous
+     *                  chunk, {@code null} to start from the beginning.
+     * @param fetchSize the maximum number of entries to fetch.
+     */
+    public MapFetchIndexOperation(String name, String attribute, Comparable lastValue, Data lastKey, int fetchSize) {
+        super(name);
+        this.attribute = attribute;
+        this.lastValue = lastValue;
+        this.lastKey = lastKey;
+        this.fetchSize = fetchSize;
+    }
+
+    @Override
+    public void run() throws Exception {
+        MapServiceContext mapServiceContext = ((MapService) getService()).getMapServiceContext();
+        MapService mapService = mapServiceContext.getService();
+        int migrationStamp = mapService.getMigrationStamp();
+        long partitionStateStamp = getNodeEngine().getPartitionService().getPartitionStateStamp();
+
+        index = findIndex(mapServiceContext.getMapContainer(name),
+                mapServiceContext.getOrInitCachedMemberPartitions().size());
+        canonicalAttribute = canonicalizeAttribute(attribute);
+        chunk = new ArrayList<>(fetchSize);
+        chunkValues = new ArrayList<>(fetchSize);
+        boolean exhausted = fetch();
+
+        if (!mapService.validateMigrationStamp(migrationStamp)) {
+            throw new RetryableHazelcastException("Migration happened while fetching the index of map " + name);
+        }
+
+        List<Map.Entry<Data, Data>> entries = new ArrayList<>(chunk.size());
+        for (QueryableEntry entry : chunk) {
+            entries.add(new AbstractMap.SimpleEntry<>(entry.getKeyData(), entry.getValueData()));
+        }
+        response = new MapEntriesWithIndexCursor(entries, chunkValues, exhausted, partitionStateStamp);
+    }
+
+    private InternalIndex findIndex(MapContainer mapContainer, int ownedPartitionCount) {
+        Indexes indexes = mapContainer.getIndexes();
+        if (indexes == null) {
+            throw new UnsupportedOperationException("Ordered iteration requires global indexes, map: " + name);
+        }
+        if (mapContainer.getAsyncIndexUpdater() != null) {
+            mapContainer.getAsyncIndexUpdater().beforeQuery();
+        }
+        String canonical = canonicalizeAttribute(attribute);
+        for (InternalIndex candidate : indexes.getIndexes()) {
+            String[] components = candidate.getComponents();
+            if (candidate.isOrdered() && components.length == 1 && components[0].equals(canonical)) {
+                if (!candidate.allPartitionsIndexed(ownedPartitionCount)) {
+                    throw new RetryableHazelcastException("Index " + candidate.getName() + " of map " + name
+                            + " is not populated yet");
+                }
+                return candidate;
+            }
+        }
+        throw new IllegalArgumentException("There is no sorted index on attribute " + attribute + " of map " + name);
+    }
+
+    /**
+     * Fills the chunk with the entries following the last key.
+     *
+     * @return {@code true} if there are no more entries after the chunk,
+     * {@code false} otherwise.
+     */
+    private boolean fetch() {
+        if (index.getConverter() == null) {
+            // nothing is indexed yet
+            return true;
+        }
+        if (lastKey == null || lastValue == null) {
+            // the entries without a value come first
+            if (appendSorted(collect(index.getSqlRecordIterator((Comparable) null)), NULL)) {
+                return false;
+            }
+            return appendFrom(index.getSqlRecordIterator());
+        }
+
+        if (appendSorted(collect(index.getSqlRecordIterator(lastValue)), index.getConverter().convert(lastValue))) {
+            return false;
+        }
+        return appendFrom(index.getSqlRecordIterator(Comparison.GREATER, lastValue));
+    }
+
+    /**
+     * Appends the entries produced by the given index iterator to the chunk
+     * skipping the ones without a value. The iterator produces the entries
+     * in the order of their values, the entries having the same value are
+     * sorted by keys before they are appended.
+     *
+     * @return {@code true} if there are no more entries after the chunk,
+     * {@code false} otherwise.
+     */
+    private boolean appendFrom(Iterator<QueryableEntry> iterator) {
+        List<QueryableEntry> group = new ArrayList<>();
+        Comparable groupValue = null;
+        while (iterator.hasNext()) {
+            QueryableEntry entry = iterator.next();
+            Comparable value = valueOf(entry);
+            if (value == NULL) {
+                continue;
+            }
+            if (!group.isEmpty() && Comparables.compare(groupValue, value) != 0) {
+                if (appendSorted(group, groupValue) || chunk.size() == fetchSize) {
+                    return false;
+                }
+                group.clear();
+            }
+            groupValue = value;
+            group.add(entry);
+        }
+        return !appendSorted(group, groupValue);
+    }
+
+    /**
+     * Sorts the given entries having the same value by keys and appends
+     * the ones following the last key to the chunk.
+     *
+     * @return {@code true} if some of the entries didn't fit into the chunk,
+     * {@code false} otherwise.
+     */
+    private boolean appendSorted(List<QueryableEntry> group, Comparable value) {
+        group.sort((entry1, entry2) -> BTreeIndexStore.compareKeys(entry1.getKeyData(), entry2.getKeyData()));
+        for (QueryableEntry entry : group) {
+            if (lastKey != null && isLastValue(value) && BTreeIndexStore.compareKeys(entry.getKeyData(), lastKey) <= 0) {
+                continue;
+            }
+            if (chunk.size() == fetchSize) {
+                return true;
+            }
+            chunk.add(entry);
+            chunkValues.add(value == NULL ? null : value);
+        }
+        return false;
+    }
+
+    private boolean isLastValue(Comparable value) {
+        if (value == NULL || lastValue == null) {
+            return value == NULL && lastValue == null;
+        }
+        return Comparables.compare(index.getConverter().convert(lastValue), value) == 0;
+    }
+
+    private Comparable valueOf(QueryableEntry entry) {
+        Object value = entry.getAttributeValue(canonicalAttribute);
+        if (value instanceof MultiResult) {
+            throw new IllegalArgumentException("Ordered iteration is not supported for the multi-value attribute "
+                    + attribute + " of map " + name);
+        }
+        return index.getConverter().convert((Comparable) value);
+    }
+
+    private static List<QueryableEntry> collect(Iterator<QueryableEntry> iterator) {
+        List<QueryableEntry> entries = new ArrayList<>();
+        iterator.forEachRemaining(entries::add);
+        return entries;
+    }
+
+    @Override
+    public ExceptionAction onInvocationException(Throwable throwable) {
+        if (throwable instanceof MemberLeftException || throwable instanceof TargetNotMemberException) {
+            return THROW_EXCEPTION;
+        }
+        return super.onInvocationException(throwable);
+    }
+
+    @Override
+    public Object getResponse() {
+        return response;
+    }
+
+    @Override
+    public String getServiceName() {
+        return MapService.SERVICE_NAME;
+    }
+
+    @Override
+    public int getFactoryId() {
+        return MapDataSerializerHook.F_ID;
+    }
+
+    @Override
+    public int getClassId() {
+        return MapDataSerializerHook.FETCH_INDEX;
+    }
+
+    @Override
+    protected void writeInternal(ObjectDataOutput out) throws IOException {
+        super.writeInternal(out);
+        out.writeUTF(attribute);
+        out.writeObject(lastValue);
+        IOUtil.writeData(out, lastKey);
+        out.writeInt(fetchSize);
+    }
+
+    @Override
+    protected void readInternal(ObjectDataInput in) throws IOException {
+        super.readInternal(in);
+        attribute = in.readUTF();
+        lastValue = in.readObject();
+        lastKey = IOUtil.readData(in);
+        fetchSize = in.readInt();
+    }
+}
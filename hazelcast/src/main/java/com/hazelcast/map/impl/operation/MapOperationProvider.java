@@ -144,6 +144,14 @@ public interface MapOperationProvider {
      */
     MapOperation createFetchWithQueryOperation(String name, IterationPointer[] pointers, int fetchSize, Query query);
 
+    /**
+     * Creates an operation for fetching a chunk of the entries of the local
+     * partitions in the order of a sorted index.
+     *
+     * @see com.hazelcast.map.impl.proxy.MapProxyImpl#orderedIterator(int, String)
+     */
+    Operation createFetchIndexOperation(String name, String attribute, Comparable lastValue, Data lastKey, int fetchSize);
+
     OperationFactory createPartitionWideEntryOperationFactory(String name, EntryProcessor entryProcessor);
 
     OperationFactory createPartitionWideEntryWithPredicateOperationFactory(String name,
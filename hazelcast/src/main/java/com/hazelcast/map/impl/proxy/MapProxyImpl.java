@@ -40,12 +40,16 @@ import com.hazelcast.map.impl.MapEntryReplacingEntryProcessor;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MergeEntryProcessor;
 import com.hazelcast.map.impl.SimpleEntryView;
+import com.hazelcast.map.impl.iterator.MapIndexOrderedIterator;
 import com.hazelcast.map.impl.iterator.MapPartitionIterator;
+import com.hazelcast.map.impl.iterator.MapQueryIterator;
 import com.hazelcast.map.impl.iterator.MapQueryPartitionIterator;
 import com.hazelcast.map.impl.journal.MapEventJournalReadOperation;
 import com.hazelcast.map.impl.journal.MapEventJournalSubscribeOperation;
 import com.hazelcast.map.impl.query.AggregationResult;
+import com.hazelcast.map.impl.query.Query;
 import com.hazelcast.map.impl.query.QueryResult;
+import com.hazelcast.map.impl.query.StreamingQueryResultCollection;
 import com.hazelcast.map.impl.query.Target;
 import com.hazelcast.map.impl.querycache.QueryCacheContext;
 import com.hazelcast.map.impl.querycache.subscriber.QueryCacheEndToEndProvider;
@@ -81,6 +85,7 @@ import java.util.function.BiFunction;
 import java.util.function.Function;
 
 import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
+import static com.hazelcast.internal.util.IterableUtil.map;
 import static com.hazelcast.internal.util.MapUtil.createHashMap;
 import static com.hazelcast.internal.util.Preconditions.checkNoNullInside;
 import static com.hazelcast.internal.util.Preconditions.checkNotInstanceOf;
@@ -712,11 +717,27 @@ public class MapProxyImpl<K, V> extends MapProxySupport<K, V> implements EventJo
 
     private Set executePredicate(Predicate predicate, IterationType iterationType, boolean uniqueResult) {
         checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        if (isQueryStreamingApplicable(predicate)) {
+            incrementOtherOperationsStat();
+            return executeStreamingQuery(predicate, iterationType);
+        }
         QueryResult result = executeQueryInternal(predicate, iterationType, Target.ALL_NODES);
         incrementOtherOperationsStat();
         return transformToSet(serializationService, result, predicate, iterationType, uniqueResult, false);
     }
 
+    private Set executeStreamingQuery(Predicate predicate, IterationType iterationType) {
+        handleHazelcastInstanceAwareParams(predicate);
+        Query query = Query.of()
+                .mapName(getName())
+                .predicate(predicate)
+                .iterationType(iterationType)
+                .build();
+        return new StreamingQueryResultCollection(serializationService, iterationType,
+                () -> new MapQueryIterator(this, getQueryStreamingFetchSize(),
+                        getQueryStreamingMaxConcurrentPartitions(), query));
+    }
+
     @Override
     public Set<K> localKeySet() {
         return localKeySet(Predicates.alwaysTrue());
@@ -937,6 +958,78 @@ public class MapProxyImpl<K, V> extends MapProxySupport<K, V> implements EventJo
         return new MapQueryPartitionIterator<>(this, fetchSize, partitionId, predicate, projection);
     }
 
+    /**
+     * Returns an iterator for iterating the result of the projection on entries
+     * in all of the partitions which satisfy the predicate. A bounded number of
+     * partitions is queried concurrently in batches of at most {@code fetchSize}
+     * matching entries, the next batch is requested while the current one is consumed.
+     * Compared to {@link #values(Predicate)}, the result is never built as a
+     * whole, neither on the members nor on the caller, and it is not subject
+     * to the query result size limit.
+     * Predicates of type {@link PagingPredicate} are not supported.
+     * <b>NOTE</b>
+     * The same consistency guarantees apply as for
+     * {@link #iterator(int, int, Projection, Predicate)}.
+     *
+     * @param fetchSize  the size of the batches which will be sent when iterating the data
+     * @param projection the projection to apply before returning the value. {@code null} value
+     *                   is not allowed
+     * @param predicate  the predicate which the entries must match. {@code null} value is not
+     *                   allowed
+     * @param <R>        the return type
+     * @return the iterator for the projected entries
+     * @throws IllegalArgumentException if the predicate is of type {@link PagingPredicate}
+     */
+    public <R> Iterator<R> iterator(int fetchSize,
+                                    Projection<? super Map.Entry<K, V>, R> projection,
+                                    Predicate<K, V> predicate) {
+        if (predicate instanceof PagingPredicate) {
+            throw new IllegalArgumentException("Paging predicate is not allowed when iterating map by query");
+        }
+        checkPositive(fetchSize, "fetchSize should be positive");
+        checkNotNull(projection, NULL_PROJECTION_IS_NOT_ALLOWED);
+        checkNotNull(predicate, NULL_PREDICATE_IS_NOT_ALLOWED);
+        // HazelcastInstanceAware handled by cloning
+        projection = serializationService.toObject(serializationService.toData(projection));
+        handleHazelcastInstanceAwareParams(predicate);
+        Query query = Query.of()
+                .mapName(getName())
+                .iterationType(IterationType.VALUE)
+                .predicate(predicate)
+                .projection(projection)
+                .build();
+        return map(new MapQueryIterator(this, fetchSize, getQueryStreamingMaxConcurrentPartitions(), query),
+                row -> toObject(row.getValue()));
+    }
+
+    /**
+     * Returns an iterator for iterating all of the entries of the map in the
+     * order of the sorted index built on the given attribute. The entries
+     * without a value of the attribute come first, the entries having equal
+     * values are returned in an arbitrary but stable order.
+     * Every member is asked for batches of at most {@code fetchSize} entries
+     * of its partitions, already ordered by its index, and the batches are
+     * merged on the caller. Members continue after the last returned entry,
+     * so fetching a batch costs the same no matter how far the iteration is,
+     * unlike with {@link PagingPredicate}.
+     * <b>NOTE</b>
+     * Entries which are not mutated during the iteration are returned exactly
+     * once. If partitions migrate during the iteration, the iterator fails
+     * with {@link java.util.ConcurrentModificationException}.
+     *
+     * @param fetchSize the size of the batches which will be sent when iterating the data
+     * @param attribute the attribute of the sorted index to iterate in the order of. {@code null}
+     *                  value is not allowed
+     * @return the iterator for the entries
+     * @throws IllegalArgumentException if the map has no sorted index on the attribute, the
+     *                                  exception is thrown when the iteration starts
+     */
+    public Iterator<Entry<K, V>> orderedIterator(int fetchSize, String attribute) {
+        checkPositive(fetchSize, "fetchSize should be positive");
+        checkNotNull(attribute, "attribute cannot be null");
+        return new MapIndexOrderedIterator<>(this, attribute, fetchSize);
+    }
+
     @Override
     public CompletionStage<EventJournalInitialSubscriberState> subscribeToEventJournal(int partitionId) {
         final MapEventJournalSubscribeOperation op = new MapEventJournalSubscribeOperation(name);
@@ -47,6 +47,7 @@ import com.hazelcast.map.IMap;
 import com.hazelcast.map.LocalMapStats;
 import com.hazelcast.map.MapInterceptor;
 import com.hazelcast.map.impl.EntryEventFilter;
+import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapEntries;
 import com.hazelcast.map.impl.MapService;
 import com.hazelcast.map.impl.MapServiceContext;
@@ -74,9 +75,13 @@ import com.hazelcast.map.listener.MapListener;
 import com.hazelcast.map.listener.MapPartitionLostListener;
 import com.hazelcast.partition.PartitioningStrategy;
 import com.hazelcast.projection.Projection;
+import com.hazelcast.query.PagingPredicate;
 import com.hazelcast.query.PartitionPredicate;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.impl.IndexUtils;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryContext;
+import com.hazelcast.query.impl.predicates.IndexAwarePredicate;
 import com.hazelcast.spi.impl.AbstractDistributedObject;
 import com.hazelcast.spi.impl.InitializingObject;
 import com.hazelcast.spi.impl.InternalCompletableFuture;
@@ -197,6 +202,34 @@ abstract class MapProxySupport<K, V>
     private static final HazelcastProperty MAP_PUT_ALL_INITIAL_SIZE_FACTOR
             = new HazelcastProperty("hazelcast.map.put.all.initial.size.factor", 0);
 
+    /**
+     * Defines the chunk size of streaming predicate queries, in number of
+     * matching entries fetched from a partition per request.
+     * <p>
+     * With a positive value {@link IMap#entrySet(Predicate)},
+     * {@link IMap#keySet(Predicate)} and {@link IMap#values(Predicate)}
+     * stream their results partition by partition in chunks instead of
+     * letting every member build its complete local result. This bounds the
+     * memory needed on the members and such queries are not subject to the
+     * query result size limit. Paging and partition predicates are always
+     * executed as regular queries.
+     * <p>
+     * The results are returned as lazy views which execute the query again
+     * on every iteration. Predicates which can be evaluated by an index of
+     * the map are executed as regular indexed queries.
+     * <p>
+     * The default value of {@code 0} disables streaming.
+     */
+    private static final HazelcastProperty MAP_QUERY_STREAMING_FETCH_SIZE
+            = new HazelcastProperty("hazelcast.map.query.streaming.fetch.size", 0);
+
+    /**
+     * Defines the maximum number of partitions a streaming predicate query
+     * fetches chunks from at the same time.
+     */
+    private static final HazelcastProperty MAP_QUERY_STREAMING_MAX_CONCURRENT_PARTITIONS
+            = new HazelcastProperty("hazelcast.map.query.streaming.max.concurrent.partitions", 8);
+
     protected final String name;
     protected final LocalMapStatsImpl localMapStats;
     protected final LockProxySupport lockSupport;
@@ -214,6 +247,8 @@ abstract class MapProxySupport<K, V>
 
     private final int putAllBatchSize;
     private final float putAllInitialSizeFactor;
+    private final int queryStreamingFetchSize;
+    private final int queryStreamingMaxConcurrentPartitions;
 
     protected MapProxySupport(String name, MapService service, NodeEngine nodeEngine, MapConfig mapConfig) {
         super(nodeEngine, service);
@@ -237,6 +272,8 @@ abstract class MapProxySupport<K, V>
 
         this.putAllBatchSize = properties.getInteger(MAP_PUT_ALL_BATCH_SIZE);
         this.putAllInitialSizeFactor = properties.getFloat(MAP_PUT_ALL_INITIAL_SIZE_FACTOR);
+        this.queryStreamingFetchSize = properties.getInteger(MAP_QUERY_STREAMING_FETCH_SIZE);
+        this.queryStreamingMaxConcurrentPartitions = properties.getInteger(MAP_QUERY_STREAMING_MAX_CONCURRENT_PARTITIONS);
     }
 
     @Override
@@ -1372,6 +1409,41 @@ abstract class MapProxySupport<K, V>
         return queryEngine.execute(query, target);
     }
 
+    /**
+     * Returns {@code true} if the given predicate query should be streamed
+     * in chunks, see {@link #MAP_QUERY_STREAMING_FETCH_SIZE}.
+     */
+    protected boolean isQueryStreamingApplicable(Predicate predicate) {
+        return queryStreamingFetchSize > 0
+                && !(predicate instanceof PagingPredicate)
+                && !(predicate instanceof PartitionPredicate)
+                && !isIndexed(predicate);
+    }
+
+    /**
+     * Returns {@code true} if the given predicate can be evaluated by the
+     * global indexes of the map, the streamed chunks are always produced by
+     * a full partition scan.
+     */
+    private boolean isIndexed(Predicate predicate) {
+        MapContainer mapContainer = mapServiceContext.getMapContainer(name);
+        Indexes indexes = mapContainer.getIndexes();
+        if (indexes == null || !indexes.haveAtLeastOneIndex()) {
+            return false;
+        }
+        Predicate optimized = mapServiceContext.getQueryOptimizer().optimize(predicate, indexes);
+        return optimized instanceof IndexAwarePredicate
+                && ((IndexAwarePredicate) optimized).isIndexed(new QueryContext(indexes, -1));
+    }
+
+    protected int getQueryStreamingFetchSize() {
+        return queryStreamingFetchSize;
+    }
+
+    protected int getQueryStreamingMaxConcurrentPartitions() {
+        return queryStreamingMaxConcurrentPartitions;
+    }
+
     protected void handleHazelcastInstanceAwareParams(Object... objects) {
         for (Object object : objects) {
             if (object instanceof HazelcastInstanceAware) {
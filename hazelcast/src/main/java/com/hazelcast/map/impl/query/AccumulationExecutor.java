@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.query;
 
 import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
 
@@ -37,4 +38,17 @@ public interface AccumulationExecutor {
      */
     AggregationResult execute(Aggregator aggregator, Collection<QueryableEntry> entries,
                               PartitionIdSet partitionIds);
+
+    /**
+     * Accumulates all the entries of the given partitions directly from the
+     * structures of the given global indexes, without visiting the entries.
+     * Supported for count, min, max and distinct values aggregators only.
+     *
+     * @param aggregator   Instance of aggregator using which the entries should be accumulated (it will not be modified)
+     * @param indexes      Global indexes of the map
+     * @param partitionIds IDs of the partitions covered by the indexes
+     * @return AggregationResult encompassing the result aggregator or {@code null} if the indexes can't answer the
+     * aggregator
+     */
+    AggregationResult executeOnIndexes(Aggregator aggregator, Indexes indexes, PartitionIdSet partitionIds);
 }
@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.query;
 
 import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
@@ -42,6 +43,16 @@ public class AggregationResultProcessor implements ResultProcessor<AggregationRe
         return accumulationExecutor.execute(query.getAggregator(), entries, partitionIds);
     }
 
+    /**
+     * Populates the result of the given aggregation query directly from the
+     * given global indexes, see {@link AccumulationExecutor#executeOnIndexes}.
+     *
+     * @return the result or {@code null} if the indexes can't answer the query
+     */
+    public AggregationResult populateResultFromIndexes(Query query, Indexes indexes, PartitionIdSet partitionIds) {
+        return accumulationExecutor.executeOnIndexes(query.getAggregator(), indexes, partitionIds);
+    }
+
     @Override
     public AggregationResult populateResult(Query query, long resultLimit) {
         Aggregator resultAggregator = serializationService.toObject(serializationService.toData(query.getAggregator()));
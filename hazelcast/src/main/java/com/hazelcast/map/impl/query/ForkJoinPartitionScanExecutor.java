@@ -0,0 +1,278 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.internal.iteration.IterationPointer;
+import com.hazelcast.internal.serialization.SerializableByConvention;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.map.QueryResultSizeExceededException;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.QueryableEntriesSegment;
+import com.hazelcast.query.impl.predicates.PagingPredicateImpl;
+import com.hazelcast.spi.exception.RetryableHazelcastException;
+import com.hazelcast.spi.properties.HazelcastProperty;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveTask;
+import java.util.concurrent.TimeoutException;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
+import static com.hazelcast.internal.util.ThreadUtil.createThreadPoolName;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Implementation of the {@link PartitionScanExecutor} which executes the
+ * partition scan on a work-stealing {@link ForkJoinPool}.
+ * <p>
+ * The partitions are split lazily: a scan task hands half of its remaining
+ * partitions to the pool only while there are idle workers to steal them,
+ * so chunks adapt to the number of cores and to the skew between partitions
+ * instead of using one task per partition. Every leaf collects its matches
+ * into its own sub-result and the sub-results are combined pairwise when
+ * the tasks are joined, without a shared lock. When the result size limit
+ * is exceeded, the remaining scans are abandoned.
+ */
+public class ForkJoinPartitionScanExecutor implements PartitionScanExecutor {
+
+    /**
+     * Enables the work-stealing partition scan when
+     * {@link com.hazelcast.spi.properties.ClusterProperty#QUERY_PREDICATE_PARALLEL_EVALUATION}
+     * is enabled.
+     */
+    public static final HazelcastProperty WORK_STEALING_ENABLED
+            = new HazelcastProperty("hazelcast.query.predicate.parallel.evaluation.work.stealing", false);
+
+    /**
+     * Number of threads of the work-stealing partition scan pool. Defaults
+     * to the number of available processors.
+     */
+    public static final HazelcastProperty WORK_STEALING_PARALLELISM
+            = new HazelcastProperty("hazelcast.query.predicate.parallel.evaluation.work.stealing.parallelism",
+            Runtime.getRuntime().availableProcessors());
+
+    /**
+     * Number of queued tasks of a worker above which it stops splitting,
+     * since its tasks are not being stolen by other workers.
+     */
+    private static final int SURPLUS_QUEUED_TASK_THRESHOLD = 2;
+
+    private final PartitionScanRunner partitionScanRunner;
+    private final ForkJoinPool pool;
+    private final int partitionCount;
+    private final int timeoutInMillis;
+
+    public ForkJoinPartitionScanExecutor(PartitionScanRunner partitionScanRunner, String instanceName,
+                                         int parallelism, int partitionCount, int timeoutInMillis) {
+        this.partitionScanRunner = partitionScanRunner;
+        this.pool = new ForkJoinPool(parallelism, new ScanThreadFactory(instanceName), null, false);
+        this.partitionCount = partitionCount;
+        this.timeoutInMillis = timeoutInMillis;
+    }
+
+    @SuppressWarnings("unchecked")
+    @Override
+    public void execute(String mapName, Predicate predicate, Collection<Integer> partitions, Result result) {
+        runUsingPartitionScanWithoutPaging(mapName, predicate, partitions, result);
+        if (predicate instanceof PagingPredicateImpl) {
+            PagingPredicateImpl pagingPredicate = (PagingPredicateImpl) predicate;
+            Map.Entry<Integer, Map.Entry> nearestAnchorEntry = pagingPredicate.getNearestAnchorEntry();
+            result.orderAndLimit(pagingPredicate, nearestAnchorEntry);
+        }
+    }
+
+    /**
+     * {@inheritDoc}
+     * Parallel execution for a partition chunk query is not supported.
+     */
+    @Override
+    public QueryableEntriesSegment execute(
+            String mapName, Predicate predicate, int partitionId,
+            IterationPointer[] pointers, int fetchSize) {
+        return partitionScanRunner.run(mapName, predicate, partitionId, pointers, fetchSize);
+    }
+
+    public void shutdown() {
+        pool.shutdownNow();
+    }
+
+    @SuppressWarnings("unchecked")
+    protected void runUsingPartitionScanWithoutPaging(String name, Predicate predicate, Collection<Integer> partitions,
+                                                      Result result) {
+        if (partitions.isEmpty()) {
+            return;
+        }
+        int[] partitionIds = new int[partitions.size()];
+        int i = 0;
+        for (Integer partitionId : partitions) {
+            partitionIds[i++] = partitionId;
+        }
+        long resultLimit = result instanceof QueryResult ? ((QueryResult) result).getResultLimit() : Long.MAX_VALUE;
+        ScanContext context = new ScanContext(name, predicate, partitionIds, result, resultLimit);
+
+        ForkJoinTask<Result> task = pool.submit(new PartitionScanTask(context, 0, partitionIds.length));
+        try {
+            result.combine(task.get(timeoutInMillis, MILLISECONDS));
+        } catch (ExecutionException e) {
+            throw rethrow(e.getCause());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw rethrow(e);
+        } catch (TimeoutException e) {
+            context.cancelled = true;
+            throw rethrow(e);
+        }
+    }
+
+    /**
+     * State shared by all the scan tasks of a query.
+     */
+    private static final class ScanContext {
+        final String mapName;
+        final Predicate predicate;
+        final int[] partitionIds;
+        final Result root;
+        final long resultLimit;
+        final AtomicLong resultSize = new AtomicLong();
+        volatile boolean cancelled;
+
+        ScanContext(String mapName, Predicate predicate, int[] partitionIds, Result root, long resultLimit) {
+            this.mapName = mapName;
+            this.predicate = predicate;
+            this.partitionIds = partitionIds;
+            this.root = root;
+            this.resultLimit = resultLimit;
+        }
+    }
+
+    /**
+     * Scans the partitions in {@code [from, to)} of the context.
+     */
+    @SerializableByConvention
+    private final class PartitionScanTask extends RecursiveTask<Result> {
+
+        private final ScanContext context;
+        private final int from;
+        private final int to;
+
+        PartitionScanTask(ScanContext context, int from, int to) {
+            this.context = context;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        @SuppressWarnings("unchecked")
+        protected Result compute() {
+            int end = to;
+            List<PartitionScanTask> forked = null;
+            // lazy binary splitting, only split while the forked halves get stolen
+            while (end - from > 1 && getSurplusQueuedTaskCount() <= SURPLUS_QUEUED_TASK_THRESHOLD) {
+                int middle = (from + end) >>> 1;
+                PartitionScanTask right = new PartitionScanTask(context, middle, end);
+                right.fork();
+                if (forked == null) {
+                    forked = new ArrayList<>();
+                }
+                forked.add(right);
+                end = middle;
+            }
+
+            Result result = scan(from, end);
+            if (forked != null) {
+                for (int i = forked.size() - 1; i >= 0; i--) {
+                    result.combine(forked.get(i).join());
+                }
+            }
+            return result;
+        }
+
+        @SuppressWarnings("unchecked")
+        private Result scan(int start, int end) {
+            Result result = context.root.createSubResult();
+            PartitionIdSet scannedPartitions = new PartitionIdSet(partitionCount);
+            RetryableHazelcastException storedException = null;
+            for (int i = start; i < end && !context.cancelled; i++) {
+                int partitionId = context.partitionIds[i];
+                int sizeBefore = sizeOf(result);
+                try {
+                    partitionScanRunner.run(context.mapName, context.predicate, partitionId, result);
+                } catch (RetryableHazelcastException e) {
+                    // the other partitions are still scanned, same as the caller-runs execution does
+                    if (storedException == null) {
+                        storedException = e;
+                    }
+                    continue;
+                } catch (RuntimeException e) {
+                    context.cancelled = true;
+                    throw e;
+                }
+                scannedPartitions.add(partitionId);
+                checkResultLimit(sizeOf(result) - sizeBefore);
+            }
+            if (storedException != null) {
+                throw storedException;
+            }
+            result.setPartitionIds(scannedPartitions);
+            return result;
+        }
+
+        private void checkResultLimit(int added) {
+            if (context.resultLimit == Long.MAX_VALUE || added == 0) {
+                return;
+            }
+            if (context.resultSize.addAndGet(added) > context.resultLimit) {
+                context.cancelled = true;
+                throw new QueryResultSizeExceededException();
+            }
+        }
+
+        private int sizeOf(Result result) {
+            return result instanceof QueryResult ? ((QueryResult) result).size() : 0;
+        }
+    }
+
+    private static final class ScanThread extends ForkJoinWorkerThread {
+        private ScanThread(ForkJoinPool pool) {
+            super(pool);
+        }
+    }
+
+    private static final class ScanThreadFactory implements ForkJoinPool.ForkJoinWorkerThreadFactory {
+
+        private final String threadNamePrefix;
+        private final AtomicLong indexGenerator = new AtomicLong();
+
+        private ScanThreadFactory(String instanceName) {
+            this.threadNamePrefix = createThreadPoolName(instanceName, "query-scan");
+        }
+
+        @Override
+        public ForkJoinWorkerThread newThread(ForkJoinPool pool) {
+            ScanThread thread = new ScanThread(pool);
+            thread.setName(threadNamePrefix + indexGenerator.incrementAndGet());
+            return thread;
+        }
+    }
+}
@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.impl.AbstractAggregator;
+import com.hazelcast.aggregation.impl.CountAggregator;
+import com.hazelcast.aggregation.impl.DistinctValuesAggregator;
+import com.hazelcast.aggregation.impl.MaxAggregator;
+import com.hazelcast.aggregation.impl.MinAggregator;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.InternalIndex;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.query.impl.IndexUtils.canonicalizeAttribute;
+
+/**
+ * Accumulates aggregators over all the entries of a map directly from the
+ * structures of its global indexes, without visiting the entries:
+ * <ul>
+ * <li>count is answered by the number of indexed entries;
+ * <li>min and max are answered by the first and the last values of an
+ * ordered index, or by the distinct values of any other index;
+ * <li>distinct values are answered by feeding a single representative entry
+ * per distinct indexed value to the aggregator.
+ * </ul>
+ * The representative entries are accumulated as usual, so the results are
+ * exactly the same as the ones produced by the regular accumulation.
+ */
+final class IndexAccumulator {
+
+    private IndexAccumulator() {
+    }
+
+    /**
+     * @return {@code true} if the given aggregator may be accumulated from
+     * indexes, {@code false} otherwise.
+     */
+    static boolean canAccumulate(Aggregator aggregator) {
+        if (aggregator instanceof CountAggregator) {
+            return true;
+        }
+        boolean valueAggregator = aggregator instanceof MinAggregator || aggregator instanceof MaxAggregator
+                || aggregator instanceof DistinctValuesAggregator;
+        return valueAggregator && ((AbstractAggregator) aggregator).getAttributePath() != null;
+    }
+
+    /**
+     * Accumulates the given aggregator from the first index able to answer
+     * it.
+     *
+     * @param aggregator          the aggregator to accumulate, see {@link
+     *                            #canAccumulate}.
+     * @param indexes             the global indexes of the map.
+     * @param ownedPartitionCount the number of partitions the aggregation
+     *                            runs on.
+     * @return {@code true} if the aggregator was accumulated, {@code false}
+     * if none of the indexes is able to answer it, the aggregator is left
+     * intact in this case.
+     */
+    static boolean accumulate(Aggregator aggregator, Indexes indexes, int ownedPartitionCount) {
+        String attributePath = ((AbstractAggregator) aggregator).getAttributePath();
+        String attribute = attributePath == null ? null : canonicalizeAttribute(attributePath);
+        boolean preferOrdered = aggregator instanceof MinAggregator || aggregator instanceof MaxAggregator;
+
+        for (InternalIndex index : candidates(indexes, attribute, preferOrdered, ownedPartitionCount)) {
+            if (accumulate(aggregator, index)) {
+                indexes.getIndexesStats().incrementQueryCount();
+                indexes.getIndexesStats().incrementIndexedQueryCount();
+                index.getPerIndexStats().incrementQueryCount();
+                return true;
+            }
+        }
+        return false;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static boolean accumulate(Aggregator aggregator, InternalIndex index) {
+        if (aggregator instanceof CountAggregator) {
+            long count = index.getEntryCount();
+            if (count < 0) {
+                return false;
+            }
+            ((CountAggregator) aggregator).accumulateCount(count);
+            return true;
+        }
+        if (aggregator instanceof DistinctValuesAggregator) {
+            return index.visitDistinctValues(aggregator::accumulate);
+        }
+        return index.visitExtremeValues(aggregator::accumulate) || index.visitDistinctValues(aggregator::accumulate);
+    }
+
+    /**
+     * Selects the single-attribute indexes built for the given attribute, or
+     * for any attribute if it's {@code null}, which cover all the owned
+     * partitions.
+     */
+    private static List<InternalIndex> candidates(Indexes indexes, String attribute, boolean preferOrdered,
+                                                  int ownedPartitionCount) {
+        List<InternalIndex> candidates = new ArrayList<>();
+        for (InternalIndex index : indexes.getIndexes()) {
+            String[] components = index.getComponents();
+            if (components.length != 1 || attribute != null && !attribute.equals(components[0])
+                    || !index.allPartitionsIndexed(ownedPartitionCount)) {
+                continue;
+            }
+            if (preferOrdered && index.isOrdered()) {
+                candidates.add(0, index);
+            } else {
+                candidates.add(index);
+            }
+        }
+        return candidates;
+    }
+
+}
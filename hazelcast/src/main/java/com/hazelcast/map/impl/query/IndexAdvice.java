@@ -0,0 +1,143 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.MwCounter;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_ADVICE_ESTIMATED_SAVED_ENTRY_READS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_ADVICE_MATCHED_ENTRY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_ADVICE_QUERY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_ADVICE_SCANNED_ENTRY_COUNT;
+import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
+
+/**
+ * An index recommended by the {@link IndexAdvisor} along with the observed
+ * cost of the queries which scanned the map for the lack of it.
+ */
+public final class IndexAdvice {
+
+    private final IndexConfig candidate;
+
+    @Probe(name = MAP_METRIC_INDEX_ADVICE_QUERY_COUNT)
+    private final MwCounter queryCount = newMwCounter();
+    @Probe(name = MAP_METRIC_INDEX_ADVICE_SCANNED_ENTRY_COUNT)
+    private final MwCounter scannedEntryCount = newMwCounter();
+    // the scanned entries of the queries whose result size is known
+    private final MwCounter measuredEntryCount = newMwCounter();
+    @Probe(name = MAP_METRIC_INDEX_ADVICE_MATCHED_ENTRY_COUNT)
+    private final MwCounter matchedEntryCount = newMwCounter();
+    private final AtomicBoolean created = new AtomicBoolean();
+
+    IndexAdvice(IndexConfig candidate) {
+        this.candidate = candidate;
+    }
+
+    void record(long scannedEntries, long matchedEntries) {
+        queryCount.inc();
+        scannedEntryCount.inc(scannedEntries);
+        if (matchedEntries >= 0) {
+            measuredEntryCount.inc(scannedEntries);
+            matchedEntryCount.inc(matchedEntries);
+        }
+    }
+
+    /**
+     * Marks the recommended index as created.
+     *
+     * @return {@code true} if the index wasn't marked as created before,
+     * {@code false} otherwise.
+     */
+    boolean markCreated() {
+        return created.compareAndSet(false, true);
+    }
+
+    /**
+     * @return {@code true} if this member created the recommended index
+     * automatically, {@code false} otherwise.
+     */
+    public boolean isCreated() {
+        return created.get();
+    }
+
+    /**
+     * @return the type of the index derived from the queries, which
+     * identifies the advice along with the {@link #getAttributes()
+     * attributes}; the recommended index might differ, see {@link
+     * #getIndexConfig()}.
+     */
+    public IndexType getCandidateType() {
+        return candidate.getType();
+    }
+
+    /**
+     * @return the attributes of the recommended index.
+     */
+    public List<String> getAttributes() {
+        return candidate.getAttributes();
+    }
+
+    /**
+     * @return the recommended index: {@link IndexType#BITMAP BITMAP} for the
+     * single-attribute equality lookups matching a large fraction of the
+     * entries, which indicates a low-cardinality attribute, the derived
+     * candidate otherwise.
+     */
+    public IndexConfig getIndexConfig() {
+        if (candidate.getType() == IndexType.HASH && candidate.getAttributes().size() == 1
+                && getSelectivity() >= IndexAdvisor.BITMAP_SELECTIVITY) {
+            return new IndexConfig(IndexType.BITMAP, candidate.getAttributes().get(0));
+        }
+        return candidate;
+    }
+
+    /**
+     * @return the number of the queries which scanned the map and would be
+     * served by the recommended index.
+     */
+    public long getQueryCount() {
+        return queryCount.get();
+    }
+
+    /**
+     * @return the fraction of the scanned entries the queries matched, in
+     * the {@code [0, 1]} range; {@code 0} if unknown.
+     */
+    public double getSelectivity() {
+        long measured = measuredEntryCount.get();
+        return measured == 0 ? 0.0 : (double) matchedEntryCount.get() / measured;
+    }
+
+    /**
+     * @return the estimated number of entry reads the recommended index
+     * would have saved: the scanned entries not matched by the queries.
+     */
+    @Probe(name = MAP_METRIC_INDEX_ADVICE_ESTIMATED_SAVED_ENTRY_READS)
+    public long getEstimatedSavedEntryReads() {
+        return (long) (scannedEntryCount.get() * (1.0 - getSelectivity()));
+    }
+
+    @Override
+    public String toString() {
+        return candidate.getType() + candidate.getAttributes().toString();
+    }
+}
@@ -0,0 +1,185 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.InternalIndex;
+import com.hazelcast.query.impl.predicates.IndexCandidates;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.properties.HazelcastProperty;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.function.LongSupplier;
+
+import static com.hazelcast.spi.impl.executionservice.ExecutionService.ASYNC_EXECUTOR;
+
+/**
+ * Recommends indexes for a single map from the queries observed on this
+ * member.
+ * <p>
+ * If {@link #INDEX_ADVISOR_ENABLED} is set, every query which has to scan
+ * the entries of the map, because none of its indexes is able to serve the
+ * query, is recorded once against the indexes which would serve it, see
+ * {@link IndexCandidates}: how many queries could use an index, how many
+ * entries they scanned and how many of them matched. The entries scanned but
+ * not matched are the reads an index would save.
+ * <p>
+ * The recommendations are exposed as {@code map.indexAdvice} metrics. If
+ * {@link #INDEX_ADVISOR_AUTO_CREATE_THRESHOLD} is set, an index is created
+ * on the map as soon as the reads it would have saved exceed the threshold.
+ * Only the master member creates indexes, so that the members don't race to
+ * create the same index; since every member scans its own partitions for
+ * each query, the advices of the master are representative of the cluster.
+ */
+public final class IndexAdvisor {
+
+    /**
+     * Enables the recording of the queries scanning the map, disabled by
+     * default.
+     */
+    public static final HazelcastProperty INDEX_ADVISOR_ENABLED
+            = new HazelcastProperty("hazelcast.map.index.advisor.enabled", false);
+
+    /**
+     * The number of estimated saved entry reads above which the recommended
+     * index is created automatically. {@code 0} disables the automatic
+     * creation of indexes.
+     */
+    public static final HazelcastProperty INDEX_ADVISOR_AUTO_CREATE_THRESHOLD
+            = new HazelcastProperty("hazelcast.map.index.advisor.auto.create.threshold", 0);
+
+    /**
+     * The minimum fraction of the entries an equality lookup has to match on
+     * average to recommend a bitmap index instead of a hash one: a lookup
+     * matching 1% of the entries implies about 100 distinct values.
+     */
+    static final double BITMAP_SELECTIVITY = 0.01;
+
+    /**
+     * The maximum number of recommendations tracked per map.
+     */
+    static final int MAX_ADVICES = 64;
+
+    private final String mapName;
+    private final NodeEngine nodeEngine;
+    private final boolean enabled;
+    private final long autoCreateThreshold;
+    private final ConcurrentMap<String, IndexAdvice> advices = new ConcurrentHashMap<>();
+
+    public IndexAdvisor(String mapName, NodeEngine nodeEngine) {
+        this.mapName = mapName;
+        this.nodeEngine = nodeEngine;
+        this.enabled = nodeEngine.getProperties().getBoolean(INDEX_ADVISOR_ENABLED);
+        this.autoCreateThreshold = nodeEngine.getProperties().getLong(INDEX_ADVISOR_AUTO_CREATE_THRESHOLD);
+    }
+
+    /**
+     * Records a query which scanned the map.
+     *
+     * @param predicate          the predicate of the query.
+     * @param indexes            the indexes of the map, {@code null} if
+     *                           unknown.
+     * @param scannedEntryCount  supplies the number of scanned entries, asked
+     *                           only if the predicate might be served by an
+     *                           index.
+     * @param matchedEntryCount  the number of entries the predicate matched,
+     *                           negative if unknown.
+     */
+    public void recordScan(Predicate predicate, Indexes indexes, LongSupplier scannedEntryCount, long matchedEntryCount) {
+        if (!enabled || predicate == null) {
+            return;
+        }
+        List<IndexConfig> candidates = IndexCandidates.of(predicate);
+        if (candidates.isEmpty()) {
+            return;
+        }
+        long scannedEntries = scannedEntryCount.getAsLong();
+        if (scannedEntries == 0) {
+            return;
+        }
+        for (IndexConfig candidate : candidates) {
+            if (isIndexed(candidate, indexes)) {
+                // the index exists, but it wasn't usable, e.g. during migrations
+                continue;
+            }
+            IndexAdvice advice = getOrCreateAdvice(candidate);
+            if (advice == null) {
+                continue;
+            }
+            advice.record(scannedEntries, matchedEntryCount);
+            createIndexIfNeeded(advice);
+        }
+    }
+
+    /**
+     * @return the recommendations, the ones saving the most entry reads
+     * first.
+     */
+    public List<IndexAdvice> getAdvices() {
+        List<IndexAdvice> result = new ArrayList<>(advices.values());
+        result.sort(Comparator.comparingLong(IndexAdvice::getEstimatedSavedEntryReads).reversed());
+        return result;
+    }
+
+    private IndexAdvice getOrCreateAdvice(IndexConfig candidate) {
+        String key = candidate.getType() + candidate.getAttributes().toString();
+        IndexAdvice advice = advices.get(key);
+        if (advice == null && advices.size() < MAX_ADVICES) {
+            advice = advices.computeIfAbsent(key, k -> new IndexAdvice(candidate));
+        }
+        return advice;
+    }
+
+    private void createIndexIfNeeded(IndexAdvice advice) {
+        if (autoCreateThreshold > 0 && advice.getEstimatedSavedEntryReads() > autoCreateThreshold
+                && nodeEngine.getClusterService().isMaster() && advice.markCreated()) {
+            createIndex(advice.getIndexConfig());
+        }
+    }
+
+    private void createIndex(IndexConfig config) {
+        ILogger logger = nodeEngine.getLogger(IndexAdvisor.class);
+        logger.info("Creating the recommended index " + config + " on map " + mapName);
+        nodeEngine.getExecutionService().execute(ASYNC_EXECUTOR, () -> {
+            try {
+                nodeEngine.getHazelcastInstance().getMap(mapName).addIndex(config);
+            } catch (Exception e) {
+                logger.warning("Failed to create the recommended index " + config + " on map " + mapName, e);
+            }
+        });
+    }
+
+    private static boolean isIndexed(IndexConfig candidate, Indexes indexes) {
+        if (indexes == null) {
+            return false;
+        }
+        for (InternalIndex index : indexes.getIndexes()) {
+            if (Arrays.asList(index.getComponents()).equals(candidate.getAttributes())) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,231 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.impl.RetractableAggregator;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.map.impl.recordstore.RecordStore;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
+import com.hazelcast.spi.impl.operationservice.OperationService;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.BiConsumer;
+
+import static com.hazelcast.internal.util.ExceptionUtil.rethrow;
+import static com.hazelcast.map.impl.record.Records.getValueOrCachedValue;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * A single materialized aggregation: an aggregator and a predicate along
+ * with the partial result of every partition it has been computed for.
+ * <p>
+ * Partial results are only computed and updated on partition threads, the
+ * query threads merging them synchronize on each partial result.
+ *
+ * @see MaterializedAggregations
+ */
+public final class MaterializedAggregation {
+
+    private final Data aggregatorData;
+    private final Predicate predicate;
+    private final InternalSerializationService serializationService;
+    private final AtomicReferenceArray<Aggregator> partials;
+
+    MaterializedAggregation(Data aggregatorData, Predicate predicate, int partitionCount,
+                            InternalSerializationService serializationService) {
+        this.aggregatorData = aggregatorData;
+        this.predicate = predicate;
+        this.serializationService = serializationService;
+        this.partials = new AtomicReferenceArray<>(partitionCount);
+    }
+
+    /**
+     * Merges the partial results of the given partitions into a new
+     * aggregator. The missing partial results are computed first on the
+     * partition threads and waited for, so nothing is merged on a partition
+     * thread.
+     *
+     * @param timeoutMillis how long to wait for the missing partial results
+     * @return the merged aggregator or {@code null} if called on a partition
+     * thread, a partition has expirable entries, the missing partial results
+     * weren't computed in time or a partial result has been dropped meanwhile,
+     * e.g. because of a migration
+     */
+    public Aggregator merge(PartitionIdSet partitionIds, MapServiceContext mapServiceContext, String mapName,
+                            long timeoutMillis) {
+        if (Thread.currentThread() instanceof PartitionOperationThread) {
+            // waiting for other partition threads, or for this one, may deadlock
+            return null;
+        }
+        if (hasExpirableEntries(partitionIds, mapServiceContext, mapName)) {
+            return null;
+        }
+        if (!materializeMissing(partitionIds, mapServiceContext, mapName, timeoutMillis)) {
+            return null;
+        }
+
+        Aggregator result = newAggregator();
+        for (int partitionId : partitionIds) {
+            Aggregator partial = partials.get(partitionId);
+            if (partial == null) {
+                return null;
+            }
+            synchronized (partial) {
+                result.combine(partial);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * The expiration of an entry doesn't notify the partial results, the
+     * expired entries stay accumulated until they are evicted. Hence the
+     * partitions with entries having a TTL or a max-idle time set are never
+     * served from their partial results, which are dropped.
+     */
+    private boolean hasExpirableEntries(PartitionIdSet partitionIds, MapServiceContext mapServiceContext, String mapName) {
+        for (int partitionId : partitionIds) {
+            RecordStore recordStore = mapServiceContext.getExistingRecordStore(partitionId, mapName);
+            if (recordStore != null && recordStore.isExpirable()) {
+                partials.set(partitionId, null);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private boolean materializeMissing(PartitionIdSet partitionIds, MapServiceContext mapServiceContext, String mapName,
+                                       long timeoutMillis) {
+        PartitionIdSet missing = new PartitionIdSet(partials.length());
+        for (int partitionId : partitionIds) {
+            if (partials.get(partitionId) == null) {
+                missing.add(partitionId);
+            }
+        }
+        if (missing.isEmpty()) {
+            return true;
+        }
+
+        OperationService operationService = mapServiceContext.getNodeEngine().getOperationService();
+        CountDownLatch latch = new CountDownLatch(missing.size());
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int partitionId : missing) {
+            operationService.execute(new PartitionSpecificRunnable() {
+                @Override
+                public int getPartitionId() {
+                    return partitionId;
+                }
+
+                @Override
+                public void run() {
+                    try {
+                        materialize(partitionId, mapServiceContext.getExistingRecordStore(partitionId, mapName));
+                    } catch (Throwable t) {
+                        failure.compareAndSet(null, t);
+                    } finally {
+                        latch.countDown();
+                    }
+                }
+            });
+        }
+
+        boolean completed;
+        try {
+            completed = latch.await(timeoutMillis, MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw rethrow(e);
+        }
+        if (failure.get() != null) {
+            throw rethrow(failure.get());
+        }
+        return completed;
+    }
+
+    /**
+     * Computes the partial result of a partition by scanning its record
+     * store, unless the store has expirable entries. Must be called on the
+     * partition thread.
+     */
+    void materialize(int partitionId, RecordStore recordStore) {
+        Aggregator partial = newAggregator();
+        if (recordStore != null) {
+            if (recordStore.isExpirable()) {
+                return;
+            }
+            MapContainer mapContainer = recordStore.getMapContainer();
+            recordStore.forEach((BiConsumer<Data, Record>) (key, record) -> {
+                QueryableEntry entry = mapContainer.newQueryEntry(key, getValueOrCachedValue(record, serializationService));
+                if (predicate.apply(entry)) {
+                    partial.accumulate(entry);
+                }
+            }, false);
+        }
+        partials.set(partitionId, partial);
+    }
+
+    /**
+     * Retracts the old entry from and accumulates the new entry into the
+     * partial result of the given partition, if it's materialized. Must be
+     * called on the partition thread.
+     */
+    @SuppressWarnings("unchecked")
+    void update(int partitionId, QueryableEntry oldEntry, QueryableEntry newEntry) {
+        Aggregator partial = partials.get(partitionId);
+        if (partial == null) {
+            return;
+        }
+        try {
+            synchronized (partial) {
+                if (oldEntry != null && predicate.apply(oldEntry)) {
+                    ((RetractableAggregator) partial).retract(oldEntry);
+                }
+                if (newEntry != null && predicate.apply(newEntry)) {
+                    partial.accumulate(newEntry);
+                }
+            }
+        } catch (RuntimeException e) {
+            // the partial result may be half updated, it's recomputed by the next query
+            partials.compareAndSet(partitionId, partial, null);
+        }
+    }
+
+    void invalidate(int partitionId) {
+        partials.set(partitionId, null);
+    }
+
+    // for testing
+    boolean isMaterialized(int partitionId) {
+        return partials.get(partitionId) != null;
+    }
+
+    private Aggregator newAggregator() {
+        return serializationService.toObject(aggregatorData);
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.impl.RetractableAggregator;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.properties.HazelcastProperty;
+
+import java.util.Collection;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Registry of the aggregations of a single map whose per-partition results
+ * are materialized on this member and maintained incrementally while the
+ * entries of the map change.
+ * <p>
+ * An aggregation query is materialized on its first execution if its
+ * aggregator is a {@link RetractableAggregator}, the map stores its values in
+ * {@link InMemoryFormat#BINARY} format (object values may be mutated in place,
+ * so their previous state can't be retracted), its entries don't expire (the
+ * expiration of an entry isn't observed until it's evicted) and less than
+ * {@link #MATERIALIZED_AGGREGATION_LIMIT} aggregations are already
+ * materialized for the map. The partial result of a partition is computed by
+ * scanning the partition on its partition thread; from then on it is kept up
+ * to date by the
+ * {@link com.hazelcast.map.impl.recordstore.MaterializedAggregationMutationObserver}
+ * of the partition's record store. Subsequent executions of the same query
+ * only merge the partial results of the owned partitions.
+ * <p>
+ * A partial result is dropped whenever it can't be kept exact incrementally:
+ * the record store is cleared, reset or replicated into, or the aggregator
+ * fails on an entry. The next query that needs it computes it again.
+ */
+public final class MaterializedAggregations {
+
+    /**
+     * Maximum number of distinct aggregator and predicate pairs which are
+     * materialized for a single map on a member. {@code 0} disables the
+     * materialization of aggregations.
+     */
+    public static final HazelcastProperty MATERIALIZED_AGGREGATION_LIMIT
+            = new HazelcastProperty("hazelcast.map.aggregation.materialized.limit", 0);
+
+    private final int limit;
+    private final int partitionCount;
+    private final boolean supported;
+    private final InternalSerializationService serializationService;
+    private final ConcurrentMap<Key, MaterializedAggregation> aggregations = new ConcurrentHashMap<>();
+
+    public MaterializedAggregations(int limit, int partitionCount, InMemoryFormat inMemoryFormat, boolean expirable,
+                                    InternalSerializationService serializationService) {
+        this.limit = limit;
+        this.partitionCount = partitionCount;
+        this.supported = inMemoryFormat == InMemoryFormat.BINARY && !expirable;
+        this.serializationService = serializationService;
+    }
+
+    /**
+     * @return {@code true} if aggregations of this map can be materialized
+     */
+    public boolean isEnabled() {
+        return limit > 0 && supported;
+    }
+
+    public boolean isEmpty() {
+        return aggregations.isEmpty();
+    }
+
+    public int size() {
+        return aggregations.size();
+    }
+
+    /**
+     * Returns the materialized aggregation of the given aggregator and
+     * predicate, registering it if it's not materialized yet.
+     *
+     * @return the materialized aggregation or {@code null} if the given
+     * aggregation can't be materialized
+     */
+    public MaterializedAggregation getOrRegister(Aggregator aggregator, Predicate predicate) {
+        if (!isEnabled() || !(aggregator instanceof RetractableAggregator)) {
+            return null;
+        }
+        Key key = new Key(serializationService.toData(aggregator), serializationService.toData(predicate));
+        MaterializedAggregation aggregation = aggregations.get(key);
+        if (aggregation != null) {
+            return aggregation;
+        }
+        synchronized (aggregations) {
+            aggregation = aggregations.get(key);
+            if (aggregation == null && aggregations.size() < limit) {
+                aggregation = new MaterializedAggregation(key.aggregator, predicate, partitionCount, serializationService);
+                aggregations.put(key, aggregation);
+            }
+            return aggregation;
+        }
+    }
+
+    /**
+     * Applies a mutation of an entry of the given partition to all the
+     * materialized partial results of that partition. Should be called on the
+     * partition thread.
+     *
+     * @param partitionId the partition of the entry
+     * @param oldEntry    the entry before the mutation, {@code null} if it didn't exist
+     * @param newEntry    the entry after the mutation, {@code null} if it was removed
+     */
+    public void onMutation(int partitionId, QueryableEntry oldEntry, QueryableEntry newEntry) {
+        for (MaterializedAggregation aggregation : aggregations.values()) {
+            aggregation.update(partitionId, oldEntry, newEntry);
+        }
+    }
+
+    /**
+     * Drops all the materialized partial results of the given partition.
+     */
+    public void invalidate(int partitionId) {
+        for (MaterializedAggregation aggregation : aggregations.values()) {
+            aggregation.invalidate(partitionId);
+        }
+    }
+
+    // for testing
+    Collection<MaterializedAggregation> getAggregations() {
+        return aggregations.values();
+    }
+
+    private static final class Key {
+
+        private final Data aggregator;
+        private final Data predicate;
+
+        Key(Data aggregator, Data predicate) {
+            this.aggregator = aggregator;
+            this.predicate = predicate;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Key that = (Key) o;
+            return aggregator.equals(that.aggregator) && predicate.equals(that.predicate);
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * aggregator.hashCode() + predicate.hashCode();
+        }
+    }
+}
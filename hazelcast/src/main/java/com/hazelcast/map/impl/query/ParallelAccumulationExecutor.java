@@ -17,6 +17,7 @@
 package com.hazelcast.map.impl.query;
 
 import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntry;
 import com.hazelcast.internal.serialization.SerializationService;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
@@ -72,6 +73,22 @@ public class ParallelAccumulationExecutor implements AccumulationExecutor {
         return result;
     }
 
+    @Override
+    public AggregationResult executeOnIndexes(Aggregator aggregator, Indexes indexes, PartitionIdSet partitionIds) {
+        if (!IndexAccumulator.canAccumulate(aggregator)) {
+            return null;
+        }
+        Aggregator resultAggregator = clone(aggregator);
+        if (!IndexAccumulator.accumulate(resultAggregator, indexes, partitionIds.size())) {
+            return null;
+        }
+        resultAggregator.onAccumulationFinished();
+
+        AggregationResult result = new AggregationResult(resultAggregator, serializationService);
+        result.setPartitionIds(partitionIds);
+        return result;
+    }
+
     protected Collection<Aggregator> accumulateParallel(Aggregator aggregator, Collection<QueryableEntry> entries) {
         Collection<Future<Aggregator>> futures = new ArrayList<>();
         Collection<QueryableEntry>[] chunks = split(entries, THREAD_SPLIT_COUNT);
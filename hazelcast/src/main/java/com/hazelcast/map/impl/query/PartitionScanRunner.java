@@ -92,7 +92,7 @@ public class PartitionScanRunner {
                 pagingPredicate == null ? null : pagingPredicate.getNearestAnchorEntry();
 
         recordStore.forEachAfterLoad(new BiConsumer<Data, Record>() {
-            LazyMapEntry queryEntry = new LazyMapEntry();
+            LazyMapEntry queryEntry = newScanEntry();
 
             @Override
             public void accept(Data key, Record record) {
@@ -116,13 +116,20 @@ public class PartitionScanRunner {
 
                     // We can't reuse the existing entry after it was added to the
                     // result. Allocate the new one.
-                    queryEntry = new LazyMapEntry();
+                    queryEntry = newScanEntry();
                 }
             }
         }, false);
         result.orderAndLimit(pagingPredicate, nearestAnchorEntry);
     }
 
+    private static LazyMapEntry newScanEntry() {
+        // the entry is confined to the scanning thread
+        LazyMapEntry entry = new LazyMapEntry();
+        entry.memoizeAttributeValues();
+        return entry;
+    }
+
     // overridden in ee
     protected Metadata getMetadataFromRecord(RecordStore recordStore, Data dataKey, Record record) {
         return record.getMetadata();
@@ -19,6 +19,7 @@ package com.hazelcast.map.impl.query;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.core.MemberLeftException;
 import com.hazelcast.internal.partition.IPartition;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapDataSerializerHook;
 import com.hazelcast.map.impl.MapService;
@@ -283,7 +284,8 @@ public class QueryOperation extends AbstractNamedOperation implements ReadonlyOp
             if (throwable == null) {
                 try {
                     Result combinedResult = queryRunner.populateEmptyResult(query, Collections.emptyList());
-                    populateResult(response, combinedResult);
+                    PartitionIdSet partitions = populateResult(response, combinedResult);
+                    queryRunner.recordScan(query, partitions, combinedResult);
                     QueryOperation.this.sendResponse(combinedResult);
                 } catch (Exception e) {
                     QueryOperation.this.sendResponse(e);
@@ -294,13 +296,16 @@ public class QueryOperation extends AbstractNamedOperation implements ReadonlyOp
             }
         }
 
-        private void populateResult(AtomicReferenceArray<Result> resultArray, Result combinedResult) {
+        private PartitionIdSet populateResult(AtomicReferenceArray<Result> resultArray, Result combinedResult) {
+            PartitionIdSet partitions = new PartitionIdSet(resultArray.length());
             for (int k = 0; k < resultArray.length(); k++) {
                 Result partitionResult = resultArray.get(k);
                 if (partitionResult != null) {
                     combinedResult.combine(partitionResult);
+                    partitions.add(k);
                 }
             }
+            return partitions;
         }
     }
 }
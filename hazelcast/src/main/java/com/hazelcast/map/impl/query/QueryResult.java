@@ -157,6 +157,14 @@ public class QueryResult implements Result<QueryResult>, Iterable<QueryResultRow
         rows.add(orderAndLimitExpected ? entry : convertEntryToRow(entry));
     }
 
+    /**
+     * @return the upper limit on the number of items that can be added to
+     * this result, {@link Long#MAX_VALUE} if it is unlimited.
+     */
+    public long getResultLimit() {
+        return resultLimit;
+    }
+
     @Override
     public QueryResult createSubResult() {
         return new QueryResult(iterationType, projection, serializationService, resultLimit, orderAndLimitExpected);
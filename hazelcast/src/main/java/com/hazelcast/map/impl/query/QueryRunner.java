@@ -16,6 +16,7 @@
 
 package com.hazelcast.map.impl.query;
 
+import com.hazelcast.aggregation.Aggregator;
 import com.hazelcast.internal.cluster.ClusterService;
 import com.hazelcast.internal.iteration.IterationPointer;
 import com.hazelcast.internal.serialization.InternalSerializationService;
@@ -24,17 +25,22 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.map.impl.LocalMapStatsProvider;
 import com.hazelcast.map.impl.MapContainer;
 import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.recordstore.AsyncIndexUpdater;
+import com.hazelcast.map.impl.recordstore.RecordStore;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.impl.Indexes;
 import com.hazelcast.query.impl.QueryableEntriesSegment;
 import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.predicates.PagingPredicateImpl;
 import com.hazelcast.query.impl.predicates.QueryOptimizer;
+import com.hazelcast.query.impl.predicates.TruePredicate;
 import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.operationservice.OperationService;
 
 import java.util.Collection;
 
 import static com.hazelcast.internal.util.SetUtil.singletonPartitionIdSet;
+import static com.hazelcast.spi.properties.ClusterProperty.OPERATION_CALL_TIMEOUT_MILLIS;
 
 /**
  * Runs query operations in the calling thread (thus blocking it)
@@ -57,6 +63,10 @@ public class QueryRunner {
     protected final ResultProcessorRegistry resultProcessorRegistry;
 
     private final int partitionCount;
+    // the query operations are invoked with the default call timeout, the
+    // materialization of the aggregations may take half of it, leaving the
+    // rest to the fallback
+    private final long materializationTimeoutMillis;
 
     public QueryRunner(MapServiceContext mapServiceContext,
                        QueryOptimizer optimizer,
@@ -74,6 +84,7 @@ public class QueryRunner {
         this.partitionScanExecutor = partitionScanExecutor;
         this.resultProcessorRegistry = resultProcessorRegistry;
         this.partitionCount = nodeEngine.getPartitionService().getPartitionCount();
+        this.materializationTimeoutMillis = nodeEngine.getProperties().getMillis(OPERATION_CALL_TIMEOUT_MILLIS) / 2;
     }
 
     /**
@@ -122,6 +133,17 @@ public class QueryRunner {
         PartitionIdSet initialPartitions = mapServiceContext.getOrInitCachedMemberPartitions();
         MapContainer mapContainer = mapServiceContext.getMapContainer(query.getMapName());
 
+        if (query.isAggregationQuery()) {
+            Result result = runUsingMaterializedAggregationSafely(query, mapContainer, initialPartitions, migrationStamp);
+            if (result != null) {
+                return result;
+            }
+            result = runUsingIndexAggregationSafely(query, mapContainer, initialPartitions, migrationStamp);
+            if (result != null) {
+                return result;
+            }
+        }
+
         // to optimize the query we need to get any index instance
         Indexes indexes = mapContainer.getIndexes();
         if (indexes == null) {
@@ -241,6 +263,60 @@ public class QueryRunner {
                 initialPartitions);
     }
 
+    /**
+     * Merges the materialized partial results of the aggregation query, see
+     * {@link MaterializedAggregations}.
+     *
+     * @return the result or {@code null} if the aggregation can't be
+     * materialized or a migration happened meanwhile
+     */
+    protected Result runUsingMaterializedAggregationSafely(Query query, MapContainer mapContainer,
+                                                           PartitionIdSet partitions, int migrationStamp) {
+        MaterializedAggregation aggregation = mapContainer.getMaterializedAggregations()
+                .getOrRegister(query.getAggregator(), query.getPredicate());
+        if (aggregation == null || partitions.isEmpty() || !validateMigrationStamp(migrationStamp)) {
+            return null;
+        }
+
+        Aggregator aggregator = aggregation.merge(partitions, mapServiceContext, query.getMapName(),
+                materializationTimeoutMillis);
+        if (aggregator == null || !validateMigrationStamp(migrationStamp)) {
+            return null;
+        }
+
+        AggregationResult result = new AggregationResult(aggregator, serializationService);
+        result.setPartitionIds(partitions);
+        return result;
+    }
+
+    /**
+     * Answers the aggregation query over all the entries directly from the
+     * global indexes, see {@link AccumulationExecutor#executeOnIndexes}.
+     *
+     * @return the result or {@code null} if the query has a predicate, the
+     * indexes can't answer the aggregation or a migration happened meanwhile
+     */
+    protected Result runUsingIndexAggregationSafely(Query query, MapContainer mapContainer,
+                                                    PartitionIdSet partitions, int migrationStamp) {
+        if (!(query.getPredicate() instanceof TruePredicate) || partitions.isEmpty()
+                || !validateMigrationStamp(migrationStamp)) {
+            return null;
+        }
+
+        Indexes indexes = mapContainer.getIndexes();
+        if (indexes == null || !indexes.isGlobal()) {
+            return null;
+        }
+        beforeGlobalIndexQuery(mapContainer);
+
+        AggregationResultProcessor processor = (AggregationResultProcessor) resultProcessorRegistry.get(AggregationResult.class);
+        AggregationResult result = processor.populateResultFromIndexes(query, indexes, partitions);
+        if (result == null || !validateMigrationStamp(migrationStamp)) {
+            return null;
+        }
+        return result;
+    }
+
     protected Collection<QueryableEntry> runUsingGlobalIndexSafely(Predicate predicate, MapContainer mapContainer,
                                                                    int migrationStamp, int ownedPartitionCount) {
 
@@ -260,6 +336,7 @@ public class QueryRunner {
             // leverage index on this node in a global way.
             return null;
         }
+        beforeGlobalIndexQuery(mapContainer);
         Collection<QueryableEntry> entries = indexes.query(predicate, ownedPartitionCount);
         if (entries == null) {
             return null;
@@ -292,6 +369,7 @@ public class QueryRunner {
         // Also make sure there are no long migrations in flight which may have started after starting the query
         // but not completed yet.
         if (validateMigrationStamp(migrationStamp)) {
+            recordScan(query, predicate, partitions, result);
             result.completeConstruction(partitions);
             return result;
         }
@@ -299,6 +377,52 @@ public class QueryRunner {
         return null;
     }
 
+    /**
+     * Records the scan of the given partitions in the index advisor of the
+     * queried map. The partition-thread runs of a query record nothing on
+     * their own, their caller records the query once all of them are done.
+     */
+    public void recordScan(Query query, PartitionIdSet partitions, Result result) {
+        if (!partitions.isEmpty()) {
+            recordScan(query, query.getPredicate(), partitions, result);
+        }
+    }
+
+    /**
+     * Brings the asynchronously maintained global indexes, if any, within
+     * their staleness bound.
+     */
+    private static void beforeGlobalIndexQuery(MapContainer mapContainer) {
+        AsyncIndexUpdater asyncIndexUpdater = mapContainer.getAsyncIndexUpdater();
+        if (asyncIndexUpdater != null) {
+            asyncIndexUpdater.beforeQuery();
+        }
+    }
+
+    private void recordScan(Query query, Predicate predicate, PartitionIdSet partitions, Result result) {
+        MapContainer mapContainer = mapServiceContext.getMapContainer(query.getMapName());
+        long matchedEntryCount = result instanceof QueryResult ? ((QueryResult) result).size() : -1;
+        if (predicate instanceof PagingPredicateImpl) {
+            // the result holds a single page only
+            predicate = ((PagingPredicateImpl) predicate).getPredicate();
+            matchedEntryCount = -1;
+        }
+        Indexes indexes = mapContainer.getIndexes();
+        if (indexes == null) {
+            indexes = mapContainer.getIndexes(partitions.iterator().next());
+        }
+        mapContainer.getIndexAdvisor().recordScan(predicate, indexes, () -> {
+            long scannedEntryCount = 0;
+            for (int partitionId : partitions) {
+                RecordStore recordStore = mapServiceContext.getExistingRecordStore(partitionId, query.getMapName());
+                if (recordStore != null) {
+                    scannedEntryCount += recordStore.size();
+                }
+            }
+            return scannedEntryCount;
+        }, matchedEntryCount);
+    }
+
     private int getMigrationStamp() {
         return mapServiceContext.getService().getMigrationStamp();
     }
@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.IterationType;
+
+import java.util.AbstractSet;
+import java.util.Collection;
+import java.util.Iterator;
+import java.util.function.Predicate;
+import java.util.function.Supplier;
+
+/**
+ * A lazy view of the result of a streamed query, see
+ * {@link com.hazelcast.map.impl.iterator.MapQueryIterator}.
+ * <p>
+ * The result is never held as a whole: every iteration executes the
+ * query again and streams its rows, {@link #size()} and
+ * {@link #contains(Object)} iterate over the result as well. Entries
+ * which are not mutated in the meantime are part of every iteration
+ * exactly once.
+ */
+public class StreamingQueryResultCollection<E> extends AbstractSet<E> {
+
+    private final SerializationService serializationService;
+    private final IterationType iterationType;
+    private final Supplier<Iterator<QueryResultRow>> rowsSupplier;
+
+    public StreamingQueryResultCollection(SerializationService serializationService,
+                                          IterationType iterationType,
+                                          Supplier<Iterator<QueryResultRow>> rowsSupplier) {
+        this.serializationService = serializationService;
+        this.iterationType = iterationType;
+        this.rowsSupplier = rowsSupplier;
+    }
+
+    public IterationType getIterationType() {
+        return iterationType;
+    }
+
+    @Override
+    public Iterator<E> iterator() {
+        return new QueryResultIterator(rowsSupplier.get(), iterationType, false, serializationService);
+    }
+
+    @Override
+    public int size() {
+        int size = 0;
+        Iterator<QueryResultRow> rows = rowsSupplier.get();
+        while (rows.hasNext()) {
+            rows.next();
+            size++;
+        }
+        return size;
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return !rowsSupplier.get().hasNext();
+    }
+
+    @Override
+    public boolean addAll(Collection<? extends E> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean remove(Object o) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeAll(Collection<?> c) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean removeIf(Predicate<? super E> filter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public boolean retainAll(Collection<?> coll) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public void clear() {
+        throw new UnsupportedOperationException();
+    }
+}
@@ -18,8 +18,11 @@ package com.hazelcast.map.impl.recordstore;
 
 import com.hazelcast.config.EventJournalConfig;
 import com.hazelcast.config.EvictionPolicy;
+import com.hazelcast.config.HotRestartConfig;
 import com.hazelcast.config.InMemoryFormat;
 import com.hazelcast.config.MetadataPolicy;
+import com.hazelcast.internal.hotrestart.InternalHotRestartService;
+import com.hazelcast.internal.hotrestart.impl.LocalHotRestartService;
 import com.hazelcast.internal.locksupport.LockStore;
 import com.hazelcast.internal.locksupport.LockSupportService;
 import com.hazelcast.internal.monitor.LocalRecordStoreStats;
@@ -40,6 +43,8 @@ import com.hazelcast.map.impl.record.Record;
 import com.hazelcast.map.impl.record.RecordFactory;
 import com.hazelcast.map.impl.record.Records;
 import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.properties.HazelcastProperties;
 import com.hazelcast.wan.impl.CallerProvenance;
 
 import javax.annotation.Nonnull;
@@ -108,6 +113,27 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
         // Add observer for indexing
         indexingObserver = new IndexingMutationObserver<>(this, serializationService);
         mutationObserver.add(indexingObserver);
+
+        // Add observer for materialized aggregations
+        if (mapContainer.getMaterializedAggregations().isEnabled()) {
+            mutationObserver.add(new MaterializedAggregationMutationObserver<>(this, serializationService));
+        }
+
+        // Add observer for hot restart persistence
+        HotRestartConfig hotRestartConfig = mapContainer.getMapConfig().getHotRestartConfig();
+        if (hotRestartConfig.isEnabled()) {
+            addHotRestartMutationObserver(hotRestartConfig);
+        }
+    }
+
+    private void addHotRestartMutationObserver(HotRestartConfig hotRestartConfig) {
+        NodeEngine nodeEngine = mapServiceContext.getNodeEngine();
+        InternalHotRestartService hotRestartService = ((NodeEngineImpl) nodeEngine).getNode()
+                .getNodeExtension().getInternalHotRestartService();
+        if (hotRestartService instanceof LocalHotRestartService) {
+            mutationObserver.add(new HotRestartMutationObserver((LocalHotRestartService) hotRestartService,
+                    serializationService, name, partitionId, hotRestartConfig.isFsync()));
+        }
     }
 
     // Overridden in EE.
@@ -168,6 +194,10 @@ abstract class AbstractRecordStore implements RecordStore<Record> {
     }
 
     public Storage createStorage(RecordFactory recordFactory, InMemoryFormat memoryFormat) {
+        HazelcastProperties properties = mapServiceContext.getNodeEngine().getProperties();
+        if (TieredStorageImpl.isTieredStorageEnabled(properties, memoryFormat)) {
+            return new TieredStorageImpl(memoryFormat, serializationService, properties, partitionId);
+        }
         return new StorageImpl(memoryFormat, serializationService);
     }
 
@@ -0,0 +1,239 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.logging.ILogger;
+import com.hazelcast.query.impl.Index;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.impl.NodeEngine;
+import com.hazelcast.spi.impl.executionservice.ExecutionService;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.spi.properties.HazelcastProperty;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static com.hazelcast.spi.impl.executionservice.ExecutionService.MAP_INDEX_EXECUTOR;
+import static java.util.concurrent.TimeUnit.MILLISECONDS;
+
+/**
+ * Applies the updates of the global indexes of a map asynchronously, off
+ * the partition threads.
+ * <p>
+ * The {@link IndexingMutationObserver} queues the updates caused by the user
+ * operations per partition instead of applying them to the indexes. The
+ * queue of a partition is drained in batches on the {@link
+ * ExecutionService#MAP_INDEX_EXECUTOR} executor, in the order the updates
+ * were queued. The writes no longer pay for the maintenance of the indexes,
+ * the price is the freshness of the indexes: a query served by the indexes
+ * may miss the most recent updates. Before such a query, the updates queued
+ * for longer than {@link #ASYNC_INDEX_STALENESS_BOUND} are applied by the
+ * querying thread, or all of them if {@link #ASYNC_INDEX_READ_YOUR_WRITES} is
+ * enabled.
+ * <p>
+ * The system updates of the indexes, e.g. during migrations, and the
+ * clearing of the indexes are still applied on the partition threads, after
+ * the queued updates of the partition are applied.
+ */
+public final class AsyncIndexUpdater {
+
+    /**
+     * Enables the asynchronous maintenance of the global indexes.
+     */
+    public static final HazelcastProperty ASYNC_INDEX_ENABLED
+            = new HazelcastProperty("hazelcast.map.index.async.enabled", false);
+
+    /**
+     * The maximum age of the index updates a query served by the indexes may
+     * miss.
+     */
+    public static final HazelcastProperty ASYNC_INDEX_STALENESS_BOUND
+            = new HazelcastProperty("hazelcast.map.index.async.staleness.bound.millis", 1000, MILLISECONDS);
+
+    /**
+     * Applies all the queued index updates before every query served by the
+     * indexes, so a query observes the writes preceding it.
+     */
+    public static final HazelcastProperty ASYNC_INDEX_READ_YOUR_WRITES
+            = new HazelcastProperty("hazelcast.map.index.async.read.your.writes", false);
+
+    /**
+     * The maximum number of updates applied by a single task of the
+     * executor, so the partitions share the executor fairly.
+     */
+    static final int BATCH_SIZE = 1024;
+
+    private final Indexes indexes;
+    private final ExecutionService executionService;
+    private final ILogger logger;
+    private final long stalenessBoundNanos;
+    private final boolean readYourWrites;
+    private final PartitionUpdates[] partitions;
+
+    public AsyncIndexUpdater(Indexes indexes, NodeEngine nodeEngine) {
+        HazelcastProperties properties = nodeEngine.getProperties();
+        this.indexes = indexes;
+        this.executionService = nodeEngine.getExecutionService();
+        this.logger = nodeEngine.getLogger(AsyncIndexUpdater.class);
+        this.stalenessBoundNanos = properties.getNanos(ASYNC_INDEX_STALENESS_BOUND);
+        this.readYourWrites = properties.getBoolean(ASYNC_INDEX_READ_YOUR_WRITES);
+        this.partitions = new PartitionUpdates[nodeEngine.getPartitionService().getPartitionCount()];
+        for (int i = 0; i < partitions.length; ++i) {
+            partitions[i] = new PartitionUpdates();
+        }
+    }
+
+    /**
+     * Queues the insertion or the update of the given entry.
+     *
+     * @see Indexes#putEntry
+     */
+    public void offerPut(int partitionId, QueryableEntry entry, Object oldValue) {
+        partitions[partitionId].offer(new IndexUpdate(entry, null, oldValue));
+    }
+
+    /**
+     * Queues the removal of the given entry.
+     *
+     * @see Indexes#removeEntry
+     */
+    public void offerRemove(int partitionId, Data key, Object value) {
+        partitions[partitionId].offer(new IndexUpdate(null, key, value));
+    }
+
+    /**
+     * Applies all the updates queued for the given partition on the calling
+     * thread.
+     */
+    public void applyQueued(int partitionId) {
+        partitions[partitionId].apply(System.nanoTime(), Integer.MAX_VALUE);
+    }
+
+    /**
+     * Brings the indexes within the staleness bound before a query served by
+     * them: applies the updates queued for longer than the bound, or all of
+     * them if the read-your-writes mode is enabled, on the calling thread.
+     * The updates queued during the call are not waited for.
+     */
+    public void beforeQuery() {
+        long now = System.nanoTime();
+        long queuedBefore = readYourWrites ? now : now - stalenessBoundNanos;
+        for (PartitionUpdates partition : partitions) {
+            IndexUpdate head = partition.queue.peek();
+            if (head != null && head.queuedNanos - queuedBefore <= 0) {
+                partition.apply(now, Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    /**
+     * @return the number of the queued updates, for testing and monitoring
+     * purposes, the cost is linear in the number of queued updates.
+     */
+    public int getQueuedUpdateCount() {
+        int count = 0;
+        for (PartitionUpdates partition : partitions) {
+            count += partition.queue.size();
+        }
+        return count;
+    }
+
+    private final class PartitionUpdates implements Runnable {
+
+        private final Queue<IndexUpdate> queue = new ConcurrentLinkedQueue<>();
+        private final AtomicBoolean scheduled = new AtomicBoolean();
+
+        void offer(IndexUpdate update) {
+            queue.offer(update);
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            apply(System.nanoTime(), BATCH_SIZE);
+            scheduled.set(false);
+            if (!queue.isEmpty()) {
+                schedule();
+            }
+        }
+
+        /**
+         * Applies the updates queued before the given time, but no more than
+         * the given number of them. The updates are applied by a single
+         * thread at a time, in the order they were queued.
+         */
+        synchronized void apply(long queuedBefore, int maxCount) {
+            for (int i = 0; i < maxCount; ++i) {
+                IndexUpdate update = queue.peek();
+                if (update == null || update.queuedNanos - queuedBefore > 0) {
+                    return;
+                }
+                queue.poll();
+                try {
+                    update.apply(indexes);
+                } catch (Exception e) {
+                    // there is no operation to report the failure to
+                    logger.warning("Failed to apply an index update", e);
+                }
+            }
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                executionService.execute(MAP_INDEX_EXECUTOR, this);
+            } catch (RejectedExecutionException e) {
+                // apply on the calling thread rather than leave the updates behind
+                scheduled.set(false);
+                apply(System.nanoTime(), Integer.MAX_VALUE);
+            }
+        }
+    }
+
+    private static final class IndexUpdate {
+
+        // null for the removals
+        private final QueryableEntry entry;
+        // null for the insertions and updates
+        private final Data key;
+        // the old value for the insertions and updates, the removed value for
+        // the removals
+        private final Object value;
+        private final long queuedNanos = System.nanoTime();
+
+        IndexUpdate(QueryableEntry entry, Data key, Object value) {
+            this.entry = entry;
+            this.key = key;
+            this.value = value;
+        }
+
+        void apply(Indexes indexes) {
+            if (entry == null) {
+                indexes.removeEntry(key, value, Index.OperationSource.USER);
+            } else {
+                indexes.putEntry(entry, value, Index.OperationSource.USER);
+            }
+        }
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.impl.HeapData;
+
+import java.nio.ByteBuffer;
+
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
+import static com.hazelcast.internal.util.JVMUtil.REFERENCE_COST_IN_BYTES;
+
+/**
+ * A {@link Data} whose payload lives in a {@link ColdSegment} instead of
+ * on-heap. Every access reads the payload from the memory-mapped segment,
+ * nothing is cached, so a demoted value costs only this small holder.
+ * <p>
+ * The region and the generation of the segment file holding it are
+ * replaced when the owning segment is compacted, readers always see
+ * either the old or the new mapping which both hold the same bytes.
+ */
+final class ColdData implements Data {
+
+    // rough cost of this holder: header, two references and two ints
+    private static final int HEAP_COST = 3 * INT_SIZE_IN_BYTES + 3 * REFERENCE_COST_IN_BYTES;
+
+    private final ColdSegment segment;
+    private final int length;
+    private volatile ByteBuffer region;
+    private int generation;
+
+    ColdData(ColdSegment segment, ByteBuffer region, int generation) {
+        this.segment = segment;
+        this.region = region;
+        this.generation = generation;
+        this.length = region.remaining();
+    }
+
+    ColdSegment getSegment() {
+        return segment;
+    }
+
+    int getLength() {
+        return length;
+    }
+
+    ByteBuffer getRegion() {
+        return region;
+    }
+
+    /**
+     * @return the generation of the segment file holding the region,
+     * only accessed by the thread mutating the segment
+     */
+    int getGeneration() {
+        return generation;
+    }
+
+    void setRegion(ByteBuffer region, int generation) {
+        this.region = region;
+        this.generation = generation;
+    }
+
+    /**
+     * @return an on-heap copy of this data
+     */
+    HeapData toHeapData() {
+        return new HeapData(toByteArray());
+    }
+
+    @Override
+    public byte[] toByteArray() {
+        byte[] bytes = new byte[length];
+        region.duplicate().get(bytes);
+        return bytes;
+    }
+
+    @Override
+    public int getType() {
+        return region.getInt(HeapData.TYPE_OFFSET);
+    }
+
+    @Override
+    public int totalSize() {
+        return length;
+    }
+
+    @Override
+    public void copyTo(byte[] dest, int destPos) {
+        region.duplicate().get(dest, destPos, length);
+    }
+
+    @Override
+    public int dataSize() {
+        return Math.max(length - HeapData.HEAP_DATA_OVERHEAD, 0);
+    }
+
+    @Override
+    public int getHeapCost() {
+        return HEAP_COST;
+    }
+
+    @Override
+    public int getPartitionHash() {
+        return toHeapData().getPartitionHash();
+    }
+
+    @Override
+    public boolean hasPartitionHash() {
+        return region.getInt(HeapData.PARTITION_HASH_OFFSET) != 0;
+    }
+
+    @Override
+    public long hash64() {
+        return toHeapData().hash64();
+    }
+
+    @Override
+    public boolean isPortable() {
+        return toHeapData().isPortable();
+    }
+
+    @Override
+    public boolean isJson() {
+        return toHeapData().isJson();
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        return toHeapData().equals(o);
+    }
+
+    @Override
+    public int hashCode() {
+        return toHeapData().hashCode();
+    }
+
+    @Override
+    public String toString() {
+        return "ColdData{length=" + length + ", segment=" + segment + '}';
+    }
+}
@@ -0,0 +1,267 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.core.HazelcastException;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.memory.MemoryUnit;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Iterator;
+import java.util.Map;
+
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static com.hazelcast.internal.nio.IOUtil.deleteQuietly;
+
+/**
+ * Append-only, memory-mapped segment file holding the values demoted
+ * by a {@link TieredStorageImpl}.
+ * <p>
+ * Values are only ever appended, a value which is promoted, overwritten
+ * or removed just becomes garbage. Once the garbage ratio crosses the
+ * configured threshold, {@link #startCompaction(Map)} starts a fresh file
+ * which takes all new appends. Every call to {@link #compact(int)} then
+ * moves a bounded number of the live values of the old file to the new
+ * one and repoints their {@link ColdData} holders, the old file is deleted
+ * once no live value is left in it.
+ * <p>
+ * Mutations are expected to be done by the partition thread owning the
+ * record store, reads through {@link ColdData} can be done by any thread.
+ */
+final class ColdSegment {
+
+    static final int INITIAL_CAPACITY = (int) MemoryUnit.MEGABYTES.toBytes(1);
+
+    private static final int HUNDRED_PERCENT = 100;
+
+    private final File directory;
+    private final String name;
+
+    private int generation;
+    private int activeGeneration = -1;
+    private File file;
+    private FileChannel channel;
+    private MappedByteBuffer buffer;
+    private int writePosition;
+    private long liveBytes;
+    private long compactionCount;
+
+    private Map<Data, ColdData> compactedIndex;
+    private Iterator<Map.Entry<Data, ColdData>> compactionCursor;
+    private int compactedGeneration;
+    private File compactedFile;
+    private FileChannel compactedChannel;
+    private long compactedFileBytes;
+
+    ColdSegment(File directory, String name) {
+        this.directory = directory;
+        this.name = name;
+    }
+
+    /**
+     * Appends the given value to the end of this segment.
+     *
+     * @return the holder which reads the value back from this segment
+     */
+    ColdData append(Data value) {
+        int length = value.totalSize();
+        ensureCapacity(length);
+
+        ByteBuffer target = buffer.duplicate();
+        target.position(writePosition);
+        target.put(value.toByteArray());
+
+        ColdData coldData = new ColdData(this, slice(buffer, writePosition, length), activeGeneration);
+        writePosition += length;
+        liveBytes += length;
+        return coldData;
+    }
+
+    /**
+     * Marks the bytes of the given value as garbage.
+     */
+    void release(ColdData coldData) {
+        liveBytes -= coldData.getLength();
+    }
+
+    /**
+     * @return {@code true} if no compaction is in progress, at least {@code
+     * thresholdPercentage} of this segment is garbage and the segment is
+     * large enough to bother
+     */
+    boolean shouldCompact(int thresholdPercentage) {
+        long garbageBytes = writePosition - liveBytes;
+        return !isCompacting()
+                && writePosition >= INITIAL_CAPACITY
+                && garbageBytes * HUNDRED_PERCENT >= (long) writePosition * thresholdPercentage;
+    }
+
+    boolean isCompacting() {
+        return compactionCursor != null;
+    }
+
+    /**
+     * Starts the compaction of this segment: the current file is kept for
+     * reading and a new file takes all further appends.
+     *
+     * @param index the values of this segment which are still referenced,
+     *              by key. Values of the compacted file which are replaced
+     *              in the index are not moved anymore.
+     */
+    void startCompaction(Map<Data, ColdData> index) {
+        compactedIndex = index;
+        compactionCursor = index.entrySet().iterator();
+        compactedGeneration = activeGeneration;
+        compactedFile = file;
+        compactedChannel = channel;
+        compactedFileBytes = getFileBytes();
+
+        channel = null;
+        buffer = null;
+        file = null;
+        writePosition = 0;
+    }
+
+    /**
+     * Continues the compaction by visiting at most {@code maxVisitedValues}
+     * values of the index and moving the live ones still in the compacted
+     * file to the current file. The compacted file is deleted once the
+     * whole index has been visited.
+     */
+    void compact(int maxVisitedValues) {
+        for (int visited = 0; visited < maxVisitedValues && compactionCursor.hasNext(); visited++) {
+            Map.Entry<Data, ColdData> entry = compactionCursor.next();
+            ColdData coldData = entry.getValue();
+            if (coldData.getGeneration() == compactedGeneration && compactedIndex.get(entry.getKey()) == coldData) {
+                move(coldData);
+            }
+        }
+        if (!compactionCursor.hasNext()) {
+            // existing mappings stay valid after the channel is
+            // closed, concurrent readers of old regions are safe
+            closeResource(compactedChannel);
+            if (compactedFile != null) {
+                deleteQuietly(compactedFile);
+            }
+            resetCompaction();
+            compactionCount++;
+        }
+    }
+
+    private void move(ColdData coldData) {
+        int length = coldData.getLength();
+        ensureCapacity(length);
+
+        ByteBuffer target = buffer.duplicate();
+        target.position(writePosition);
+        target.put(coldData.getRegion().duplicate());
+
+        coldData.setRegion(slice(buffer, writePosition, length), activeGeneration);
+        writePosition += length;
+    }
+
+    /**
+     * Drops all values and deletes the backing file. The segment
+     * can still be appended to afterwards.
+     */
+    void clear() {
+        closeResource(channel);
+        if (file != null) {
+            deleteQuietly(file);
+        }
+        closeResource(compactedChannel);
+        if (compactedFile != null) {
+            deleteQuietly(compactedFile);
+        }
+        resetCompaction();
+        channel = null;
+        buffer = null;
+        file = null;
+        writePosition = 0;
+        liveBytes = 0;
+    }
+
+    long getLiveBytes() {
+        return liveBytes;
+    }
+
+    long getFileBytes() {
+        return (buffer == null ? 0 : buffer.capacity()) + compactedFileBytes;
+    }
+
+    long getCompactionCount() {
+        return compactionCount;
+    }
+
+    private void resetCompaction() {
+        compactedIndex = null;
+        compactionCursor = null;
+        compactedFile = null;
+        compactedChannel = null;
+        compactedFileBytes = 0;
+    }
+
+    private void ensureCapacity(int length) {
+        if (buffer != null && buffer.capacity() - writePosition >= length) {
+            return;
+        }
+
+        long required = (long) writePosition + length;
+        long capacity = buffer == null ? INITIAL_CAPACITY : buffer.capacity();
+        while (capacity < required) {
+            capacity <<= 1;
+        }
+        if (capacity > Integer.MAX_VALUE) {
+            throw new HazelcastException("Cold segment " + name + " cannot grow beyond " + Integer.MAX_VALUE + " bytes");
+        }
+
+        try {
+            if (channel == null) {
+                activeGeneration = generation++;
+                file = new File(directory, name + "-" + activeGeneration + ".seg");
+                if (!directory.exists() && !directory.mkdirs() && !directory.exists()) {
+                    throw new HazelcastException("Could not create tiered storage directory " + directory);
+                }
+                channel = new RandomAccessFile(file, "rw").getChannel();
+            }
+            buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, capacity);
+        } catch (IOException e) {
+            throw new HazelcastException("Could not map cold segment " + file, e);
+        }
+    }
+
+    private static ByteBuffer slice(ByteBuffer buffer, int position, int length) {
+        ByteBuffer duplicate = buffer.duplicate();
+        duplicate.position(position);
+        duplicate.limit(position + length);
+        return duplicate.slice();
+    }
+
+    @Override
+    public String toString() {
+        return "ColdSegment{name=" + name
+                + ", file=" + file
+                + ", writePosition=" + writePosition
+                + ", liveBytes=" + liveBytes
+                + '}';
+    }
+}
@@ -0,0 +1,128 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.hotrestart.impl.HotRestartStore;
+import com.hazelcast.internal.hotrestart.impl.LocalHotRestartService;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.record.Record;
+
+import javax.annotation.Nonnull;
+
+import static com.hazelcast.map.impl.ExpirationTimeSetter.getLifeStartTime;
+
+/**
+ * Writes the mutations of a record store to its {@link HotRestartStore}
+ * while this member owns the primary replica of the partition. Backup
+ * mutations are not persisted, see {@link LocalHotRestartService}.
+ * <p>
+ * The persisted expiration time is the time-to-live based one, the
+ * max-idle countdown of a record starts again when it is reloaded.
+ * Clearing the record store while the node shuts down keeps the
+ * persisted records, they are reloaded by the next start.
+ */
+public class HotRestartMutationObserver implements MutationObserver<Record> {
+
+    private final LocalHotRestartService hotRestartService;
+    private final SerializationService serializationService;
+    private final String mapName;
+    private final int partitionId;
+    private final HotRestartStore store;
+
+    public HotRestartMutationObserver(LocalHotRestartService hotRestartService,
+                                      SerializationService serializationService,
+                                      String mapName, int partitionId, boolean fsync) {
+        this.hotRestartService = hotRestartService;
+        this.serializationService = serializationService;
+        this.mapName = mapName;
+        this.partitionId = partitionId;
+        this.store = hotRestartService.getOrCreateStore(mapName, partitionId, fsync);
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, Record record, Object oldValue, boolean backup) {
+        persist(key, record);
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull Record record, boolean populateIndex) {
+        persist(key, record);
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull Record record,
+                               Object oldValue, Object newValue, boolean backup) {
+        persist(key, record);
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull Record record, boolean backup) {
+        persist(key, record);
+    }
+
+    @Override
+    public void onRemoveRecord(@Nonnull Data key, Record record) {
+        store.remove(key);
+    }
+
+    @Override
+    public void onEvictRecord(@Nonnull Data key, @Nonnull Record record) {
+        store.remove(key);
+    }
+
+    @Override
+    public void onReset() {
+        store.clear();
+    }
+
+    @Override
+    public void onClear() {
+        if (!hotRestartService.isShuttingDown()) {
+            store.clear();
+        }
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        if (isDuringShutdown || hotRestartService.isShuttingDown()) {
+            store.close();
+        } else {
+            hotRestartService.destroyStore(mapName, partitionId);
+        }
+    }
+
+    private void persist(Data key, Record record) {
+        if (record != null && hotRestartService.isPrimaryReplica(partitionId)) {
+            persist(store, serializationService, key, record);
+        }
+    }
+
+    /**
+     * Writes the given record with its time-to-live based expiration time.
+     */
+    public static void persist(HotRestartStore store, SerializationService serializationService,
+                               Data key, Record record) {
+        long ttl = record.getTtl();
+        long expirationTime = Long.MAX_VALUE;
+        if (ttl > 0 && ttl != Long.MAX_VALUE) {
+            long lifeStartTime = getLifeStartTime(record);
+            expirationTime = lifeStartTime + ttl < 0 ? Long.MAX_VALUE : lifeStartTime + ttl;
+        }
+        store.put(key, serializationService.toData(record.getValue()), expirationTime);
+    }
+}
@@ -89,6 +89,7 @@ public class IndexingMutationObserver<R extends Record> implements MutationObser
 
     @Override
     public void onReset() {
+        applyQueuedIndexUpdates();
         clearGlobalIndexes(false);
         // Partitioned indexes are cleared in MapReplicationStateHolder
     }
@@ -101,6 +102,7 @@ public class IndexingMutationObserver<R extends Record> implements MutationObser
     @Override
     public void onDestroy(boolean isDuringShutdown, boolean internal) {
         boolean destroyGlobalIndexes = isDuringShutdown || mapContainer.isDestroyed();
+        applyQueuedIndexUpdates();
         clearGlobalIndexes(destroyGlobalIndexes);
         clearPartitionedIndexes(true);
     }
@@ -168,6 +170,12 @@ public class IndexingMutationObserver<R extends Record> implements MutationObser
         queryableEntry.setRecord(record);
         queryableEntry.setStoreAdapter(storeAdapter);
 
+        AsyncIndexUpdater asyncIndexUpdater = mapContainer.getAsyncIndexUpdater();
+        if (asyncIndexUpdater != null && operationSource == Index.OperationSource.USER) {
+            asyncIndexUpdater.offerPut(partitionId, queryableEntry, oldValue);
+            return;
+        }
+        applyQueuedIndexUpdates();
         indexes.putEntry(queryableEntry, oldValue, operationSource);
     }
 
@@ -178,9 +186,27 @@ public class IndexingMutationObserver<R extends Record> implements MutationObser
             return;
         }
 
+        AsyncIndexUpdater asyncIndexUpdater = mapContainer.getAsyncIndexUpdater();
+        if (asyncIndexUpdater != null && operationSource == Index.OperationSource.USER) {
+            asyncIndexUpdater.offerRemove(partitionId, toBackingKeyFormat(dataKey), getValueOrCachedValue(record, ss));
+            return;
+        }
+        applyQueuedIndexUpdates();
         indexes.removeEntry(toBackingKeyFormat(dataKey), getValueOrCachedValue(record, ss), operationSource);
     }
 
+    /**
+     * Applies the index updates of this partition still queued for the
+     * asynchronous application, so the updates applied synchronously are
+     * ordered after them.
+     */
+    private void applyQueuedIndexUpdates() {
+        AsyncIndexUpdater asyncIndexUpdater = mapContainer.getAsyncIndexUpdater();
+        if (asyncIndexUpdater != null) {
+            asyncIndexUpdater.applyQueued(partitionId);
+        }
+    }
+
     private Data toBackingKeyFormat(Data key) {
         return recordStore.getStorage().toBackingDataKeyFormat(key);
     }
@@ -0,0 +1,116 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.query.MaterializedAggregations;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.query.impl.QueryableEntry;
+
+import javax.annotation.Nonnull;
+
+import static com.hazelcast.map.impl.record.Records.getValueOrCachedValue;
+
+/**
+ * Keeps the materialized aggregations of a partition up to date, see
+ * {@link MaterializedAggregations}.
+ * <p>
+ * Mutations coming from backup operations are applied as well so that the
+ * partial results stay valid when a backup replica is promoted. Replicated
+ * records may overwrite existing ones without exposing the old value, hence
+ * they drop the partial results of the partition.
+ */
+public class MaterializedAggregationMutationObserver<R extends Record> implements MutationObserver<R> {
+
+    private final int partitionId;
+    private final MapContainer mapContainer;
+    private final SerializationService ss;
+
+    public MaterializedAggregationMutationObserver(RecordStore recordStore, SerializationService ss) {
+        this.partitionId = recordStore.getPartitionId();
+        this.mapContainer = recordStore.getMapContainer();
+        this.ss = ss;
+    }
+
+    @Override
+    public void onPutRecord(@Nonnull Data key, R record, Object oldValue, boolean backup) {
+        // oldValue is the value loaded from the map store, if any,
+        // it has never been accumulated
+        if (record != null) {
+            onMutation(key, null, getValueOrCachedValue(record, ss));
+        }
+    }
+
+    @Override
+    public void onReplicationPutRecord(@Nonnull Data key, @Nonnull R record, boolean populateIndex) {
+        invalidate();
+    }
+
+    @Override
+    public void onUpdateRecord(@Nonnull Data key, @Nonnull R record, Object oldValue, Object newValue, boolean backup) {
+        onMutation(key, oldValue, getValueOrCachedValue(record, ss));
+    }
+
+    @Override
+    public void onRemoveRecord(@Nonnull Data key, R record) {
+        if (record != null) {
+            onMutation(key, getValueOrCachedValue(record, ss), null);
+        }
+    }
+
+    @Override
+    public void onEvictRecord(@Nonnull Data key, @Nonnull R record) {
+        onMutation(key, getValueOrCachedValue(record, ss), null);
+    }
+
+    @Override
+    public void onLoadRecord(@Nonnull Data key, @Nonnull R record, boolean backup) {
+        onMutation(key, null, getValueOrCachedValue(record, ss));
+    }
+
+    @Override
+    public void onReset() {
+        invalidate();
+    }
+
+    @Override
+    public void onClear() {
+        invalidate();
+    }
+
+    @Override
+    public void onDestroy(boolean isDuringShutdown, boolean internal) {
+        invalidate();
+    }
+
+    private void onMutation(Data key, Object oldValue, Object newValue) {
+        MaterializedAggregations aggregations = mapContainer.getMaterializedAggregations();
+        if (aggregations.isEmpty()) {
+            return;
+        }
+        QueryableEntry oldEntry = oldValue == null ? null : mapContainer.newQueryEntry(key, oldValue);
+        QueryableEntry newEntry = newValue == null ? null : mapContainer.newQueryEntry(key, newValue);
+        aggregations.onMutation(partitionId, oldEntry, newEntry);
+    }
+
+    private void invalidate() {
+        mapContainer.getMaterializedAggregations().invalidate(partitionId);
+    }
+}
@@ -0,0 +1,348 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.util.UuidUtil;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.spi.properties.HazelcastProperty;
+
+import javax.annotation.Nonnull;
+import java.io.File;
+import java.util.ArrayDeque;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import static com.hazelcast.config.InMemoryFormat.BINARY;
+
+/**
+ * A {@link Storage} with two tiers: the hot tier keeps values on-heap
+ * exactly like {@link StorageImpl}, the cold tier keeps values in an
+ * append-only, memory-mapped {@link ColdSegment} on local disk.
+ * <p>
+ * Keys and record metadata always stay on-heap, only the value blob is
+ * demoted. When the number of hot entries exceeds the configured limit,
+ * hot entries are demoted in CLOCK order: entries are visited in the
+ * order they became hot and an entry accessed since its last visit gets
+ * a second chance. Key based access through {@link #get} by the partition
+ * thread promotes the value back to the hot tier. Other threads (queries,
+ * entry views) and scans (iteration, replication) read cold values in
+ * place without promoting them, so reads never mutate the storage off the
+ * partition thread.
+ * <p>
+ * The cold segment is compacted incrementally: every demotion and every
+ * release of a cold value moves a bounded number of live values, so no
+ * single partition operation pays for rewriting the whole segment.
+ * <p>
+ * Only {@link InMemoryFormat#BINARY} maps are supported since the cold
+ * tier is a store of serialized blobs. Like the rest of the record store,
+ * mutations must be done by the owning partition thread.
+ *
+ * @param <R> the value type to be put in this storage.
+ */
+public class TieredStorageImpl<R extends Record> extends StorageImpl<R> {
+
+    /**
+     * Enables tiered storage for {@link InMemoryFormat#BINARY} maps.
+     */
+    public static final HazelcastProperty TIERED_STORAGE_ENABLED
+            = new HazelcastProperty("hazelcast.map.tiered.storage.enabled", false);
+
+    /**
+     * Directory where cold segment files are created.
+     */
+    public static final HazelcastProperty TIERED_STORAGE_DIRECTORY
+            = new HazelcastProperty("hazelcast.map.tiered.storage.directory",
+            new File(System.getProperty("java.io.tmpdir"), "hazelcast-tiered-storage").getAbsolutePath());
+
+    /**
+     * Maximum number of entries kept in the hot tier per partition
+     * of a map. Entries above this limit are demoted to the cold tier.
+     */
+    public static final HazelcastProperty TIERED_STORAGE_HOT_ENTRY_COUNT
+            = new HazelcastProperty("hazelcast.map.tiered.storage.hot.entry.count", 10000);
+
+    /**
+     * Percentage of garbage in a cold segment file which triggers
+     * compaction of that file.
+     */
+    public static final HazelcastProperty TIERED_STORAGE_COMPACTION_THRESHOLD_PERCENTAGE
+            = new HazelcastProperty("hazelcast.map.tiered.storage.compaction.threshold.percentage", 50);
+
+    private static final int CLOCK_QUEUE_SLACK = 16;
+    private static final int COMPACTION_STEP_SIZE = 64;
+
+    private final int maxHotEntryCount;
+    private final int compactionThresholdPercentage;
+    private final ColdSegment coldSegment;
+    /**
+     * In-memory index of the cold tier: key to the location of its value.
+     */
+    private final Map<Data, ColdData> coldIndex = new ConcurrentHashMap<>();
+    /**
+     * Keys in the order they became hot, may contain
+     * stale keys which are skipped when visited.
+     */
+    private final Queue<HotKey> clockQueue = new ArrayDeque<>();
+
+    private volatile long hotHits;
+    private volatile long coldHits;
+    private volatile long demotions;
+    private volatile long promotions;
+
+    TieredStorageImpl(InMemoryFormat inMemoryFormat, SerializationService serializationService,
+                      HazelcastProperties properties, int partitionId) {
+        super(inMemoryFormat, serializationService);
+        this.maxHotEntryCount = properties.getInteger(TIERED_STORAGE_HOT_ENTRY_COUNT);
+        this.compactionThresholdPercentage = properties.getInteger(TIERED_STORAGE_COMPACTION_THRESHOLD_PERCENTAGE);
+        File directory = new File(properties.getString(TIERED_STORAGE_DIRECTORY));
+        this.coldSegment = new ColdSegment(directory, UuidUtil.newUnsecureUuidString() + "-" + partitionId);
+    }
+
+    public static boolean isTieredStorageEnabled(HazelcastProperties properties, InMemoryFormat inMemoryFormat) {
+        return inMemoryFormat == BINARY && properties.getBoolean(TIERED_STORAGE_ENABLED);
+    }
+
+    @Override
+    public void put(Data key, R record) {
+        Object value = record.getValue();
+        if (value == null || coldIndex.get(key) != value) {
+            boolean becomesHot = releaseColdValue(key) || super.get(key) == null;
+            if (value instanceof ColdData) {
+                record.setValue(((ColdData) value).toHeapData());
+            }
+            super.put(key, record);
+            if (becomesHot) {
+                onBecameHot(key, record);
+            }
+        } else {
+            // an already demoted record is re-put, its value stays cold
+            super.put(key, record);
+        }
+    }
+
+    @Override
+    public void updateRecordValue(Data key, R record, Object value) {
+        boolean wasCold = releaseColdValue(key);
+        if (value instanceof ColdData) {
+            value = ((ColdData) value).toHeapData();
+        }
+        super.updateRecordValue(key, record, value);
+        if (wasCold) {
+            onBecameHot(key, record);
+        }
+    }
+
+    @Override
+    public R get(Data key) {
+        R record = super.get(key);
+        if (record == null) {
+            return null;
+        }
+
+        Object value = record.getValue();
+        if (value instanceof ColdData) {
+            coldHits++;
+            if (Thread.currentThread() instanceof PartitionOperationThread) {
+                promotions++;
+                // releases the cold copy and puts the value back to the hot tier
+                updateRecordValue(key, record, ((ColdData) value).toHeapData());
+            }
+        } else {
+            hotHits++;
+        }
+        return record;
+    }
+
+    @Override
+    public void removeRecord(Data dataKey, @Nonnull R record) {
+        releaseColdValue(dataKey);
+        super.removeRecord(dataKey, record);
+    }
+
+    @Override
+    public void clear(boolean isDuringShutdown) {
+        super.clear(isDuringShutdown);
+        coldIndex.clear();
+        clockQueue.clear();
+        coldSegment.clear();
+    }
+
+    @Override
+    public void destroy(boolean isDuringShutdown) {
+        clear(isDuringShutdown);
+    }
+
+    public int getHotEntryCount() {
+        return Math.max(size() - coldIndex.size(), 0);
+    }
+
+    public int getColdEntryCount() {
+        return coldIndex.size();
+    }
+
+    public long getHotHits() {
+        return hotHits;
+    }
+
+    public long getColdHits() {
+        return coldHits;
+    }
+
+    public long getDemotions() {
+        return demotions;
+    }
+
+    public long getPromotions() {
+        return promotions;
+    }
+
+    public long getCompactions() {
+        return coldSegment.getCompactionCount();
+    }
+
+    public long getColdLiveBytes() {
+        return coldSegment.getLiveBytes();
+    }
+
+    public long getColdFileBytes() {
+        return coldSegment.getFileBytes();
+    }
+
+    private void onBecameHot(Data key, R record) {
+        if (clockQueue.size() > 2 * Math.max(getHotEntryCount(), maxHotEntryCount) + CLOCK_QUEUE_SLACK) {
+            purgeStaleHotKeys();
+        }
+        clockQueue.offer(new HotKey(key, record.getLastAccessTime()));
+        demoteIfNeeded(key);
+    }
+
+    /**
+     * Demotes hot entries in CLOCK order until the hot
+     * tier is back within its limit.
+     *
+     * @param excludedKey key of the entry which is just being accessed,
+     *                    it is never demoted
+     */
+    private void demoteIfNeeded(Data excludedKey) {
+        int excess = getHotEntryCount() - maxHotEntryCount;
+        // every live key gets at most one second chance per call
+        int visitBudget = 2 * clockQueue.size();
+        while (excess > 0 && visitBudget-- > 0) {
+            HotKey hotKey = clockQueue.poll();
+            if (hotKey == null) {
+                return;
+            }
+
+            R record = super.get(hotKey.key);
+            if (!isHot(record)) {
+                // removed or already demoted
+                continue;
+            }
+
+            long lastAccessTime = record.getLastAccessTime();
+            if (lastAccessTime != hotKey.lastAccessTime || hotKey.key.equals(excludedKey)) {
+                clockQueue.offer(new HotKey(hotKey.key, lastAccessTime));
+                continue;
+            }
+
+            demote(hotKey.key, record);
+            excess--;
+        }
+    }
+
+    private void demote(Data key, R record) {
+        ColdData coldData = coldSegment.append((Data) record.getValue());
+        super.updateRecordValue(key, record, coldData);
+        coldIndex.put(key, coldData);
+        demotions++;
+        compactIfNeeded();
+    }
+
+    /**
+     * @return {@code true} if the key had a value in the cold tier
+     */
+    private boolean releaseColdValue(Data key) {
+        ColdData coldData = coldIndex.remove(key);
+        if (coldData == null) {
+            return false;
+        }
+
+        coldSegment.release(coldData);
+        compactIfNeeded();
+        return true;
+    }
+
+    /**
+     * Starts a compaction of the cold segment once it holds enough garbage
+     * and moves the next bounded batch of live values of a running one.
+     */
+    private void compactIfNeeded() {
+        if (!coldSegment.isCompacting()) {
+            if (!coldSegment.shouldCompact(compactionThresholdPercentage)) {
+                return;
+            }
+            coldSegment.startCompaction(coldIndex);
+        }
+        coldSegment.compact(COMPACTION_STEP_SIZE);
+    }
+
+    /**
+     * Drops keys which are not hot anymore and duplicates
+     * left behind by keys which were removed and put again.
+     */
+    private void purgeStaleHotKeys() {
+        Set<Data> visitedKeys = new HashSet<>();
+        Iterator<HotKey> iterator = clockQueue.iterator();
+        while (iterator.hasNext()) {
+            Data key = iterator.next().key;
+            if (!isHot(super.get(key)) || !visitedKeys.add(key)) {
+                iterator.remove();
+            }
+        }
+    }
+
+    private static boolean isHot(Record record) {
+        if (record == null) {
+            return false;
+        }
+        Object value = record.getValue();
+        return value instanceof Data && !(value instanceof ColdData);
+    }
+
+    /**
+     * Entry of the CLOCK queue, remembers the access time of the
+     * record when the key was queued to detect later accesses.
+     */
+    private static final class HotKey {
+        private final Data key;
+        private final long lastAccessTime;
+
+        HotKey(Data key, long lastAccessTime) {
+            this.key = key;
+            this.lastAccessTime = lastAccessTime;
+        }
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.internal.metrics.Probe;
+
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TIERED_STORAGE_COLD_ENTRY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TIERED_STORAGE_COLD_FILE_BYTES;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TIERED_STORAGE_COLD_HITS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TIERED_STORAGE_COLD_LIVE_BYTES;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TIERED_STORAGE_COMPACTIONS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TIERED_STORAGE_DEMOTIONS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TIERED_STORAGE_HOT_ENTRY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TIERED_STORAGE_HOT_HITS;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TIERED_STORAGE_HOT_HIT_RATIO;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_TIERED_STORAGE_PROMOTIONS;
+import static com.hazelcast.internal.metrics.ProbeUnit.BYTES;
+import static com.hazelcast.internal.metrics.ProbeUnit.PERCENT;
+
+/**
+ * Member-local tiered storage statistics of a map, aggregated over
+ * the {@link TieredStorageImpl}s of all its partitions.
+ */
+public class TieredStorageStats {
+
+    private static final double HUNDRED_PERCENT = 100;
+
+    @Probe(name = MAP_METRIC_TIERED_STORAGE_HOT_ENTRY_COUNT)
+    private long hotEntryCount;
+
+    @Probe(name = MAP_METRIC_TIERED_STORAGE_COLD_ENTRY_COUNT)
+    private long coldEntryCount;
+
+    @Probe(name = MAP_METRIC_TIERED_STORAGE_HOT_HITS)
+    private long hotHits;
+
+    @Probe(name = MAP_METRIC_TIERED_STORAGE_COLD_HITS)
+    private long coldHits;
+
+    @Probe(name = MAP_METRIC_TIERED_STORAGE_DEMOTIONS)
+    private long demotions;
+
+    @Probe(name = MAP_METRIC_TIERED_STORAGE_PROMOTIONS)
+    private long promotions;
+
+    @Probe(name = MAP_METRIC_TIERED_STORAGE_COMPACTIONS)
+    private long compactions;
+
+    @Probe(name = MAP_METRIC_TIERED_STORAGE_COLD_LIVE_BYTES, unit = BYTES)
+    private long coldLiveBytes;
+
+    @Probe(name = MAP_METRIC_TIERED_STORAGE_COLD_FILE_BYTES, unit = BYTES)
+    private long coldFileBytes;
+
+    public void add(TieredStorageImpl storage) {
+        hotEntryCount += storage.getHotEntryCount();
+        coldEntryCount += storage.getColdEntryCount();
+        hotHits += storage.getHotHits();
+        coldHits += storage.getColdHits();
+        demotions += storage.getDemotions();
+        promotions += storage.getPromotions();
+        compactions += storage.getCompactions();
+        coldLiveBytes += storage.getColdLiveBytes();
+        coldFileBytes += storage.getColdFileBytes();
+    }
+
+    public long getHotEntryCount() {
+        return hotEntryCount;
+    }
+
+    public long getColdEntryCount() {
+        return coldEntryCount;
+    }
+
+    public long getHotHits() {
+        return hotHits;
+    }
+
+    public long getColdHits() {
+        return coldHits;
+    }
+
+    /**
+     * @return percentage of key based accesses served by the hot tier
+     */
+    @Probe(name = MAP_METRIC_TIERED_STORAGE_HOT_HIT_RATIO, unit = PERCENT)
+    public double getHotHitRatio() {
+        long hits = hotHits + coldHits;
+        return hits == 0 ? 0 : HUNDRED_PERCENT * hotHits / hits;
+    }
+
+    public long getDemotions() {
+        return demotions;
+    }
+
+    public long getPromotions() {
+        return promotions;
+    }
+
+    public long getCompactions() {
+        return compactions;
+    }
+
+    public long getColdLiveBytes() {
+        return coldLiveBytes;
+    }
+
+    public long getColdFileBytes() {
+        return coldFileBytes;
+    }
+
+    @Override
+    public String toString() {
+        return "TieredStorageStats{"
+                + "hotEntryCount=" + hotEntryCount
+                + ", coldEntryCount=" + coldEntryCount
+                + ", hotHits=" + hotHits
+                + ", coldHits=" + coldHits
+                + ", demotions=" + demotions
+                + ", promotions=" + promotions
+                + ", compactions=" + compactions
+                + ", coldLiveBytes=" + coldLiveBytes
+                + ", coldFileBytes=" + coldFileBytes
+                + '}';
+    }
+}
@@ -21,11 +21,14 @@ import com.hazelcast.query.impl.PredicateBuilderImpl;
 import com.hazelcast.query.impl.predicates.AndPredicate;
 import com.hazelcast.query.impl.predicates.BetweenPredicate;
 import com.hazelcast.query.impl.predicates.EqualPredicate;
+import com.hazelcast.query.impl.predicates.GeoDistancePredicate;
+import com.hazelcast.query.impl.predicates.GeoWithinPredicate;
 import com.hazelcast.query.impl.predicates.GreaterLessPredicate;
 import com.hazelcast.query.impl.predicates.ILikePredicate;
 import com.hazelcast.query.impl.predicates.InPredicate;
 import com.hazelcast.query.impl.predicates.InstanceOfPredicate;
 import com.hazelcast.query.impl.predicates.LikePredicate;
+import com.hazelcast.query.impl.predicates.MatchPredicate;
 import com.hazelcast.query.impl.predicates.NotEqualPredicate;
 import com.hazelcast.query.impl.predicates.NotPredicate;
 import com.hazelcast.query.impl.predicates.OrPredicate;
@@ -346,6 +349,84 @@ public final class Predicates {
         return new ILikePredicate(attribute, pattern);
     }
 
+    /**
+     * Creates a <b>match</b> predicate that will pass items if the text stored under the given item {@code attribute}
+     * contains all the terms of the given {@code query}.
+     * <p>
+     * Terms are the runs of letters and digits compared case-insensitively; a term of the query immediately followed by
+     * {@code *} matches any term starting with it, for example {@code "red sho*"} matches {@code "Red Shoes"}. The
+     * predicate is evaluated using a {@link com.hazelcast.config.IndexType#FULL_TEXT full-text} index, if the attribute
+     * has one.
+     * <p>
+     * See also <i>Special Attributes</i>, <i>Attribute Paths</i> and <i>Handling of {@code null}</i> sections of
+     * {@link Predicates}.
+     *
+     * @param attribute the attribute to fetch the text for matching from.
+     * @param query     the terms to search for. Can be {@code null}, an empty query matches nothing.
+     * @param <K>       the type of keys the predicate operates on.
+     * @param <V>       the type of values the predicate operates on.
+     * @return the created <b>match</b> predicate instance.
+     * @throws IllegalArgumentException if the {@code attribute} does not exist.
+     * @see #like(String, String)
+     * @see #ilike(String, String)
+     */
+    public static <K, V> Predicate<K, V> match(String attribute, String query) {
+        return new MatchPredicate(attribute, query);
+    }
+
+    /**
+     * Creates a <b>within</b> predicate that will pass items positioned inside the given box, the position of an item is
+     * given by its {@code latitudeAttribute} and {@code longitudeAttribute} in degrees.
+     * <p>
+     * The bounds of the box are inclusive; the box crosses the antimeridian if {@code minLongitude} is greater than
+     * {@code maxLongitude}. Items with a non-numeric or out of range position never pass. The predicate is evaluated
+     * using a {@link com.hazelcast.config.IndexType#GEOSPATIAL geospatial} index built on the same latitude and
+     * longitude attributes, if there is one.
+     *
+     * @param latitudeAttribute  the attribute to fetch the latitude from.
+     * @param longitudeAttribute the attribute to fetch the longitude from.
+     * @param minLatitude        the minimum latitude of the box.
+     * @param minLongitude       the minimum longitude of the box.
+     * @param maxLatitude        the maximum latitude of the box.
+     * @param maxLongitude       the maximum longitude of the box.
+     * @param <K>                the type of keys the predicate operates on.
+     * @param <V>                the type of values the predicate operates on.
+     * @return the created <b>within</b> predicate instance.
+     * @throws IllegalArgumentException if the box is invalid.
+     * @see #withinDistance(String, String, double, double, double)
+     */
+    public static <K, V> Predicate<K, V> within(String latitudeAttribute, String longitudeAttribute, double minLatitude,
+                                                double minLongitude, double maxLatitude, double maxLongitude) {
+        return new GeoWithinPredicate(latitudeAttribute, longitudeAttribute, minLatitude, minLongitude, maxLatitude,
+                maxLongitude);
+    }
+
+    /**
+     * Creates a <b>within distance</b> predicate that will pass items positioned within the given great-circle
+     * {@code distance} from the given center position, the position of an item is given by its
+     * {@code latitudeAttribute} and {@code longitudeAttribute} in degrees.
+     * <p>
+     * Items with a non-numeric or out of range position never pass. The predicate is evaluated using a
+     * {@link com.hazelcast.config.IndexType#GEOSPATIAL geospatial} index built on the same latitude and longitude
+     * attributes, if there is one. To find the nearest items, query the items within the distance of interest and
+     * order them by their distance to the center.
+     *
+     * @param latitudeAttribute  the attribute to fetch the latitude from.
+     * @param longitudeAttribute the attribute to fetch the longitude from.
+     * @param latitude           the latitude of the center.
+     * @param longitude          the longitude of the center.
+     * @param distance           the distance from the center in meters.
+     * @param <K>                the type of keys the predicate operates on.
+     * @param <V>                the type of values the predicate operates on.
+     * @return the created <b>within distance</b> predicate instance.
+     * @throws IllegalArgumentException if the center is invalid or the distance is negative.
+     * @see #within(String, String, double, double, double, double)
+     */
+    public static <K, V> Predicate<K, V> withinDistance(String latitudeAttribute, String longitudeAttribute, double latitude,
+                                                        double longitude, double distance) {
+        return new GeoDistancePredicate(latitudeAttribute, longitudeAttribute, latitude, longitude, distance);
+    }
+
     /**
      * Creates a <b>regex</b> predicate that will pass items if the given {@code pattern} matches the value stored under
      * the given item {@code attribute}.
@@ -480,7 +561,7 @@ public final class Predicates {
     /**
      * Creates a predicate that will pass items that match the given SQL 'where' expression. The following
      * operators are supported: {@code =}, {@code <}, {@code >}, {@code <=}, {@code >=}, {@code ==},
-     * {@code !=}, {@code <>}, {@code BETWEEN}, {@code IN}, {@code LIKE}, {@code ILIKE}, {@code REGEX},
+     * {@code !=}, {@code <>}, {@code BETWEEN}, {@code IN}, {@code LIKE}, {@code ILIKE}, {@code REGEX}, {@code MATCH},
      * {@code AND}, {@code OR} and {@code NOT}. The operators are case-insensitive, but attribute names are
      * case sensitive.
      * <p>
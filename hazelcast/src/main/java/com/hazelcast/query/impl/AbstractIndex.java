@@ -32,8 +32,10 @@ import com.hazelcast.query.impl.getters.MultiResult;
 import com.hazelcast.query.impl.predicates.PredicateDataSerializerHook;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static com.hazelcast.internal.util.SetUtil.createHashSet;
 import static com.hazelcast.query.impl.CompositeValue.NEGATIVE_INFINITY;
@@ -44,7 +46,7 @@ import static java.util.Collections.emptySet;
 /**
  * Provides an abstract base for indexes.
  */
-@SuppressWarnings("rawtypes")
+@SuppressWarnings({"rawtypes", "checkstyle:methodcount"})
 public abstract class AbstractIndex implements InternalIndex {
 
     /**
@@ -150,6 +152,39 @@ public abstract class AbstractIndex implements InternalIndex {
         }
     }
 
+    @Override
+    public void putEntries(Collection<QueryableEntry> entries, OperationSource operationSource) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        long timestamp = stats.makeTimestamp();
+        int size = entries.size();
+        Object[] attributeValues = new Object[size];
+        QueryableEntry[] entryArray = new QueryableEntry[size];
+        IndexOperationStats[] operationStats = new IndexOperationStats[size];
+
+        // extract the attribute values before touching the index store, so
+        // the store may sort and load them in one pass
+        int i = 0;
+        for (QueryableEntry entry : entries) {
+            if (converterIsUnassignedOrTransient(converter)) {
+                converter = obtainConverter(entry);
+            }
+            attributeValues[i] = extractAttributeValue(entry.getKeyData(), entry.getTargetObject(false));
+            entryArray[i] = entry;
+            operationStats[i] = stats.createOperationStats();
+            i++;
+        }
+        indexStore.insertAll(attributeValues, entryArray, operationStats);
+
+        // the latency of the whole batch is reported as population latency
+        long insertTimestamp = stats.makeTimestamp();
+        for (IndexOperationStats entryOperationStats : operationStats) {
+            stats.onInsert(insertTimestamp, entryOperationStats, operationSource);
+        }
+        stats.onPopulate(timestamp, size);
+    }
+
     @Override
     public void removeEntry(Data key, Object value, OperationSource operationSource) {
         long timestamp = stats.makeTimestamp();
@@ -282,6 +317,21 @@ public abstract class AbstractIndex implements InternalIndex {
         return result;
     }
 
+    @Override
+    public long getEntryCount() {
+        return indexStore.getEntryCount();
+    }
+
+    @Override
+    public boolean visitDistinctValues(Consumer<QueryableEntry> consumer) {
+        return indexStore.visitDistinctValues(consumer);
+    }
+
+    @Override
+    public boolean visitExtremeValues(Consumer<QueryableEntry> consumer) {
+        return indexStore.visitExtremeValues(consumer);
+    }
+
     @Override
     public void clear() {
         indexStore.clear();
@@ -57,7 +57,9 @@ public class AttributeIndexRegistry {
      */
     public void register(InternalIndex index) {
         String[] components = index.getComponents();
-        String attribute = components[0];
+        // Composite evaluate-only indexes are never queried on their first
+        // component alone, they are matched by all of their components.
+        String attribute = index.isEvaluateOnly() ? String.join(",", components) : components[0];
 
         Record record = registry.get(attribute);
         if (record == null) {
@@ -129,7 +131,8 @@ public class AttributeIndexRegistry {
             assert !candidate.isOrdered();
 
             // we have no index and the unordered candidate is not composite
-            return unordered == null && candidate.getComponents().length == 1;
+            // or is registered under all of its components
+            return unordered == null && (candidate.getComponents().length == 1 || candidate.isEvaluateOnly());
         }
 
         public boolean orderedWorseThan(InternalIndex candidate) {
@@ -0,0 +1,912 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.monitor.impl.IndexOperationStats;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.util.FlatCompositeIterator;
+import com.hazelcast.query.Predicate;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static java.util.Collections.emptySet;
+
+/**
+ * Store indexes rankly in a B+tree.
+ * <p>
+ * Unlike {@link OrderedIndexStore}, which keeps a skip list node and a hash
+ * map per distinct attribute value, every indexed entry occupies a single
+ * slot of a leaf page ordered by the attribute value and then by the
+ * serialized entry key. Pages are plain arrays, so range scans walk
+ * contiguous memory and the per-entry overhead is two references.
+ * <p>
+ * The tree is persistent: updates copy the pages on the path from the root
+ * to the modified leaf and publish the new root, so readers work on an
+ * immutable snapshot and take no locks. Updates are serialized by the write
+ * lock of the store. The pages created since the last publication are
+ * modified in place.
+ * <p>
+ * Populating the index goes through {@link #insertAll}: the entries of a
+ * partition are sorted outside of the lock and then either bulk loaded
+ * bottom-up into full pages, if the tree is empty or smaller than the batch,
+ * or inserted in order with the root published once at the end.
+ * <p>
+ * Pages are not merged on removal, only the empty ones are dropped.
+ */
+@SuppressWarnings("rawtypes")
+public class BTreeIndexStore extends BaseSingleValueIndexStore {
+
+    /**
+     * Maximum number of slots of a page.
+     */
+    static final int PAGE_CAPACITY = 64;
+
+    private final Tree tree = new Tree();
+    private final Tree nullTree = new Tree();
+
+    public BTreeIndexStore(IndexCopyBehavior copyOn) {
+        super(copyOn, true);
+    }
+
+    @Override
+    Object insertInternal(Comparable value, QueryableEntry record) {
+        markIndexStoreExpirableIfNecessary(record);
+        Tree target = value == NULL ? nullTree : tree;
+        Object oldValue = target.put(value, record);
+        target.publish();
+        return oldValue;
+    }
+
+    @Override
+    Object removeInternal(Comparable value, Data recordKey) {
+        Tree target = value == NULL ? nullTree : tree;
+        Object oldValue = target.remove(value, recordKey);
+        target.publish();
+        return oldValue;
+    }
+
+    @Override
+    public void insertAll(Object[] values, QueryableEntry[] entries, IndexOperationStats[] operationStats) {
+        // unwrap and sort outside of the lock, so the partitions being
+        // populated concurrently do the heavy lifting in parallel
+        List<Slot> slots = new ArrayList<>(values.length);
+        List<Slot> nullSlots = new ArrayList<>();
+        for (int i = 0; i < values.length; i++) {
+            int index = i;
+            unwrapValue(values[i], value -> (value == NULL ? nullSlots : slots).add(new Slot(value, entries[index], index)));
+        }
+        slots.sort(Slot::compareTo);
+        nullSlots.sort(Slot::compareTo);
+
+        takeWriteLock();
+        try {
+            if (entries.length > 0) {
+                markIndexStoreExpirableIfNecessary(entries[0]);
+            }
+            SlotConsumer onAdded = (slot, replaced) -> operationStats[slot.index].onEntryAdded(replaced, values[slot.index]);
+            tree.load(slots, onAdded);
+            nullTree.load(nullSlots, onAdded);
+            tree.publish();
+            nullTree.publish();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public Comparable canonicalizeQueryArgumentScalar(Comparable value) {
+        // We still need to canonicalize query arguments for ordered indexes to
+        // support InPredicate queries.
+        return Comparables.canonicalizeForHashLookup(value);
+    }
+
+    @Override
+    public Comparable canonicalizeScalarForStorage(Comparable value) {
+        // Returning the original value since ordered indexes are not supporting
+        // hash lookups on their stored values, so there is no need in providing
+        // canonical representations.
+        return value;
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            tree.clear();
+            nullTree.clear();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public boolean isEvaluateOnly() {
+        return false;
+    }
+
+    @Override
+    public boolean canEvaluate(Class<? extends Predicate> predicateClass) {
+        return false;
+    }
+
+    @Override
+    public Set<QueryableEntry> evaluate(Predicate predicate, TypeConverter converter) {
+        throw new UnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator() {
+        Iterator<QueryableEntry> iterator = new Cursor(tree.root, null, false, null, false);
+        Iterator<QueryableEntry> nullIterator = new Cursor(nullTree.root, null, false, null, false);
+
+        return new FlatCompositeIterator<>(Arrays.asList(nullIterator, iterator).iterator());
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparable value) {
+        if (value == NULL) {
+            return new Cursor(nullTree.root, null, false, null, false);
+        } else {
+            return new Cursor(tree.root, value, true, value, true);
+        }
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparison comparison, Comparable searchedValue) {
+        switch (comparison) {
+            case LESS:
+                return new Cursor(tree.root, null, false, searchedValue, false);
+            case LESS_OR_EQUAL:
+                return new Cursor(tree.root, null, false, searchedValue, true);
+            case GREATER:
+                return new Cursor(tree.root, searchedValue, false, null, false);
+            case GREATER_OR_EQUAL:
+                return new Cursor(tree.root, searchedValue, true, null, false);
+            default:
+                throw new IllegalArgumentException("Unrecognized comparison: " + comparison);
+        }
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparable from, boolean fromInclusive, Comparable to,
+                                                         boolean toInclusive) {
+        int order = Comparables.compare(from, to);
+        if (order > 0 || order == 0 && (!fromInclusive || !toInclusive)) {
+            return Collections.emptyIterator();
+        }
+        return new Cursor(tree.root, from, fromInclusive, to, toInclusive);
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        if (value == NULL) {
+            return toSingleResultSet(collect(new Cursor(nullTree.root, null, false, null, false)));
+        } else {
+            return toSingleResultSet(collect(new Cursor(tree.root, value, true, value, true)));
+        }
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        MultiResultSet results = createMultiResultSet();
+        for (Comparable value : values) {
+            Map<Data, QueryableEntry> records;
+            if (value == NULL) {
+                records = collect(new Cursor(nullTree.root, null, false, null, false));
+            } else {
+                records = collect(new Cursor(tree.root, value, true, value, true));
+            }
+            if (!records.isEmpty()) {
+                copyToMultiResultSet(results, records);
+            }
+        }
+        return results;
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparison comparison, Comparable searchedValue) {
+        MultiResultSet results = createMultiResultSet();
+        Map<Data, QueryableEntry> records = collect(getSqlRecordIterator(comparison, searchedValue));
+        if (!records.isEmpty()) {
+            copyToMultiResultSet(results, records);
+        }
+        return results;
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        int order = Comparables.compare(from, to);
+        if (order == 0) {
+            if (!fromInclusive || !toInclusive) {
+                return emptySet();
+            }
+            return toSingleResultSet(collect(new Cursor(tree.root, from, true, from, true)));
+        } else if (order > 0) {
+            return emptySet();
+        }
+        MultiResultSet results = createMultiResultSet();
+        Map<Data, QueryableEntry> records = collect(new Cursor(tree.root, from, fromInclusive, to, toInclusive));
+        if (!records.isEmpty()) {
+            copyToMultiResultSet(results, records);
+        }
+        return results;
+    }
+
+    @Override
+    public long getEntryCount() {
+        takeReadLock();
+        try {
+            return indexesEveryEntryOnce() ? tree.size + nullTree.size : -1;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public boolean visitDistinctValues(Consumer<QueryableEntry> consumer) {
+        if (!canVisit()) {
+            return false;
+        }
+        // the published roots are immutable, no need to lock
+        Node nullRoot = nullTree.root;
+        List<QueryableEntry> representatives = new ArrayList<>();
+        if (nullRoot.size > 0) {
+            representatives.add(first(nullRoot));
+        }
+        collectDistinct(tree.root, representatives, new Comparable[1]);
+        representatives.forEach(consumer);
+        return true;
+    }
+
+    @Override
+    public boolean visitExtremeValues(Consumer<QueryableEntry> consumer) {
+        if (!canVisit()) {
+            return false;
+        }
+        Node root = tree.root;
+        if (root.size > 0) {
+            consumer.accept(first(root));
+            consumer.accept(last(root));
+        }
+        return true;
+    }
+
+    // for testing
+    int depth() {
+        int depth = 1;
+        for (Node node = tree.root; !node.isLeaf(); node = node.children[0]) {
+            depth++;
+        }
+        return depth;
+    }
+
+    private boolean canVisit() {
+        takeReadLock();
+        try {
+            return indexesEveryEntryOnce();
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    private static QueryableEntry first(Node node) {
+        while (!node.isLeaf()) {
+            node = node.children[0];
+        }
+        return node.entries[0];
+    }
+
+    private static QueryableEntry last(Node node) {
+        while (!node.isLeaf()) {
+            node = node.children[node.size - 1];
+        }
+        return node.entries[node.size - 1];
+    }
+
+    /**
+     * Collects the first entry of every run of equal values, the previous
+     * value is carried over the leaves in the given holder.
+     */
+    private static void collectDistinct(Node node, List<QueryableEntry> representatives, Comparable[] previous) {
+        if (!node.isLeaf()) {
+            for (int i = 0; i < node.size; i++) {
+                collectDistinct(node.children[i], representatives, previous);
+            }
+            return;
+        }
+        for (int i = 0; i < node.size; i++) {
+            Comparable value = node.values[i];
+            if (previous[0] == null || Comparables.compare(previous[0], value) != 0) {
+                representatives.add(node.entries[i]);
+                previous[0] = value;
+            }
+        }
+    }
+
+    private static Map<Data, QueryableEntry> collect(Iterator<QueryableEntry> iterator) {
+        Map<Data, QueryableEntry> records = new HashMap<>();
+        while (iterator.hasNext()) {
+            QueryableEntry entry = iterator.next();
+            records.put(entry.getKeyData(), entry);
+        }
+        return records;
+    }
+
+    /**
+     * Compares the (value, key) pairs of two slots.
+     */
+    static int compare(Comparable value1, Data key1, Comparable value2, Data key2) {
+        int order = Comparables.compare(value1, value2);
+        return order != 0 ? order : compareKeys(key1, key2);
+    }
+
+    /**
+     * Compares the (value, key) pair of a slot to a search bound which sorts
+     * before all the slots having the bound value if {@code keyBias} is
+     * negative and after them otherwise. Never returns {@code 0}.
+     */
+    static int compareToBound(Comparable value, Data key, Comparable bound, int keyBias) {
+        int order = Comparables.compare(value, bound);
+        return order != 0 ? order : -keyBias;
+    }
+
+    /**
+     * An arbitrary but stable total order of serialized keys. Used to order
+     * the entries having equal attribute values, so it's the same on every
+     * member.
+     */
+    public static int compareKeys(Data key1, Data key2) {
+        int order = Integer.compare(key1.hashCode(), key2.hashCode());
+        if (order != 0) {
+            return order;
+        }
+        byte[] bytes1 = key1.toByteArray();
+        byte[] bytes2 = key2.toByteArray();
+        int length = Math.min(bytes1.length, bytes2.length);
+        for (int i = 0; i < length; i++) {
+            order = Byte.compare(bytes1[i], bytes2[i]);
+            if (order != 0) {
+                return order;
+            }
+        }
+        return Integer.compare(bytes1.length, bytes2.length);
+    }
+
+    /**
+     * A page of the tree. Leaves hold the (value, entry) slots; inner nodes
+     * hold their children and, for every child but the first one, the
+     * smallest (value, key) pair which may be stored in that child. Slot
+     * {@code 0} of an inner node holds its own lower bound, if known.
+     */
+    private static final class Node {
+
+        /**
+         * The edit token of the tree which may modify this node in place.
+         */
+        final Object owner;
+        Comparable[] values;
+        Data[] keys;
+        QueryableEntry[] entries;
+        Node[] children;
+        int size;
+
+        private Node(Object owner, boolean leaf) {
+            this.owner = owner;
+            this.values = new Comparable[PAGE_CAPACITY + 1];
+            if (leaf) {
+                this.entries = new QueryableEntry[PAGE_CAPACITY + 1];
+            } else {
+                this.keys = new Data[PAGE_CAPACITY + 1];
+                this.children = new Node[PAGE_CAPACITY + 1];
+            }
+        }
+
+        static Node newLeaf(Object owner) {
+            return new Node(owner, true);
+        }
+
+        static Node newInner(Object owner) {
+            return new Node(owner, false);
+        }
+
+        boolean isLeaf() {
+            return children == null;
+        }
+
+        Data key(int index) {
+            return isLeaf() ? entries[index].getKeyData() : keys[index];
+        }
+
+        Node copy(Object newOwner) {
+            Node copy = new Node(newOwner, isLeaf());
+            System.arraycopy(values, 0, copy.values, 0, size);
+            if (isLeaf()) {
+                System.arraycopy(entries, 0, copy.entries, 0, size);
+            } else {
+                System.arraycopy(keys, 0, copy.keys, 0, size);
+                System.arraycopy(children, 0, copy.children, 0, size);
+            }
+            copy.size = size;
+            return copy;
+        }
+
+        /**
+         * Binary search of a leaf.
+         *
+         * @return the index of the slot, if found; otherwise {@code -(insertion point) - 1}
+         */
+        int search(Comparable value, Data key) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                int order = compare(values[mid], entries[mid].getKeyData(), value, key);
+                if (order < 0) {
+                    low = mid + 1;
+                } else if (order > 0) {
+                    high = mid - 1;
+                } else {
+                    return mid;
+                }
+            }
+            return -(low + 1);
+        }
+
+        /**
+         * @return the index of the child of an inner node which may contain the given pair
+         */
+        int childIndex(Comparable value, Data key) {
+            int low = 1;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (compare(values[mid], keys[mid], value, key) <= 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low - 1;
+        }
+
+        /**
+         * @return the index of the child of an inner node which contains the
+         * first slot after the given bound
+         */
+        int childIndexForBound(Comparable bound, int keyBias) {
+            int low = 1;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (compareToBound(values[mid], keys[mid], bound, keyBias) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low - 1;
+        }
+
+        /**
+         * @return the index of the first slot of a leaf after the given bound
+         */
+        int slotIndexForBound(Comparable bound, int keyBias) {
+            int low = 0;
+            int high = size - 1;
+            while (low <= high) {
+                int mid = (low + high) >>> 1;
+                if (compareToBound(values[mid], entries[mid].getKeyData(), bound, keyBias) < 0) {
+                    low = mid + 1;
+                } else {
+                    high = mid - 1;
+                }
+            }
+            return low;
+        }
+
+        void insertEntry(int index, Comparable value, QueryableEntry entry) {
+            System.arraycopy(values, index, values, index + 1, size - index);
+            System.arraycopy(entries, index, entries, index + 1, size - index);
+            values[index] = value;
+            entries[index] = entry;
+            size++;
+        }
+
+        void insertChild(int index, Comparable value, Data key, Node child) {
+            System.arraycopy(values, index, values, index + 1, size - index);
+            System.arraycopy(keys, index, keys, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            values[index] = value;
+            keys[index] = key;
+            children[index] = child;
+            size++;
+        }
+
+        void removeSlot(int index) {
+            int moved = size - index - 1;
+            System.arraycopy(values, index + 1, values, index, moved);
+            values[size - 1] = null;
+            if (isLeaf()) {
+                System.arraycopy(entries, index + 1, entries, index, moved);
+                entries[size - 1] = null;
+            } else {
+                System.arraycopy(keys, index + 1, keys, index, moved);
+                System.arraycopy(children, index + 1, children, index, moved);
+                keys[size - 1] = null;
+                children[size - 1] = null;
+            }
+            size--;
+        }
+
+        /**
+         * Moves the upper half of the slots to a new sibling.
+         */
+        Node split(Object newOwner) {
+            Node sibling = new Node(newOwner, isLeaf());
+            int from = size / 2;
+            int moved = size - from;
+            System.arraycopy(values, from, sibling.values, 0, moved);
+            Arrays.fill(values, from, size, null);
+            if (isLeaf()) {
+                System.arraycopy(entries, from, sibling.entries, 0, moved);
+                Arrays.fill(entries, from, size, null);
+            } else {
+                System.arraycopy(keys, from, sibling.keys, 0, moved);
+                System.arraycopy(children, from, sibling.children, 0, moved);
+                Arrays.fill(keys, from, size, null);
+                Arrays.fill(children, from, size, null);
+            }
+            sibling.size = moved;
+            size = from;
+            return sibling;
+        }
+    }
+
+    /**
+     * The published root along with the working copy updated by the writer.
+     */
+    private static final class Tree {
+
+        volatile Node root = Node.newLeaf(null);
+        Node working = root;
+        Object editToken = new Object();
+        /**
+         * Number of slots in the working copy.
+         */
+        int size;
+
+        QueryableEntry put(Comparable value, QueryableEntry entry) {
+            QueryableEntry[] replaced = new QueryableEntry[1];
+            Node node = editable(working);
+            Node sibling = insert(node, value, entry.getKeyData(), entry, replaced);
+            if (sibling != null) {
+                Node newRoot = Node.newInner(editToken);
+                newRoot.insertChild(0, node.values[0], node.key(0), node);
+                newRoot.insertChild(1, sibling.values[0], sibling.key(0), sibling);
+                node = newRoot;
+            }
+            working = node;
+            if (replaced[0] == null) {
+                size++;
+            }
+            return replaced[0];
+        }
+
+        /**
+         * Inserts the given slots sorted by (value, key), reporting every
+         * insertion to the given consumer.
+         */
+        void load(List<Slot> slots, SlotConsumer consumer) {
+            if (slots.isEmpty()) {
+                return;
+            }
+            if (size == 0 || slots.size() >= size) {
+                // rebuilding is cheaper than descending the tree for every slot
+                List<Slot> merged = merge(slots, consumer);
+                working = build(merged);
+                size = merged.size();
+            } else {
+                for (Slot slot : slots) {
+                    consumer.accept(slot, put(slot.value, slot.entry));
+                }
+            }
+        }
+
+        /**
+         * Merges the sorted slots with the slots of the working copy, the
+         * given slots win over the existing ones with the same (value, key).
+         */
+        private List<Slot> merge(List<Slot> slots, SlotConsumer consumer) {
+            List<Slot> merged = new ArrayList<>(size + slots.size());
+            Cursor existing = new Cursor(working, null, false, null, false);
+            Slot current = existing.nextSlot();
+            for (Slot slot : slots) {
+                while (current != null && current.compareTo(slot) < 0) {
+                    merged.add(current);
+                    current = existing.nextSlot();
+                }
+                QueryableEntry replaced = null;
+                if (current != null && current.compareTo(slot) == 0) {
+                    replaced = current.entry;
+                    current = existing.nextSlot();
+                } else if (!merged.isEmpty() && merged.get(merged.size() - 1).compareTo(slot) == 0) {
+                    // a duplicate within the batch
+                    replaced = merged.remove(merged.size() - 1).entry;
+                }
+                consumer.accept(slot, replaced);
+                merged.add(slot);
+            }
+            while (current != null) {
+                merged.add(current);
+                current = existing.nextSlot();
+            }
+            return merged;
+        }
+
+        /**
+         * Builds a tree of full pages out of the sorted slots level by level.
+         */
+        private Node build(List<Slot> slots) {
+            List<Node> level = new ArrayList<>(slots.size() / PAGE_CAPACITY + 1);
+            for (int from = 0; from < slots.size(); from += PAGE_CAPACITY) {
+                Node leaf = Node.newLeaf(editToken);
+                int to = Math.min(from + PAGE_CAPACITY, slots.size());
+                for (int i = from; i < to; i++) {
+                    Slot slot = slots.get(i);
+                    leaf.insertEntry(i - from, slot.value, slot.entry);
+                }
+                level.add(leaf);
+            }
+            if (level.isEmpty()) {
+                return Node.newLeaf(editToken);
+            }
+            while (level.size() > 1) {
+                List<Node> parents = new ArrayList<>(level.size() / PAGE_CAPACITY + 1);
+                for (int from = 0; from < level.size(); from += PAGE_CAPACITY) {
+                    Node parent = Node.newInner(editToken);
+                    int to = Math.min(from + PAGE_CAPACITY, level.size());
+                    for (int i = from; i < to; i++) {
+                        Node child = level.get(i);
+                        parent.insertChild(i - from, child.values[0], child.key(0), child);
+                    }
+                    parents.add(parent);
+                }
+                level = parents;
+            }
+            return level.get(0);
+        }
+
+        QueryableEntry remove(Comparable value, Data key) {
+            if (!contains(working, value, key)) {
+                return null;
+            }
+            Node node = editable(working);
+            QueryableEntry removed = delete(node, value, key);
+            while (!node.isLeaf() && node.size <= 1) {
+                node = node.size == 0 ? Node.newLeaf(editToken) : node.children[0];
+            }
+            working = node;
+            size--;
+            return removed;
+        }
+
+        void publish() {
+            if (root != working) {
+                root = working;
+                // the published nodes must not be modified in place anymore
+                editToken = new Object();
+            }
+        }
+
+        void clear() {
+            size = 0;
+            working = Node.newLeaf(null);
+            root = working;
+            editToken = new Object();
+        }
+
+        private Node editable(Node node) {
+            return node.owner == editToken ? node : node.copy(editToken);
+        }
+
+        private Node insert(Node node, Comparable value, Data key, QueryableEntry entry, QueryableEntry[] replaced) {
+            if (node.isLeaf()) {
+                int index = node.search(value, key);
+                if (index >= 0) {
+                    replaced[0] = node.entries[index];
+                    node.values[index] = value;
+                    node.entries[index] = entry;
+                    return null;
+                }
+                node.insertEntry(-index - 1, value, entry);
+                return node.size > PAGE_CAPACITY ? node.split(editToken) : null;
+            }
+
+            int index = node.childIndex(value, key);
+            Node child = editable(node.children[index]);
+            node.children[index] = child;
+            Node sibling = insert(child, value, key, entry, replaced);
+            if (sibling == null) {
+                return null;
+            }
+            node.insertChild(index + 1, sibling.values[0], sibling.key(0), sibling);
+            return node.size > PAGE_CAPACITY ? node.split(editToken) : null;
+        }
+
+        private QueryableEntry delete(Node node, Comparable value, Data key) {
+            if (node.isLeaf()) {
+                int index = node.search(value, key);
+                QueryableEntry removed = node.entries[index];
+                node.removeSlot(index);
+                return removed;
+            }
+
+            int index = node.childIndex(value, key);
+            Node child = editable(node.children[index]);
+            node.children[index] = child;
+            QueryableEntry removed = delete(child, value, key);
+            if (child.size == 0) {
+                node.removeSlot(index);
+            }
+            return removed;
+        }
+
+        private static boolean contains(Node node, Comparable value, Data key) {
+            while (!node.isLeaf()) {
+                node = node.children[node.childIndex(value, key)];
+            }
+            return node.search(value, key) >= 0;
+        }
+    }
+
+    /**
+     * A (value, entry) pair to insert along with the index of the entry in the
+     * batch.
+     */
+    private static final class Slot {
+
+        final Comparable value;
+        final QueryableEntry entry;
+        final int index;
+
+        Slot(Comparable value, QueryableEntry entry, int index) {
+            this.value = value;
+            this.entry = entry;
+            this.index = index;
+        }
+
+        int compareTo(Slot that) {
+            return compare(value, entry.getKeyData(), that.value, that.entry.getKeyData());
+        }
+    }
+
+    /**
+     * Receives the inserted slots along with the entries they replaced.
+     */
+    @FunctionalInterface
+    private interface SlotConsumer {
+
+        void accept(Slot slot, QueryableEntry replaced);
+    }
+
+    /**
+     * Iterates the slots of a snapshot of the tree between the given bounds,
+     * a {@code null} bound means unbounded.
+     */
+    private static final class Cursor implements Iterator<QueryableEntry> {
+
+        private final List<Node> path = new ArrayList<>();
+        private final List<Integer> pathIndexes = new ArrayList<>();
+        private final Comparable to;
+        private final int toKeyBias;
+        private Node leaf;
+        private int index;
+        private QueryableEntry next;
+
+        Cursor(Node root, Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+            this.to = to;
+            this.toKeyBias = toInclusive ? 1 : -1;
+            int fromKeyBias = fromInclusive ? -1 : 1;
+            Node node = root;
+            while (!node.isLeaf()) {
+                int childIndex = from == null ? 0 : node.childIndexForBound(from, fromKeyBias);
+                path.add(node);
+                pathIndexes.add(childIndex);
+                node = node.children[childIndex];
+            }
+            leaf = node;
+            index = from == null ? 0 : leaf.slotIndexForBound(from, fromKeyBias);
+            advance();
+        }
+
+        private void advance() {
+            while (index >= leaf.size) {
+                if (!nextLeaf()) {
+                    next = null;
+                    return;
+                }
+            }
+            QueryableEntry entry = leaf.entries[index];
+            if (to != null && compareToBound(leaf.values[index], entry.getKeyData(), to, toKeyBias) > 0) {
+                next = null;
+                return;
+            }
+            next = entry;
+        }
+
+        private boolean nextLeaf() {
+            int level = path.size() - 1;
+            while (level >= 0 && pathIndexes.get(level) + 1 >= path.get(level).size) {
+                level--;
+            }
+            if (level < 0) {
+                return false;
+            }
+            pathIndexes.set(level, pathIndexes.get(level) + 1);
+            Node node = path.get(level).children[pathIndexes.get(level)];
+            for (int i = level + 1; i < path.size(); i++) {
+                path.set(i, node);
+                pathIndexes.set(i, 0);
+                node = node.children[0];
+            }
+            leaf = node;
+            index = 0;
+            return true;
+        }
+
+        @Override
+        public boolean hasNext() {
+            return next != null;
+        }
+
+        @Override
+        public QueryableEntry next() {
+            if (next == null) {
+                throw new NoSuchElementException();
+            }
+            QueryableEntry result = next;
+            index++;
+            advance();
+            return result;
+        }
+
+        /**
+         * Same as {@link #next()} but also returns the value of the slot.
+         *
+         * @return the next slot or {@code null} if there are no more slots
+         */
+        Slot nextSlot() {
+            if (next == null) {
+                return null;
+            }
+            Comparable value = leaf.values[index];
+            return new Slot(value, next(), -1);
+        }
+    }
+}
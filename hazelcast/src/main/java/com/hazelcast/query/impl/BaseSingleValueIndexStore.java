@@ -21,7 +21,10 @@ import com.hazelcast.internal.monitor.impl.IndexOperationStats;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.query.impl.getters.MultiResult;
 
+import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * The base store for indexes that are unable to work with multi-value
@@ -43,6 +46,12 @@ public abstract class BaseSingleValueIndexStore extends BaseIndexStore {
      */
     private volatile boolean multiResultHasToDetectDuplicates;
 
+    /**
+     * The flag is set to {@code true} when an entry is not indexed since its
+     * attribute value is a non-terminal JSON value.
+     */
+    private volatile boolean nonTerminalValuesSkipped;
+
     BaseSingleValueIndexStore(IndexCopyBehavior copyOn, boolean enableGlobalLock) {
         super(copyOn, enableGlobalLock);
     }
@@ -74,10 +83,30 @@ public abstract class BaseSingleValueIndexStore extends BaseIndexStore {
      */
     abstract Object removeInternal(Comparable value, Data recordKey);
 
+    /**
+     * Returns {@code true} if every entry is indexed exactly once by this
+     * index store, so the store content may be used in place of the entries
+     * themselves, see {@link IndexStore#getEntryCount()}.
+     */
+    final boolean indexesEveryEntryOnce() {
+        return !multiResultHasToDetectDuplicates && !nonTerminalValuesSkipped && !isExpirable();
+    }
+
     final MultiResultSet createMultiResultSet() {
         return multiResultHasToDetectDuplicates ? new DuplicateDetectingMultiResult() : new FastMultiResultSet();
     }
 
+    /**
+     * Adds an arbitrary entry of the given records, if there is any, to the
+     * given representatives.
+     */
+    static void addRepresentative(Map<Data, QueryableEntry> records, List<QueryableEntry> representatives) {
+        Iterator<QueryableEntry> iterator = records.values().iterator();
+        if (iterator.hasNext()) {
+            representatives.add(iterator.next());
+        }
+    }
+
     @Override
     public final void insert(Object value, QueryableEntry queryableEntry, IndexOperationStats operationStats) {
         takeWriteLock();
@@ -88,6 +117,18 @@ public abstract class BaseSingleValueIndexStore extends BaseIndexStore {
         }
     }
 
+    @Override
+    public void insertAll(Object[] values, QueryableEntry[] entries, IndexOperationStats[] operationStats) {
+        takeWriteLock();
+        try {
+            for (int i = 0; i < values.length; i++) {
+                unwrapAndInsertToIndex(values[i], entries[i], operationStats[i]);
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
     @Override
     public final void update(Object oldValue, Object newValue, QueryableEntry entry, IndexOperationStats operationStats) {
         takeWriteLock();
@@ -110,9 +151,33 @@ public abstract class BaseSingleValueIndexStore extends BaseIndexStore {
         }
     }
 
+    /**
+     * Splits the given attribute value into the sanitized values to store
+     * individually, the same way {@link #insert} does.
+     *
+     * @param value    the value of an attribute this index store is built for.
+     * @param consumer the consumer of the sanitized values.
+     */
+    @SuppressWarnings("unchecked")
+    final void unwrapValue(Object value, Consumer<Comparable> consumer) {
+        if (value == NonTerminalJsonValue.INSTANCE) {
+            nonTerminalValuesSkipped = true;
+            return;
+        }
+        if (value instanceof MultiResult) {
+            multiResultHasToDetectDuplicates = true;
+            for (Object o : ((MultiResult) value).getResults()) {
+                consumer.accept(sanitizeValue(o));
+            }
+        } else {
+            consumer.accept(sanitizeValue(value));
+        }
+    }
+
     @SuppressWarnings("unchecked")
     private void unwrapAndInsertToIndex(Object newValue, QueryableEntry queryableEntry, IndexOperationStats operationStats) {
         if (newValue == NonTerminalJsonValue.INSTANCE) {
+            nonTerminalValuesSkipped = true;
             return;
         }
         if (newValue instanceof MultiResult) {
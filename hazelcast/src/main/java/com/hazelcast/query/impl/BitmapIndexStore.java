@@ -35,11 +35,14 @@ import com.hazelcast.query.impl.predicates.NotEqualPredicate;
 import com.hazelcast.query.impl.predicates.NotPredicate;
 import com.hazelcast.query.impl.predicates.OrPredicate;
 
+import java.util.ArrayList;
 import java.util.HashMap;
 import java.util.HashSet;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.function.Consumer;
 
 import static com.hazelcast.query.impl.QueryableEntry.extractAttributeValue;
 
@@ -50,7 +53,7 @@ import static com.hazelcast.query.impl.QueryableEntry.extractAttributeValue;
  * structures used to establish the correspondence between long bitmap keys and
  * actual user-provided keys.
  */
-@SuppressWarnings("rawtypes")
+@SuppressWarnings({"rawtypes", "checkstyle:methodcount"})
 public final class BitmapIndexStore extends BaseIndexStore {
 
     private static final long NO_KEY = -1;
@@ -82,6 +85,10 @@ public final class BitmapIndexStore extends BaseIndexStore {
     private final Object2LongHashMap internalObjectKeys;
     private long internalKeyCounter;
 
+    // set when an entry is indexed under multiple values or not indexed at all
+    private volatile boolean multiValuesIndexed;
+    private volatile boolean nonTerminalValuesSkipped;
+
     public BitmapIndexStore(IndexConfig config, InternalSerializationService serializationService, Extractors extractors) {
         super(IndexCopyBehavior.NEVER, true);
 
@@ -122,6 +129,7 @@ public final class BitmapIndexStore extends BaseIndexStore {
     @Override
     public void insert(Object value, QueryableEntry entry, IndexOperationStats operationStats) {
         if (value == NonTerminalJsonValue.INSTANCE) {
+            nonTerminalValuesSkipped = true;
             return;
         }
 
@@ -371,6 +379,33 @@ public final class BitmapIndexStore extends BaseIndexStore {
         throw makeUnsupportedOperationException();
     }
 
+    @Override
+    public long getEntryCount() {
+        takeReadLock();
+        try {
+            return indexesEveryEntryOnce() ? bitmap.getEntryCount() : -1;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public boolean visitDistinctValues(Consumer<QueryableEntry> consumer) {
+        List<QueryableEntry> representatives = new ArrayList<>();
+        takeReadLock();
+        try {
+            if (!indexesEveryEntryOnce()) {
+                return false;
+            }
+            bitmap.forEachDistinctValue(representatives::add);
+        } finally {
+            releaseReadLock();
+        }
+        // the consumer extracts the attribute values, keep it out of the lock
+        representatives.forEach(consumer);
+        return true;
+    }
+
     @Override
     Comparable canonicalizeScalarForStorage(Comparable value) {
         // Assuming on-heap overhead of 12 bytes for the object header and
@@ -440,7 +475,11 @@ public final class BitmapIndexStore extends BaseIndexStore {
     }
 
     private Iterator makeIterator(Object value) {
-        return value instanceof MultiResult ? new MultiValueIterator((MultiResult) value) : new SingleValueIterator(value);
+        if (value instanceof MultiResult) {
+            multiValuesIndexed = true;
+            return new MultiValueIterator((MultiResult) value);
+        }
+        return new SingleValueIterator(value);
     }
 
     private static Comparable canonicalizeLongRepresentable(long value) {
@@ -455,6 +494,10 @@ public final class BitmapIndexStore extends BaseIndexStore {
         return canonicalizeScalarForStorage(value);
     }
 
+    private boolean indexesEveryEntryOnce() {
+        return !multiValuesIndexed && !nonTerminalValuesSkipped && !isExpirable();
+    }
+
     private static UnsupportedOperationException makeUnsupportedOperationException() {
         return new UnsupportedOperationException("bitmap indexes support only direct predicate evaluation");
     }
@@ -19,6 +19,7 @@ package com.hazelcast.query.impl;
 import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.nio.serialization.Portable;
+import com.hazelcast.query.QueryException;
 import com.hazelcast.query.impl.getters.Extractors;
 
 /**
@@ -29,12 +30,26 @@ import com.hazelcast.query.impl.getters.Extractors;
  */
 public class CachedQueryEntry<K, V> extends QueryableEntry<K, V> {
 
+    /**
+     * The maximum number of attribute values memoized per entry.
+     */
+    static final int MAX_MEMOIZED_ATTRIBUTES = 8;
+
     protected Data keyData;
     protected Data valueData;
 
     protected K keyObject;
     protected V valueObject;
 
+    // The attribute values extracted since the entry was initialized: the
+    // predicates of a query often extract the same attribute several times.
+    // Memoized only on the entries confined to a single thread, see
+    // memoizeAttributeValues(), and allocated on the first extraction.
+    private boolean attributeMemoization;
+    private String[] attributeNames;
+    private Object[] attributeValues;
+    private int attributeCount;
+
     public CachedQueryEntry() {
     }
 
@@ -61,9 +76,60 @@ public class CachedQueryEntry<K, V> extends QueryableEntry<K, V> {
             this.valueData = null;
         }
         this.extractors = extractors;
+        resetAttributeValues();
+        return this;
+    }
+
+    /**
+     * Enables the memoization of the attribute values extracted from this
+     * entry. The memoization isn't thread-safe: it must be enabled only on
+     * the entries confined to a single thread, like the ones of a partition
+     * scan, and never on the entries stored in the indexes.
+     *
+     * @return this entry.
+     */
+    public CachedQueryEntry<K, V> memoizeAttributeValues() {
+        attributeMemoization = true;
         return this;
     }
 
+    @Override
+    public Object getAttributeValue(String attributeName) throws QueryException {
+        if (!attributeMemoization) {
+            return super.getAttributeValue(attributeName);
+        }
+
+        for (int i = 0; i < attributeCount; ++i) {
+            if (attributeNames[i].equals(attributeName)) {
+                return attributeValues[i];
+            }
+        }
+
+        Object attributeValue = super.getAttributeValue(attributeName);
+        if (attributeNames == null) {
+            attributeNames = new String[MAX_MEMOIZED_ATTRIBUTES];
+            attributeValues = new Object[MAX_MEMOIZED_ATTRIBUTES];
+        }
+        if (attributeCount < MAX_MEMOIZED_ATTRIBUTES) {
+            attributeNames[attributeCount] = attributeName;
+            attributeValues[attributeCount] = attributeValue;
+            ++attributeCount;
+        }
+        return attributeValue;
+    }
+
+    /**
+     * Forgets the memoized attribute values, must be called whenever the key
+     * or the value of this entry changes.
+     */
+    protected void resetAttributeValues() {
+        for (int i = 0; i < attributeCount; ++i) {
+            attributeNames[i] = null;
+            attributeValues[i] = null;
+        }
+        attributeCount = 0;
+    }
+
     @Override
     public K getKey() {
         if (keyObject == null) {
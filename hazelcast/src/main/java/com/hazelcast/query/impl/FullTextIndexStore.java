@@ -0,0 +1,250 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.json.NonTerminalJsonValue;
+import com.hazelcast.internal.monitor.impl.IndexOperationStats;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.util.collection.Object2LongHashMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.bitmap.InvertedIndex;
+import com.hazelcast.query.impl.predicates.AndPredicate;
+import com.hazelcast.query.impl.predicates.MatchPredicate;
+import com.hazelcast.query.impl.predicates.NotPredicate;
+import com.hazelcast.query.impl.predicates.OrPredicate;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * The store of full-text indexes.
+ * <p>
+ * Internally, manages an {@link InvertedIndex} of the terms of the indexed
+ * attribute along with a key remapping structure used to establish the
+ * correspondence between long inverted index keys and entry keys.
+ */
+@SuppressWarnings("rawtypes")
+public final class FullTextIndexStore extends BaseIndexStore {
+
+    private static final long NO_KEY = -1;
+    private static final int INITIAL_CAPACITY = 8;
+    private static final float LOAD_FACTOR = 0.75F;
+
+    private static final Set<Class<? extends Predicate>> EVALUABLE_PREDICATES = new HashSet<>();
+
+    static {
+        EVALUABLE_PREDICATES.add(AndPredicate.class);
+        EVALUABLE_PREDICATES.add(OrPredicate.class);
+        EVALUABLE_PREDICATES.add(NotPredicate.class);
+
+        EVALUABLE_PREDICATES.add(MatchPredicate.class);
+    }
+
+    private final InvertedIndex<QueryableEntry> invertedIndex = new InvertedIndex<>();
+    // maps entry keys to long inverted index keys
+    private final Object2LongHashMap<Data> internalKeys = new Object2LongHashMap<>(INITIAL_CAPACITY, LOAD_FACTOR, NO_KEY);
+    private long internalKeyCounter;
+
+    public FullTextIndexStore() {
+        super(IndexCopyBehavior.NEVER, true);
+    }
+
+    @Override
+    public Comparable canonicalizeQueryArgumentScalar(Comparable value) {
+        return value;
+    }
+
+    @Override
+    public void insert(Object value, QueryableEntry entry, IndexOperationStats operationStats) {
+        Iterator<String> terms = terms(value);
+
+        takeWriteLock();
+        try {
+            markIndexStoreExpirableIfNecessary(entry);
+
+            long internalKey = internalKeys.getValue(entry.getKeyData());
+            if (internalKey == NO_KEY) {
+                internalKey = internalKeyCounter++;
+                internalKeys.put(entry.getKeyData(), internalKey);
+                invertedIndex.insert(terms, internalKey, entry);
+                operationStats.onEntryAdded(null, value);
+            } else {
+                // the old terms are unknown, purge the entry and index it anew
+                invertedIndex.purge(internalKey);
+                invertedIndex.insert(terms, internalKey, entry);
+                operationStats.onEntryAdded(entry, value);
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public void update(Object oldValue, Object newValue, QueryableEntry entry, IndexOperationStats operationStats) {
+        Iterator<String> oldTerms = terms(oldValue);
+        Iterator<String> newTerms = terms(newValue);
+
+        takeWriteLock();
+        try {
+            markIndexStoreExpirableIfNecessary(entry);
+
+            long internalKey = internalKeys.getValue(entry.getKeyData());
+            if (internalKey == NO_KEY) {
+                // see https://github.com/hazelcast/hazelcast/issues/17342#issuecomment-680840612
+                internalKey = internalKeyCounter++;
+                internalKeys.put(entry.getKeyData(), internalKey);
+                invertedIndex.insert(newTerms, internalKey, entry);
+                operationStats.onEntryAdded(null, newValue);
+            } else {
+                invertedIndex.update(oldTerms, newTerms, internalKey, entry);
+                operationStats.onEntryRemoved(oldValue);
+                operationStats.onEntryAdded(null, newValue);
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public void remove(Object value, Data entryKey, Object entryValue, IndexOperationStats operationStats) {
+        Iterator<String> terms = terms(value);
+
+        takeWriteLock();
+        try {
+            long internalKey = internalKeys.removeKey(entryKey);
+            if (internalKey != NO_KEY) {
+                // see https://github.com/hazelcast/hazelcast/issues/15439
+                invertedIndex.remove(terms, internalKey);
+                operationStats.onEntryRemoved(value);
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            invertedIndex.clear();
+            internalKeys.clear();
+            internalKeyCounter = 0;
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public boolean isEvaluateOnly() {
+        return true;
+    }
+
+    @Override
+    public boolean canEvaluate(Class<? extends Predicate> predicateClass) {
+        return EVALUABLE_PREDICATES.contains(predicateClass);
+    }
+
+    @Override
+    public Set<QueryableEntry> evaluate(Predicate predicate, TypeConverter converter) {
+        takeReadLock();
+        try {
+            return toSingleResultSet(toMap(invertedIndex.evaluate(predicate)));
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator() {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparable value) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparison comparison, Comparable value) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparable from, boolean fromInclusive, Comparable to,
+                                                         boolean toInclusive) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparison comparison, Comparable value) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    Comparable canonicalizeScalarForStorage(Comparable value) {
+        return value;
+    }
+
+    // for testing
+    int getTermCount() {
+        return invertedIndex.getTermCount();
+    }
+
+    private Map<Data, QueryableEntry> toMap(Iterator<QueryableEntry> iterator) {
+        Map<Data, QueryableEntry> map = new HashMap<>();
+        while (iterator.hasNext()) {
+            QueryableEntry entry = iterator.next();
+            map.put(entry.getKeyData(), entry);
+        }
+        return isExpirable() && !map.isEmpty() ? new ExpirationAwareHashMapDelegate(map) : map;
+    }
+
+    private static Iterator<String> terms(Object value) {
+        if (value == null || value == NonTerminalJsonValue.INSTANCE) {
+            return Collections.emptyIterator();
+        }
+        Set<String> terms = new HashSet<>();
+        FullTextTokenizer.tokenizeValue(value, terms::add);
+        return terms.iterator();
+    }
+
+    private static UnsupportedOperationException makeUnsupportedOperationException() {
+        return new UnsupportedOperationException("full-text indexes support only direct predicate evaluation");
+    }
+
+}
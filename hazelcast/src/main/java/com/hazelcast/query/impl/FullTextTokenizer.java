@@ -0,0 +1,125 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.json.JsonValue;
+import com.hazelcast.internal.json.NonTerminalJsonValue;
+import com.hazelcast.query.impl.getters.AbstractJsonGetter;
+import com.hazelcast.query.impl.getters.MultiResult;
+
+import java.util.Set;
+import java.util.function.Consumer;
+
+import static com.hazelcast.internal.util.StringUtil.lowerCaseInternal;
+
+/**
+ * Splits texts into the terms indexed by full-text indexes and searched by
+ * match predicates.
+ * <p>
+ * A term is a maximal run of letters and digits converted to lower case,
+ * everything else separates the terms. A term of a query immediately
+ * followed by {@code *} is a prefix which matches all the terms starting
+ * with it.
+ */
+public final class FullTextTokenizer {
+
+    /**
+     * Marks the query term preceding it as a prefix.
+     */
+    public static final char PREFIX_WILDCARD = '*';
+
+    private FullTextTokenizer() {
+    }
+
+    /**
+     * Tokenizes the given attribute value. {@code null} values and
+     * non-terminal JSON values produce no terms, the values of multi-value
+     * attributes are tokenized one by one and other non-string values are
+     * tokenized in their string form.
+     *
+     * @param value    the attribute value to tokenize.
+     * @param consumer the consumer of the terms, may receive duplicates.
+     */
+    public static void tokenizeValue(Object value, Consumer<String> consumer) {
+        if (value instanceof MultiResult) {
+            for (Object result : ((MultiResult<?>) value).getResults()) {
+                tokenizeValue(result, consumer);
+            }
+            return;
+        }
+        if (value instanceof JsonValue) {
+            if (value == NonTerminalJsonValue.INSTANCE) {
+                return;
+            }
+            value = AbstractJsonGetter.convertFromJsonValue((JsonValue) value);
+        }
+        if (value == null || value == AbstractIndex.NULL) {
+            return;
+        }
+        tokenize(value.toString(), consumer);
+    }
+
+    /**
+     * Tokenizes the given text.
+     *
+     * @param text     the text to tokenize.
+     * @param consumer the consumer of the terms, may receive duplicates.
+     */
+    public static void tokenize(String text, Consumer<String> consumer) {
+        int length = text.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            if (i < length && Character.isLetterOrDigit(text.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                consumer.accept(lowerCaseInternal(text.substring(start, i)));
+                start = -1;
+            }
+        }
+    }
+
+    /**
+     * Parses the given match query into the terms and the prefixes to search
+     * for.
+     *
+     * @param query    the query to parse.
+     * @param terms    the set to add the exact terms to.
+     * @param prefixes the set to add the prefixes to.
+     */
+    public static void parseQuery(String query, Set<String> terms, Set<String> prefixes) {
+        int length = query.length();
+        int start = -1;
+        for (int i = 0; i <= length; i++) {
+            if (i < length && Character.isLetterOrDigit(query.charAt(i))) {
+                if (start < 0) {
+                    start = i;
+                }
+            } else if (start >= 0) {
+                String term = lowerCaseInternal(query.substring(start, i));
+                if (i < length && query.charAt(i) == PREFIX_WILDCARD) {
+                    prefixes.add(term);
+                } else {
+                    terms.add(term);
+                }
+                start = -1;
+            }
+        }
+    }
+}
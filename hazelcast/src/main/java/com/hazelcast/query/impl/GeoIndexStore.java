@@ -0,0 +1,308 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.core.TypeConverter;
+import com.hazelcast.internal.monitor.impl.IndexOperationStats;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.predicates.GeoDistancePredicate;
+import com.hazelcast.query.impl.predicates.GeoPredicate;
+import com.hazelcast.query.impl.predicates.GeoWithinPredicate;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.query.impl.predicates.GeoPredicate.MAX_LATITUDE;
+import static com.hazelcast.query.impl.predicates.GeoPredicate.MAX_LONGITUDE;
+
+/**
+ * The store of geospatial indexes.
+ * <p>
+ * Positions are bucketed into a fixed grid of latitude/longitude cells, akin
+ * to fixed-precision geohashes. Moving an entry is a constant time operation,
+ * which suits frequently updated positions better than tree-based spatial
+ * structures. Queries visit either the cells covered by the bounding box of
+ * the predicate or all the occupied cells, whichever is fewer, and check the
+ * exact positions within the visited cells.
+ */
+@SuppressWarnings("rawtypes")
+public final class GeoIndexStore extends BaseIndexStore {
+
+    /**
+     * The number of cells per degree of latitude and longitude, a cell is
+     * roughly 1.1 km high.
+     */
+    static final int CELLS_PER_DEGREE = 100;
+
+    private static final int LONGITUDE_CELLS = (int) (2 * MAX_LONGITUDE) * CELLS_PER_DEGREE + 1;
+
+    private static final Set<Class<? extends Predicate>> EVALUABLE_PREDICATES = new HashSet<>();
+
+    static {
+        EVALUABLE_PREDICATES.add(GeoWithinPredicate.class);
+        EVALUABLE_PREDICATES.add(GeoDistancePredicate.class);
+    }
+
+    private final Map<Integer, Map<Data, Position>> cells = new HashMap<>();
+    private final Map<Data, Position> positions = new HashMap<>();
+
+    public GeoIndexStore() {
+        super(IndexCopyBehavior.NEVER, true);
+    }
+
+    @Override
+    public Comparable canonicalizeQueryArgumentScalar(Comparable value) {
+        return value;
+    }
+
+    @Override
+    public void insert(Object value, QueryableEntry entry, IndexOperationStats operationStats) {
+        Position position = toPosition(value, entry);
+
+        takeWriteLock();
+        try {
+            markIndexStoreExpirableIfNecessary(entry);
+            Position oldPosition = put(entry.getKeyData(), position);
+            if (position != null) {
+                operationStats.onEntryAdded(oldPosition == null ? null : oldPosition.entry, value);
+            } else if (oldPosition != null) {
+                operationStats.onEntryRemoved(oldPosition.entry);
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public void update(Object oldValue, Object newValue, QueryableEntry entry, IndexOperationStats operationStats) {
+        // the position of an entry is tracked by its key, so the old value
+        // is not needed
+        insert(newValue, entry, operationStats);
+    }
+
+    @Override
+    public void remove(Object value, Data entryKey, Object entryValue, IndexOperationStats operationStats) {
+        takeWriteLock();
+        try {
+            Position oldPosition = put(entryKey, null);
+            if (oldPosition != null) {
+                operationStats.onEntryRemoved(value);
+            }
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public void clear() {
+        takeWriteLock();
+        try {
+            cells.clear();
+            positions.clear();
+        } finally {
+            releaseWriteLock();
+        }
+    }
+
+    @Override
+    public boolean isEvaluateOnly() {
+        return true;
+    }
+
+    @Override
+    public boolean canEvaluate(Class<? extends Predicate> predicateClass) {
+        return EVALUABLE_PREDICATES.contains(predicateClass);
+    }
+
+    @Override
+    public Set<QueryableEntry> evaluate(Predicate predicate, TypeConverter converter) {
+        GeoPredicate geoPredicate = (GeoPredicate) predicate;
+        int fromLatitudeCell = latitudeCell(geoPredicate.getMinLatitude());
+        int toLatitudeCell = latitudeCell(geoPredicate.getMaxLatitude());
+        double minLongitude = geoPredicate.getMinLongitude();
+        double maxLongitude = geoPredicate.getMaxLongitude();
+
+        takeReadLock();
+        try {
+            Map<Data, QueryableEntry> result = new HashMap<>();
+            if (minLongitude <= maxLongitude) {
+                collect(geoPredicate, fromLatitudeCell, toLatitudeCell, longitudeCell(minLongitude),
+                        longitudeCell(maxLongitude), result);
+            } else {
+                // the box crosses the antimeridian
+                collect(geoPredicate, fromLatitudeCell, toLatitudeCell, longitudeCell(minLongitude), LONGITUDE_CELLS - 1,
+                        result);
+                collect(geoPredicate, fromLatitudeCell, toLatitudeCell, 0, longitudeCell(maxLongitude), result);
+            }
+            return toSingleResultSet(isExpirable() && !result.isEmpty() ? new ExpirationAwareHashMapDelegate(result) : result);
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator() {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparable value) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparison comparison, Comparable value) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Iterator<QueryableEntry> getSqlRecordIterator(Comparable from, boolean fromInclusive, Comparable to,
+                                                         boolean toInclusive) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable value) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Set<Comparable> values) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparison comparison, Comparable value) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    public Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive) {
+        throw makeUnsupportedOperationException();
+    }
+
+    @Override
+    Comparable canonicalizeScalarForStorage(Comparable value) {
+        return value;
+    }
+
+    // for testing
+    int getOccupiedCellCount() {
+        return cells.size();
+    }
+
+    /**
+     * Moves the entry identified by the given key to the given position or
+     * removes it if the position is {@code null}.
+     *
+     * @return the old position of the entry, if any.
+     */
+    private Position put(Data key, Position position) {
+        Position oldPosition = position == null ? positions.remove(key) : positions.put(key, position);
+        if (oldPosition != null) {
+            Map<Data, Position> cell = cells.get(oldPosition.cell);
+            cell.remove(key);
+            if (cell.isEmpty()) {
+                cells.remove(oldPosition.cell);
+            }
+        }
+        if (position != null) {
+            cells.computeIfAbsent(position.cell, cell -> new HashMap<>()).put(key, position);
+        }
+        return oldPosition;
+    }
+
+    private void collect(GeoPredicate predicate, int fromLatitudeCell, int toLatitudeCell, int fromLongitudeCell,
+                         int toLongitudeCell, Map<Data, QueryableEntry> result) {
+        long coveredCells = (long) (toLatitudeCell - fromLatitudeCell + 1) * (toLongitudeCell - fromLongitudeCell + 1);
+        if (coveredCells > cells.size()) {
+            for (Map.Entry<Integer, Map<Data, Position>> cell : cells.entrySet()) {
+                int latitudeCell = cell.getKey() / LONGITUDE_CELLS;
+                int longitudeCell = cell.getKey() % LONGITUDE_CELLS;
+                if (latitudeCell >= fromLatitudeCell && latitudeCell <= toLatitudeCell && longitudeCell >= fromLongitudeCell
+                        && longitudeCell <= toLongitudeCell) {
+                    collect(predicate, cell.getValue(), result);
+                }
+            }
+        } else {
+            for (int latitudeCell = fromLatitudeCell; latitudeCell <= toLatitudeCell; ++latitudeCell) {
+                for (int longitudeCell = fromLongitudeCell; longitudeCell <= toLongitudeCell; ++longitudeCell) {
+                    Map<Data, Position> cell = cells.get(latitudeCell * LONGITUDE_CELLS + longitudeCell);
+                    if (cell != null) {
+                        collect(predicate, cell, result);
+                    }
+                }
+            }
+        }
+    }
+
+    private static void collect(GeoPredicate predicate, Map<Data, Position> cell, Map<Data, QueryableEntry> result) {
+        for (Map.Entry<Data, Position> entry : cell.entrySet()) {
+            Position position = entry.getValue();
+            if (predicate.contains(position.latitude, position.longitude)) {
+                result.put(entry.getKey(), position.entry);
+            }
+        }
+    }
+
+    private static Position toPosition(Object value, QueryableEntry entry) {
+        if (!(value instanceof CompositeValue)) {
+            return null;
+        }
+        Comparable[] components = ((CompositeValue) value).getComponents();
+        double latitude = GeoPredicate.toDegrees(components[0]);
+        double longitude = GeoPredicate.toDegrees(components[1]);
+        if (!GeoPredicate.isValidPosition(latitude, longitude)) {
+            return null;
+        }
+        return new Position(latitude, longitude, latitudeCell(latitude) * LONGITUDE_CELLS + longitudeCell(longitude), entry);
+    }
+
+    private static int latitudeCell(double latitude) {
+        return (int) Math.floor((latitude + MAX_LATITUDE) * CELLS_PER_DEGREE);
+    }
+
+    private static int longitudeCell(double longitude) {
+        return (int) Math.floor((longitude + MAX_LONGITUDE) * CELLS_PER_DEGREE);
+    }
+
+    private static UnsupportedOperationException makeUnsupportedOperationException() {
+        return new UnsupportedOperationException("geospatial indexes support only direct predicate evaluation");
+    }
+
+    private static final class Position {
+
+        final double latitude;
+        final double longitude;
+        final int cell;
+        final QueryableEntry entry;
+
+        Position(double latitude, double longitude, int cell, QueryableEntry entry) {
+            this.latitude = latitude;
+            this.longitude = longitude;
+            this.cell = cell;
+            this.entry = entry;
+        }
+
+    }
+
+}
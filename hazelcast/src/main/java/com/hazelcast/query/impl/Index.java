@@ -22,6 +22,7 @@ import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.query.Predicate;
 import com.hazelcast.query.QueryException;
 
+import java.util.Collection;
 import java.util.Iterator;
 import java.util.Set;
 
@@ -78,6 +79,22 @@ public interface Index {
      */
     void putEntry(QueryableEntry entry, Object oldValue, OperationSource operationSource);
 
+    /**
+     * Saves the given new entries into this index as a single batch, e.g.
+     * while populating the index. The index store may make the whole batch
+     * visible to readers at once instead of entry by entry.
+     *
+     * @param entries         the entries to save.
+     * @param operationSource the operation source.
+     * @throws QueryException if there were errors while extracting the
+     *                        attribute value from an entry.
+     */
+    default void putEntries(Collection<QueryableEntry> entries, OperationSource operationSource) {
+        for (QueryableEntry entry : entries) {
+            putEntry(entry, null, operationSource);
+        }
+    }
+
     /**
      * Removes the entry having the given key and the value from this index.
      *
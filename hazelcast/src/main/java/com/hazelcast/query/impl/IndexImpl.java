@@ -17,6 +17,7 @@
 package com.hazelcast.query.impl;
 
 import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.SortedIndexStructure;
 import com.hazelcast.internal.monitor.impl.PerIndexStats;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
@@ -46,11 +47,18 @@ public class IndexImpl extends AbstractIndex {
     protected IndexStore createIndexStore(IndexConfig config, PerIndexStats stats) {
         switch (config.getType()) {
             case SORTED:
+                if (config.getSortedIndexStructure() == SortedIndexStructure.B_TREE) {
+                    return new BTreeIndexStore(copyBehavior);
+                }
                 return new OrderedIndexStore(copyBehavior);
             case HASH:
                 return new UnorderedIndexStore(copyBehavior);
             case BITMAP:
                 return new BitmapIndexStore(config, ss, extractors);
+            case FULL_TEXT:
+                return new FullTextIndexStore();
+            case GEOSPATIAL:
+                return new GeoIndexStore();
             default:
                 throw new IllegalArgumentException("unexpected index type: " + config.getType());
         }
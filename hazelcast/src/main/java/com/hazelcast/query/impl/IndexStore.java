@@ -23,6 +23,7 @@ import com.hazelcast.query.Predicate;
 
 import java.util.Iterator;
 import java.util.Set;
+import java.util.function.Consumer;
 
 /**
  * Defines a contract for index stores, so different index stores may be used
@@ -61,6 +62,22 @@ public interface IndexStore {
      */
     void insert(Object value, QueryableEntry entry, IndexOperationStats operationStats);
 
+    /**
+     * Inserts the given new entries into this index store in one go, e.g.
+     * while populating the index. The store may make all of them visible to
+     * readers at once.
+     *
+     * @param values         the attribute values of the entries, as passed to
+     *                       {@link #insert}.
+     * @param entries        the entries to insert.
+     * @param operationStats the operation stats to update, one per entry.
+     */
+    default void insertAll(Object[] values, QueryableEntry[] entries, IndexOperationStats[] operationStats) {
+        for (int i = 0; i < values.length; i++) {
+            insert(values[i], entries[i], operationStats[i]);
+        }
+    }
+
     /**
      * Updates the existing entry mapping in this index by remapping it from the
      * given old value to the new given value.
@@ -198,4 +215,50 @@ public interface IndexStore {
      * @see Index#getRecords(Comparable, boolean, Comparable, boolean)
      */
     Set<QueryableEntry> getRecords(Comparable from, boolean fromInclusive, Comparable to, boolean toInclusive);
+
+    /**
+     * Returns the number of entries indexed by this store.
+     * <p>
+     * The count is known only if every entry is indexed exactly once: no
+     * multi-value attributes were indexed, no entries were skipped and the
+     * entries are not subject to the max-idle expiration, which requires the
+     * access times of the entries to be updated on every query.
+     *
+     * @return the number of indexed entries or {@code -1} if it's unknown.
+     */
+    default long getEntryCount() {
+        return -1;
+    }
+
+    /**
+     * Passes a single representative entry for every distinct attribute value
+     * stored in this index store, including {@code null}, to the given
+     * consumer.
+     * <p>
+     * The same restrictions as for {@link #getEntryCount()} apply, the
+     * consumer is not invoked at all if they are not met.
+     *
+     * @param consumer the consumer of the representative entries.
+     * @return {@code true} if the entries were visited, {@code false} if this
+     * index store can't visit its distinct values.
+     */
+    default boolean visitDistinctValues(Consumer<QueryableEntry> consumer) {
+        return false;
+    }
+
+    /**
+     * Passes a representative entry for the smallest and the largest non-null
+     * attribute values stored in this index store to the given consumer. Only
+     * ordered index stores are able to do that.
+     * <p>
+     * The same restrictions as for {@link #getEntryCount()} apply, the
+     * consumer is not invoked at all if they are not met.
+     *
+     * @param consumer the consumer of the representative entries.
+     * @return {@code true} if the entries were visited, {@code false} if this
+     * index store can't visit its extreme values.
+     */
+    default boolean visitExtremeValues(Consumer<QueryableEntry> consumer) {
+        return false;
+    }
 }
@@ -58,7 +58,7 @@ public final class IndexUtils {
      * @return Normalized index config.
      * @throws IllegalArgumentException If index configuration is invalid.
      */
-    @SuppressWarnings("checkstyle:npathcomplexity")
+    @SuppressWarnings({"checkstyle:npathcomplexity", "checkstyle:cyclomaticcomplexity"})
     public static IndexConfig validateAndNormalize(String mapName, IndexConfig config) {
         assert config != null;
 
@@ -78,6 +78,15 @@ public final class IndexUtils {
             throw new IllegalArgumentException("Composite bitmap indexes are not supported: " + config);
         }
 
+        if (config.getType() == IndexType.FULL_TEXT && originalAttributeNames.size() > 1) {
+            throw new IllegalArgumentException("Composite full-text indexes are not supported: " + config);
+        }
+
+        if (config.getType() == IndexType.GEOSPATIAL && originalAttributeNames.size() != 2) {
+            throw new IllegalArgumentException("Geospatial indexes must have exactly two attributes, latitude and longitude: "
+                + config);
+        }
+
         List<String> normalizedAttributeNames = new ArrayList<>(originalAttributeNames.size());
 
         for (String originalAttributeName : originalAttributeNames) {
@@ -116,6 +125,10 @@ public final class IndexUtils {
 
         IndexConfig normalizedConfig = buildNormalizedConfig(mapName, config.getType(), name, normalizedAttributeNames);
 
+        if (config.getType() == IndexType.SORTED) {
+            normalizedConfig.setSortedIndexStructure(config.getSortedIndexStructure());
+        }
+
         if (config.getType() == IndexType.BITMAP) {
             String uniqueKey = config.getBitmapIndexOptions().getUniqueKey();
             UniqueKeyTransformation uniqueKeyTransformation = config.getBitmapIndexOptions().getUniqueKeyTransformation();
@@ -350,6 +363,10 @@ public final class IndexUtils {
             return IndexType.HASH;
         } else if (typeStr.equals(IndexType.BITMAP.name().toLowerCase())) {
             return IndexType.BITMAP;
+        } else if (typeStr.equals(IndexType.FULL_TEXT.name().toLowerCase())) {
+            return IndexType.FULL_TEXT;
+        } else if (typeStr.equals(IndexType.GEOSPATIAL.name().toLowerCase())) {
+            return IndexType.GEOSPATIAL;
         } else {
             throw new IllegalArgumentException("Unsupported index type: " + typeStr);
         }
@@ -365,24 +382,7 @@ public final class IndexUtils {
         }
 
         String typeStr = getTextContent(attrs.getNamedItem("type"), domLevel3);
-
-        if (typeStr.isEmpty()) {
-            typeStr = IndexConfig.DEFAULT_TYPE.name();
-        }
-
-        typeStr = typeStr.toLowerCase();
-
-        IndexType type;
-
-        if (typeStr.equals(IndexType.SORTED.name().toLowerCase())) {
-            type = IndexType.SORTED;
-        } else if (typeStr.equals(IndexType.HASH.name().toLowerCase())) {
-            type = IndexType.HASH;
-        } else if (typeStr.equals(IndexType.BITMAP.name().toLowerCase())) {
-            type = IndexType.BITMAP;
-        } else {
-            throw new IllegalArgumentException("Unsupported index type: " + typeStr);
-        }
+        IndexType type = getIndexTypeFromXmlName(typeStr);
 
         IndexConfig res = new IndexConfig().setName(name).setType(type);
 
@@ -426,6 +426,12 @@ public final class IndexUtils {
             case BITMAP:
                 return "bitmap";
 
+            case FULL_TEXT:
+                return "fulltext";
+
+            case GEOSPATIAL:
+                return "geospatial";
+
             default:
                 throw new IllegalArgumentException("Unsupported index type: " + type);
         }
@@ -162,7 +162,7 @@ public class Indexes {
         converterCache.invalidate(index);
 
         indexes = indexesByName.values().toArray(EMPTY_INDEXES);
-        if (index.getComponents().length > 1) {
+        if (index.getComponents().length > 1 && !index.isEvaluateOnly()) {
             InternalIndex[] oldCompositeIndexes = compositeIndexes;
             InternalIndex[] newCompositeIndexes = Arrays.copyOf(oldCompositeIndexes, oldCompositeIndexes.length + 1);
             newCompositeIndexes[oldCompositeIndexes.length] = index;
@@ -402,7 +402,9 @@ public class Indexes {
      * the given predicate class.
      *
      * @param pattern             the pattern to match an index for. May be either an
-     *                            attribute name or an exact index name.
+     *                            attribute name, a comma-separated list of the
+     *                            attributes of a composite evaluate-only index
+     *                            or an exact index name.
      * @param predicateClass      the predicate class the matched index must be
      *                            able to evaluate.
      * @param matchHint           the match hint.
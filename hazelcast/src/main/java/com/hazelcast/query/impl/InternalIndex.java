@@ -19,6 +19,8 @@ package com.hazelcast.query.impl;
 import com.hazelcast.internal.monitor.impl.PerIndexStats;
 import com.hazelcast.internal.util.collection.PartitionIdSet;
 
+import java.util.function.Consumer;
+
 /**
  * Provides the private index API.
  */
@@ -114,4 +116,36 @@ public interface InternalIndex extends Index {
      * @return {@code true} if the stamp is still valid, {@code false} otherwise
      */
     boolean validatePartitionStamp(long stamp);
+
+    /**
+     * Returns the number of entries indexed by this index or {@code -1} if
+     * it's unknown.
+     *
+     * @see IndexStore#getEntryCount()
+     */
+    default long getEntryCount() {
+        return -1;
+    }
+
+    /**
+     * Passes a single representative entry for every distinct attribute value
+     * indexed by this index to the given consumer.
+     *
+     * @return {@code true} if the entries were visited, {@code false} otherwise.
+     * @see IndexStore#visitDistinctValues(Consumer)
+     */
+    default boolean visitDistinctValues(Consumer<QueryableEntry> consumer) {
+        return false;
+    }
+
+    /**
+     * Passes a representative entry for the smallest and the largest non-null
+     * attribute values indexed by this index to the given consumer.
+     *
+     * @return {@code true} if the entries were visited, {@code false} otherwise.
+     * @see IndexStore#visitExtremeValues(Consumer)
+     */
+    default boolean visitExtremeValues(Consumer<QueryableEntry> consumer) {
+        return false;
+    }
 }
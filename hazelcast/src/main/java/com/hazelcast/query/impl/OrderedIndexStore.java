@@ -21,15 +21,18 @@ import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.util.FlatCompositeIterator;
 import com.hazelcast.query.Predicate;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.SortedMap;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.function.Consumer;
 
 import static com.hazelcast.query.impl.AbstractIndex.NULL;
 import static java.util.Collections.emptyIterator;
@@ -281,6 +284,64 @@ public class OrderedIndexStore extends BaseSingleValueIndexStore {
         }
     }
 
+    @Override
+    public long getEntryCount() {
+        takeReadLock();
+        try {
+            if (!indexesEveryEntryOnce()) {
+                return -1;
+            }
+            long count = recordsWithNullValue.size();
+            for (Map<Data, QueryableEntry> records : recordMap.values()) {
+                count += records.size();
+            }
+            return count;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public boolean visitDistinctValues(Consumer<QueryableEntry> consumer) {
+        List<QueryableEntry> representatives = new ArrayList<>();
+        takeReadLock();
+        try {
+            if (!indexesEveryEntryOnce()) {
+                return false;
+            }
+            addRepresentative(recordsWithNullValue, representatives);
+            for (Map<Data, QueryableEntry> records : recordMap.values()) {
+                addRepresentative(records, representatives);
+            }
+        } finally {
+            releaseReadLock();
+        }
+        // the consumer extracts the attribute values, keep it out of the lock
+        representatives.forEach(consumer);
+        return true;
+    }
+
+    @Override
+    public boolean visitExtremeValues(Consumer<QueryableEntry> consumer) {
+        List<QueryableEntry> representatives = new ArrayList<>(2);
+        takeReadLock();
+        try {
+            if (!indexesEveryEntryOnce()) {
+                return false;
+            }
+            Map.Entry<Comparable, Map<Data, QueryableEntry>> first = recordMap.firstEntry();
+            Map.Entry<Comparable, Map<Data, QueryableEntry>> last = recordMap.lastEntry();
+            if (first != null) {
+                addRepresentative(first.getValue(), representatives);
+                addRepresentative(last.getValue(), representatives);
+            }
+        } finally {
+            releaseReadLock();
+        }
+        representatives.forEach(consumer);
+        return true;
+    }
+
     /**
      * Adds entry to the given index map without copying it.
      * Needs to be invoked in a thread-safe way.
@@ -21,14 +21,17 @@ import com.hazelcast.internal.serialization.Data;
 import com.hazelcast.internal.util.FlatCompositeIterator;
 import com.hazelcast.query.Predicate;
 
+import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashMap;
 import java.util.Iterator;
+import java.util.List;
 import java.util.Map;
 import java.util.Set;
 import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.ConcurrentMap;
+import java.util.function.Consumer;
 
 import static com.hazelcast.query.impl.AbstractIndex.NULL;
 
@@ -288,6 +291,43 @@ public class UnorderedIndexStore extends BaseSingleValueIndexStore {
         }
     }
 
+    @Override
+    public long getEntryCount() {
+        takeReadLock();
+        try {
+            if (!indexesEveryEntryOnce()) {
+                return -1;
+            }
+            long count = recordsWithNullValue.size();
+            for (Map<Data, QueryableEntry> records : recordMap.values()) {
+                count += records.size();
+            }
+            return count;
+        } finally {
+            releaseReadLock();
+        }
+    }
+
+    @Override
+    public boolean visitDistinctValues(Consumer<QueryableEntry> consumer) {
+        List<QueryableEntry> representatives = new ArrayList<>();
+        takeReadLock();
+        try {
+            if (!indexesEveryEntryOnce()) {
+                return false;
+            }
+            addRepresentative(recordsWithNullValue, representatives);
+            for (Map<Data, QueryableEntry> records : recordMap.values()) {
+                addRepresentative(records, representatives);
+            }
+        } finally {
+            releaseReadLock();
+        }
+        // the consumer extracts the attribute values, keep it out of the lock
+        representatives.forEach(consumer);
+        return true;
+    }
+
     /**
      * Adds entry to the given index map without copying it.
      * Needs to be invoked in a thread-safe way.
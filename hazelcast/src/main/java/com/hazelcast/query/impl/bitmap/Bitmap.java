@@ -28,6 +28,7 @@ import com.hazelcast.query.impl.predicates.OrPredicate;
 import java.util.HashMap;
 import java.util.Iterator;
 import java.util.Map;
+import java.util.function.Consumer;
 
 /**
  * Provides indexing and querying capabilities for a single attribute of entries
@@ -137,6 +138,39 @@ public final class Bitmap<E> {
         entries.clear();
     }
 
+    /**
+     * @return the number of entries in this bitmap.
+     */
+    public long getEntryCount() {
+        long count = 0;
+        SparseArray.Iterator<E> iterator = entries.iterator();
+        while (iterator.getIndex() != AscendingLongIterator.END) {
+            ++count;
+            iterator.advance();
+        }
+        return count;
+    }
+
+    /**
+     * Passes the entry having the smallest unique key among the entries
+     * associated with a value to the given consumer, for every distinct value
+     * of this bitmap.
+     *
+     * @param consumer the consumer of the entries.
+     */
+    public void forEachDistinctValue(Consumer<E> consumer) {
+        for (SparseBitSet bitSet : bitSets.values()) {
+            // updates may leave empty bit sets behind
+            long member = bitSet.iterator().getIndex();
+            if (member != AscendingLongIterator.END) {
+                SparseArray.Iterator<E> iterator = entries.iterator();
+                long advancedTo = iterator.advanceAtLeastTo(member);
+                assert advancedTo == member;
+                consumer.accept(iterator.getValue());
+            }
+        }
+    }
+
     /**
      * Evaluates the given predicate while converting the predicate arguments
      * using the given converter.
@@ -223,7 +257,7 @@ public final class Bitmap<E> {
     /**
      * Maps unique entry keys back to entries.
      */
-    private static final class EntryIterator<E> implements Iterator<E> {
+    static final class EntryIterator<E> implements Iterator<E> {
 
         private final AscendingLongIterator iterator;
         private final SparseArray.Iterator<E> universe;
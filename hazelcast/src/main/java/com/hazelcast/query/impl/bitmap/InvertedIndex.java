@@ -0,0 +1,215 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.bitmap;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.predicates.AndPredicate;
+import com.hazelcast.query.impl.predicates.MatchPredicate;
+import com.hazelcast.query.impl.predicates.NotPredicate;
+import com.hazelcast.query.impl.predicates.OrPredicate;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+
+/**
+ * Provides full-text indexing and querying capabilities for a single text
+ * attribute of entries of type {@code E}. Each indexed entry is uniquely
+ * identified by its unique {@code long} key provided externally.
+ * <p>
+ * Internally, manages a posting list for each distinct term in the form of a
+ * sparse bit set of the keys of the entries containing the term, the same
+ * way {@link Bitmap} does for attribute values. The terms are kept sorted,
+ * so prefix searches visit only the posting lists of the matching terms.
+ *
+ * @param <E> the type of entries being indexed.
+ */
+public final class InvertedIndex<E> {
+
+    private final TreeMap<String, SparseBitSet> postings = new TreeMap<>();
+
+    private final SparseArray<E> entries = new SparseArray<>();
+
+    /**
+     * Inserts the given terms associated with the given entry having the given
+     * unique key.
+     *
+     * @param terms the terms of the entry.
+     * @param key   the unique key of the entry being inserted.
+     * @param entry the entry to insert.
+     */
+    public void insert(Iterator<String> terms, long key, E entry) {
+        addTerms(terms, key);
+        entries.set(key, entry);
+    }
+
+    /**
+     * Updates the given old terms to the given new terms associated with the
+     * given entry having the given unique key.
+     *
+     * @param oldTerms the old terms to replace.
+     * @param newTerms the new terms to replace with.
+     * @param key      the unique key of the entry being updated.
+     * @param entry    the entry to update.
+     */
+    public void update(Iterator<String> oldTerms, Iterator<String> newTerms, long key, E entry) {
+        removeTerms(oldTerms, key);
+        addTerms(newTerms, key);
+        entries.set(key, entry);
+    }
+
+    /**
+     * Removes the given terms associated with an entry identified by the given
+     * unique key.
+     *
+     * @param terms the terms of the entry.
+     * @param key   the unique key of an entry being removed.
+     */
+    public void remove(Iterator<String> terms, long key) {
+        removeTerms(terms, key);
+        entries.clear(key);
+    }
+
+    /**
+     * Removes an entry identified by the given unique key without knowing its
+     * terms. Visits all the posting lists, so it's much slower than {@link
+     * #remove}.
+     *
+     * @param key the unique key of an entry being removed.
+     */
+    public void purge(long key) {
+        postings.values().removeIf(bitSet -> bitSet.remove(key));
+        entries.clear(key);
+    }
+
+    /**
+     * Clears this inverted index.
+     */
+    public void clear() {
+        postings.clear();
+        entries.clear();
+    }
+
+    /**
+     * @return the number of distinct terms in this inverted index.
+     */
+    public int getTermCount() {
+        return postings.size();
+    }
+
+    /**
+     * Evaluates the given predicate.
+     * <p>
+     * The following predicates (and combinations of them) are supported:
+     * {@link AndPredicate}, {@link OrPredicate}, {@link NotPredicate}, {@link
+     * MatchPredicate}.
+     *
+     * @param predicate the predicate to evaluate.
+     * @return an iterator containing entries matching the given predicate.
+     */
+    public Iterator<E> evaluate(Predicate predicate) {
+        return new Bitmap.EntryIterator<>(predicateIterator(predicate), entries.iterator());
+    }
+
+    private void addTerms(Iterator<String> terms, long key) {
+        while (terms.hasNext()) {
+            postings.computeIfAbsent(terms.next(), term -> new SparseBitSet()).add(key);
+        }
+    }
+
+    private void removeTerms(Iterator<String> terms, long key) {
+        while (terms.hasNext()) {
+            String term = terms.next();
+            SparseBitSet bitSet = postings.get(term);
+            if (bitSet != null && bitSet.remove(key)) {
+                postings.remove(term);
+            }
+        }
+    }
+
+    private AscendingLongIterator predicateIterator(Predicate predicate) {
+        if (predicate instanceof AndPredicate) {
+            Predicate[] predicates = ((AndPredicate) predicate).getPredicates();
+            assert predicates.length > 0;
+            return predicates.length == 1 ? predicateIterator(predicates[0])
+                    : BitmapAlgorithms.and(predicateIterators(predicates));
+        }
+
+        if (predicate instanceof OrPredicate) {
+            Predicate[] predicates = ((OrPredicate) predicate).getPredicates();
+            assert predicates.length > 0;
+            return predicates.length == 1 ? predicateIterator(predicates[0])
+                    : BitmapAlgorithms.or(predicateIterators(predicates));
+        }
+
+        if (predicate instanceof NotPredicate) {
+            Predicate subPredicate = ((NotPredicate) predicate).getPredicate();
+            return BitmapAlgorithms.not(predicateIterator(subPredicate), entries);
+        }
+
+        if (predicate instanceof MatchPredicate) {
+            MatchPredicate matchPredicate = (MatchPredicate) predicate;
+            return matchIterator(matchPredicate.getTerms(), matchPredicate.getPrefixes());
+        }
+
+        throw new IllegalArgumentException("unexpected predicate: " + predicate);
+    }
+
+    private AscendingLongIterator[] predicateIterators(Predicate[] predicates) {
+        AscendingLongIterator[] iterators = new AscendingLongIterator[predicates.length];
+        for (int i = 0; i < predicates.length; ++i) {
+            iterators[i] = predicateIterator(predicates[i]);
+        }
+        return iterators;
+    }
+
+    private AscendingLongIterator matchIterator(Set<String> terms, Set<String> prefixes) {
+        if (terms.isEmpty() && prefixes.isEmpty()) {
+            return AscendingLongIterator.EMPTY;
+        }
+
+        List<AscendingLongIterator> iterators = new ArrayList<>(terms.size() + prefixes.size());
+        for (String term : terms) {
+            SparseBitSet bitSet = postings.get(term);
+            if (bitSet == null) {
+                return AscendingLongIterator.EMPTY;
+            }
+            iterators.add(bitSet.iterator());
+        }
+        for (String prefix : prefixes) {
+            List<AscendingLongIterator> prefixIterators = new ArrayList<>();
+            for (Map.Entry<String, SparseBitSet> posting : postings.tailMap(prefix, true).entrySet()) {
+                if (!posting.getKey().startsWith(prefix)) {
+                    break;
+                }
+                prefixIterators.add(posting.getValue().iterator());
+            }
+            if (prefixIterators.isEmpty()) {
+                return AscendingLongIterator.EMPTY;
+            }
+            iterators.add(prefixIterators.size() == 1 ? prefixIterators.get(0)
+                    : BitmapAlgorithms.or(prefixIterators.toArray(new AscendingLongIterator[0])));
+        }
+        return iterators.size() == 1 ? iterators.get(0)
+                : BitmapAlgorithms.and(iterators.toArray(new AscendingLongIterator[0]));
+    }
+
+}
@@ -42,12 +42,16 @@ import static java.util.Arrays.copyOf;
  * the low 16 bits.
  * </ul>
  * <p>
- * {@link Storage16 Storage16} also goes in two flavors:
+ * {@link Storage16 Storage16} goes in three flavors:
  * <ul>
  * <li>{@link ArrayStorage16 ArrayStorage16} which manages sorted short array of
  * 16-bit postfixes.
  * <li>{@link BitSetStorage16 BitSetStorage16} which manages directly indexable
  * long array of bits.
+ * <li>{@link RunStorage16 RunStorage16} which manages sorted short array of
+ * runs of consecutive 16-bit postfixes. Dense sets produced by sequentially
+ * assigned members, like the ones of low-cardinality attributes, are stored
+ * as a few runs instead of a full bit set.
  * </ul>
  * <p>
  * The implementation (which was inspired by Roaring Bitmap) switches between
@@ -71,6 +75,28 @@ final class SparseBitSet {
      */
     public static final int ARRAY_STORAGE_16_MAX_SIZE = 4096;
 
+    /**
+     * The number of runs at which RunStorage16 is converted to
+     * BitSetStorage16. At this number of runs the memory cost of having
+     * sorted array of runs is equal to the cost of having directly indexable
+     * long array of bits.
+     */
+    public static final int RUN_STORAGE_16_MAX_RUNS = 2048;
+
+    /**
+     * The number of runs at or below which BitSetStorage16 is converted to
+     * RunStorage16. Half of {@link #RUN_STORAGE_16_MAX_RUNS}, so a storage
+     * doesn't flip between the flavors on every update.
+     */
+    public static final int RUN_STORAGE_16_CONVERSION_RUNS = RUN_STORAGE_16_MAX_RUNS / 2;
+
+    /**
+     * The number of additions after which BitSetStorage16 counts its runs to
+     * decide whether it should be converted to RunStorage16. Counting costs a
+     * pass over the bit set, so it's amortized over the additions.
+     */
+    public static final int RUN_CHECK_INTERVAL = 1024;
+
     private static final long INT_PREFIX_MASK = 0xFFFFFFFF00000000L;
     private static final long INT_POSTFIX_MASK = 0x00000000FFFFFFFFL;
     private static final long SHORT_PREFIX_MASK = 0x00000000FFFF0000L;
@@ -803,7 +829,7 @@ final class SparseBitSet {
          * BitSetStorage16} data.
          */
         ArrayStorage16(long[] bits, int size) {
-            assert size == BitSetStorage16.MIN_SIZE;
+            assert size <= BitSetStorage16.MIN_SIZE;
             this.size = size;
 
             short[] members = new short[ARRAY_STORAGE_16_MAX_SIZE];
@@ -836,7 +862,7 @@ final class SparseBitSet {
                 // No space left: try to grow members array.
 
                 if (size == ARRAY_STORAGE_16_MAX_SIZE) {
-                    return new BitSetStorage16(members, member, index);
+                    return new BitSetStorage16(members, member, index).compact();
                 }
 
                 int newCapacity = Math.min(ARRAY_STORAGE_16_MAX_SIZE, size + capacityDeltaShort(members.length));
@@ -994,6 +1020,31 @@ final class SparseBitSet {
             this.size = members.length + 1;
         }
 
+        /**
+         * Constructs a new bit set storage by upgrading from the given {@link
+         * RunStorage16}.
+         */
+        BitSetStorage16(RunStorage16 runs) {
+            for (int i = 0; i < runs.runCount; ++i) {
+                int start = runs.start(i);
+                int end = runs.end(i);
+                int startLong = start >>> BIT_SET_LONG_SHIFT;
+                int endLong = end >>> BIT_SET_LONG_SHIFT;
+                long startMask = -1L << start;
+                long endMask = -1L >>> -(end + 1);
+                if (startLong == endLong) {
+                    members[startLong] |= startMask & endMask;
+                } else {
+                    members[startLong] |= startMask;
+                    for (int j = startLong + 1; j < endLong; ++j) {
+                        members[j] = -1L;
+                    }
+                    members[endLong] |= endMask;
+                }
+            }
+            this.size = runs.size;
+        }
+
         @Override
         public Storage16 add(short member) {
             int bitIndex = toUnsignedInt(member);
@@ -1005,10 +1056,37 @@ final class SparseBitSet {
 
             if (newBitSet != bitSet) {
                 ++size;
+                if ((size & RUN_CHECK_INTERVAL - 1) == 0) {
+                    return compact();
+                }
             }
             return this;
         }
 
+        /**
+         * @return a run storage holding the members of this storage if it's
+         * cheaper to store them as runs, this storage otherwise.
+         */
+        Storage16 compact() {
+            int runCount = countRuns();
+            return runCount <= RUN_STORAGE_16_CONVERSION_RUNS ? new RunStorage16(members, size, runCount) : this;
+        }
+
+        /**
+         * Counts the runs of consecutive set bits. A run starts at every set
+         * bit whose preceding bit is clear, the loop has no branches on the
+         * bits and is friendly to the JIT auto-vectorization.
+         */
+        private int countRuns() {
+            int runCount = 0;
+            long carry = 0;
+            for (long bitSet : members) {
+                runCount += Long.bitCount(bitSet & ~(bitSet << 1 | carry));
+                carry = bitSet >>> Long.SIZE - 1;
+            }
+            return runCount;
+        }
+
         @Override
         public Storage16 remove(short member) {
             int bitIndex = toUnsignedInt(member);
@@ -1020,7 +1098,9 @@ final class SparseBitSet {
 
             if (newBitSet != bitSet) {
                 --size;
-                if (size == MIN_SIZE) {
+                if (size <= MIN_SIZE) {
+                    // the storage might be upgraded from a run storage
+                    // having less members than the minimum
                     return new ArrayStorage16(members, size);
                 }
             }
@@ -1102,6 +1182,242 @@ final class SparseBitSet {
 
     }
 
+    /**
+     * Manages sorted short array of runs of consecutive indexes of set bits.
+     * Every run is stored as a pair of its first member and its length minus
+     * one.
+     */
+    private static final class RunStorage16 implements Storage16 {
+
+        private static final int MIN_CAPACITY = 2;
+
+        private int size;
+        private int runCount;
+        private short[] runs;
+
+        /**
+         * Constructs a new run storage by converting from the given {@link
+         * BitSetStorage16} data having the given number of runs.
+         */
+        RunStorage16(long[] bits, int size, int runCount) {
+            this.size = size;
+            this.runs = new short[Math.max(MIN_CAPACITY, runCount) * 2];
+
+            int start = nextSetBit(bits, 0);
+            while (start != -1) {
+                int end = nextClearBit(bits, start) - 1;
+                runs[this.runCount * 2] = (short) start;
+                runs[this.runCount * 2 + 1] = (short) (end - start);
+                ++this.runCount;
+                start = nextSetBit(bits, end + 1);
+            }
+            assert this.runCount == runCount;
+        }
+
+        @Override
+        public Storage16 add(short member) {
+            int unsignedMember = toUnsignedInt(member);
+            int run = floorRun(unsignedMember, 0);
+            if (run >= 0 && unsignedMember <= end(run)) {
+                // already in a run
+                return this;
+            }
+
+            boolean extendsPrevious = run >= 0 && end(run) + 1 == unsignedMember;
+            boolean extendsNext = run + 1 < runCount && start(run + 1) == unsignedMember + 1;
+            if (extendsPrevious && extendsNext) {
+                // the member joins two runs
+                runs[run * 2 + 1] = (short) (end(run + 1) - start(run));
+                removeRun(run + 1);
+            } else if (extendsPrevious) {
+                runs[run * 2 + 1] = (short) (end(run) + 1 - start(run));
+            } else if (extendsNext) {
+                int end = end(run + 1);
+                runs[(run + 1) * 2] = member;
+                runs[(run + 1) * 2 + 1] = (short) (end - unsignedMember);
+            } else {
+                if (runCount == RUN_STORAGE_16_MAX_RUNS) {
+                    return new BitSetStorage16(this).add(member);
+                }
+                insertRun(run + 1, unsignedMember, unsignedMember);
+            }
+            ++size;
+            return this;
+        }
+
+        @Override
+        public Storage16 remove(short member) {
+            int unsignedMember = toUnsignedInt(member);
+            int run = floorRun(unsignedMember, 0);
+            if (run < 0 || unsignedMember > end(run)) {
+                // not a member
+                return this;
+            }
+
+            int start = start(run);
+            int end = end(run);
+            if (start != unsignedMember && end != unsignedMember && runCount == RUN_STORAGE_16_MAX_RUNS) {
+                // no room to split the run
+                return new BitSetStorage16(this).remove(member);
+            }
+
+            --size;
+            if (size == 0) {
+                // emptied
+                return null;
+            }
+
+            if (start == end) {
+                removeRun(run);
+            } else if (start == unsignedMember) {
+                runs[run * 2] = (short) (start + 1);
+                runs[run * 2 + 1] = (short) (end - start - 1);
+            } else if (end == unsignedMember) {
+                runs[run * 2 + 1] = (short) (end - start - 1);
+            } else {
+                // split the run in two
+                runs[run * 2 + 1] = (short) (unsignedMember - 1 - start);
+                insertRun(run + 1, unsignedMember + 1, end);
+            }
+            return this;
+        }
+
+        @Override
+        public void iterate(IteratorImpl iterator) {
+            assert size > 0;
+            iterator.position16 = 0;
+            iterator.index = iterator.index & INT_PREFIX_SHORT_PREFIX_MASK | start(0);
+        }
+
+        @Override
+        public boolean advance(IteratorImpl iterator) {
+            int run = iterator.position16;
+            long current = iterator.index;
+            if ((current & SHORT_POSTFIX_MASK) < end(run)) {
+                // the next member of the current run
+                iterator.index = current + 1;
+                return true;
+            }
+
+            ++run;
+            if (run == runCount) {
+                return false;
+            }
+            iterator.position16 = run;
+            iterator.index = current & INT_PREFIX_SHORT_PREFIX_MASK | start(run);
+            return true;
+        }
+
+        @Override
+        public boolean iterateAtLeastFrom(short member, IteratorImpl iterator) {
+            return positionAtLeastAt(toUnsignedInt(member), 0, iterator);
+        }
+
+        @Override
+        public boolean advanceAtLeastTo(short member, IteratorImpl iterator) {
+            int unsignedMember = toUnsignedInt(member);
+            assert (iterator.index & SHORT_POSTFIX_MASK) < unsignedMember;
+            return positionAtLeastAt(unsignedMember, iterator.position16, iterator);
+        }
+
+        private boolean positionAtLeastAt(int member, int fromRun, IteratorImpl iterator) {
+            int run = floorRun(member, fromRun);
+            long prefix = iterator.index & INT_PREFIX_SHORT_PREFIX_MASK;
+            if (run >= 0 && member <= end(run)) {
+                iterator.position16 = run;
+                iterator.index = prefix | member;
+                return true;
+            }
+
+            ++run;
+            if (run == runCount) {
+                return false;
+            }
+            iterator.position16 = run;
+            iterator.index = prefix | start(run);
+            return true;
+        }
+
+        private int start(int run) {
+            return toUnsignedInt(runs[run * 2]);
+        }
+
+        private int end(int run) {
+            return toUnsignedInt(runs[run * 2]) + toUnsignedInt(runs[run * 2 + 1]);
+        }
+
+        /**
+         * @return the index of the last run starting at or before the given
+         * member, {@code fromRun - 1} if there is no such run.
+         */
+        private int floorRun(int member, int fromRun) {
+            int low = fromRun;
+            int high = runCount - 1;
+            while (low <= high) {
+                int middle = (low + high) >>> 1;
+                if (start(middle) <= member) {
+                    low = middle + 1;
+                } else {
+                    high = middle - 1;
+                }
+            }
+            return high;
+        }
+
+        private void insertRun(int run, int start, int end) {
+            if (runCount * 2 == runs.length) {
+                int newCapacity = Math.min(RUN_STORAGE_16_MAX_RUNS, runCount + capacityDeltaShort(runCount));
+                runs = copyOf(runs, newCapacity * 2);
+            }
+            arraycopy(runs, run * 2, runs, run * 2 + 2, (runCount - run) * 2);
+            runs[run * 2] = (short) start;
+            runs[run * 2 + 1] = (short) (end - start);
+            ++runCount;
+        }
+
+        private void removeRun(int run) {
+            --runCount;
+            arraycopy(runs, run * 2 + 2, runs, run * 2, (runCount - run) * 2);
+
+            int delta = capacityDeltaShort(runs.length / 2);
+            int newCapacity = runs.length / 2 - delta;
+            if (runs.length / 2 - runCount >= delta && newCapacity >= MIN_CAPACITY) {
+                // We are wasting too much: shrink the array.
+                runs = copyOf(runs, newCapacity * 2);
+            }
+        }
+
+        private static int nextSetBit(long[] bits, int from) {
+            int longIndex = from >>> BitSetStorage16.BIT_SET_LONG_SHIFT;
+            if (longIndex == bits.length) {
+                return -1;
+            }
+            long bitSet = bits[longIndex] & -1L << from;
+            while (bitSet == 0) {
+                ++longIndex;
+                if (longIndex == bits.length) {
+                    return -1;
+                }
+                bitSet = bits[longIndex];
+            }
+            return longIndex << BitSetStorage16.BIT_SET_LONG_SHIFT | numberOfTrailingZeros(bitSet);
+        }
+
+        private static int nextClearBit(long[] bits, int from) {
+            int longIndex = from >>> BitSetStorage16.BIT_SET_LONG_SHIFT;
+            long bitSet = ~bits[longIndex] & -1L << from;
+            while (bitSet == 0) {
+                ++longIndex;
+                if (longIndex == bits.length) {
+                    return bits.length << BitSetStorage16.BIT_SET_LONG_SHIFT;
+                }
+                bitSet = ~bits[longIndex];
+            }
+            return longIndex << BitSetStorage16.BIT_SET_LONG_SHIFT | numberOfTrailingZeros(bitSet);
+        }
+
+    }
+
     /**
      * Iterates over sparse bit sets.
      */
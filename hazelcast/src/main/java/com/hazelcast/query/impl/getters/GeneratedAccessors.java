@@ -0,0 +1,99 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.getters;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.function.Function;
+
+import static java.lang.invoke.MethodType.methodType;
+
+/**
+ * Generates non-reflective accessors for the methods the {@link
+ * MethodGetter} reads the attribute values from.
+ * <p>
+ * Methods are bound to a class generated by the {@link LambdaMetafactory},
+ * so the JIT compiler sees a regular virtual call. Fields are still read
+ * reflectively by the {@link FieldGetter}.
+ * <p>
+ * The accessors are generated at the first extraction and live as long as
+ * their getters, which are cached in the {@link EvictableGetterCache}.
+ */
+final class GeneratedAccessors {
+
+    /**
+     * Denotes a method no accessor could be generated for, the method is
+     * invoked reflectively.
+     */
+    static final Function<Object, Object> REFLECTIVE = object -> {
+        throw new UnsupportedOperationException();
+    };
+
+    private static final MethodHandles.Lookup LOOKUP = MethodHandles.lookup();
+
+    private GeneratedAccessors() {
+    }
+
+    /**
+     * @return the accessor invoking the given no-argument method,
+     * {@link #REFLECTIVE} if none could be generated.
+     */
+    @SuppressWarnings("unchecked")
+    static Function<Object, Object> generate(Method method) {
+        if (Modifier.isStatic(method.getModifiers()) || method.getReturnType() == void.class || !isLinkable(method)) {
+            return REFLECTIVE;
+        }
+        try {
+            MethodHandle handle = LOOKUP.unreflect(method);
+            CallSite callSite = LambdaMetafactory.metafactory(LOOKUP, "apply", methodType(Function.class),
+                    methodType(Object.class, Object.class), handle, handle.type().wrap());
+            return (Function<Object, Object>) callSite.getTarget().invokeExact();
+        } catch (Throwable t) {
+            return REFLECTIVE;
+        }
+    }
+
+    /**
+     * The class generated for a method invokes it by name, it links only if
+     * the method is public and its declaring class is resolvable from this
+     * class loader, which is not the case for the classes loaded by the user
+     * code deployment, for instance. Checking it here keeps the linkage of
+     * the generated class from failing later, when it could not be told
+     * apart from a linkage error thrown by the method itself.
+     */
+    private static boolean isLinkable(Method method) {
+        if (!Modifier.isPublic(method.getModifiers())) {
+            return false;
+        }
+        Class<?> declaringClass = method.getDeclaringClass();
+        for (Class<?> clazz = declaringClass; clazz != null; clazz = clazz.getEnclosingClass()) {
+            if (!Modifier.isPublic(clazz.getModifiers())) {
+                return false;
+            }
+        }
+        try {
+            return Class.forName(declaringClass.getName(), false, GeneratedAccessors.class.getClassLoader()) == declaringClass;
+        } catch (ClassNotFoundException | LinkageError e) {
+            return false;
+        }
+    }
+
+}
@@ -18,10 +18,13 @@ package com.hazelcast.query.impl.getters;
 
 import java.lang.reflect.InvocationTargetException;
 import java.lang.reflect.Method;
+import java.util.function.Function;
 
 public final class MethodGetter extends AbstractMultiValueGetter {
 
     private final Method method;
+    // generated at the first extraction, benignly racy
+    private Function<Object, Object> accessor;
 
     // for testing purposes only
     public MethodGetter(Getter parent, Method method, String modifier, Class elementType) {
@@ -35,6 +38,15 @@ public final class MethodGetter extends AbstractMultiValueGetter {
 
     @Override
     protected Object extractFrom(Object object) throws IllegalAccessException, InvocationTargetException {
+        Function<Object, Object> accessor = this.accessor;
+        if (accessor == null) {
+            accessor = GeneratedAccessors.generate(method);
+            this.accessor = accessor;
+        }
+        // the reflective invocation reports the unexpected targets
+        if (accessor != GeneratedAccessors.REFLECTIVE && method.getDeclaringClass().isInstance(object)) {
+            return invokeGenerated(accessor, object);
+        }
         try {
             return method.invoke(object);
         } catch (IllegalArgumentException e) {
@@ -42,6 +54,16 @@ public final class MethodGetter extends AbstractMultiValueGetter {
         }
     }
 
+    private static Object invokeGenerated(Function<Object, Object> accessor, Object object)
+            throws InvocationTargetException {
+        try {
+            return accessor.apply(object);
+        } catch (Throwable t) {
+            // same as the reflective invocation
+            throw new InvocationTargetException(t);
+        }
+    }
+
     @Override
     boolean isCacheable() {
         return true;
@@ -0,0 +1,188 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+
+import static com.hazelcast.internal.util.Preconditions.checkTrue;
+
+/**
+ * Geo Distance Predicate
+ * <p>
+ * Passes the entries positioned within the given great-circle distance, in
+ * meters, from the given center position. Distances are computed using the
+ * haversine formula on a spherical Earth.
+ */
+public class GeoDistancePredicate extends GeoPredicate {
+
+    /**
+     * The mean radius of the Earth in meters.
+     */
+    public static final double EARTH_RADIUS = 6371008.8;
+
+    private static final long serialVersionUID = 1L;
+
+    private double latitude;
+    private double longitude;
+    private double distance;
+
+    public GeoDistancePredicate() {
+    }
+
+    public GeoDistancePredicate(String latitudeAttribute, String longitudeAttribute, double latitude, double longitude,
+                                double distance) {
+        super(latitudeAttribute, longitudeAttribute);
+        checkTrue(isValidPosition(latitude, longitude), "Invalid center position");
+        checkTrue(distance >= 0, "Distance must not be negative");
+        this.latitude = latitude;
+        this.longitude = longitude;
+        this.distance = distance;
+    }
+
+    @Override
+    public double getMinLatitude() {
+        return Math.max(-MAX_LATITUDE, latitude - Math.toDegrees(distance / EARTH_RADIUS));
+    }
+
+    @Override
+    public double getMaxLatitude() {
+        return Math.min(MAX_LATITUDE, latitude + Math.toDegrees(distance / EARTH_RADIUS));
+    }
+
+    @Override
+    public double getMinLongitude() {
+        double delta = longitudeDelta();
+        if (Double.isNaN(delta)) {
+            return -MAX_LONGITUDE;
+        }
+        double minLongitude = longitude - delta;
+        return minLongitude < -MAX_LONGITUDE ? minLongitude + 2 * MAX_LONGITUDE : minLongitude;
+    }
+
+    @Override
+    public double getMaxLongitude() {
+        double delta = longitudeDelta();
+        if (Double.isNaN(delta)) {
+            return MAX_LONGITUDE;
+        }
+        double maxLongitude = longitude + delta;
+        return maxLongitude > MAX_LONGITUDE ? maxLongitude - 2 * MAX_LONGITUDE : maxLongitude;
+    }
+
+    @Override
+    public boolean contains(double latitude, double longitude) {
+        return distance(this.latitude, this.longitude, latitude, longitude) <= distance;
+    }
+
+    /**
+     * Computes the great-circle distance between the given positions.
+     *
+     * @return the distance in meters.
+     */
+    public static double distance(double latitude1, double longitude1, double latitude2, double longitude2) {
+        double latitudeSin = Math.sin(Math.toRadians(latitude2 - latitude1) / 2);
+        double longitudeSin = Math.sin(Math.toRadians(longitude2 - longitude1) / 2);
+        double a = latitudeSin * latitudeSin
+                + Math.cos(Math.toRadians(latitude1)) * Math.cos(Math.toRadians(latitude2)) * longitudeSin * longitudeSin;
+        return 2 * EARTH_RADIUS * Math.asin(Math.min(1.0, Math.sqrt(a)));
+    }
+
+    /**
+     * @return the half-width of the bounding box in degrees of longitude or
+     * {@link Double#NaN} if the box spans all the longitudes.
+     */
+    private double longitudeDelta() {
+        double angularDistance = distance / EARTH_RADIUS;
+        if (getMinLatitude() <= -MAX_LATITUDE || getMaxLatitude() >= MAX_LATITUDE) {
+            // the circle covers a pole
+            return Double.NaN;
+        }
+        double sin = Math.sin(angularDistance) / Math.cos(Math.toRadians(latitude));
+        if (sin >= 1.0) {
+            return Double.NaN;
+        }
+        double delta = Math.toDegrees(Math.asin(sin));
+        return delta >= MAX_LONGITUDE ? Double.NaN : delta;
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        super.writeData(out);
+        out.writeDouble(latitude);
+        out.writeDouble(longitude);
+        out.writeDouble(distance);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        super.readData(in);
+        latitude = in.readDouble();
+        longitude = in.readDouble();
+        distance = in.readDouble();
+    }
+
+    @Override
+    public String toString() {
+        return "(" + latitudeAttribute + ", " + longitudeAttribute + ") WITHIN " + distance + "m OF (" + latitude + ", "
+                + longitude + ")";
+    }
+
+    @Override
+    public int getClassId() {
+        return PredicateDataSerializerHook.GEO_DISTANCE_PREDICATE;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        if (!(o instanceof GeoDistancePredicate)) {
+            return false;
+        }
+
+        GeoDistancePredicate that = (GeoDistancePredicate) o;
+        if (!that.canEqual(this)) {
+            return false;
+        }
+
+        return Double.compare(that.latitude, latitude) == 0 && Double.compare(that.longitude, longitude) == 0
+                && Double.compare(that.distance, distance) == 0;
+    }
+
+    @Override
+    public boolean canEqual(Object other) {
+        return (other instanceof GeoDistancePredicate);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + Double.hashCode(latitude);
+        result = 31 * result + Double.hashCode(longitude);
+        result = 31 * result + Double.hashCode(distance);
+        return result;
+    }
+
+}
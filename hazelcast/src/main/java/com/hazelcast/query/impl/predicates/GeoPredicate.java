@@ -0,0 +1,192 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.nio.serialization.IdentifiedDataSerializable;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Extractable;
+import com.hazelcast.query.impl.IndexUtils;
+import com.hazelcast.query.impl.Indexes;
+
+import java.io.IOException;
+import java.util.Map;
+
+import static com.hazelcast.internal.serialization.impl.FactoryIdHelper.PREDICATE_DS_FACTORY_ID;
+
+/**
+ * Base class for the predicates over geographic positions given by a
+ * latitude and a longitude attribute, both in degrees.
+ * <p>
+ * Entries having a non-numeric or out of range latitude or longitude never
+ * pass geo predicates. Evaluated by
+ * {@link com.hazelcast.config.IndexType#GEOSPATIAL geospatial} indexes built
+ * on the same latitude and longitude attributes, if there is one.
+ */
+public abstract class GeoPredicate implements Predicate, IdentifiedDataSerializable, VisitablePredicate {
+
+    /**
+     * The maximum absolute value of a latitude in degrees.
+     */
+    public static final double MAX_LATITUDE = 90.0;
+
+    /**
+     * The maximum absolute value of a longitude in degrees.
+     */
+    public static final double MAX_LONGITUDE = 180.0;
+
+    private static final long serialVersionUID = 1L;
+
+    protected String latitudeAttribute;
+    protected String longitudeAttribute;
+
+    protected GeoPredicate() {
+    }
+
+    protected GeoPredicate(String latitudeAttribute, String longitudeAttribute) {
+        this.latitudeAttribute = latitudeAttribute;
+        this.longitudeAttribute = longitudeAttribute;
+    }
+
+    /**
+     * @return the pattern matching the geospatial indexes this predicate can
+     * be evaluated by, see {@link Indexes#matchIndex(String, Class,
+     * com.hazelcast.query.impl.QueryContext.IndexMatchHint, int)}.
+     */
+    public String getIndexPattern() {
+        return IndexUtils.canonicalizeAttribute(latitudeAttribute) + ","
+                + IndexUtils.canonicalizeAttribute(longitudeAttribute);
+    }
+
+    /**
+     * @return the minimum latitude of the bounding box of the area covered by
+     * this predicate.
+     */
+    public abstract double getMinLatitude();
+
+    /**
+     * @return the maximum latitude of the bounding box of the area covered by
+     * this predicate.
+     */
+    public abstract double getMaxLatitude();
+
+    /**
+     * @return the minimum longitude of the bounding box of the area covered by
+     * this predicate. Greater than the {@link #getMaxLongitude maximum} one
+     * if the box crosses the antimeridian.
+     */
+    public abstract double getMinLongitude();
+
+    /**
+     * @return the maximum longitude of the bounding box of the area covered by
+     * this predicate.
+     */
+    public abstract double getMaxLongitude();
+
+    /**
+     * Checks whether the given valid position passes this predicate.
+     *
+     * @param latitude  the latitude of the position.
+     * @param longitude the longitude of the position.
+     * @return {@code true} if the position passes, {@code false} otherwise.
+     */
+    public abstract boolean contains(double latitude, double longitude);
+
+    @Override
+    public boolean apply(Map.Entry mapEntry) {
+        Extractable entry = (Extractable) mapEntry;
+        double latitude = toDegrees(entry.getAttributeValue(latitudeAttribute));
+        double longitude = toDegrees(entry.getAttributeValue(longitudeAttribute));
+        return isValidPosition(latitude, longitude) && contains(latitude, longitude);
+    }
+
+    @Override
+    public Predicate accept(Visitor visitor, Indexes indexes) {
+        return visitor.visit(this, indexes);
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        out.writeUTF(latitudeAttribute);
+        out.writeUTF(longitudeAttribute);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        latitudeAttribute = in.readUTF();
+        longitudeAttribute = in.readUTF();
+    }
+
+    @Override
+    public int getFactoryId() {
+        return PREDICATE_DS_FACTORY_ID;
+    }
+
+    /**
+     * Converts the given attribute value to degrees.
+     *
+     * @param value the attribute value to convert.
+     * @return the converted value or {@link Double#NaN} if the value is not a
+     * number.
+     */
+    public static double toDegrees(Object value) {
+        return value instanceof Number ? ((Number) value).doubleValue() : Double.NaN;
+    }
+
+    /**
+     * @return {@code true} if the given latitude and longitude form a valid
+     * position, {@code false} otherwise.
+     */
+    public static boolean isValidPosition(double latitude, double longitude) {
+        return Math.abs(latitude) <= MAX_LATITUDE && Math.abs(longitude) <= MAX_LONGITUDE;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!(o instanceof GeoPredicate)) {
+            return false;
+        }
+
+        GeoPredicate that = (GeoPredicate) o;
+        if (!that.canEqual(this)) {
+            return false;
+        }
+
+        if (latitudeAttribute != null ? !latitudeAttribute.equals(that.latitudeAttribute) : that.latitudeAttribute != null) {
+            return false;
+        }
+        return longitudeAttribute != null ? longitudeAttribute.equals(that.longitudeAttribute)
+                : that.longitudeAttribute == null;
+    }
+
+    public boolean canEqual(Object other) {
+        return (other instanceof GeoPredicate);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = latitudeAttribute != null ? latitudeAttribute.hashCode() : 0;
+        result = 31 * result + (longitudeAttribute != null ? longitudeAttribute.hashCode() : 0);
+        return result;
+    }
+
+}
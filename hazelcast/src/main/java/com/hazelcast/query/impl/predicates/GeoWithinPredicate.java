@@ -0,0 +1,155 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+
+import java.io.IOException;
+
+import static com.hazelcast.internal.util.Preconditions.checkTrue;
+
+/**
+ * Geo Within Predicate
+ * <p>
+ * Passes the entries positioned inside the given latitude/longitude box,
+ * bounds are inclusive. The box crosses the antimeridian if its minimum
+ * longitude is greater than its maximum one.
+ */
+public class GeoWithinPredicate extends GeoPredicate {
+
+    private static final long serialVersionUID = 1L;
+
+    private double minLatitude;
+    private double minLongitude;
+    private double maxLatitude;
+    private double maxLongitude;
+
+    public GeoWithinPredicate() {
+    }
+
+    public GeoWithinPredicate(String latitudeAttribute, String longitudeAttribute, double minLatitude, double minLongitude,
+                              double maxLatitude, double maxLongitude) {
+        super(latitudeAttribute, longitudeAttribute);
+        checkTrue(isValidPosition(minLatitude, minLongitude), "Invalid minimum position");
+        checkTrue(isValidPosition(maxLatitude, maxLongitude), "Invalid maximum position");
+        checkTrue(minLatitude <= maxLatitude, "Minimum latitude must not be greater than maximum latitude");
+        this.minLatitude = minLatitude;
+        this.minLongitude = minLongitude;
+        this.maxLatitude = maxLatitude;
+        this.maxLongitude = maxLongitude;
+    }
+
+    @Override
+    public double getMinLatitude() {
+        return minLatitude;
+    }
+
+    @Override
+    public double getMaxLatitude() {
+        return maxLatitude;
+    }
+
+    @Override
+    public double getMinLongitude() {
+        return minLongitude;
+    }
+
+    @Override
+    public double getMaxLongitude() {
+        return maxLongitude;
+    }
+
+    @Override
+    public boolean contains(double latitude, double longitude) {
+        if (latitude < minLatitude || latitude > maxLatitude) {
+            return false;
+        }
+        if (minLongitude <= maxLongitude) {
+            return longitude >= minLongitude && longitude <= maxLongitude;
+        } else {
+            return longitude >= minLongitude || longitude <= maxLongitude;
+        }
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        super.writeData(out);
+        out.writeDouble(minLatitude);
+        out.writeDouble(minLongitude);
+        out.writeDouble(maxLatitude);
+        out.writeDouble(maxLongitude);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        super.readData(in);
+        minLatitude = in.readDouble();
+        minLongitude = in.readDouble();
+        maxLatitude = in.readDouble();
+        maxLongitude = in.readDouble();
+    }
+
+    @Override
+    public String toString() {
+        return "(" + latitudeAttribute + ", " + longitudeAttribute + ") WITHIN [(" + minLatitude + ", " + minLongitude
+                + "), (" + maxLatitude + ", " + maxLongitude + ")]";
+    }
+
+    @Override
+    public int getClassId() {
+        return PredicateDataSerializerHook.GEO_WITHIN_PREDICATE;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        if (!(o instanceof GeoWithinPredicate)) {
+            return false;
+        }
+
+        GeoWithinPredicate that = (GeoWithinPredicate) o;
+        if (!that.canEqual(this)) {
+            return false;
+        }
+
+        return Double.compare(that.minLatitude, minLatitude) == 0 && Double.compare(that.minLongitude, minLongitude) == 0
+                && Double.compare(that.maxLatitude, maxLatitude) == 0 && Double.compare(that.maxLongitude, maxLongitude) == 0;
+    }
+
+    @Override
+    public boolean canEqual(Object other) {
+        return (other instanceof GeoWithinPredicate);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + Double.hashCode(minLatitude);
+        result = 31 * result + Double.hashCode(minLongitude);
+        result = 31 * result + Double.hashCode(maxLatitude);
+        result = 31 * result + Double.hashCode(maxLongitude);
+        return result;
+    }
+
+}
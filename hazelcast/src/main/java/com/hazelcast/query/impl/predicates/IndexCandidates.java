@@ -0,0 +1,127 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.query.Predicate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+
+import static com.hazelcast.query.impl.IndexUtils.canonicalizeAttribute;
+
+/**
+ * Derives the indexes which would let a predicate be evaluated without
+ * scanning the entries of a map:
+ * <ul>
+ * <li>equality and {@code IN} predicates are served by {@link IndexType#HASH
+ * HASH} indexes;
+ * <li>range predicates are served by {@link IndexType#SORTED SORTED}
+ * indexes;
+ * <li>a conjunction of equality predicates on several attributes, optionally
+ * followed by a single range predicate, is served by a composite index.
+ * </ul>
+ * Disjunctions and negations are descended into, the other predicates
+ * produce no candidates.
+ */
+public final class IndexCandidates {
+
+    private IndexCandidates() {
+    }
+
+    /**
+     * @param predicate the predicate to derive the candidate indexes for.
+     * @return the distinct candidate index configs, not named, in the order
+     * of the predicate.
+     */
+    public static List<IndexConfig> of(Predicate predicate) {
+        Map<String, IndexConfig> candidates = new LinkedHashMap<>();
+        collect(predicate, candidates);
+        return new ArrayList<>(candidates.values());
+    }
+
+    private static void collect(Predicate predicate, Map<String, IndexConfig> candidates) {
+        if (predicate instanceof EqualPredicate || predicate instanceof InPredicate) {
+            add(candidates, IndexType.HASH, ((AbstractPredicate) predicate).attributeName);
+        } else if (predicate instanceof GreaterLessPredicate || predicate instanceof BetweenPredicate) {
+            add(candidates, IndexType.SORTED, ((AbstractPredicate) predicate).attributeName);
+        } else if (predicate instanceof AndPredicate) {
+            for (Predicate subPredicate : ((AndPredicate) predicate).getPredicates()) {
+                collect(subPredicate, candidates);
+            }
+            collectComposite((AndPredicate) predicate, candidates);
+        } else if (predicate instanceof CompoundPredicate) {
+            for (Predicate subPredicate : ((CompoundPredicate) predicate).getPredicates()) {
+                collect(subPredicate, candidates);
+            }
+        } else if (predicate instanceof NotPredicate) {
+            collect(((NotPredicate) predicate).getPredicate(), candidates);
+        }
+    }
+
+    private static void collectComposite(AndPredicate predicate, Map<String, IndexConfig> candidates) {
+        TreeSet<String> equalities = new TreeSet<>();
+        String range = null;
+        for (Predicate subPredicate : predicate.getPredicates()) {
+            String attribute = compositeComponent(subPredicate);
+            if (attribute == null) {
+                continue;
+            }
+            if (subPredicate instanceof EqualPredicate) {
+                equalities.add(attribute);
+            } else if (range == null) {
+                range = attribute;
+            }
+        }
+        if (range != null) {
+            equalities.remove(range);
+        }
+        if (equalities.size() > 1 || equalities.size() == 1 && range != null) {
+            List<String> components = new ArrayList<>(equalities);
+            if (range != null) {
+                components.add(range);
+            }
+            add(candidates, range == null ? IndexType.HASH : IndexType.SORTED, components.toArray(new String[0]));
+        }
+    }
+
+    /**
+     * @return the attribute of the given equality or range predicate if it
+     * might be a component of a composite index, {@code null} otherwise.
+     */
+    private static String compositeComponent(Predicate predicate) {
+        if (!(predicate instanceof EqualPredicate || predicate instanceof GreaterLessPredicate
+                || predicate instanceof BetweenPredicate)) {
+            return null;
+        }
+        String attribute = canonicalizeAttribute(((AbstractPredicate) predicate).attributeName);
+        // composite indexes don't support multi-value attributes
+        return attribute.contains("[") ? null : attribute;
+    }
+
+    private static void add(Map<String, IndexConfig> candidates, IndexType type, String... attributes) {
+        IndexConfig config = new IndexConfig(type);
+        for (String attribute : attributes) {
+            config.addAttribute(canonicalizeAttribute(attribute));
+        }
+        candidates.putIfAbsent(type + config.getAttributes().toString(), config);
+    }
+}
@@ -0,0 +1,186 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.nio.ObjectDataInput;
+import com.hazelcast.nio.ObjectDataOutput;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.Extractable;
+import com.hazelcast.query.impl.FullTextTokenizer;
+import com.hazelcast.query.impl.Indexes;
+
+import java.io.IOException;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Match Predicate
+ * <p>
+ * Passes the entries having all the terms of the query in the text of the
+ * attribute, a term followed by {@code *} matches any term starting with
+ * it. See {@link FullTextTokenizer} for the definition of a term. For
+ * multi-value attributes the terms of all the values are considered.
+ * <p>
+ * Evaluated by {@link com.hazelcast.config.IndexType#FULL_TEXT full-text}
+ * indexes, if there is one for the attribute.
+ */
+public class MatchPredicate extends AbstractPredicate implements VisitablePredicate {
+
+    private static final long serialVersionUID = 1L;
+
+    private String query;
+    private transient volatile Set<String> terms;
+    private transient volatile Set<String> prefixes;
+
+    public MatchPredicate() {
+    }
+
+    public MatchPredicate(String attributeName, String query) {
+        super(attributeName);
+        this.query = query;
+    }
+
+    /**
+     * @return the exact terms to search for.
+     */
+    public Set<String> getTerms() {
+        parseIfNecessary();
+        return terms;
+    }
+
+    /**
+     * @return the prefixes to search for.
+     */
+    public Set<String> getPrefixes() {
+        parseIfNecessary();
+        return prefixes;
+    }
+
+    @Override
+    public boolean apply(Map.Entry mapEntry) {
+        Object attributeValue = ((Extractable) mapEntry).getAttributeValue(attributeName);
+        Set<String> valueTerms = new HashSet<>();
+        FullTextTokenizer.tokenizeValue(attributeValue, valueTerms::add);
+        return matches(valueTerms);
+    }
+
+    @Override
+    protected boolean applyForSingleAttributeValue(Comparable attributeValue) {
+        Set<String> valueTerms = new HashSet<>();
+        FullTextTokenizer.tokenizeValue(attributeValue, valueTerms::add);
+        return matches(valueTerms);
+    }
+
+    private boolean matches(Set<String> valueTerms) {
+        Set<String> terms = getTerms();
+        Set<String> prefixes = getPrefixes();
+        if (terms.isEmpty() && prefixes.isEmpty()) {
+            return false;
+        }
+        if (!valueTerms.containsAll(terms)) {
+            return false;
+        }
+        for (String prefix : prefixes) {
+            boolean found = false;
+            for (String valueTerm : valueTerms) {
+                if (valueTerm.startsWith(prefix)) {
+                    found = true;
+                    break;
+                }
+            }
+            if (!found) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    private void parseIfNecessary() {
+        if (terms != null) {
+            return;
+        }
+        Set<String> parsedTerms = new HashSet<>();
+        Set<String> parsedPrefixes = new HashSet<>();
+        if (query != null) {
+            FullTextTokenizer.parseQuery(query, parsedTerms, parsedPrefixes);
+        }
+        prefixes = Collections.unmodifiableSet(parsedPrefixes);
+        terms = Collections.unmodifiableSet(parsedTerms);
+    }
+
+    @Override
+    public Predicate accept(Visitor visitor, Indexes indexes) {
+        return visitor.visit(this, indexes);
+    }
+
+    @Override
+    public void writeData(ObjectDataOutput out) throws IOException {
+        super.writeData(out);
+        out.writeUTF(query);
+    }
+
+    @Override
+    public void readData(ObjectDataInput in) throws IOException {
+        super.readData(in);
+        query = in.readUTF();
+    }
+
+    @Override
+    public String toString() {
+        return attributeName + " MATCH '" + query + "'";
+    }
+
+    @Override
+    public int getClassId() {
+        return PredicateDataSerializerHook.MATCH_PREDICATE;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) {
+            return true;
+        }
+        if (!super.equals(o)) {
+            return false;
+        }
+        if (!(o instanceof MatchPredicate)) {
+            return false;
+        }
+
+        MatchPredicate that = (MatchPredicate) o;
+        if (!that.canEqual(this)) {
+            return false;
+        }
+
+        return query != null ? query.equals(that.query) : that.query == null;
+    }
+
+    @Override
+    public boolean canEqual(Object other) {
+        return (other instanceof MatchPredicate);
+    }
+
+    @Override
+    public int hashCode() {
+        int result = super.hashCode();
+        result = 31 * result + (query != null ? query.hashCode() : 0);
+        return result;
+    }
+}
@@ -55,8 +55,11 @@ public class PredicateDataSerializerHook implements DataSerializerHook {
     public static final int COMPOSITE_VALUE = 18;
     public static final int NEGATIVE_INFINITY = 19;
     public static final int POSITIVE_INFINITY = 20;
+    public static final int MATCH_PREDICATE = 21;
+    public static final int GEO_WITHIN_PREDICATE = 22;
+    public static final int GEO_DISTANCE_PREDICATE = 23;
 
-    public static final int LEN = POSITIVE_INFINITY + 1;
+    public static final int LEN = GEO_DISTANCE_PREDICATE + 1;
 
     @Override
     public int getFactoryId() {
@@ -175,6 +178,24 @@ public class PredicateDataSerializerHook implements DataSerializerHook {
                 return CompositeValue.POSITIVE_INFINITY;
             }
         };
+        constructors[MATCH_PREDICATE] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            @Override
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new MatchPredicate();
+            }
+        };
+        constructors[GEO_WITHIN_PREDICATE] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            @Override
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new GeoWithinPredicate();
+            }
+        };
+        constructors[GEO_DISTANCE_PREDICATE] = new ConstructorFunction<Integer, IdentifiedDataSerializable>() {
+            @Override
+            public IdentifiedDataSerializable createNew(Integer arg) {
+                return new GeoDistancePredicate();
+            }
+        };
 
         return new ArrayDataSerializableFactory(constructors);
     }
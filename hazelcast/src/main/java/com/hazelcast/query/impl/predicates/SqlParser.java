@@ -42,13 +42,14 @@ class SqlParser {
     private static final int LIKE_PRECEDENCE = 10;
     private static final int ILIKE_PRECEDENCE = 10;
     private static final int REGEX_PRECEDENCE = 10;
+    private static final int MATCH_PRECEDENCE = 10;
     private static final int AND_PRECEDENCE = 5;
     private static final int OR_PRECEDENCE = 3;
 
     private static final Map<String, Integer> PRECEDENCE;
 
     static {
-        final Map<String, Integer> precedence = createHashMap(18);
+        final Map<String, Integer> precedence = createHashMap(19);
         precedence.put("(", PARENTHESIS_PRECEDENCE);
         precedence.put(")", PARENTHESIS_PRECEDENCE);
         precedence.put("not", NOT_PRECEDENCE);
@@ -65,6 +66,7 @@ class SqlParser {
         precedence.put("like", LIKE_PRECEDENCE);
         precedence.put("ilike", ILIKE_PRECEDENCE);
         precedence.put("regex", REGEX_PRECEDENCE);
+        precedence.put("match", MATCH_PRECEDENCE);
         precedence.put("and", AND_PRECEDENCE);
         precedence.put("or", OR_PRECEDENCE);
         PRECEDENCE = Collections.unmodifiableMap(precedence);
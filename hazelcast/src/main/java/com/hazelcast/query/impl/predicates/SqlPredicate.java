@@ -39,6 +39,7 @@ import static com.hazelcast.query.Predicates.between;
 import static com.hazelcast.query.Predicates.equal;
 import static com.hazelcast.query.Predicates.ilike;
 import static com.hazelcast.query.Predicates.like;
+import static com.hazelcast.query.Predicates.match;
 import static com.hazelcast.query.Predicates.regex;
 
 /**
@@ -207,6 +208,12 @@ public class SqlPredicate
                         Object first = toValue(tokens.remove(position), mapPhrases);
                         Object second = toValue(tokens.remove(position), mapPhrases);
                         setOrAdd(tokens, position, regex((String) first, (String) second));
+                    } else if ("MATCH".equalsIgnoreCase(token)) {
+                        int position = (i - 2);
+                        validateOperandPosition(position);
+                        Object first = toValue(tokens.remove(position), mapPhrases);
+                        Object second = toValue(tokens.remove(position), mapPhrases);
+                        setOrAdd(tokens, position, match((String) first, (String) second));
                     } else if ("IN".equalsIgnoreCase(token)) {
                         int position = i - 2;
                         validateOperandPosition(position);
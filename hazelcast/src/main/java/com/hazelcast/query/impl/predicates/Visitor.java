@@ -42,4 +42,8 @@ public interface Visitor {
 
     Predicate visit(BetweenPredicate predicate, Indexes indexes);
 
+    Predicate visit(MatchPredicate predicate, Indexes indexes);
+
+    Predicate visit(GeoPredicate predicate, Indexes indexes);
+
 }
@@ -99,6 +99,14 @@ public interface ExecutionService {
      */
     String MAP_LOAD_ALL_KEYS_EXECUTOR = "hz:map-loadAllKeys";
 
+    /**
+     * Name of the executor applying the index updates of the maps with the
+     * asynchronous index maintenance enabled.
+     *
+     * @see com.hazelcast.map.impl.recordstore.AsyncIndexUpdater
+     */
+    String MAP_INDEX_EXECUTOR = "hz:map-index";
+
     /**
      * Name of the Management Center executor. Used to execute blocking tasks
      * related with operations run by Management Center.
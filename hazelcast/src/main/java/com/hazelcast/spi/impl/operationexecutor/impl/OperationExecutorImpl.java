@@ -21,6 +21,8 @@ import com.hazelcast.instance.impl.NodeExtension;
 import com.hazelcast.internal.metrics.MetricsRegistry;
 import com.hazelcast.internal.metrics.Probe;
 import com.hazelcast.internal.metrics.StaticMetricsProvider;
+import com.hazelcast.internal.networking.nio.NioThread;
+import com.hazelcast.internal.networking.nio.NioThreadHost;
 import com.hazelcast.internal.nio.Packet;
 import com.hazelcast.internal.util.ThreadAffinity;
 import com.hazelcast.internal.util.concurrent.IdleStrategy;
@@ -35,6 +37,7 @@ import com.hazelcast.spi.impl.operationexecutor.OperationRunnerFactory;
 import com.hazelcast.spi.impl.operationservice.LiveOperations;
 import com.hazelcast.spi.impl.operationservice.Operation;
 import com.hazelcast.spi.impl.operationservice.PartitionTaskFactory;
+import com.hazelcast.spi.impl.operationservice.StealableOperation;
 import com.hazelcast.spi.impl.operationservice.UrgentSystemOperation;
 import com.hazelcast.spi.impl.operationservice.impl.operations.Backup;
 import com.hazelcast.spi.properties.HazelcastProperties;
@@ -44,6 +47,7 @@ import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 import java.util.BitSet;
 import java.util.concurrent.ConcurrentLinkedQueue;
 import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadLocalRandom;
 
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.OPERATION_METRIC_EXECUTOR_COMPLETED_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.OPERATION_METRIC_EXECUTOR_GENERIC_PRIORITY_QUEUE_SIZE;
@@ -59,7 +63,9 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.OPERATION
 import static com.hazelcast.internal.metrics.ProbeLevel.MANDATORY;
 import static com.hazelcast.internal.util.ThreadAffinity.newSystemThreadAffinity;
 import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static com.hazelcast.internal.util.Preconditions.checkState;
 import static com.hazelcast.internal.util.ThreadUtil.createThreadPoolName;
+import static com.hazelcast.spi.impl.operationexecutor.impl.PartitionOperationThread.STEAL_TRIGGER;
 import static com.hazelcast.spi.impl.operationservice.impl.InboundResponseHandlerSupplier.getIdleStrategy;
 import static com.hazelcast.spi.properties.ClusterProperty.GENERIC_OPERATION_THREAD_COUNT;
 import static com.hazelcast.spi.properties.ClusterProperty.PARTITION_COUNT;
@@ -89,9 +95,46 @@ import static java.util.concurrent.TimeUnit.SECONDS;
  * </ol>
  */
 @SuppressWarnings("checkstyle:methodcount")
-public final class OperationExecutorImpl implements OperationExecutor, StaticMetricsProvider {
+public final class OperationExecutorImpl implements OperationExecutor, StaticMetricsProvider, NioThreadHost {
+
+    /**
+     * Enables the experimental reactor mode: every partition thread also runs
+     * the event loop of one inbound IO thread, so the inbound traffic of a
+     * connection is processed on the partition thread hosting it. Operations
+     * for the partitions of that thread are then executed without a handoff to
+     * another thread, other operations still are handed off once.
+     * <p>
+     * Operations blocking a partition thread also block the inbound traffic of
+     * the connections it hosts.
+     */
+    public static final HazelcastProperty REACTOR_ENABLED
+            = new HazelcastProperty("hazelcast.operation.reactor.enabled", false);
+
+    /**
+     * Lets partition threads without tasks of their own steal the {@link
+     * StealableOperation}s from the generic queue, so these don't wait behind
+     * busy generic threads while partition threads are idle. A stolen
+     * operation delays the partition operations arriving while it runs. Not
+     * supported in reactor mode.
+     */
+    public static final HazelcastProperty GENERIC_WORK_STEALING_ENABLED
+            = new HazelcastProperty("hazelcast.operation.partitionthread.steal.generic", false);
+
     private static final HazelcastProperty IDLE_STRATEGY
             = new HazelcastProperty("hazelcast.operation.partitionthread.idlestrategy", "block");
+    /**
+     * The type of the queues of the partition threads: "linked" for linked
+     * queues, or "ringbuffer" for queues backed by a ring buffer which don't
+     * allocate when an operation is added.
+     */
+    private static final HazelcastProperty PARTITION_QUEUE_TYPE
+            = new HazelcastProperty("hazelcast.operation.partitionthread.queue", "linked");
+    /**
+     * The capacity of the ring buffer of the partition thread queues. When a
+     * ring buffer is full, operations are added to an unbounded linked queue.
+     */
+    private static final HazelcastProperty PARTITION_QUEUE_CAPACITY
+            = new HazelcastProperty("hazelcast.operation.partitionthread.queue.capacity", 8192);
     private static final int TERMINATION_TIMEOUT_SECONDS = 3;
     private final ThreadAffinity threadAffinity = newSystemThreadAffinity("hazelcast.operation.thread.affinity");
     private final ILogger logger;
@@ -100,16 +143,20 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
     private final PartitionOperationThread[] partitionThreads;
     private final OperationRunner[] partitionOperationRunners;
 
-    private final OperationQueue genericQueue
+    private final OperationQueueImpl genericQueue
             = new OperationQueueImpl(new LinkedBlockingQueue<Object>(), new LinkedBlockingQueue<Object>());
 
     // all operations that are not specific for a partition will be executed here, e.g. heartbeat or map.size()
     private final GenericOperationThread[] genericThreads;
     private final OperationRunner[] genericOperationRunners;
+    // run the generic tasks stolen by the partition threads, one for each partition thread
+    private final OperationRunner[] stealingOperationRunners;
 
     private final Address thisAddress;
     private final OperationRunner adHocOperationRunner;
     private final int priorityThreadCount;
+    private final boolean reactorEnabled;
+    private final boolean workStealingEnabled;
 
     public OperationExecutorImpl(HazelcastProperties properties,
                                  LoggingService loggerService,
@@ -122,13 +169,34 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
         this.logger = loggerService.getLogger(OperationExecutorImpl.class);
 
         this.adHocOperationRunner = runnerFactory.createAdHocRunner();
+        this.reactorEnabled = properties.getBoolean(REACTOR_ENABLED);
+        this.workStealingEnabled = properties.getBoolean(GENERIC_WORK_STEALING_ENABLED) && !reactorEnabled;
 
         this.partitionOperationRunners = initPartitionOperationRunners(properties, runnerFactory);
         this.partitionThreads = initPartitionThreads(properties, hzName, nodeExtension, configClassLoader);
+        this.stealingOperationRunners = initStealingOperationRunners(runnerFactory);
 
         this.priorityThreadCount = properties.getInteger(PRIORITY_GENERIC_OPERATION_THREAD_COUNT);
         this.genericOperationRunners = initGenericOperationRunners(properties, runnerFactory);
         this.genericThreads = initGenericThreads(hzName, nodeExtension, configClassLoader);
+        for (GenericOperationThread genericThread : genericThreads) {
+            genericThread.trackIdle = workStealingEnabled;
+        }
+    }
+
+    private OperationRunner[] initStealingOperationRunners(OperationRunnerFactory runnerFactory) {
+        if (!workStealingEnabled) {
+            return new OperationRunner[0];
+        }
+
+        OperationRunner[] operationRunners = new OperationRunner[partitionThreads.length];
+        for (int threadId = 0; threadId < operationRunners.length; threadId++) {
+            OperationRunner operationRunner = runnerFactory.createGenericRunner();
+            operationRunner.setCurrentThread(partitionThreads[threadId]);
+            partitionThreads[threadId].enableStealing(genericQueue, operationRunner);
+            operationRunners[threadId] = operationRunner;
+        }
+        return operationRunners;
     }
 
     private OperationRunner[] initPartitionOperationRunners(HazelcastProperties properties,
@@ -159,19 +227,30 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
         }
 
         IdleStrategy idleStrategy = getIdleStrategy(properties, IDLE_STRATEGY);
+        boolean ringBufferQueue = isRingBufferQueue(properties);
+        int ringBufferCapacity = properties.getInteger(PARTITION_QUEUE_CAPACITY);
         PartitionOperationThread[] threads = new PartitionOperationThread[threadCount];
         for (int threadId = 0; threadId < threads.length; threadId++) {
             String threadName = createThreadPoolName(hzName, "partition-operation") + threadId;
-            // the normalQueue will be a blocking queue. We don't want to idle, because there are many operation threads.
-            MPSCQueue<Object> normalQueue = new MPSCQueue<Object>(idleStrategy);
-
-            OperationQueue operationQueue = new OperationQueueImpl(normalQueue, new ConcurrentLinkedQueue<Object>());
+            OperationQueue operationQueue;
+            MPSCQueue<Object> normalQueue = null;
+            if (reactorEnabled) {
+                operationQueue = new ReactorOperationQueue();
+            } else if (ringBufferQueue) {
+                operationQueue = new RingBufferOperationQueue(ringBufferCapacity, idleStrategy);
+            } else {
+                // the normalQueue will be a blocking queue. We don't want to idle, because there are many operation threads.
+                normalQueue = new MPSCQueue<Object>(idleStrategy);
+                operationQueue = new OperationQueueImpl(normalQueue, new ConcurrentLinkedQueue<Object>());
+            }
 
             PartitionOperationThread partitionThread = new PartitionOperationThread(threadName, threadId, operationQueue, logger,
                     nodeExtension, partitionOperationRunners, configClassLoader);
             partitionThread.setThreadAffinity(threadAffinity);
             threads[threadId] = partitionThread;
-            normalQueue.setConsumerThread(partitionThread);
+            if (normalQueue != null) {
+                normalQueue.setConsumerThread(partitionThread);
+            }
         }
 
         // we need to assign the PartitionOperationThreads to all OperationRunners they own
@@ -189,6 +268,16 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
         return partitionId % partitionThreadCount;
     }
 
+    private static boolean isRingBufferQueue(HazelcastProperties properties) {
+        String queueType = properties.getString(PARTITION_QUEUE_TYPE);
+        if ("ringbuffer".equals(queueType)) {
+            return true;
+        } else if ("linked".equals(queueType)) {
+            return false;
+        }
+        throw new IllegalStateException("Unrecognized " + PARTITION_QUEUE_TYPE.getName() + " value=" + queueType);
+    }
+
     private GenericOperationThread[] initGenericThreads(String hzName, NodeExtension nodeExtension,
                                                         ClassLoader configClassLoader) {
         // we created as many generic operation handlers, as there are generic threads
@@ -227,6 +316,7 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
         registry.provideMetrics((Object[]) partitionThreads);
         registry.provideMetrics(adHocOperationRunner);
         registry.provideMetrics((Object[]) genericOperationRunners);
+        registry.provideMetrics((Object[]) stealingOperationRunners);
         registry.provideMetrics((Object[]) partitionOperationRunners);
     }
 
@@ -246,6 +336,7 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
     public void populate(LiveOperations liveOperations) {
         scan(partitionOperationRunners, liveOperations);
         scan(genericOperationRunners, liveOperations);
+        scan(stealingOperationRunners, liveOperations);
     }
 
     private void scan(OperationRunner[] runners, LiveOperations result) {
@@ -272,7 +363,7 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
 
     @Probe(name = OPERATION_METRIC_EXECUTOR_RUNNING_GENERIC_COUNT)
     private int getRunningGenericOperationCount() {
-        return getRunningOperationCount(genericOperationRunners);
+        return getRunningOperationCount(genericOperationRunners) + getRunningOperationCount(stealingOperationRunners);
     }
 
     private static int getRunningOperationCount(OperationRunner[] runners) {
@@ -325,6 +416,10 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
             result += runner.executedOperationsCount();
         }
 
+        for (OperationRunner runner : stealingOperationRunners) {
+            result += runner.executedOperationsCount();
+        }
+
         for (OperationRunner runner : partitionOperationRunners) {
             result += runner.executedOperationsCount();
         }
@@ -344,6 +439,28 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
         return genericThreads.length;
     }
 
+    public boolean isReactorEnabled() {
+        return reactorEnabled;
+    }
+
+    /**
+     * Hosts the event loops of the inbound IO threads on the partition threads
+     * in reactor mode, one per partition thread. IO threads that remain when
+     * there are more of them than partition threads are started normally.
+     */
+    @Override
+    public void host(NioThread[] threads) {
+        checkState(reactorEnabled, "Reactor mode isn't enabled");
+
+        for (int i = 0; i < threads.length; i++) {
+            if (i < partitionThreads.length) {
+                ((ReactorOperationQueue) partitionThreads[i].queue).host(threads[i]);
+            } else {
+                threads[i].start();
+            }
+        }
+    }
+
     @Override
     public int getPartitionThreadId(int partitionId) {
         return getPartitionThreadId(partitionId, partitionThreads.length);
@@ -381,13 +498,41 @@ public final class OperationExecutorImpl implements OperationExecutor, StaticMet
 
     private void execute(Object task, int partitionId, boolean priority) {
         if (partitionId < 0) {
-            genericQueue.add(task, priority);
+            if (workStealingEnabled && !priority && task instanceof StealableOperation) {
+                genericQueue.addStealable(task);
+                wakeupIdlePartitionThread();
+            } else {
+                genericQueue.add(task, priority);
+            }
         } else {
             OperationThread partitionThread = partitionThreads[toPartitionThreadIndex(partitionId)];
             partitionThread.queue.add(task, priority);
         }
     }
 
+    /**
+     * Makes an idle partition thread steal a stealable task from the generic
+     * queue, unless a (non-priority) generic thread is idle and takes the
+     * task anyway.
+     */
+    private void wakeupIdlePartitionThread() {
+        for (int i = priorityThreadCount; i < genericThreads.length; i++) {
+            if (genericThreads[i].idle.get()) {
+                return;
+            }
+        }
+
+        int offset = ThreadLocalRandom.current().nextInt(partitionThreads.length);
+        for (int i = 0; i < partitionThreads.length; i++) {
+            PartitionOperationThread partitionThread = partitionThreads[(offset + i) % partitionThreads.length];
+            // claiming the idle flag prevents waking up the same thread over and over
+            if (partitionThread.idle.get() && partitionThread.idle.compareAndSet(true, false)) {
+                partitionThread.queue.add(STEAL_TRIGGER, false);
+                return;
+            }
+        }
+    }
+
     @Override
     public void executeOnPartitionThreads(Runnable task) {
         checkNotNull(task, "task can't be null");
@@ -31,8 +31,17 @@ public final class OperationQueueImpl implements OperationQueue {
         }
     };
 
+    static final Object STEALABLE_TRIGGER_TASK = new Object() {
+        public String toString() {
+            return "stealableTriggerTask";
+        }
+    };
+
     private final BlockingQueue<Object> normalQueue;
     private final Queue<Object> priorityQueue;
+    // the normal tasks the partition threads may steal, each has a trigger
+    // task in the normal queue
+    private final Queue<Object> stealableQueue = new ConcurrentLinkedQueue<Object>();
 
     public OperationQueueImpl() {
         this(new LinkedBlockingQueue<Object>(), new ConcurrentLinkedQueue<Object>());
@@ -70,6 +79,28 @@ public final class OperationQueueImpl implements OperationQueue {
         }
     }
 
+    /**
+     * Adds a normal task the partition threads may steal, see {@link
+     * #pollStealable()}. Unless stolen, the task is taken in its turn.
+     */
+    void addStealable(Object task) {
+        checkNotNull(task, "task can't be null");
+
+        stealableQueue.add(task);
+        normalQueue.add(STEALABLE_TRIGGER_TASK);
+    }
+
+    /**
+     * Polls a task added by {@link #addStealable(Object)} without blocking.
+     * Used by partition threads stealing generic tasks; its trigger task is
+     * left behind and skipped when taken.
+     *
+     * @return the polled task, or null if there is none
+     */
+    Object pollStealable() {
+        return stealableQueue.poll();
+    }
+
     @Override
     public Object take(boolean priorityOnly) throws InterruptedException {
         if (priorityOnly) {
@@ -87,6 +118,14 @@ public final class OperationQueueImpl implements OperationQueue {
                 continue;
             }
 
+            if (normalItem == STEALABLE_TRIGGER_TASK) {
+                normalItem = stealableQueue.poll();
+                if (normalItem == null) {
+                    // already stolen
+                    continue;
+                }
+            }
+
             return normalItem;
         }
     }
@@ -31,6 +31,7 @@ import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 import com.hazelcast.spi.impl.operationservice.Operation;
 
 import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
 
 import static com.hazelcast.instance.impl.OutOfMemoryErrorDispatcher.inspectOutOfMemoryError;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.OPERATION_DISCRIMINATOR_THREAD;
@@ -63,6 +64,10 @@ public abstract class OperationThread extends HazelcastManagedThread implements
     // This field wil only be accessed by the thread itself when doing 'self'
     // calls. So no need for any form of synchronization.
     OperationRunner currentRunner;
+    // Only set when idle partition threads steal generic tasks; if so, the
+    // idle flag is set while this thread waits for a task.
+    boolean trackIdle;
+    final AtomicBoolean idle = new AtomicBoolean();
 
     // All these counters are updated by this OperationThread (so a single writer)
     // and are read by the MetricsRegistry.
@@ -115,7 +120,7 @@ public abstract class OperationThread extends HazelcastManagedThread implements
             while (!shutdown) {
                 Object task;
                 try {
-                    task = queue.take(priority);
+                    task = takeTask();
                 } catch (InterruptedException e) {
                     continue;
                 }
@@ -130,6 +135,19 @@ public abstract class OperationThread extends HazelcastManagedThread implements
         }
     }
 
+    Object takeTask() throws InterruptedException {
+        if (!trackIdle) {
+            return queue.take(priority);
+        }
+
+        idle.lazySet(true);
+        try {
+            return queue.take(priority);
+        } finally {
+            idle.lazySet(false);
+        }
+    }
+
     private void process(Object task) {
         try {
             if (task.getClass() == Packet.class) {
@@ -18,12 +18,15 @@ package com.hazelcast.spi.impl.operationexecutor.impl;
 
 import com.hazelcast.instance.impl.NodeExtension;
 import com.hazelcast.internal.metrics.Probe;
+import com.hazelcast.internal.util.counters.SwCounter;
 import com.hazelcast.logging.ILogger;
 import com.hazelcast.spi.impl.operationexecutor.OperationRunner;
 import edu.umd.cs.findbugs.annotations.SuppressFBWarnings;
 
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.OPERATION_METRIC_PARTITION_OPERATION_THREAD_NORMAL_PENDING_COUNT;
 import static com.hazelcast.internal.metrics.MetricDescriptorConstants.OPERATION_METRIC_PARTITION_OPERATION_THREAD_PRIORITY_PENDING_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.OPERATION_METRIC_PARTITION_OPERATION_THREAD_STOLEN_TASK_COUNT;
+import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
 
 /**
  * An {@link OperationThread} that executes Operations for a particular partition,
@@ -31,8 +34,22 @@ import static com.hazelcast.internal.metrics.MetricDescriptorConstants.OPERATION
  */
 public final class PartitionOperationThread extends OperationThread {
 
+    /**
+     * Added to the queue of an idle partition thread to make it steal generic tasks.
+     */
+    static final Object STEAL_TRIGGER = new Object() {
+        public String toString() {
+            return "stealTrigger";
+        }
+    };
+
     private final OperationRunner[] partitionOperationRunners;
 
+    @Probe(name = OPERATION_METRIC_PARTITION_OPERATION_THREAD_STOLEN_TASK_COUNT)
+    private final SwCounter stolenTaskCount = newSwCounter();
+    private OperationQueueImpl genericQueue;
+    private OperationRunner genericOperationRunner;
+
     @SuppressFBWarnings("EI_EXPOSE_REP")
     public PartitionOperationThread(String name,
                                     int threadId,
@@ -51,7 +68,41 @@ public final class PartitionOperationThread extends OperationThread {
      */
     @Override
     public OperationRunner operationRunner(int partitionId) {
-        return partitionOperationRunners[partitionId];
+        return partitionId < 0 ? genericOperationRunner : partitionOperationRunners[partitionId];
+    }
+
+    /**
+     * Lets this thread steal the stealable tasks from the generic queue when
+     * it has no tasks of its own. The stolen tasks are run by the given runner. Should
+     * be called before this thread is started.
+     */
+    void enableStealing(OperationQueueImpl genericQueue, OperationRunner genericOperationRunner) {
+        this.genericQueue = genericQueue;
+        this.genericOperationRunner = genericOperationRunner;
+        this.trackIdle = true;
+    }
+
+    @Override
+    Object takeTask() throws InterruptedException {
+        if (genericQueue == null) {
+            return super.takeTask();
+        }
+
+        for (; ; ) {
+            // the own tasks go first
+            if (queue.size() == 0) {
+                Object task = genericQueue.pollStealable();
+                if (task != null) {
+                    stolenTaskCount.inc();
+                    return task;
+                }
+            }
+
+            Object task = super.takeTask();
+            if (task != STEAL_TRIGGER) {
+                return task;
+            }
+        }
     }
 
     @Probe(name = OPERATION_METRIC_PARTITION_OPERATION_THREAD_PRIORITY_PENDING_COUNT)
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.internal.networking.nio.NioThread;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.locks.LockSupport;
+
+import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static java.lang.Thread.currentThread;
+
+/**
+ * The {@link OperationQueue} of a partition thread in reactor mode.
+ *
+ * Next to taking tasks, the partition thread runs the event loop of the
+ * {@link NioThread} it hosts while waiting for them: the inbound traffic of the
+ * connections owned by that event loop is processed on the partition thread.
+ * Tasks created while doing so for the partitions of this thread, are added to
+ * this queue by the consumer itself; they are taken without any cross-thread
+ * handoff or wakeup.
+ *
+ * When there is nothing to do, the consumer blocks on the selector of the
+ * event loop (or parks if there is no event loop yet). Other threads adding a
+ * task wake it up only if it is parked.
+ */
+final class ReactorOperationQueue implements OperationQueue {
+
+    // the event loop is run without blocking after this many tasks have been
+    // taken in a row, so a steady stream of tasks can't starve the IO
+    private static final int TASKS_PER_EVENT_LOOP_RUN = 64;
+
+    private final Queue<Object> normalQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<Object> priorityQueue = new ConcurrentLinkedQueue<>();
+    private final AtomicReference<NioThread> eventLoop = new AtomicReference<>();
+
+    private volatile Thread consumer;
+    // set while the consumer is (about to be) blocked
+    private volatile boolean parked;
+    // only accessed by the consumer
+    private int tasksSinceEventLoopRun;
+
+    /**
+     * Hosts the event loop of the given NioThread on the consumer of this queue.
+     */
+    void host(NioThread nioThread) {
+        eventLoop.set(nioThread);
+        wakeup();
+    }
+
+    @Override
+    public void add(Object task, boolean priority) {
+        checkNotNull(task, "task can't be null");
+
+        if (priority) {
+            priorityQueue.add(task);
+        } else {
+            normalQueue.add(task);
+        }
+
+        // the parked flag is read after the task has been added and the consumer
+        // checks the queues after setting the flag, so the task can't be missed
+        if (parked && currentThread() != consumer) {
+            wakeup();
+        }
+    }
+
+    private void wakeup() {
+        NioThread nioThread = eventLoop.get();
+        if (nioThread != null) {
+            nioThread.getSelector().wakeup();
+        }
+        LockSupport.unpark(consumer);
+    }
+
+    @Override
+    public Object take(boolean priorityOnly) throws InterruptedException {
+        if (consumer == null) {
+            consumer = currentThread();
+        }
+
+        for (; ; ) {
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            Object task = poll(priorityOnly);
+            if (task != null) {
+                if (++tasksSinceEventLoopRun == TASKS_PER_EVENT_LOOP_RUN) {
+                    runEventLoop(false);
+                }
+                return task;
+            }
+
+            runEventLoop(true);
+        }
+    }
+
+    private Object poll(boolean priorityOnly) {
+        Object task = priorityQueue.poll();
+        if (task != null || priorityOnly) {
+            return task;
+        }
+        return normalQueue.poll();
+    }
+
+    private void runEventLoop(boolean mayBlock) {
+        tasksSinceEventLoopRun = 0;
+        NioThread nioThread = eventLoop.get();
+        if (nioThread == null) {
+            if (mayBlock) {
+                parked = true;
+                if (isEmpty()) {
+                    LockSupport.park(this);
+                }
+                parked = false;
+            }
+            return;
+        }
+
+        boolean running = nioThread.runHosted(() -> {
+            if (!mayBlock) {
+                return false;
+            }
+            parked = true;
+            return isEmpty();
+        });
+        parked = false;
+
+        if (!running) {
+            eventLoop.compareAndSet(nioThread, null);
+        }
+    }
+
+    private boolean isEmpty() {
+        return priorityQueue.isEmpty() && normalQueue.isEmpty();
+    }
+
+    @Override
+    public int normalSize() {
+        return normalQueue.size();
+    }
+
+    @Override
+    public int prioritySize() {
+        return priorityQueue.size();
+    }
+
+    @Override
+    public int size() {
+        return normalQueue.size() + priorityQueue.size();
+    }
+}
@@ -0,0 +1,146 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.internal.util.concurrent.IdleStrategy;
+import com.hazelcast.internal.util.concurrent.ManyToOneConcurrentArrayQueue;
+
+import java.util.Queue;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+import static com.hazelcast.internal.util.Preconditions.checkNotNull;
+import static java.lang.Thread.currentThread;
+import static java.util.concurrent.locks.LockSupport.park;
+import static java.util.concurrent.locks.LockSupport.unpark;
+
+/**
+ * An {@link OperationQueue} for a single consumer backed by a ring buffer.
+ *
+ * Normal tasks go into a fixed size array, so adding a task doesn't allocate
+ * and taking a task doesn't need a lock; only when the array is full they go
+ * into an unbounded linked overflow queue. As long as the overflow queue isn't
+ * empty, new tasks are added to it as well, so the tasks added by a single
+ * thread are taken in the order they were added. Priority tasks are rare and
+ * go into a linked queue.
+ *
+ * If there is nothing to take, the consumer idles using the configured
+ * {@link IdleStrategy}. Without an idle strategy it blocks; producers then
+ * only pay for a wakeup if the consumer actually is blocked.
+ */
+final class RingBufferOperationQueue implements OperationQueue {
+
+    private final ManyToOneConcurrentArrayQueue<Object> normalQueue;
+    private final Queue<Object> overflowQueue = new ConcurrentLinkedQueue<>();
+    private final Queue<Object> priorityQueue = new ConcurrentLinkedQueue<>();
+    private final IdleStrategy idleStrategy;
+
+    // written by the consumer before it sets the parked flag for the first time
+    private Thread consumerThread;
+    // set while the consumer is (about to be) blocked
+    private volatile boolean parked;
+
+    /**
+     * @param capacity     the capacity of the ring buffer, rounded up to the next power of two
+     * @param idleStrategy the idle strategy. If null, the consumer blocks if the queue is empty.
+     */
+    RingBufferOperationQueue(int capacity, IdleStrategy idleStrategy) {
+        this.normalQueue = new ManyToOneConcurrentArrayQueue<>(capacity);
+        this.idleStrategy = idleStrategy;
+    }
+
+    @Override
+    public void add(Object task, boolean priority) {
+        checkNotNull(task, "task can't be null");
+
+        if (priority) {
+            priorityQueue.add(task);
+        } else if (!overflowQueue.isEmpty() || !normalQueue.offer(task)) {
+            overflowQueue.add(task);
+        }
+
+        // the parked flag is read after the task has been added and the consumer
+        // checks the queues after setting the flag, so the task can't be missed
+        if (parked) {
+            unpark(consumerThread);
+        }
+    }
+
+    @Override
+    public Object take(boolean priorityOnly) throws InterruptedException {
+        long idleCount = 0;
+        for (; ; ) {
+            Object task = poll(priorityOnly);
+            if (task != null) {
+                return task;
+            }
+
+            if (Thread.interrupted()) {
+                throw new InterruptedException();
+            }
+
+            if (idleStrategy != null) {
+                idleStrategy.idle(idleCount++);
+            } else {
+                if (consumerThread == null) {
+                    consumerThread = currentThread();
+                }
+                parked = true;
+                if (isEmpty(priorityOnly)) {
+                    park(this);
+                }
+                parked = false;
+            }
+        }
+    }
+
+    private Object poll(boolean priorityOnly) {
+        Object task = priorityQueue.poll();
+        if (task != null || priorityOnly) {
+            return task;
+        }
+
+        task = normalQueue.poll();
+        return task != null ? task : overflowQueue.poll();
+    }
+
+    private boolean isEmpty(boolean priorityOnly) {
+        if (!priorityQueue.isEmpty()) {
+            return false;
+        }
+        // the counters are checked instead of the array slots: the tail is
+        // advanced before the parked flag is read by the producer, while its
+        // slot is written lazily
+        return priorityOnly
+                || (normalQueue.addedCount() == normalQueue.removedCount() && overflowQueue.isEmpty());
+    }
+
+    @Override
+    public int normalSize() {
+        return normalQueue.size() + overflowQueue.size();
+    }
+
+    @Override
+    public int prioritySize() {
+        return priorityQueue.size();
+    }
+
+    @Override
+    public int size() {
+        return normalSize() + prioritySize();
+    }
+}
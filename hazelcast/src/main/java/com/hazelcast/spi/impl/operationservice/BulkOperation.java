@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.spi.impl.operationservice;
+
+/**
+ * A Marker interface that signals that an operation carries bulk data, like the
+ * partition data that is transferred during a migration or a replica sync.
+ * <p>
+ * The packets of such operations are written in the bulk traffic class, so that
+ * a large transfer shares the connection with the regular operations instead of
+ * delaying them. See {@link com.hazelcast.internal.networking.OutboundFrame#isBulk()}.
+ * <p>
+ * Only the sending side is affected: the operation is still urgent if it is an
+ * {@link UrgentSystemOperation}, which determines how it is executed on the
+ * receiving member.
+ */
+public interface BulkOperation {
+}
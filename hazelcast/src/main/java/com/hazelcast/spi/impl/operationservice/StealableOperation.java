@@ -0,0 +1,33 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.spi.impl.operationservice;
+
+/**
+ * Marker interface for the generic operations idle partition threads may
+ * steal from the generic threads, if the work stealing is enabled.
+ * <p>
+ * Such an operation may run on any partition thread and delays all the
+ * partitions of that thread while it runs, so only short operations with
+ * a bounded cost may opt in, never ones scanning partitions or whose cost
+ * grows with the data size. It must not block waiting for partition
+ * operations or assert it runs on a generic thread.
+ * Only the operations executed locally can be stolen, the ones received
+ * from other members are not deserialized before a generic thread runs them.
+ */
+public interface StealableOperation {
+
+}
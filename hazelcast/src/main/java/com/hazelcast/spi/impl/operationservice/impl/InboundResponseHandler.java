@@ -24,15 +24,19 @@ import com.hazelcast.logging.ILogger;
 import com.hazelcast.cluster.Address;
 import com.hazelcast.internal.nio.Bits;
 import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.server.ServerConnection;
 import com.hazelcast.spi.impl.NodeEngine;
 import com.hazelcast.spi.impl.operationservice.impl.responses.ErrorResponse;
 
 import java.nio.ByteOrder;
+import java.util.Arrays;
 import java.util.function.Consumer;
 
 import static com.hazelcast.internal.util.counters.MwCounter.newMwCounter;
 import static com.hazelcast.internal.util.counters.SwCounter.newSwCounter;
+import static com.hazelcast.internal.nio.Bits.INT_SIZE_IN_BYTES;
 import static com.hazelcast.internal.nio.Packet.FLAG_OP_RESPONSE;
+import static com.hazelcast.internal.nio.Packet.FLAG_OP_RESPONSE_BATCH;
 import static com.hazelcast.internal.nio.Packet.Type.OPERATION;
 import static com.hazelcast.spi.impl.SpiDataSerializerHook.BACKUP_ACK_RESPONSE;
 import static com.hazelcast.spi.impl.SpiDataSerializerHook.CALL_TIMEOUT_RESPONSE;
@@ -47,7 +51,8 @@ import static com.hazelcast.internal.util.Preconditions.checkTrue;
 /**
  * Responsible for handling responses for invocations. Based on the content of the
  * response packet, it will lookup the Invocation from the InvocationRegistry and
- * notify the Invocation.
+ * notify the Invocation. A {@link Packet#FLAG_OP_RESPONSE_BATCH} packet is split
+ * into the responses it is made of, which are handled one by one.
  *
  * InboundResponseHandlers are not thread-safe. So if there are multiple threads
  * processing responses, each thread needs to get its own instance. Only the backup
@@ -80,6 +85,30 @@ public final class InboundResponseHandler implements Consumer<Packet> {
         checkTrue(packet.getPacketType() == OPERATION, "Packet type is not OPERATION");
         checkTrue(packet.isFlagRaised(FLAG_OP_RESPONSE), "FLAG_OP_RESPONSE is not set");
 
+        if (packet.isFlagRaised(FLAG_OP_RESPONSE_BATCH)) {
+            acceptBatch(packet);
+        } else {
+            handle(packet);
+        }
+    }
+
+    private void acceptBatch(Packet batch) {
+        byte[] bytes = batch.toByteArray();
+        ServerConnection connection = batch.getConn();
+        int offset = 0;
+        while (offset < bytes.length) {
+            int length = Bits.readIntB(bytes, offset);
+            offset += INT_SIZE_IN_BYTES;
+            Packet response = new Packet(Arrays.copyOfRange(bytes, offset, offset + length), -1)
+                    .setPacketType(OPERATION)
+                    .raiseFlags(FLAG_OP_RESPONSE)
+                    .setConn(connection);
+            offset += length;
+            handle(response);
+        }
+    }
+
+    private void handle(Packet packet) {
         byte[] bytes = packet.toByteArray();
         int typeId = Bits.readInt(bytes, OFFSET_TYPE_ID, useBigEndian);
         long callId = Bits.readLong(bytes, OFFSET_CALL_ID, useBigEndian);
@@ -49,6 +49,7 @@ import com.hazelcast.spi.impl.executionservice.ExecutionService;
 import com.hazelcast.spi.impl.operationexecutor.OperationExecutor;
 import com.hazelcast.spi.impl.operationservice.BackupAwareOperation;
 import com.hazelcast.spi.impl.operationservice.BlockingOperation;
+import com.hazelcast.spi.impl.operationservice.BulkOperation;
 import com.hazelcast.spi.impl.operationservice.ExceptionAction;
 import com.hazelcast.spi.impl.operationservice.InvocationBuilder;
 import com.hazelcast.spi.impl.operationservice.Operation;
@@ -607,7 +608,11 @@ public abstract class Invocation<T> extends BaseInvocation implements OperationR
     private void doInvokeRemote() {
         assert connectionManager != null : "Endpoint manager was null";
 
-        ServerConnection connection = connectionManager.getOrConnect(targetAddress, op.getPartitionId());
+        int streamId = op.getPartitionId();
+        if (op instanceof BulkOperation) {
+            streamId = connectionManager.bulkStreamId(streamId);
+        }
+        ServerConnection connection = connectionManager.getOrConnect(targetAddress, streamId);
         this.connection = connection;
         boolean write;
         if (connection != null) {
@@ -21,6 +21,7 @@ import com.hazelcast.instance.impl.Node;
 import com.hazelcast.internal.nio.Packet;
 import com.hazelcast.internal.serialization.InternalSerializationService;
 import com.hazelcast.internal.server.ServerConnection;
+import com.hazelcast.spi.impl.operationservice.BulkOperation;
 import com.hazelcast.spi.impl.operationservice.Operation;
 
 import static com.hazelcast.instance.EndpointQualifier.MEMBER;
@@ -67,6 +68,9 @@ public class OutboundOperationHandler {
         if (op.isUrgent()) {
             packet.raiseFlags(FLAG_URGENT);
         }
+        if (op instanceof BulkOperation) {
+            packet.setBulk(true);
+        }
         return packet;
     }
 }
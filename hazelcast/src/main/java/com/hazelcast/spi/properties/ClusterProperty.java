@@ -97,6 +97,18 @@ public final class ClusterProperty {
     public static final HazelcastProperty IO_BALANCER_INTERVAL_SECONDS
             = new HazelcastProperty("hazelcast.io.balancer.interval.seconds", 20, SECONDS);
 
+    /**
+     * Makes the {@link com.hazelcast.internal.networking.nio.iobalancer.IOBalancer}
+     * judge the load of a connection by both the bytes it transferred and the
+     * time the I/O threads spent processing it, instead of a single counter.
+     * The connections are then migrated between the I/O threads more
+     * conservatively: only once an imbalance persists, and at a limited rate.
+     * <p>
+     * The default is false.
+     */
+    public static final HazelcastProperty IO_BALANCER_ADAPTIVE
+            = new HazelcastProperty("hazelcast.io.balancer.adaptive", false);
+
     /**
      * Prefer IPv4 network interface when picking a local address.
      */
@@ -308,6 +320,65 @@ public final class ClusterProperty {
     public static final HazelcastProperty IO_WRITE_THROUGH_ENABLED
             = new HazelcastProperty("hazelcast.io.write.through", true);
 
+    /**
+     * The number of frames each write queue of a connection can hold without
+     * allocating. When more frames are queued, the excess is kept in an
+     * unbounded linked queue, so frames are never rejected because of it.
+     */
+    public static final HazelcastProperty IO_WRITE_QUEUE_CAPACITY
+            = new HazelcastProperty("hazelcast.io.write.queue.capacity", 1024);
+
+    /**
+     * The number of pending bytes in the write queue of a connection above
+     * which the connection reports that it isn't writable. Writes are still
+     * accepted; components that are able to hold back work can use it as a
+     * backpressure signal.
+     */
+    public static final HazelcastProperty IO_WRITE_QUEUE_HIGH_WATER_MARK_BYTES
+            = new HazelcastProperty("hazelcast.io.write.queue.high.water.mark.bytes", 64 * 1024 * 1024);
+
+    /**
+     * Enables the bulk traffic class on the write side of member connections.
+     * When enabled, the packets of operations carrying bulk data (partition
+     * migration and replica sync) are queued separately and share the bandwidth
+     * left by urgent packets with the regular packets, according to
+     * {@link #IO_WRITE_INTERACTIVE_WEIGHT} and {@link #IO_WRITE_BULK_WEIGHT}.
+     * When disabled, they are written before the regular packets, like any
+     * other urgent packet.
+     * <p>
+     * It is disabled by default.
+     */
+    public static final HazelcastProperty IO_TRAFFIC_CLASSES_ENABLED
+            = new HazelcastProperty("hazelcast.io.traffic.classes.enabled", false);
+
+    /**
+     * The share of the bandwidth of a connection the regular (interactive)
+     * packets get when bulk packets are waiting to be written as well. It is
+     * relative to {@link #IO_WRITE_BULK_WEIGHT}.
+     */
+    public static final HazelcastProperty IO_WRITE_INTERACTIVE_WEIGHT
+            = new HazelcastProperty("hazelcast.io.write.interactive.weight", 4);
+
+    /**
+     * The share of the bandwidth of a connection the bulk packets get when
+     * regular packets are waiting to be written as well. It is relative to
+     * {@link #IO_WRITE_INTERACTIVE_WEIGHT}.
+     */
+    public static final HazelcastProperty IO_WRITE_BULK_WEIGHT
+            = new HazelcastProperty("hazelcast.io.write.bulk.weight", 1);
+
+    /**
+     * Opens an additional connection between members that is used only for
+     * bulk packets, so that large transfers don't share the socket buffers with
+     * regular operations. It only has effect when
+     * {@link #IO_TRAFFIC_CLASSES_ENABLED} is enabled as well.
+     * <p>
+     * Just like {@link #CHANNEL_COUNT}, it must be configured the same on all
+     * members; connections between members that disagree are rejected.
+     */
+    public static final HazelcastProperty IO_BULK_CONNECTION_ENABLED
+            = new HazelcastProperty("hazelcast.io.bulk.connection.enabled", false);
+
     /**
      * Property needed for concurrency detection so that write through can be
      * done correctly.
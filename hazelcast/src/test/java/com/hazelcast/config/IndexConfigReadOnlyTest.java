@@ -58,4 +58,9 @@ public class IndexConfigReadOnlyTest {
     public void addColumn2() {
         getConfig().addAttribute("column");
     }
+
+    @Test(expected = UnsupportedOperationException.class)
+    public void setSortedIndexStructure() {
+        getConfig().setSortedIndexStructure(SortedIndexStructure.B_TREE);
+    }
 }
@@ -17,14 +17,21 @@
 package com.hazelcast.config;
 
 import com.hazelcast.config.BitmapIndexOptions.UniqueKeyTransformation;
+import com.hazelcast.internal.cluster.Versions;
+import com.hazelcast.internal.nio.BufferObjectDataInput;
+import com.hazelcast.internal.nio.BufferObjectDataOutput;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
 import com.hazelcast.query.QueryConstants;
 import com.hazelcast.test.HazelcastParallelClassRunner;
 import com.hazelcast.test.annotation.ParallelJVMTest;
 import com.hazelcast.test.annotation.QuickTest;
+import com.hazelcast.version.Version;
 import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.io.IOException;
 import java.util.Collections;
 import java.util.LinkedList;
 import java.util.List;
@@ -95,6 +102,37 @@ public class IndexConfigTest {
         assertNotEquals(config1.hashCode(), config2.hashCode());
     }
 
+    @Test
+    public void testSerialization_sortedIndexStructure() throws IOException {
+        IndexConfig config = new IndexConfig(IndexType.SORTED, "a").setSortedIndexStructure(SortedIndexStructure.B_TREE);
+
+        assertEquals(config, serializeAndDeserialize(config, Versions.V4_1));
+    }
+
+    @Test
+    public void testSerialization_sortedIndexStructureDroppedForPreviousVersion() throws IOException {
+        IndexConfig config = new IndexConfig(IndexType.SORTED, "a").setSortedIndexStructure(SortedIndexStructure.B_TREE);
+
+        IndexConfig deserialized = serializeAndDeserialize(config, Versions.V4_0);
+        assertEquals(SortedIndexStructure.SKIP_LIST, deserialized.getSortedIndexStructure());
+        assertEquals(config.getAttributes(), deserialized.getAttributes());
+    }
+
+    private static IndexConfig serializeAndDeserialize(IndexConfig config, Version version) throws IOException {
+        InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+        BufferObjectDataOutput out = ss.createObjectDataOutput();
+        out.setVersion(version);
+        config.writeData(out);
+
+        BufferObjectDataInput in = ss.createObjectDataInput(out.toByteArray());
+        in.setVersion(version);
+        IndexConfig deserialized = new IndexConfig();
+        deserialized.readData(in);
+        // nothing is left over for the next field of the enclosing object
+        assertEquals(out.position(), in.position());
+        return deserialized;
+    }
+
     @Test(expected = NullPointerException.class)
     public void testTypeNull() {
         new IndexConfig().setType(null);
@@ -0,0 +1,209 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.hotrestart.impl;
+
+import com.hazelcast.internal.hotrestart.impl.HotRestartStore.ReloadedRecord;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.io.RandomAccessFile;
+import java.util.Map;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class HotRestartStoreTest extends HazelcastTestSupport {
+
+    private static final int CHUNK_SIZE = 4096;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+    private SerializationService serializationService;
+    private HotRestartStore store;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = new File(temporaryFolder.newFolder(), "0");
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        store = new HotRestartStore(directory, CHUNK_SIZE, false);
+    }
+
+    @Test
+    public void testReload_returnsLatestValues() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            store.put(toData(i), toData("v1-" + i), Long.MAX_VALUE);
+        }
+        for (int i = 0; i < 100; i += 2) {
+            store.put(toData(i), toData("v2-" + i), 1234);
+        }
+        store.close();
+
+        Map<Data, ReloadedRecord> records = HotRestartStore.reload(directory);
+
+        assertEquals(100, records.size());
+        for (int i = 0; i < 100; i++) {
+            ReloadedRecord record = records.get(toData(i));
+            String expected = (i % 2 == 0 ? "v2-" : "v1-") + i;
+            assertEquals(expected, serializationService.toObject(record.value));
+            assertEquals(i % 2 == 0 ? 1234 : Long.MAX_VALUE, record.expirationTime);
+        }
+    }
+
+    @Test
+    public void testReload_skipsRemovedKeys() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            store.put(toData(i), toData(i), Long.MAX_VALUE);
+        }
+        store.remove(toData(3));
+        store.remove(toData(7));
+        store.close();
+
+        Map<Data, ReloadedRecord> records = HotRestartStore.reload(directory);
+
+        assertEquals(8, records.size());
+        assertNull(records.get(toData(3)));
+        assertNull(records.get(toData(7)));
+    }
+
+    @Test
+    public void testReload_ignoresTornWriteAtTail() throws Exception {
+        for (int i = 0; i < 10; i++) {
+            store.put(toData(i), toData(i), Long.MAX_VALUE);
+        }
+        store.close();
+
+        File chunk = new File(directory, "0" + HotRestartStore.CHUNK_FILE_SUFFIX);
+        try (RandomAccessFile file = new RandomAccessFile(chunk, "rw")) {
+            file.setLength(file.length() - 3);
+        }
+
+        Map<Data, ReloadedRecord> records = HotRestartStore.reload(directory);
+
+        assertEquals(9, records.size());
+        assertNull(records.get(toData(9)));
+    }
+
+    @Test
+    public void testChunksRollAtChunkSize() {
+        for (int i = 0; i < 1000; i++) {
+            store.put(toData(i), toData(i), Long.MAX_VALUE);
+        }
+
+        assertTrue(store.getChunkCount() > 1);
+    }
+
+    @Test
+    public void testCompaction_removesGarbageChunks() throws Exception {
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 100; i++) {
+                store.put(toData(i), toData(round + "-" + i), Long.MAX_VALUE);
+            }
+        }
+        for (int i = 50; i < 100; i++) {
+            store.remove(toData(i));
+        }
+        int chunkCountBefore = store.getChunkCount();
+
+        int compacted = store.compact(50);
+
+        assertTrue(compacted > 0);
+        assertTrue(store.getChunkCount() < chunkCountBefore);
+        store.close();
+
+        Map<Data, ReloadedRecord> records = HotRestartStore.reload(directory);
+        assertEquals(50, records.size());
+        for (int i = 0; i < 50; i++) {
+            assertEquals("9-" + i, serializationService.toObject(records.get(toData(i)).value));
+        }
+    }
+
+    @Test
+    public void testCompaction_concurrentWrites_keepLatestValues() throws Exception {
+        for (int round = 0; round < 10; round++) {
+            for (int i = 0; i < 100; i++) {
+                store.put(toData(i), toData(round + "-" + i), Long.MAX_VALUE);
+            }
+        }
+        AtomicBoolean done = new AtomicBoolean();
+        Future compaction = spawn(() -> {
+            while (!done.get()) {
+                store.compact(50);
+            }
+        });
+
+        for (int round = 10; round < 50; round++) {
+            for (int i = 0; i < 100; i++) {
+                store.put(toData(i), toData(round + "-" + i), Long.MAX_VALUE);
+            }
+        }
+        done.set(true);
+        compaction.get();
+        store.close();
+
+        Map<Data, ReloadedRecord> records = HotRestartStore.reload(directory);
+        assertEquals(100, records.size());
+        for (int i = 0; i < 100; i++) {
+            assertEquals("49-" + i, serializationService.toObject(records.get(toData(i)).value));
+        }
+    }
+
+    @Test
+    public void testClear() throws Exception {
+        for (int i = 0; i < 100; i++) {
+            store.put(toData(i), toData(i), Long.MAX_VALUE);
+        }
+
+        store.clear();
+        store.put(toData(1), toData(1), Long.MAX_VALUE);
+        store.close();
+
+        assertEquals(1, HotRestartStore.reload(directory).size());
+    }
+
+    @Test
+    public void testDestroy_deletesDirectory() {
+        store.put(toData(1), toData(1), Long.MAX_VALUE);
+
+        store.destroy();
+
+        assertFalse(directory.exists());
+    }
+
+    private Data toData(Object object) {
+        return serializationService.toData(object);
+    }
+}
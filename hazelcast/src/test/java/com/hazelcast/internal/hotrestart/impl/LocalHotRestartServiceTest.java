@@ -0,0 +1,245 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.hotrestart.impl;
+
+import com.hazelcast.cluster.Address;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+
+import static com.hazelcast.test.Accessors.getNode;
+import static java.util.concurrent.TimeUnit.HOURS;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class LocalHotRestartServiceTest extends HazelcastTestSupport {
+
+    private static final String PERSISTENT_MAP = "persistent*";
+    private static final int ENTRY_COUNT = 1000;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File baseDir;
+    private TestHazelcastInstanceFactory factory;
+    private Address address;
+
+    @Before
+    public void setUp() throws Exception {
+        baseDir = temporaryFolder.newFolder();
+        factory = createHazelcastInstanceFactory(2);
+        address = new Address("127.0.0.1", 5701);
+    }
+
+    @Test
+    public void testDataReloadedAfterRestart() {
+        HazelcastInstance instance = startInstance();
+        IMap<Integer, String> map = instance.getMap("persistent-map");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i += 10) {
+            map.remove(i);
+        }
+        map.set(1, "updated");
+        map.put(2, "with-ttl", 1, HOURS);
+        instance.shutdown();
+
+        instance = startInstance();
+        map = instance.getMap("persistent-map");
+
+        assertSizeEventually(ENTRY_COUNT - ENTRY_COUNT / 10, map);
+        assertNull(map.get(0));
+        assertEquals("updated", map.get(1));
+        assertEquals("with-ttl", map.get(2));
+        assertTrue(map.getEntryView(2).getTtl() > 0);
+        assertEquals("value-3", map.get(3));
+    }
+
+    @Test
+    public void testExpiredEntriesNotReloaded() {
+        HazelcastInstance instance = startInstance();
+        IMap<Integer, String> map = instance.getMap("persistent-map");
+        map.put(1, "value");
+        map.put(2, "expiring", 1, SECONDS);
+        instance.shutdown();
+        sleepAtLeastSeconds(2);
+
+        instance = startInstance();
+        awaitReload(instance);
+        map = instance.getMap("persistent-map");
+
+        assertEquals(1, map.size());
+        assertEquals("value", map.get(1));
+    }
+
+    @Test
+    public void testDestroyedMapNotReloaded() {
+        HazelcastInstance instance = startInstance();
+        IMap<Integer, String> map = instance.getMap("persistent-map");
+        map.put(1, "value");
+        map.destroy();
+        instance.getMap("persistent-other").put(1, "value");
+        instance.shutdown();
+
+        instance = startInstance();
+        awaitReload(instance);
+
+        assertEquals(0, instance.getMap("persistent-map").size());
+        assertEquals(1, instance.getMap("persistent-other").size());
+    }
+
+    @Test
+    public void testMapWithoutHotRestartNotReloaded() {
+        HazelcastInstance instance = startInstance();
+        instance.getMap("volatile-map").put(1, "value");
+        instance.shutdown();
+
+        instance = startInstance();
+        awaitReload(instance);
+
+        assertEquals(0, instance.getMap("volatile-map").size());
+    }
+
+    @Test
+    public void testClearedMapNotReloaded() {
+        HazelcastInstance instance = startInstance();
+        IMap<Integer, String> map = instance.getMap("persistent-map");
+        for (int i = 0; i < 100; i++) {
+            map.put(i, "value-" + i);
+        }
+        map.clear();
+        map.put(1, "value");
+        instance.shutdown();
+
+        instance = startInstance();
+        awaitReload(instance);
+
+        assertEquals(1, instance.getMap("persistent-map").size());
+    }
+
+    @Test
+    public void testOnlyPrimaryReplicasPersisted() throws Exception {
+        HazelcastInstance instance1 = startInstance();
+        HazelcastInstance instance2 = factory.newHazelcastInstance(new Address("127.0.0.1", 5702), getConfig());
+        waitAllForSafeState(instance1, instance2);
+        IMap<Integer, String> map = instance1.getMap("persistent-map");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+
+        assertEquals(ENTRY_COUNT, persistedRecordCount(instance1) + persistedRecordCount(instance2));
+    }
+
+    @Test
+    public void testPromotedReplicasPersisted() throws Exception {
+        HazelcastInstance instance1 = startInstance();
+        HazelcastInstance instance2 = factory.newHazelcastInstance(new Address("127.0.0.1", 5702), getConfig());
+        waitAllForSafeState(instance1, instance2);
+        IMap<Integer, String> map = instance1.getMap("persistent-map");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+
+        instance2.getLifecycleService().terminate();
+        waitAllForSafeState(instance1);
+
+        assertTrueEventually(() -> assertEquals(ENTRY_COUNT, persistedRecordCount(instance1)));
+    }
+
+    @Test
+    public void testReloadDoesNotBlockStart() {
+        HazelcastInstance instance = startInstance();
+        IMap<Integer, String> map = instance.getMap("persistent-map");
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, "value-" + i);
+        }
+        instance.shutdown();
+
+        instance = startInstance();
+
+        assertTrue(instance.getLifecycleService().isRunning());
+        awaitReload(instance);
+        assertEquals(ENTRY_COUNT, instance.getMap("persistent-map").size());
+    }
+
+    @Test(expected = IllegalStateException.class)
+    public void testCacheHotRestartRequiresEnterprise() {
+        Config config = getConfig();
+        config.getCacheConfig("cache").getHotRestartConfig().setEnabled(true);
+
+        factory.newHazelcastInstance(address, config);
+    }
+
+    private static void awaitReload(HazelcastInstance instance) {
+        LocalHotRestartService hotRestartService = getHotRestartService(instance);
+        assertTrueEventually(() -> assertFalse(hotRestartService.isReloading()));
+    }
+
+    private static long persistedRecordCount(HazelcastInstance instance) throws Exception {
+        File mapDir = new File(new File(getHotRestartService(instance).getMemberDir(),
+                LocalHotRestartService.MAPS_DIR_NAME), "persistent-map");
+        long count = 0;
+        File[] partitionDirs = mapDir.listFiles(File::isDirectory);
+        if (partitionDirs != null) {
+            for (File partitionDir : partitionDirs) {
+                count += HotRestartStore.reload(partitionDir).size();
+            }
+        }
+        return count;
+    }
+
+    private static LocalHotRestartService getHotRestartService(HazelcastInstance instance) {
+        return (LocalHotRestartService) getNode(instance).getNodeExtension().getInternalHotRestartService();
+    }
+
+    private HazelcastInstance startInstance() {
+        // the same address makes the member find its data directory again
+        return factory.newHazelcastInstance(address, getConfig());
+    }
+
+    @Override
+    protected Config getConfig() {
+        Config config = smallInstanceConfig();
+        config.getHotRestartPersistenceConfig()
+                .setEnabled(true)
+                .setBaseDir(baseDir);
+        MapConfig mapConfig = new MapConfig(PERSISTENT_MAP);
+        mapConfig.getHotRestartConfig().setEnabled(true);
+        config.addMapConfig(mapConfig);
+        return config;
+    }
+}
@@ -120,6 +120,11 @@ public class AbstractChannelTest {
             return false;
         }
 
+        @Override
+        public boolean isWritable() {
+            return true;
+        }
+
         @Override
         public long bytesRead() {
             return 0;
@@ -0,0 +1,91 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.server.tcp.PacketEncoder;
+import com.hazelcast.internal.server.tcp.TcpServer;
+import com.hazelcast.map.IMap;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+
+import static com.hazelcast.test.Accessors.getNode;
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class NioGatheringWriteIntegrationTest extends HazelcastTestSupport {
+
+    @After
+    public void cleanUp() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testValuesTransferred() {
+        HazelcastInstance instance1 = Hazelcast.newHazelcastInstance(getConfig());
+        HazelcastInstance instance2 = Hazelcast.newHazelcastInstance(getConfig());
+        assertClusterSizeEventually(2, instance1, instance2);
+
+        // copied, gathered, and larger than the send buffer
+        int[] sizes = {10, 5000, 300000};
+        Random random = new Random();
+        byte[][] values = new byte[1000][];
+        IMap<Integer, byte[]> map1 = instance1.getMap("map");
+        for (int i = 0; i < values.length; i++) {
+            values[i] = new byte[sizes[random.nextInt(sizes.length)]];
+            random.nextBytes(values[i]);
+            map1.set(i, values[i]);
+        }
+
+        IMap<Integer, byte[]> map2 = instance2.getMap("map");
+        for (int i = 0; i < values.length; i++) {
+            assertArrayEquals(values[i], map2.get(i));
+        }
+        assertTrue(gatheringWriteCalls(instance1) + gatheringWriteCalls(instance2) > 0);
+    }
+
+    private static long gatheringWriteCalls(HazelcastInstance instance) {
+        TcpServer server = (TcpServer) getNode(instance).getServer();
+        long calls = 0;
+        for (NioChannel channel : ((NioNetworking) server.getNetworking()).getChannels()) {
+            calls += channel.outboundPipeline().gatheringWriteCalls();
+        }
+        return calls;
+    }
+
+    @Override
+    protected Config getConfig() {
+        Config config = new Config();
+        config.setProperty(PacketEncoder.GATHERING_WRITE_THRESHOLD.getName(), "1024");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getTcpIpConfig().addMember("127.0.0.1").setEnabled(true);
+        join.getMulticastConfig().setEnabled(false);
+        return config;
+    }
+}
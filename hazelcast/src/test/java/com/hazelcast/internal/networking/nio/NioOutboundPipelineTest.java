@@ -0,0 +1,163 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.internal.networking.ChannelErrorHandler;
+import com.hazelcast.internal.networking.ChannelInitializer;
+import com.hazelcast.internal.networking.OutboundFrame;
+import com.hazelcast.internal.networking.nio.iobalancer.IOBalancer;
+import com.hazelcast.internal.nio.Packet;
+import com.hazelcast.internal.util.ConcurrencyDetection;
+import com.hazelcast.logging.Logger;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.IOException;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.Executor;
+
+import static com.hazelcast.internal.networking.nio.NioOutboundPipeline.WRITE_QUANTUM_BYTES;
+import static com.hazelcast.internal.nio.IOUtil.closeResource;
+import static com.hazelcast.internal.nio.Packet.FLAG_URGENT;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class NioOutboundPipelineTest {
+
+    private SocketChannel socketChannel;
+
+    @Before
+    public void setup() throws IOException {
+        socketChannel = SocketChannel.open();
+    }
+
+    @After
+    public void tearDown() {
+        closeResource(socketChannel);
+    }
+
+    @Test
+    public void testBulkFramesAreUrgent_whenTrafficClassesDisabled() {
+        NioOutboundPipeline pipeline = newPipeline(0, 0);
+        Packet normal = packet(10, false, false);
+        Packet bulk = packet(10, true, true);
+
+        pipeline.write(normal);
+        pipeline.write(bulk);
+
+        assertEquals(0, pipeline.bulkWriteQueue.size());
+        assertSame(bulk, pipeline.get());
+        assertSame(normal, pipeline.get());
+        assertNull(pipeline.get());
+    }
+
+    @Test
+    public void testUrgentFramesFirst() {
+        NioOutboundPipeline pipeline = newPipeline(4, 1);
+        Packet normal = packet(10, false, false);
+        Packet bulk = packet(10, true, true);
+        Packet urgent = packet(10, true, false);
+
+        pipeline.write(normal);
+        pipeline.write(bulk);
+        pipeline.write(urgent);
+
+        assertEquals(1, pipeline.bulkWriteQueue.size());
+        assertEquals(3, pipeline.totalFramesPending());
+        assertSame(urgent, pipeline.get());
+        assertSame(normal, pipeline.get());
+        assertSame(bulk, pipeline.get());
+        assertNull(pipeline.get());
+    }
+
+    @Test
+    public void testBandwidthSharedByWeight() {
+        NioOutboundPipeline pipeline = newPipeline(4, 1);
+        int frameLength = new Packet(new byte[1000]).getFrameLength();
+        for (int i = 0; i < 4000; i++) {
+            pipeline.write(packet(1000, false, false));
+        }
+        for (int i = 0; i < 20; i++) {
+            pipeline.write(packet(WRITE_QUANTUM_BYTES * 2, true, true));
+        }
+
+        // while both classes are backlogged, they share the bytes written 4:1
+        long bytes = 0;
+        long bulkBytes = 0;
+        while (!pipeline.bulkWriteQueue.isEmpty()) {
+            OutboundFrame frame = pipeline.get();
+            if (frame.isBulk()) {
+                bulkBytes += frame.getFrameLength();
+            } else {
+                bytes += frame.getFrameLength();
+            }
+        }
+        assertFalse(pipeline.writeQueue.isEmpty());
+        double ratio = (double) bytes / bulkBytes;
+        assertTrue("ratio: " + ratio, Math.abs(ratio - 4) < 0.1);
+
+        // the remainder is written without waiting for the bulk class
+        int remaining = pipeline.writeQueue.size();
+        for (int i = 0; i < remaining; i++) {
+            assertEquals(frameLength, pipeline.get().getFrameLength());
+        }
+        assertNull(pipeline.get());
+    }
+
+    @Test
+    public void testBulkFramesWritten_whenNoOtherFrames() {
+        NioOutboundPipeline pipeline = newPipeline(4, 1);
+        Packet bulk1 = packet(WRITE_QUANTUM_BYTES * 10, true, true);
+        Packet bulk2 = packet(WRITE_QUANTUM_BYTES * 10, true, true);
+
+        pipeline.write(bulk1);
+        pipeline.write(bulk2);
+
+        assertSame(bulk1, pipeline.get());
+        assertSame(bulk2, pipeline.get());
+        assertNull(pipeline.get());
+    }
+
+    private static Packet packet(int payloadLength, boolean urgent, boolean bulk) {
+        Packet packet = new Packet(new byte[payloadLength]).setBulk(bulk);
+        if (urgent) {
+            packet.raiseFlags(FLAG_URGENT);
+        }
+        return packet;
+    }
+
+    private NioOutboundPipeline newPipeline(int interactiveWeight, int bulkWeight) {
+        NioChannel channel = new NioChannel(socketChannel, false, mock(ChannelInitializer.class), mock(Executor.class));
+        // the pipeline starts out scheduled, so writes are only queued
+        return new NioOutboundPipeline(channel, mock(NioThread.class), mock(ChannelErrorHandler.class),
+                Logger.getLogger(NioOutboundPipelineTest.class), mock(IOBalancer.class), mock(ConcurrencyDetection.class),
+                false, false, 16, Long.MAX_VALUE, interactiveWeight, bulkWeight);
+    }
+}
@@ -0,0 +1,85 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.server.tcp.PacketEncoder;
+import com.hazelcast.map.IMap;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class NioResponseBatchingIntegrationTest extends HazelcastTestSupport {
+
+    @After
+    public void cleanUp() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testResponsesDelivered() throws Exception {
+        HazelcastInstance instance1 = Hazelcast.newHazelcastInstance(getConfig());
+        HazelcastInstance instance2 = Hazelcast.newHazelcastInstance(getConfig());
+        assertClusterSizeEventually(2, instance1, instance2);
+
+        // plenty of concurrent invocations, so the responses pile up
+        // in the write queues and get batched
+        int count = 10000;
+        IMap<Integer, Integer> map = instance1.getMap("map");
+        List<CompletableFuture<Void>> sets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            sets.add(map.setAsync(i, i).toCompletableFuture());
+        }
+        for (CompletableFuture<Void> set : sets) {
+            set.get();
+        }
+
+        List<CompletableFuture<Integer>> gets = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            gets.add(map.getAsync(i).toCompletableFuture());
+        }
+        for (int i = 0; i < count; i++) {
+            assertEquals(Integer.valueOf(i), gets.get(i).get());
+        }
+        assertEquals(count, instance2.getMap("map").size());
+    }
+
+    @Override
+    protected Config getConfig() {
+        Config config = new Config();
+        config.setProperty(PacketEncoder.RESPONSE_BATCHING_ENABLED.getName(), "true");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getTcpIpConfig().addMember("127.0.0.1").setEnabled(true);
+        join.getMulticastConfig().setEnabled(false);
+        return config;
+    }
+}
@@ -0,0 +1,88 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.JoinConfig;
+import com.hazelcast.core.Hazelcast;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.instance.EndpointQualifier.MEMBER;
+import static com.hazelcast.test.Accessors.getNode;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class NioTrafficClassesIntegrationTest extends HazelcastTestSupport {
+
+    @After
+    public void cleanUp() {
+        Hazelcast.shutdownAll();
+    }
+
+    @Test
+    public void testMigration_withDedicatedBulkConnection() {
+        HazelcastInstance instance1 = Hazelcast.newHazelcastInstance(getConfig());
+        HazelcastInstance instance2 = Hazelcast.newHazelcastInstance(getConfig());
+        assertClusterSizeEventually(2, instance1, instance2);
+
+        int count = 5000;
+        IMap<Integer, byte[]> map = instance1.getMap("map");
+        for (int i = 0; i < count; i++) {
+            map.set(i, new byte[1000]);
+        }
+
+        // the partition data is sent over the bulk connections while the map keeps being used
+        HazelcastInstance instance3 = Hazelcast.newHazelcastInstance(getConfig());
+        assertClusterSizeEventually(3, instance1, instance2, instance3);
+        for (int i = 0; i < count; i++) {
+            map.set(i, new byte[i % 10]);
+        }
+        waitAllForSafeState(instance1, instance2, instance3);
+
+        IMap<Integer, byte[]> map3 = instance3.getMap("map");
+        assertEquals(count, map3.size());
+        for (int i = 0; i < count; i++) {
+            assertEquals(i % 10, map3.get(i).length);
+        }
+        // a regular and a bulk connection to at least one of the other members
+        assertTrueEventually(() -> assertTrue(
+                getNode(instance3).getServer().getConnectionManager(MEMBER).getConnections().size() > 2));
+    }
+
+    @Override
+    protected Config getConfig() {
+        Config config = new Config();
+        config.setProperty(ClusterProperty.IO_TRAFFIC_CLASSES_ENABLED.getName(), "true");
+        config.setProperty(ClusterProperty.IO_BULK_CONNECTION_ENABLED.getName(), "true");
+        JoinConfig join = config.getNetworkConfig().getJoin();
+        join.getTcpIpConfig().addMember("127.0.0.1").setEnabled(true);
+        join.getMulticastConfig().setEnabled(false);
+        return config;
+    }
+}
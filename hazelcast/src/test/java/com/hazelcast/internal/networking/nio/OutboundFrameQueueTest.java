@@ -0,0 +1,133 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio;
+
+import com.hazelcast.internal.networking.OutboundFrame;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class OutboundFrameQueueTest extends HazelcastTestSupport {
+
+    private final OutboundFrameQueue queue = new OutboundFrameQueue(4);
+
+    @Test
+    public void testOrder_whenOverflowing() {
+        List<OutboundFrame> frames = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            Frame frame = new Frame(0, i);
+            frames.add(frame);
+            queue.offer(frame);
+            if (i == 5) {
+                // makes room in the array while the overflow queue isn't empty
+                assertSame(frames.remove(0), queue.poll());
+            }
+        }
+
+        assertEquals(frames.size(), queue.size());
+        assertEquals(frames, new ArrayList<>(queue));
+        for (OutboundFrame frame : frames) {
+            assertSame(frame, queue.poll());
+        }
+        assertNull(queue.poll());
+        assertTrue(queue.isEmpty());
+    }
+
+    @Test
+    public void testBytesPending() {
+        queue.offer(new Frame(10, 0));
+        queue.offer(new Frame(20, 1));
+        queue.offer(new Frame(30, 2));
+        queue.offer(new Frame(40, 3));
+        queue.offer(new Frame(50, 4));
+        assertEquals(150, queue.bytesPending());
+
+        queue.poll();
+        queue.poll();
+        assertEquals(120, queue.bytesPending());
+
+        queue.clear();
+        assertEquals(0, queue.bytesPending());
+    }
+
+    @Test
+    public void testOrderPerProducer_whenConcurrentProducers() throws Exception {
+        int producerCount = 4;
+        int framesPerProducer = 100000;
+        Thread[] producers = new Thread[producerCount];
+        for (int p = 0; p < producerCount; p++) {
+            int producer = p;
+            producers[p] = new Thread(() -> {
+                for (int i = 0; i < framesPerProducer; i++) {
+                    queue.offer(new Frame(producer, i));
+                }
+            });
+            producers[p].start();
+        }
+
+        int[] expected = new int[producerCount];
+        int polled = 0;
+        while (polled < producerCount * framesPerProducer) {
+            Frame frame = (Frame) queue.poll();
+            if (frame == null) {
+                continue;
+            }
+            assertEquals(expected[frame.length]++, frame.sequence);
+            polled++;
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+        assertTrue(queue.isEmpty());
+        assertEquals(0, queue.bytesPending());
+    }
+
+    private static final class Frame implements OutboundFrame {
+
+        private final int length;
+        private final int sequence;
+
+        private Frame(int length, int sequence) {
+            this.length = length;
+            this.sequence = sequence;
+        }
+
+        @Override
+        public boolean isUrgent() {
+            return false;
+        }
+
+        @Override
+        public int getFrameLength() {
+            return length;
+        }
+    }
+}
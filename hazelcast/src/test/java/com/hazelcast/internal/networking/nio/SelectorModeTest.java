@@ -57,6 +57,11 @@ public class SelectorModeTest {
         assertEquals(SelectorMode.SELECT_NOW, SelectorMode.fromString("selectnow,1,2,3,4"));
     }
 
+    @Test
+    public void fromString_whenSelectBusyPoll() throws Exception {
+        assertEquals(SelectorMode.SELECT_BUSY_POLL, SelectorMode.fromString("selectbusypoll"));
+    }
+
     @Test
     public void fromString_whenSelect() throws Exception {
         assertEquals(SelectorMode.SELECT, SelectorMode.fromString("select"));
@@ -0,0 +1,183 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.internal.networking.nio.iobalancer;
+
+import com.hazelcast.internal.networking.nio.MigratablePipeline;
+import com.hazelcast.internal.networking.nio.NioThread;
+import com.hazelcast.internal.util.ItemCounter;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Set;
+
+import static com.hazelcast.internal.networking.nio.iobalancer.AdaptiveMigrationStrategy.CONFIRMATION_ROUNDS;
+import static com.hazelcast.internal.networking.nio.iobalancer.AdaptiveMigrationStrategy.MIN_PROCESS_TIME_NANOS;
+import static com.hazelcast.internal.networking.nio.iobalancer.AdaptiveMigrationStrategy.PIPELINE_COOLDOWN_ROUNDS;
+import static com.hazelcast.test.TestCollectionUtils.setOf;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class AdaptiveMigrationStrategyTest {
+
+    private Map<NioThread, Set<MigratablePipeline>> ownerToPipelines;
+    private ItemCounter<MigratablePipeline> loadCounter;
+    private LoadImbalance imbalance;
+
+    private AdaptiveMigrationStrategy strategy;
+
+    @Before
+    public void setUp() {
+        ownerToPipelines = new HashMap<>();
+        loadCounter = new ItemCounter<>();
+        imbalance = new LoadImbalance(ownerToPipelines, loadCounter);
+        imbalance.processTime = MIN_PROCESS_TIME_NANOS;
+        strategy = new AdaptiveMigrationStrategy();
+    }
+
+    @Test
+    public void testImbalanceDetected_whenImbalancePersists() {
+        setLoads(1000, 500);
+
+        for (int i = 1; i < CONFIRMATION_ROUNDS; i++) {
+            assertFalse(strategy.imbalanceDetected(imbalance));
+        }
+        assertTrue(strategy.imbalanceDetected(imbalance));
+    }
+
+    @Test
+    public void testImbalanceDetected_whenImbalanceNotConfirmed() {
+        for (int i = 0; i < 10; i++) {
+            setLoads(1000, i % 2 == 0 ? 500 : 900);
+            assertFalse(strategy.imbalanceDetected(imbalance));
+        }
+    }
+
+    @Test
+    public void testImbalanceDetected_hysteresis() {
+        detectImbalance();
+
+        // between the ratios the imbalance still holds
+        setLoads(1000, 800);
+        strategy.imbalanceDetected(imbalance);
+        assertTrue(strategy.imbalanceDetected(imbalance));
+
+        // above the exit ratio it's gone, and needs to be confirmed again
+        setLoads(1000, 900);
+        assertFalse(strategy.imbalanceDetected(imbalance));
+        setLoads(1000, 800);
+        assertFalse(strategy.imbalanceDetected(imbalance));
+        assertFalse(strategy.imbalanceDetected(imbalance));
+    }
+
+    @Test
+    public void testImbalanceDetected_whenIdle() {
+        setLoads(1000, 0);
+        imbalance.processTime = MIN_PROCESS_TIME_NANOS - 1;
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(strategy.imbalanceDetected(imbalance));
+        }
+    }
+
+    @Test
+    public void testImbalanceDetected_whenNoSource() {
+        setLoads(Long.MIN_VALUE, 0);
+
+        for (int i = 0; i < 10; i++) {
+            assertFalse(strategy.imbalanceDetected(imbalance));
+        }
+    }
+
+    @Test
+    public void testImbalanceDetected_migrationRateLimited() {
+        MigratablePipeline pipeline = mock(MigratablePipeline.class);
+        setSourcePipelines(1000, 400, pipeline, 200L);
+
+        detectImbalance();
+        assertEquals(pipeline, strategy.findPipelineToMigrate(imbalance));
+        assertFalse(strategy.imbalanceDetected(imbalance));
+        assertTrue(strategy.imbalanceDetected(imbalance));
+    }
+
+    @Test
+    public void testFindPipelineToMigrate_closestToHalfOfGap() {
+        MigratablePipeline small = mock(MigratablePipeline.class);
+        MigratablePipeline medium = mock(MigratablePipeline.class);
+        MigratablePipeline large = mock(MigratablePipeline.class);
+        NioThread srcOwner = mock(NioThread.class);
+        imbalance.srcOwner = srcOwner;
+        imbalance.dstOwner = mock(NioThread.class);
+        ownerToPipelines.put(srcOwner, setOf(small, medium, large));
+        loadCounter.set(small, 50L);
+        loadCounter.set(medium, 350L);
+        // migrating it would just swap the busiest and the least busy threads
+        loadCounter.set(large, 600L);
+        setLoads(1000, 400);
+
+        assertEquals(medium, strategy.findPipelineToMigrate(imbalance));
+    }
+
+    @Test
+    public void testFindPipelineToMigrate_migratedPipelineCoolsDown() {
+        MigratablePipeline pipeline = mock(MigratablePipeline.class);
+        setSourcePipelines(1000, 400, pipeline, 200L);
+
+        detectImbalance();
+        assertEquals(pipeline, strategy.findPipelineToMigrate(imbalance));
+
+        for (int i = 1; i < PIPELINE_COOLDOWN_ROUNDS; i++) {
+            strategy.imbalanceDetected(imbalance);
+            assertNull(strategy.findPipelineToMigrate(imbalance));
+        }
+        strategy.imbalanceDetected(imbalance);
+        assertEquals(pipeline, strategy.findPipelineToMigrate(imbalance));
+    }
+
+    private void detectImbalance() {
+        setLoads(1000, 500);
+        for (int i = 1; i < CONFIRMATION_ROUNDS; i++) {
+            strategy.imbalanceDetected(imbalance);
+        }
+        assertTrue(strategy.imbalanceDetected(imbalance));
+    }
+
+    private void setSourcePipelines(long max, long min, MigratablePipeline pipeline, long load) {
+        NioThread srcOwner = mock(NioThread.class);
+        imbalance.srcOwner = srcOwner;
+        imbalance.dstOwner = mock(NioThread.class);
+        ownerToPipelines.put(srcOwner, setOf(pipeline, mock(MigratablePipeline.class)));
+        loadCounter.set(pipeline, load);
+        setLoads(max, min);
+    }
+
+    private void setLoads(long max, long min) {
+        imbalance.maximumLoad = max;
+        imbalance.minimumLoad = min;
+    }
+}
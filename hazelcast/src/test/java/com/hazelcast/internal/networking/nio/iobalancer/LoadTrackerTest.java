@@ -89,6 +89,44 @@ public class LoadTrackerTest {
         assertEquals(owner2, loadImbalance.srcOwner);
     }
 
+    @Test
+    public void testUpdateImbalance_adaptive() {
+        loadTracker = new LoadTracker(owner3, mock(ILogger.class), true);
+
+        // few large packets, cheap to process
+        MigratablePipeline owner1Pipeline1 = mock(MigratablePipeline.class);
+        when(owner1Pipeline1.bytesTransceived()).thenReturn(0L).thenReturn(6000L);
+        when(owner1Pipeline1.processTime()).thenReturn(0L).thenReturn(0L);
+        when(owner1Pipeline1.owner()).thenReturn(owner1);
+        loadTracker.addPipeline(owner1Pipeline1);
+
+        // plenty of tiny packets
+        MigratablePipeline owner2Pipeline1 = mock(MigratablePipeline.class);
+        when(owner2Pipeline1.bytesTransceived()).thenReturn(0L).thenReturn(1000L);
+        when(owner2Pipeline1.processTime()).thenReturn(0L).thenReturn(3000L);
+        when(owner2Pipeline1.owner()).thenReturn(owner2);
+        loadTracker.addPipeline(owner2Pipeline1);
+
+        MigratablePipeline owner2Pipeline2 = mock(MigratablePipeline.class);
+        when(owner2Pipeline2.bytesTransceived()).thenReturn(0L).thenReturn(1000L);
+        when(owner2Pipeline2.processTime()).thenReturn(0L).thenReturn(1000L);
+        when(owner2Pipeline2.owner()).thenReturn(owner2);
+        loadTracker.addPipeline(owner2Pipeline2);
+
+        LoadImbalance loadImbalance = loadTracker.updateImbalance();
+        assertEquals(0, loadImbalance.minimumLoad);
+        assertEquals(0, loadImbalance.processTime);
+
+        loadTracker.updateImbalance();
+        long scale = LoadTracker.LOAD_SCALE;
+        assertEquals(4000, loadImbalance.processTime);
+        assertEquals(scale * 3 / 4, loadImbalance.minimumLoad);
+        assertEquals(scale / 4 + scale, loadImbalance.maximumLoad);
+        assertEquals(scale / 8 + scale * 3 / 4, loadImbalance.getLoad(owner2Pipeline1));
+        assertEquals(owner1, loadImbalance.dstOwner);
+        assertEquals(owner2, loadImbalance.srcOwner);
+    }
+
     // there is no point in selecting a selector with a single handler as source.
     @Test
     public void testUpdateImbalance_notUsingSinglePipelineOwnerAsSource() throws Exception {
@@ -30,14 +30,26 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.io.ByteArrayOutputStream;
 import java.nio.ByteBuffer;
+import java.util.ArrayList;
+import java.util.List;
 import java.util.Queue;
+import java.util.Random;
 import java.util.concurrent.LinkedBlockingQueue;
 import java.util.function.Supplier;
 
 import static com.hazelcast.internal.networking.HandlerStatus.CLEAN;
 import static com.hazelcast.internal.networking.HandlerStatus.DIRTY;
+import static com.hazelcast.internal.nio.Packet.FLAG_OP_RESPONSE;
+import static com.hazelcast.internal.nio.Packet.FLAG_OP_RESPONSE_BATCH;
+import static com.hazelcast.internal.nio.Packet.FLAG_URGENT;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertArrayEquals;
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
 
 @RunWith(HazelcastParallelClassRunner.class)
 @Category({QuickTest.class, ParallelJVMTest.class})
@@ -90,6 +102,255 @@ public class PacketEncoderTest extends HazelcastTestSupport {
         assertEquals(DIRTY, result);
     }
 
+    @Test
+    public void whenGathering_thenLargePayloadsNotCopied() {
+        Packet small = new Packet(serializationService.toBytes("foobar"));
+        Packet large = new Packet(serializationService.toBytes(new byte[500]));
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+
+        PacketSupplier src = new PacketSupplier();
+        src.queue.add(small);
+        src.queue.add(large);
+        src.queue.add(small);
+
+        encoder = new PacketEncoder(100);
+        encoder.setGatheringAllowed(true);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        assertEquals(CLEAN, encoder.onWrite());
+        assertEquals(0, dst.remaining());
+        // small + header, large payload, small
+        assertEquals(3, encoder.gatheredCount());
+        assertSame(large.toByteArray(), encoder.gathered()[1].array());
+
+        // the encoder waits for the gathered buffers to be written
+        src.queue.add(small);
+        assertEquals(DIRTY, encoder.onWrite());
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        drain(encoder, dst, out, Integer.MAX_VALUE);
+        assertEquals(CLEAN, encoder.onWrite());
+        drain(encoder, dst, out, Integer.MAX_VALUE);
+
+        assertEquals(asList(small, large, small, small), decode(out.toByteArray()));
+    }
+
+    @Test
+    public void whenGathering_thenPartialWritesPreserveStream() {
+        Random random = new Random();
+        List<Packet> packets = new ArrayList<>();
+        PacketSupplier src = new PacketSupplier();
+        for (int i = 0; i < 500; i++) {
+            // copied, gathered, and larger than the buffer
+            int[] sizes = {10, 300, 3000};
+            Packet packet = new Packet(serializationService.toBytes(new byte[sizes[random.nextInt(sizes.length)]]));
+            packets.add(packet);
+            src.queue.add(packet);
+        }
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+
+        encoder = new PacketEncoder(100);
+        encoder.setGatheringAllowed(true);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HandlerStatus status;
+        do {
+            status = encoder.onWrite();
+            drain(encoder, dst, out, 1 + random.nextInt(700));
+        } while (status != CLEAN || dst.hasRemaining() || gatheredRemaining(encoder));
+
+        assertEquals(packets, decode(out.toByteArray()));
+    }
+
+    @Test
+    public void whenGatheringNotAllowed_thenNothingGathered() {
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+        PacketSupplier src = new PacketSupplier();
+        src.queue.add(new Packet(serializationService.toBytes(new byte[500])));
+
+        encoder = new PacketEncoder(100);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        assertEquals(CLEAN, encoder.onWrite());
+        assertEquals(0, encoder.gatheredCount());
+        assertTrue(dst.remaining() > 500);
+    }
+
+    @Test
+    public void whenResponsesQueued_thenBatched() {
+        Packet response1 = response("foo");
+        Packet response2 = response("bar");
+        Packet response3 = response("baz");
+        Packet operation = new Packet(serializationService.toBytes("op")).setPacketType(Packet.Type.OPERATION);
+        Packet response4 = response("qux");
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+        PacketSupplier src = new PacketSupplier();
+        src.queue.addAll(asList(response1, response2, response3, operation, response4));
+
+        encoder = new PacketEncoder(-1, () -> true);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        assertEquals(CLEAN, encoder.onWrite());
+        List<Packet> packets = decode(toBytes(dst));
+        assertEquals(3, packets.size());
+        Packet batch = packets.get(0);
+        assertTrue(batch.isFlagRaised(FLAG_OP_RESPONSE | FLAG_OP_RESPONSE_BATCH));
+        assertEquals(Packet.Type.OPERATION, batch.getPacketType());
+        assertArrayEquals(batchPayload(response1, response2, response3), batch.toByteArray());
+        assertEquals(operation, packets.get(1));
+        // a lone response isn't batched
+        assertEquals(response4, packets.get(2));
+        assertFalse(packets.get(2).isFlagRaised(FLAG_OP_RESPONSE_BATCH));
+    }
+
+    @Test
+    public void whenUrgentResponse_thenNotBatched() {
+        Packet response = response("foo");
+        Packet urgent = response("bar").raiseFlags(FLAG_URGENT);
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+        PacketSupplier src = new PacketSupplier();
+        src.queue.addAll(asList(response, urgent));
+
+        encoder = new PacketEncoder(-1, () -> true);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        assertEquals(CLEAN, encoder.onWrite());
+        assertEquals(asList(response, urgent), decode(toBytes(dst)));
+    }
+
+    @Test
+    public void whenBatchingNotAllowed_thenResponsesWrittenOneByOne() {
+        List<Packet> responses = asList(response("foo"), response("bar"), response("baz"));
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+        PacketSupplier src = new PacketSupplier();
+        src.queue.addAll(responses);
+
+        encoder = new PacketEncoder(-1, () -> false);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        assertEquals(CLEAN, encoder.onWrite());
+        assertEquals(responses, decode(toBytes(dst)));
+    }
+
+    @Test
+    public void whenBatching_thenPartialWritesPreserveResponses() {
+        Random random = new Random();
+        List<Packet> packets = new ArrayList<>();
+        PacketSupplier src = new PacketSupplier();
+        for (int i = 0; i < 500; i++) {
+            Packet packet = random.nextInt(4) == 0
+                    ? new Packet(serializationService.toBytes(new byte[random.nextInt(2000)]))
+                    : response(new byte[random.nextInt(300)]);
+            packets.add(packet);
+            src.queue.add(packet);
+        }
+        ByteBuffer dst = ByteBuffer.allocate(1000);
+        dst.flip();
+
+        encoder = new PacketEncoder(-1, () -> true);
+        encoder.dst(dst);
+        encoder.src(src);
+
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        HandlerStatus status;
+        do {
+            status = encoder.onWrite();
+            write(dst, out, 1 + random.nextInt(700));
+        } while (status != CLEAN || dst.hasRemaining());
+
+        List<Packet> unbatched = new ArrayList<>();
+        for (Packet packet : decode(out.toByteArray())) {
+            if (packet.isFlagRaised(FLAG_OP_RESPONSE_BATCH)) {
+                ByteBuffer payload = ByteBuffer.wrap(packet.toByteArray());
+                while (payload.hasRemaining()) {
+                    byte[] bytes = new byte[payload.getInt()];
+                    payload.get(bytes);
+                    unbatched.add(new Packet(bytes, -1).setPacketType(Packet.Type.OPERATION).raiseFlags(FLAG_OP_RESPONSE));
+                }
+            } else {
+                unbatched.add(packet);
+            }
+        }
+        assertEquals(packets, unbatched);
+    }
+
+    private Packet response(Object value) {
+        return new Packet(serializationService.toBytes(value), -1)
+                .setPacketType(Packet.Type.OPERATION)
+                .raiseFlags(FLAG_OP_RESPONSE);
+    }
+
+    private static byte[] batchPayload(Packet... responses) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        for (Packet response : responses) {
+            ByteBuffer length = ByteBuffer.allocate(4).putInt(response.totalSize());
+            out.write(length.array(), 0, 4);
+            out.write(response.toByteArray(), 0, response.totalSize());
+        }
+        return out.toByteArray();
+    }
+
+    private static byte[] toBytes(ByteBuffer src) {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+        write(src, out, Integer.MAX_VALUE);
+        return out.toByteArray();
+    }
+
+    /**
+     * Writes at most maxBytes the way the pipeline does: the gathered
+     * buffers if any, the dst otherwise.
+     */
+    private static void drain(PacketEncoder encoder, ByteBuffer dst, ByteArrayOutputStream out, int maxBytes) {
+        int count = encoder.gatheredCount();
+        if (count == 0) {
+            write(dst, out, maxBytes);
+            return;
+        }
+        for (int i = 0; i < count && maxBytes > 0; i++) {
+            maxBytes -= write(encoder.gathered()[i], out, maxBytes);
+        }
+    }
+
+    private static int write(ByteBuffer src, ByteArrayOutputStream out, int maxBytes) {
+        int length = Math.min(src.remaining(), maxBytes);
+        for (int i = 0; i < length; i++) {
+            out.write(src.get());
+        }
+        return length;
+    }
+
+    private static boolean gatheredRemaining(PacketEncoder encoder) {
+        for (int i = 0; i < encoder.gatheredCount(); i++) {
+            if (encoder.gathered()[i].hasRemaining()) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static List<Packet> decode(byte[] bytes) {
+        ByteBuffer src = ByteBuffer.wrap(bytes);
+        PacketIOHelper reader = new PacketIOHelper();
+        List<Packet> packets = new ArrayList<>();
+        while (src.hasRemaining()) {
+            packets.add(reader.readFrom(src));
+        }
+        return packets;
+    }
+
     static class PacketSupplier implements Supplier<Packet> {
         Queue<Packet> queue = new LinkedBlockingQueue<Packet>();
 
@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.internal.util.collection;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class StripedLong2ObjectHashMapTest {
+
+    private final StripedLong2ObjectHashMap<String> map = new StripedLong2ObjectHashMap<>(4, 8);
+
+    @Test
+    public void testPutGetRemove() {
+        assertNull(map.put(7, "seven"));
+        assertEquals("seven", map.put(7, "SEVEN"));
+        assertEquals("SEVEN", map.get(7));
+        assertEquals(1, map.size());
+
+        assertEquals("SEVEN", map.remove(7));
+        assertNull(map.get(7));
+        assertNull(map.remove(7));
+        assertTrue(map.isEmpty());
+    }
+
+    @Test(expected = NullPointerException.class)
+    public void testPut_whenNullValue() {
+        map.put(1, null);
+    }
+
+    @Test
+    public void testIterator() {
+        Set<String> expected = new HashSet<>();
+        for (long key = 0; key < 100; key++) {
+            map.put(key, "value" + key);
+            expected.add("value" + key);
+        }
+        map.remove(50);
+        expected.remove("value50");
+
+        Set<String> actual = new HashSet<>();
+        for (String value : map) {
+            actual.add(value);
+        }
+        assertEquals(expected, actual);
+        assertEquals(99, map.size());
+        assertFalse(map.isEmpty());
+    }
+
+    @Test
+    public void testIterator_whenEmpty() {
+        assertFalse(map.iterator().hasNext());
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.SortedIndexStructure;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MapIndexOrderedIteratorTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private HazelcastInstance instance;
+    private String mapName;
+
+    @Before
+    public void init() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        instance = factory.newHazelcastInstance(smallInstanceConfig());
+        factory.newHazelcastInstance(smallInstanceConfig());
+        factory.newHazelcastInstance(smallInstanceConfig());
+        mapName = randomMapName();
+    }
+
+    @Test
+    public void testOrderedIterator_skipList() {
+        verifyOrder(new IndexConfig(IndexType.SORTED, "rank"), 7);
+    }
+
+    @Test
+    public void testOrderedIterator_btree() {
+        verifyOrder(new IndexConfig(IndexType.SORTED, "rank").setSortedIndexStructure(SortedIndexStructure.B_TREE), 7);
+    }
+
+    @Test
+    public void testOrderedIterator_fetchSizeOne() {
+        verifyOrder(new IndexConfig(IndexType.SORTED, "rank"), 1);
+    }
+
+    @Test
+    public void testOrderedIterator_emptyMap() {
+        IMap<Integer, Item> map = instance.getMap(mapName);
+        map.addIndex(new IndexConfig(IndexType.SORTED, "rank"));
+
+        Iterator<Map.Entry<Integer, Item>> iterator = ((MapProxyImpl<Integer, Item>) map).orderedIterator(10, "rank");
+
+        assertFalse(iterator.hasNext());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testOrderedIterator_nextAfterEnd() {
+        IMap<Integer, Item> map = instance.getMap(mapName);
+        map.addIndex(new IndexConfig(IndexType.SORTED, "rank"));
+        map.put(1, new Item(1));
+
+        Iterator<Map.Entry<Integer, Item>> iterator = ((MapProxyImpl<Integer, Item>) map).orderedIterator(10, "rank");
+        iterator.next();
+        iterator.next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testOrderedIterator_withoutSortedIndex() {
+        IMap<Integer, Item> map = instance.getMap(mapName);
+        map.addIndex(new IndexConfig(IndexType.HASH, "rank"));
+        map.put(1, new Item(1));
+
+        ((MapProxyImpl<Integer, Item>) map).orderedIterator(10, "rank").hasNext();
+    }
+
+    private void verifyOrder(IndexConfig indexConfig, int fetchSize) {
+        IMap<Integer, Item> map = instance.getMap(mapName);
+        map.addIndex(indexConfig);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            // a few entries without a rank and plenty of duplicate ranks
+            map.put(i, new Item(i % 10 == 0 ? null : i % 97));
+        }
+
+        List<Map.Entry<Integer, Item>> expected = new ArrayList<>(map.entrySet());
+        expected.sort((entry1, entry2) -> {
+            Integer rank1 = entry1.getValue().getRank();
+            Integer rank2 = entry2.getValue().getRank();
+            if (rank1 == null || rank2 == null) {
+                return rank1 == null ? rank2 == null ? 0 : -1 : 1;
+            }
+            return Integer.compare(rank1, rank2);
+        });
+
+        List<Map.Entry<Integer, Item>> actual = new ArrayList<>();
+        ((MapProxyImpl<Integer, Item>) map).orderedIterator(fetchSize, "rank").forEachRemaining(actual::add);
+
+        assertEquals(ENTRY_COUNT, actual.size());
+        Set<Map.Entry<Integer, Item>> distinct = new HashSet<>(actual);
+        assertEquals(ENTRY_COUNT, distinct.size());
+        assertTrue(distinct.containsAll(expected));
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            assertEquals(expected.get(i).getValue().getRank(), actual.get(i).getValue().getRank());
+        }
+    }
+
+    public static class Item implements Serializable {
+
+        private final Integer rank;
+
+        public Item(Integer rank) {
+            this.rank = rank;
+        }
+
+        public Integer getRank() {
+            return rank;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            Item item = (Item) o;
+            return rank == null ? item.rank == null : rank.equals(item.rank);
+        }
+
+        @Override
+        public int hashCode() {
+            return rank == null ? 0 : rank.hashCode();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.map.impl.query.StreamingQueryResultCollection;
+import com.hazelcast.projection.Projections;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MapQueryIteratorTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    private IMap<Integer, Integer> streamingMap;
+    private IMap<Integer, Integer> regularMap;
+
+    @Before
+    public void init() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        Config streamingConfig = smallInstanceConfig()
+                .setProperty("hazelcast.map.query.streaming.fetch.size", "7");
+        HazelcastInstance streamingInstance = factory.newHazelcastInstance(streamingConfig);
+        factory.newHazelcastInstance(streamingConfig);
+        HazelcastInstance regularInstance = factory.newHazelcastInstance(smallInstanceConfig());
+
+        String mapName = randomMapName();
+        streamingMap = streamingInstance.getMap(mapName);
+        regularMap = regularInstance.getMap(mapName);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            streamingMap.put(i, i);
+        }
+    }
+
+    @Test
+    public void testEntrySet_streamingMatchesRegularQuery() {
+        Predicate<Integer, Integer> predicate = new EvenPredicate();
+
+        Set<Map.Entry<Integer, Integer>> streamed = streamingMap.entrySet(predicate);
+
+        assertEquals(ENTRY_COUNT / 2, streamed.size());
+        assertEquals(regularMap.entrySet(predicate), new HashSet<>(streamed));
+    }
+
+    @Test
+    public void testKeySetAndValues_streamingMatchesRegularQuery() {
+        Predicate<Integer, Integer> predicate = Predicates.lessThan("this", 100);
+
+        assertEquals(regularMap.keySet(predicate), new HashSet<>(streamingMap.keySet(predicate)));
+        assertEquals(new HashSet<>(regularMap.values(predicate)), new HashSet<>(streamingMap.values(predicate)));
+        assertEquals(100, streamingMap.values(predicate).size());
+    }
+
+    @Test
+    public void testEntrySet_streamingWithNoMatches() {
+        assertEquals(0, streamingMap.entrySet(Predicates.alwaysFalse()).size());
+    }
+
+    @Test
+    public void testEntrySet_streamingResultIsLazyView() {
+        Set<Map.Entry<Integer, Integer>> streamed = streamingMap.entrySet(new EvenPredicate());
+
+        assertInstanceOf(StreamingQueryResultCollection.class, streamed);
+        streamingMap.put(ENTRY_COUNT, ENTRY_COUNT);
+        assertEquals(ENTRY_COUNT / 2 + 1, streamed.size());
+    }
+
+    @Test
+    public void testEntrySet_indexedPredicateNotStreamed() {
+        streamingMap.addIndex(IndexType.SORTED, "this");
+        Predicate<Integer, Integer> predicate = Predicates.lessThan("this", 100);
+
+        Set<Map.Entry<Integer, Integer>> result = streamingMap.entrySet(predicate);
+
+        assertFalse(result instanceof StreamingQueryResultCollection);
+        assertEquals(regularMap.entrySet(predicate), result);
+        assertTrue(streamingMap.getLocalMapStats().getIndexedQueryCount() > 0);
+    }
+
+    @Test
+    public void testIterator_returnsAllMatchingEntriesOfAllPartitions() {
+        MapProxyImpl<Integer, Integer> proxy = (MapProxyImpl<Integer, Integer>) streamingMap;
+
+        Iterator<Map.Entry<Integer, Integer>> iterator = proxy.iterator(10, Projections.identity(), new EvenPredicate());
+        List<Map.Entry<Integer, Integer>> entries = new ArrayList<>();
+        while (iterator.hasNext()) {
+            entries.add(iterator.next());
+        }
+
+        assertEquals(ENTRY_COUNT / 2, entries.size());
+        Set<Integer> keys = new HashSet<>();
+        for (Map.Entry<Integer, Integer> entry : entries) {
+            assertEquals(0, entry.getValue() % 2);
+            keys.add(entry.getKey());
+        }
+        assertEquals(ENTRY_COUNT / 2, keys.size());
+    }
+
+    @Test
+    public void testIterator_withProjection() {
+        MapProxyImpl<Integer, Integer> proxy = (MapProxyImpl<Integer, Integer>) streamingMap;
+
+        Iterator<Integer> iterator = proxy.iterator(3, Projections.singleAttribute("this"), Predicates.alwaysTrue());
+        Collection<Integer> values = new HashSet<>();
+        while (iterator.hasNext()) {
+            values.add(iterator.next());
+        }
+
+        assertEquals(ENTRY_COUNT, values.size());
+    }
+
+    @Test(expected = NoSuchElementException.class)
+    public void testIterator_nextOnExhaustedIterator() {
+        MapProxyImpl<Integer, Integer> proxy = (MapProxyImpl<Integer, Integer>) streamingMap;
+
+        Iterator<Integer> iterator = proxy.iterator(10, Projections.singleAttribute("this"), Predicates.alwaysFalse());
+
+        assertFalse(iterator.hasNext());
+        iterator.next();
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testIterator_pagingPredicateNotAllowed() {
+        MapProxyImpl<Integer, Integer> proxy = (MapProxyImpl<Integer, Integer>) streamingMap;
+
+        proxy.iterator(10, Projections.identity(), Predicates.pagingPredicate(10));
+    }
+
+    private static class EvenPredicate implements Predicate<Integer, Integer> {
+        @Override
+        public boolean apply(Map.Entry<Integer, Integer> mapEntry) {
+            return mapEntry.getValue() % 2 == 0;
+        }
+    }
+}
@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.util.IterationType;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.QueryResultSizeExceededException;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.QueryException;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.spi.exception.RetryableHazelcastException;
+import com.hazelcast.spi.properties.ClusterProperty;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.ExpectedException;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+
+import static com.hazelcast.map.impl.query.ForkJoinPartitionScanExecutor.WORK_STEALING_ENABLED;
+import static org.junit.Assert.assertEquals;
+import static org.mockito.Matchers.anyInt;
+import static org.mockito.Matchers.anyString;
+import static org.mockito.Matchers.eq;
+import static org.mockito.Matchers.isA;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class ForkJoinPartitionScanExecutorTest extends HazelcastTestSupport {
+
+    private static final int PARTITION_COUNT = 271;
+
+    @Rule
+    public ExpectedException expected = ExpectedException.none();
+
+    private ForkJoinPartitionScanExecutor executor;
+
+    @After
+    public void tearDown() {
+        if (executor != null) {
+            executor.shutdown();
+        }
+    }
+
+    private ForkJoinPartitionScanExecutor executor(PartitionScanRunner runner) {
+        executor = new ForkJoinPartitionScanExecutor(runner, randomName(), 4, PARTITION_COUNT, 60000);
+        return executor;
+    }
+
+    @Test
+    public void execute_success() {
+        PartitionScanRunner runner = mock(PartitionScanRunner.class);
+        Predicate predicate = Predicates.equal("attribute", 1);
+        doAnswer(invocation -> {
+            Result result = (Result) invocation.getArguments()[3];
+            result.add(mock(QueryableEntry.class));
+            return null;
+        }).when(runner).run(anyString(), eq(predicate), anyInt(), isA(QueryResult.class));
+        QueryResult queryResult = new QueryResult(IterationType.KEY, null, null, Long.MAX_VALUE, true);
+
+        executor(runner).execute("Map", predicate, partitions(100), queryResult);
+
+        assertEquals(100, queryResult.size());
+        assertEquals(100, queryResult.getPartitionIds().size());
+    }
+
+    @Test
+    public void execute_noPartitions() {
+        PartitionScanRunner runner = mock(PartitionScanRunner.class);
+        QueryResult queryResult = new QueryResult(IterationType.ENTRY, null, null, Long.MAX_VALUE, false);
+
+        executor(runner).execute("Map", Predicates.alwaysTrue(), new ArrayList<>(), queryResult);
+
+        assertEquals(0, queryResult.size());
+    }
+
+    @Test
+    public void execute_fail() {
+        PartitionScanRunner runner = mock(PartitionScanRunner.class);
+        Predicate predicate = Predicates.equal("attribute", 1);
+        QueryResult queryResult = new QueryResult(IterationType.ENTRY, null, null, Long.MAX_VALUE, false);
+
+        doThrow(new QueryException()).when(runner).run(anyString(), eq(predicate), anyInt(), isA(QueryResult.class));
+
+        expected.expect(QueryException.class);
+        executor(runner).execute("Map", predicate, partitions(3), queryResult);
+    }
+
+    @Test
+    public void execute_fail_retryable() {
+        PartitionScanRunner runner = mock(PartitionScanRunner.class);
+        Predicate predicate = Predicates.equal("attribute", 1);
+        QueryResult queryResult = new QueryResult(IterationType.ENTRY, null, null, Long.MAX_VALUE, false);
+
+        doThrow(new RetryableHazelcastException()).when(runner).run(anyString(), eq(predicate), anyInt(), isA(QueryResult.class));
+
+        expected.expect(RetryableHazelcastException.class);
+        executor(runner).execute("Map", predicate, partitions(3), queryResult);
+    }
+
+    @Test
+    public void execute_resultSizeLimitExceededAcrossSubResults() {
+        PartitionScanRunner runner = mock(PartitionScanRunner.class);
+        Predicate predicate = Predicates.equal("attribute", 1);
+        doAnswer(invocation -> {
+            Result result = (Result) invocation.getArguments()[3];
+            result.add(mock(QueryableEntry.class));
+            return null;
+        }).when(runner).run(anyString(), eq(predicate), anyInt(), isA(QueryResult.class));
+        QueryResult queryResult = new QueryResult(IterationType.KEY, null, null, 50, true);
+
+        expected.expect(QueryResultSizeExceededException.class);
+        executor(runner).execute("Map", predicate, partitions(100), queryResult);
+    }
+
+    @Test
+    public void values_withWorkStealingEnabled() {
+        Config config = smallInstanceConfig()
+                .setProperty(ClusterProperty.QUERY_PREDICATE_PARALLEL_EVALUATION.getName(), "true")
+                .setProperty(WORK_STEALING_ENABLED.getName(), "true");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+
+        Collection<Integer> values = map.values(Predicates.lessThan("this", 100));
+
+        assertEquals(100, values.size());
+        assertEquals(1000, map.keySet(Predicates.alwaysTrue()).size());
+    }
+
+    private static List<Integer> partitions(int count) {
+        List<Integer> partitions = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            partitions.add(i);
+        }
+        return partitions;
+    }
+}
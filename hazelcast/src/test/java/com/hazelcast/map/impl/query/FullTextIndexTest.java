@@ -0,0 +1,126 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Random;
+import java.util.Set;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.match;
+import static com.hazelcast.query.Predicates.not;
+import static com.hazelcast.query.Predicates.or;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class FullTextIndexTest extends HazelcastTestSupport {
+
+    private static final String[] WORDS = {"red", "green", "blue", "shoe", "shoes", "shirt", "short", "hat", "bag", "42"};
+
+    private final Random random = new Random();
+
+    private HazelcastInstance instance;
+    private IMap<Integer, String> map;
+    private IMap<Integer, String> expected;
+
+    @Before
+    public void before() {
+        String mapName = randomMapName();
+        Config config = smallInstanceConfig();
+        config.getMapConfig(mapName).addIndexConfig(new IndexConfig(IndexType.FULL_TEXT, "this").setName("text"));
+        instance = createHazelcastInstance(config);
+        map = instance.getMap(mapName);
+        expected = instance.getMap(randomMapName());
+    }
+
+    @Test
+    public void testQueries() {
+        for (int key = 0; key < 1000; ++key) {
+            put(key);
+        }
+        for (int key = 0; key < 1000; key += 3) {
+            if (key % 2 == 0) {
+                put(key);
+            } else {
+                map.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        verifyQueries();
+    }
+
+    @Test
+    public void testIndexAddedToPopulatedMap() {
+        map = instance.getMap(randomMapName());
+        for (int key = 0; key < 500; ++key) {
+            put(key);
+        }
+        map.addIndex(new IndexConfig(IndexType.FULL_TEXT, "this").setName("text"));
+
+        verifyQueries();
+    }
+
+    private void verifyQueries() {
+        verifyQuery(match("this", "red"));
+        verifyQuery(match("this", "RED shoe"));
+        verifyQuery(match("this", "sho*"));
+        verifyQuery(match("this", "blue sh* 42"));
+        verifyQuery(match("this", "missing"));
+        verifyQuery(match("this", ""));
+        verifyQuery(and(match("this", "red"), match("this", "hat")));
+        verifyQuery(or(match("this", "shirt"), match("this", "bag")));
+        verifyQuery(not(match("this", "green")));
+        verifyQuery(Predicates.sql("this MATCH 'bag' AND NOT this MATCH 'sh*'"));
+    }
+
+    private void verifyQuery(Predicate<Integer, String> predicate) {
+        long before = map.getLocalMapStats().getIndexStats().get("text").getQueryCount();
+        Set<Integer> actual = map.keySet(predicate);
+        long after = map.getLocalMapStats().getIndexStats().get("text").getQueryCount();
+        assertEquals(predicate.toString(), 1, after - before);
+        assertEquals(predicate.toString(), expected.keySet(predicate), actual);
+    }
+
+    private void put(int key) {
+        StringBuilder text = new StringBuilder();
+        int wordCount = 1 + random.nextInt(4);
+        for (int i = 0; i < wordCount; ++i) {
+            text.append(WORDS[random.nextInt(WORDS.length)]).append(random.nextBoolean() ? ", " : " ");
+        }
+        map.put(key, text.toString());
+        expected.put(key, text.toString());
+    }
+
+}
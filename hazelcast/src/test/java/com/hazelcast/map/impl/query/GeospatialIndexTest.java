@@ -0,0 +1,135 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Random;
+import java.util.Set;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.within;
+import static com.hazelcast.query.Predicates.withinDistance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class GeospatialIndexTest extends HazelcastTestSupport {
+
+    private final Random random = new Random();
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Vehicle> map;
+    private IMap<Integer, Vehicle> expected;
+
+    @Before
+    public void before() {
+        String mapName = randomMapName();
+        Config config = smallInstanceConfig();
+        config.getMapConfig(mapName).addIndexConfig(new IndexConfig(IndexType.GEOSPATIAL, "lat", "lon").setName("geo"));
+        instance = createHazelcastInstance(config);
+        map = instance.getMap(mapName);
+        expected = instance.getMap(randomMapName());
+    }
+
+    @Test
+    public void testQueries() {
+        for (int key = 0; key < 1000; ++key) {
+            put(key);
+        }
+        // move some vehicles around and park some others
+        for (int key = 0; key < 1000; key += 3) {
+            if (key % 2 == 0) {
+                put(key);
+            } else {
+                map.remove(key);
+                expected.remove(key);
+            }
+        }
+
+        verifyQueries();
+    }
+
+    @Test
+    public void testIndexAddedToPopulatedMap() {
+        map = instance.getMap(randomMapName());
+        for (int key = 0; key < 500; ++key) {
+            put(key);
+        }
+        map.addIndex(new IndexConfig(IndexType.GEOSPATIAL, "this.lat", "this.lon").setName("geo"));
+
+        verifyQueries();
+    }
+
+    private void verifyQueries() {
+        verifyQuery(within("lat", "lon", 52.0, 13.0, 52.2, 13.2));
+        verifyQuery(within("lat", "lon", 51.5, 12.5, 52.5, 13.5));
+        verifyQuery(within("lat", "lon", -90, -180, 90, 180));
+        verifyQuery(within("lat", "lon", 10.0, 10.0, 11.0, 11.0));
+        verifyQuery(withinDistance("lat", "lon", 52.0, 13.0, 5000));
+        verifyQuery(withinDistance("lat", "lon", 52.0, 13.0, 50000));
+        verifyQuery(and(withinDistance("lat", "lon", 52.0, 13.0, 30000), equal("type", "bus")));
+        assertFalse(map.keySet(within("lat", "lon", 51.5, 12.5, 52.5, 13.5)).isEmpty());
+    }
+
+    private void verifyQuery(Predicate<Integer, Vehicle> predicate) {
+        long before = map.getLocalMapStats().getIndexStats().get("geo").getQueryCount();
+        Set<Integer> actual = map.keySet(predicate);
+        long after = map.getLocalMapStats().getIndexStats().get("geo").getQueryCount();
+        assertEquals(predicate.toString(), 1, after - before);
+        assertEquals(predicate.toString(), expected.keySet(predicate), actual);
+    }
+
+    private void put(int key) {
+        Vehicle vehicle = new Vehicle(random.nextBoolean() ? "bus" : "car", 51.5 + random.nextDouble(),
+                12.5 + random.nextDouble());
+        map.put(key, vehicle);
+        expected.put(key, vehicle);
+    }
+
+    public static class Vehicle implements Serializable {
+
+        public String type;
+        public double lat;
+        public double lon;
+
+        public Vehicle(String type, double lat, double lon) {
+            this.type = type;
+            this.lat = lat;
+            this.lon = lon;
+        }
+
+    }
+
+}
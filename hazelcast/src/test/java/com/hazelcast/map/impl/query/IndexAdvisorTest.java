@@ -0,0 +1,247 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.metrics.MetricDescriptor;
+import com.hazelcast.internal.metrics.impl.CapturingCollector;
+import com.hazelcast.internal.util.IterationType;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.query.SampleTestObjects.Employee;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_METRIC_INDEX_ADVICE_QUERY_COUNT;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_PREFIX_INDEX_ADVICE;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_TAG_INDEX_ADVICE_ATTRIBUTES;
+import static com.hazelcast.internal.metrics.MetricDescriptorConstants.MAP_TAG_INDEX_ADVICE_TYPE;
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.like;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class IndexAdvisorTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    @Test
+    public void testAdvices() {
+        IMap<Integer, Employee> map = createMap(enabledConfig());
+
+        map.values(equal("name", "name1"));
+        map.values(equal("age", 7));
+        map.values(equal("age", 8));
+        map.values(greaterThan("salary", 900.0));
+        map.values(and(equal("name", "name1"), equal("age", 1)));
+        map.values(like("name", "name1%"));
+
+        Map<String, IndexAdvice> advices = advices(map);
+        assertEquals(4, advices.size());
+
+        // unique names are looked up in a hash index
+        IndexAdvice name = advices.get("HASH[name]");
+        assertEquals(2, name.getQueryCount());
+        assertEquals(2 * ENTRY_COUNT - 2, name.getEstimatedSavedEntryReads());
+
+        // low cardinality ages are looked up in a bitmap index, but the
+        // advice is still named after the candidate
+        IndexAdvice age = advices.get("HASH[age]");
+        assertEquals(3, age.getQueryCount());
+        assertEquals(IndexType.BITMAP, age.getIndexConfig().getType());
+        assertEquals("HASH[age]", age.toString());
+
+        assertEquals(ENTRY_COUNT - 99, advices.get("SORTED[salary]").getEstimatedSavedEntryReads());
+        assertEquals(1, advices.get("HASH[age, name]").getQueryCount());
+        assertEquals(IndexType.HASH, name.getIndexConfig().getType());
+        assertEquals(IndexType.HASH, age.getCandidateType());
+        assertEquals(asList("age", "name"), advices.get("HASH[age, name]").getAttributes());
+    }
+
+    @Test
+    public void testMetricsTaggedByTypeAndAttributes() {
+        HazelcastInstance instance = createHazelcastInstance(enabledConfig());
+        IMap<Integer, Employee> map = fill(instance.getMap(randomMapName()));
+        map.values(and(equal("name", "name1"), equal("age", 1)));
+
+        CapturingCollector collector = new CapturingCollector();
+        getNodeEngineImpl(instance).getMetricsRegistry().collect(collector);
+
+        // the query is recorded against the composite and both single-attribute indexes
+        List<MetricDescriptor> descriptors = new ArrayList<>();
+        for (MetricDescriptor descriptor : collector.captures().keySet()) {
+            if (MAP_PREFIX_INDEX_ADVICE.equals(descriptor.prefix())
+                    && MAP_METRIC_INDEX_ADVICE_QUERY_COUNT.equals(descriptor.metric())
+                    && "age+name".equals(descriptor.tagValue(MAP_TAG_INDEX_ADVICE_ATTRIBUTES))) {
+                descriptors.add(descriptor);
+            }
+        }
+        assertEquals(1, descriptors.size());
+        MetricDescriptor descriptor = descriptors.get(0);
+        assertEquals(map.getName(), descriptor.discriminatorValue());
+        assertEquals("HASH", descriptor.tagValue(MAP_TAG_INDEX_ADVICE_TYPE));
+        assertEquals("age+name", descriptor.tagValue(MAP_TAG_INDEX_ADVICE_ATTRIBUTES));
+    }
+
+    @Test
+    public void testIndexedQueriesAreNotRecorded() {
+        IMap<Integer, Employee> map = createMap(enabledConfig());
+        map.addIndex(IndexType.HASH, "name");
+
+        map.values(equal("name", "name1"));
+        map.values(equal("age", 1));
+
+        Map<String, IndexAdvice> advices = advices(map);
+        assertNull(advices.get("HASH[name]"));
+        assertEquals(1, advices.get("HASH[age]").getQueryCount());
+    }
+
+    @Test
+    public void testDisabled() {
+        Config config = smallInstanceConfig().setProperty(IndexAdvisor.INDEX_ADVISOR_ENABLED.getName(), "false");
+        IMap<Integer, Employee> map = createMap(config);
+
+        map.values(equal("name", "name1"));
+
+        assertTrue(advices(map).isEmpty());
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        IMap<Integer, Employee> map = createMap(smallInstanceConfig());
+
+        map.values(equal("name", "name1"));
+
+        assertTrue(advices(map).isEmpty());
+    }
+
+    @Test
+    public void testPartitionRunsRecordedOncePerQuery() {
+        IMap<Integer, Employee> map = createMap(enabledConfig());
+        MapServiceContext mapServiceContext = ((MapProxyImpl<Integer, Employee>) map).getService().getMapServiceContext();
+        QueryRunner queryRunner = mapServiceContext.getMapQueryRunner(map.getName());
+        Query query = Query.of()
+                .mapName(map.getName())
+                .predicate(equal("name", "name1"))
+                .iterationType(IterationType.VALUE)
+                .build();
+
+        int partitionCount = mapServiceContext.getNodeEngine().getPartitionService().getPartitionCount();
+        PartitionIdSet partitions = new PartitionIdSet(partitionCount);
+        Result result = queryRunner.populateEmptyResult(query, Collections.emptyList());
+        for (int partitionId = 0; partitionId < partitionCount; ++partitionId) {
+            result.combine(queryRunner.runPartitionIndexOrPartitionScanQueryOnGivenOwnedPartition(query, partitionId));
+            partitions.add(partitionId);
+        }
+        assertTrue(advices(map).isEmpty());
+
+        queryRunner.recordScan(query, partitions, result);
+        IndexAdvice name = advices(map).get("HASH[name]");
+        assertEquals(1, name.getQueryCount());
+        assertEquals(ENTRY_COUNT - 1, name.getEstimatedSavedEntryReads());
+    }
+
+    @Test
+    public void testAutoCreate() {
+        Config config = enabledConfig()
+                .setProperty(IndexAdvisor.INDEX_ADVISOR_AUTO_CREATE_THRESHOLD.getName(), String.valueOf(ENTRY_COUNT * 3 / 2));
+        IMap<Integer, Employee> map = createMap(config);
+
+        map.values(equal("name", "name1"));
+        assertFalse(advices(map).get("HASH[name]").isCreated());
+        map.values(equal("name", "name2"));
+
+        assertTrueEventually(() -> assertEquals(1, map.getLocalMapStats().getIndexStats().size()));
+        assertTrue(advices(map).get("HASH[name]").isCreated());
+
+        // the created index serves the subsequent queries
+        map.values(equal("name", "name3"));
+        assertEquals(2, advices(map).get("HASH[name]").getQueryCount());
+    }
+
+    @Test
+    public void testAutoCreate_onlyOnMaster() {
+        Config config = enabledConfig()
+                .setProperty(IndexAdvisor.INDEX_ADVISOR_AUTO_CREATE_THRESHOLD.getName(), String.valueOf(ENTRY_COUNT / 4));
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance master = factory.newHazelcastInstance(config);
+        HazelcastInstance other = factory.newHazelcastInstance(config);
+        assertClusterSizeEventually(2, master, other);
+        IMap<Integer, Employee> map = fill(other.getMap(randomMapName()));
+        waitAllForSafeState(master, other);
+
+        // both members scan their partitions and exceed the threshold
+        map.values(equal("name", "name1"));
+
+        assertTrueEventually(() -> assertEquals(1, master.getMap(map.getName()).getLocalMapStats().getIndexStats().size()));
+        assertTrue(advices(master.getMap(map.getName())).get("HASH[name]").isCreated());
+        assertFalse(advices(map).get("HASH[name]").isCreated());
+    }
+
+    private static Config enabledConfig() {
+        return smallInstanceConfig().setProperty(IndexAdvisor.INDEX_ADVISOR_ENABLED.getName(), "true");
+    }
+
+    private IMap<Integer, Employee> createMap(Config config) {
+        HazelcastInstance instance = createHazelcastInstance(config);
+        return fill(instance.getMap(randomMapName()));
+    }
+
+    private static IMap<Integer, Employee> fill(IMap<Integer, Employee> map) {
+        Map<Integer, Employee> entries = new HashMap<>();
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            entries.put(i, new Employee(i, "name" + i, i % 50, true, i));
+        }
+        map.putAll(entries);
+        return map;
+    }
+
+    private static Map<String, IndexAdvice> advices(IMap<Integer, Employee> map) {
+        MapProxyImpl<Integer, Employee> proxy = (MapProxyImpl<Integer, Employee>) map;
+        IndexAdvisor advisor = proxy.getService().getMapServiceContext().getMapContainer(map.getName()).getIndexAdvisor();
+        Map<String, IndexAdvice> advices = new HashMap<>();
+        for (IndexAdvice advice : advisor.getAdvices()) {
+            advices.put(advice.toString(), advice);
+        }
+        return advices;
+    }
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregator;
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.io.Serializable;
+import java.util.Arrays;
+import java.util.Collection;
+
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class IndexAggregationTest extends HazelcastTestSupport {
+
+    private HazelcastInstance instance;
+    private IMap<Integer, Person> expected;
+
+    @Before
+    public void before() {
+        instance = createHazelcastInstance(smallInstanceConfig());
+        expected = instance.getMap(randomMapName());
+    }
+
+    @Test
+    public void testSortedIndex() {
+        verifyAggregations(IndexType.SORTED);
+    }
+
+    @Test
+    public void testHashIndex() {
+        verifyAggregations(IndexType.HASH);
+    }
+
+    @Test
+    public void testBitmapIndex() {
+        verifyAggregations(IndexType.BITMAP);
+    }
+
+    @Test
+    public void testMultiValueAttributeFallsBackToAccumulation() {
+        IMap<Integer, Person> map = instance.getMap(randomMapName());
+        map.addIndex(new IndexConfig(IndexType.SORTED, "tags[any]").setName("tags"));
+        for (int key = 0; key < 100; ++key) {
+            Person person = new Person(key % 7 == 0 ? null : key % 13, "tag" + key % 5, "tag" + key % 3);
+            map.put(key, person);
+            expected.put(key, person);
+        }
+
+        verify(map, "tags", 0, Aggregators.count());
+        verify(map, "tags", 0, Aggregators.count("tags[any]"));
+        verify(map, "tags", 0, Aggregators.comparableMin("tags[any]"));
+        verify(map, "tags", 0, Aggregators.distinct("tags[any]"));
+    }
+
+    private void verifyAggregations(IndexType type) {
+        IMap<Integer, Person> map = instance.getMap(randomMapName());
+        map.addIndex(new IndexConfig(type, "age").setName("age"));
+
+        // empty map
+        verify(map, "age", 1, Aggregators.count());
+        verify(map, "age", 1, Aggregators.distinct("age"));
+
+        for (int key = 0; key < 1000; ++key) {
+            Integer age = key % 11 == 0 ? null : key % 50;
+            Person person = new Person(age);
+            map.put(key, person);
+            expected.put(key, person);
+        }
+        for (int key = 0; key < 1000; key += 3) {
+            map.remove(key);
+            expected.remove(key);
+        }
+        map.put(2000, new Person(-5));
+        expected.put(2000, new Person(-5));
+
+        verify(map, "age", 1, Aggregators.count());
+        verify(map, "age", 1, Aggregators.count("age"));
+        verify(map, "age", 1, Aggregators.distinct("age"));
+        verify(map, "age", 1, Aggregators.integerMin("age"));
+        verify(map, "age", 1, Aggregators.integerMax("age"));
+        verify(map, "age", 1, Aggregators.comparableMin("this.age"));
+        // not answered by the index
+        verify(map, "age", 0, Aggregators.count("name"));
+        verify(map, "age", 0, Aggregators.comparableMax("name"));
+        verify(map, "age", 0, Aggregators.distinct("name"));
+        assertEquals(expected.aggregate(Aggregators.count(), Predicates.lessThan("age", 10)),
+                map.aggregate(Aggregators.count(), Predicates.lessThan("age", 10)));
+    }
+
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private void verify(IMap<Integer, Person> map, String indexName, int indexQueries, Aggregator aggregator) {
+        long before = map.getLocalMapStats().getIndexStats().get(indexName).getQueryCount();
+        Object actual = map.aggregate(aggregator);
+        long after = map.getLocalMapStats().getIndexStats().get(indexName).getQueryCount();
+        assertEquals(aggregator.toString(), indexQueries, after - before);
+        assertEquals(aggregator.toString(), expected.aggregate(aggregator), actual);
+    }
+
+    public static class Person implements Serializable {
+
+        private final Integer age;
+        private final String name;
+        private final Collection<String> tags;
+
+        public Person(Integer age, String... tags) {
+            this.age = age;
+            this.name = age == null ? null : "name" + age % 3;
+            this.tags = Arrays.asList(tags);
+        }
+
+        public Integer getAge() {
+            return age;
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public Collection<String> getTags() {
+            return tags;
+        }
+
+    }
+
+}
@@ -151,11 +151,13 @@ public class IndexCreateTest extends HazelcastTestSupport {
 
     @Test
     public void testSingleAttribute() {
+        expectGeospatialAttributeCountFailure();
         checkIndex(createConfig("col1"), createConfig("this.col2"));
     }
 
     @Test
     public void testSingleAttributeWithName() {
+        expectGeospatialAttributeCountFailure();
         checkIndex(createNamedConfig("index", "col"), createNamedConfig("index2", "this.col2"));
     }
 
@@ -164,6 +166,9 @@ public class IndexCreateTest extends HazelcastTestSupport {
         if (type == IndexType.BITMAP) {
             thrown.expect(IllegalArgumentException.class);
             thrown.expectMessage(startsWith("Composite bitmap indexes are not supported:"));
+        } else if (type == IndexType.FULL_TEXT) {
+            thrown.expect(IllegalArgumentException.class);
+            thrown.expectMessage(startsWith("Composite full-text indexes are not supported:"));
         }
         checkIndex(createConfig("col1", "this.col2"));
     }
@@ -173,10 +178,20 @@ public class IndexCreateTest extends HazelcastTestSupport {
         if (type == IndexType.BITMAP) {
             thrown.expect(IllegalArgumentException.class);
             thrown.expectMessage(startsWith("Composite bitmap indexes are not supported:"));
+        } else if (type == IndexType.FULL_TEXT) {
+            thrown.expect(IllegalArgumentException.class);
+            thrown.expectMessage(startsWith("Composite full-text indexes are not supported:"));
         }
         checkIndex(createNamedConfig("index", "col1", "this.col2"));
     }
 
+    private void expectGeospatialAttributeCountFailure() {
+        if (type == IndexType.GEOSPATIAL) {
+            thrown.expect(IllegalArgumentException.class);
+            thrown.expectMessage(startsWith("Geospatial indexes must have exactly two attributes"));
+        }
+    }
+
     private void checkIndex(IndexConfig... indexConfigs) {
         List<HazelcastInstanceProxy> members = handler.initialize(hazelcastFactory, indexConfigs);
 
@@ -249,6 +264,10 @@ public class IndexCreateTest extends HazelcastTestSupport {
             res.append("hash");
         } else if (config.getType() == IndexType.BITMAP) {
             res.append("bitmap");
+        } else if (config.getType() == IndexType.FULL_TEXT) {
+            res.append("fulltext");
+        } else if (config.getType() == IndexType.GEOSPATIAL) {
+            res.append("geospatial");
         } else {
             throw new IllegalArgumentException("unexpected index type: " + config.getType());
         }
@@ -0,0 +1,325 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.map.impl.query;
+
+import com.hazelcast.aggregation.Aggregators;
+import com.hazelcast.config.Config;
+import com.hazelcast.config.InMemoryFormat;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.util.IterationType;
+import com.hazelcast.internal.util.collection.PartitionIdSet;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.spi.impl.NodeEngineImpl;
+import com.hazelcast.spi.impl.PartitionSpecificRunnable;
+import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+
+import static com.hazelcast.map.impl.query.MaterializedAggregations.MATERIALIZED_AGGREGATION_LIMIT;
+import static com.hazelcast.spi.impl.operationexecutor.impl.OperationExecutorImpl.GENERIC_WORK_STEALING_ENABLED;
+import static com.hazelcast.spi.properties.ClusterProperty.GENERIC_OPERATION_THREAD_COUNT;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MaterializedAggregationTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    @Test
+    public void testAggregationIsMaintainedIncrementally() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig(4));
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        Predicate<Integer, Integer> predicate = Predicates.greaterEqual("this", 500);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+        assertEquals(expectedSum(map, predicate), (long) map.aggregate(Aggregators.integerSum(), predicate));
+
+        MaterializedAggregations aggregations = getAggregations(instance, map.getName());
+        assertEquals(1, aggregations.size());
+        MaterializedAggregation aggregation = aggregations.getAggregations().iterator().next();
+        assertTrue(aggregation.isMaterialized(partitionOf(instance, 0)));
+
+        // inserts, updates crossing the predicate in both directions, removals and evictions
+        for (int i = 0; i < ENTRY_COUNT; i += 3) {
+            map.put(i, ENTRY_COUNT - i);
+        }
+        for (int i = 0; i < ENTRY_COUNT; i += 7) {
+            map.remove(i);
+        }
+        for (int i = 1; i < ENTRY_COUNT; i += 11) {
+            map.evict(i);
+        }
+        map.set(ENTRY_COUNT, 2 * ENTRY_COUNT);
+        map.executeOnKey(5, entry -> entry.setValue(entry.getValue() + 1000));
+
+        assertEquals(expectedSum(map, predicate), (long) map.aggregate(Aggregators.integerSum(), predicate));
+        assertEquals(map.size(), (long) map.aggregate(Aggregators.count()));
+        assertEquals(2, aggregations.size());
+        assertTrue(aggregation.isMaterialized(partitionOf(instance, 0)));
+    }
+
+    @Test
+    public void testClear() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig(4));
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+        assertEquals(ENTRY_COUNT, (long) map.aggregate(Aggregators.count()));
+
+        map.clear();
+        assertEquals(0, (long) map.aggregate(Aggregators.count()));
+
+        map.put(1, 1);
+        assertEquals(1, (long) map.aggregate(Aggregators.count()));
+    }
+
+    @Test
+    public void testNonRetractableAggregatorIsNotMaterialized() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig(4));
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        assertEquals(99, (int) map.aggregate(Aggregators.integerMax()));
+        assertEquals(0, getAggregations(instance, map.getName()).size());
+    }
+
+    @Test
+    public void testLimit() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig(1));
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        assertEquals(4950, (long) map.aggregate(Aggregators.integerSum()));
+        assertEquals(100, (long) map.aggregate(Aggregators.count()));
+        map.put(100, 100);
+        assertEquals(5050, (long) map.aggregate(Aggregators.integerSum()));
+        assertEquals(101, (long) map.aggregate(Aggregators.count()));
+        assertEquals(1, getAggregations(instance, map.getName()).size());
+    }
+
+    @Test
+    public void testObjectInMemoryFormatIsNotMaterialized() {
+        Config config = getConfig(4);
+        String mapName = randomMapName();
+        config.getMapConfig(mapName).setInMemoryFormat(InMemoryFormat.OBJECT);
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(mapName);
+        map.put(1, 1);
+        assertEquals(1, (long) map.aggregate(Aggregators.count()));
+        assertFalse(getAggregations(instance, mapName).isEnabled());
+        assertEquals(0, getAggregations(instance, mapName).size());
+    }
+
+    @Test
+    public void testExpiringMapIsNotMaterialized() {
+        Config config = getConfig(4);
+        String mapName = randomMapName();
+        config.getMapConfig(mapName).setMaxIdleSeconds(3600);
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(mapName);
+        map.put(1, 1);
+        assertEquals(1, (long) map.aggregate(Aggregators.count()));
+        assertFalse(getAggregations(instance, mapName).isEnabled());
+        assertEquals(0, getAggregations(instance, mapName).size());
+    }
+
+    @Test
+    public void testExpiringEntryIsNotServedFromPartialResult() {
+        HazelcastInstance instance = createHazelcastInstance(getConfig(4));
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        assertEquals(100, (long) map.aggregate(Aggregators.count()));
+        MaterializedAggregation aggregation = getAggregations(instance, map.getName()).getAggregations().iterator().next();
+        assertTrue(aggregation.isMaterialized(partitionOf(instance, 0)));
+
+        map.put(0, 0, 1, SECONDS);
+        assertEquals(100, (long) map.aggregate(Aggregators.count()));
+        assertFalse(aggregation.isMaterialized(partitionOf(instance, 0)));
+
+        // the expired entry is not counted before it's evicted
+        assertTrueEventually(() -> assertEquals(99, (long) map.aggregate(Aggregators.count())));
+        assertFalse(aggregation.isMaterialized(partitionOf(instance, 0)));
+    }
+
+    @Test
+    public void testAggregationAfterMigration() {
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(3);
+        Config config = getConfig(4);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance1.getMap(randomMapName());
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+        assertEquals(expectedSum(map, Predicates.alwaysTrue()), (long) map.aggregate(Aggregators.integerSum()));
+
+        factory.newHazelcastInstance(config);
+        for (int i = 0; i < ENTRY_COUNT; i += 2) {
+            map.put(i, 2 * i);
+        }
+        waitAllForSafeState(factory.getAllHazelcastInstances());
+        for (int i = 0; i < ENTRY_COUNT; i += 5) {
+            map.remove(i);
+        }
+
+        assertEquals(expectedSum(map, Predicates.alwaysTrue()), (long) map.aggregate(Aggregators.integerSum()));
+        assertEquals(expectedSum(map, Predicates.alwaysTrue()),
+                (long) instance2.<Integer, Integer>getMap(map.getName()).aggregate(Aggregators.integerSum()));
+
+        instance2.getLifecycleService().terminate();
+        waitAllForSafeState(instance1);
+        assertEquals(expectedSum(map, Predicates.alwaysTrue()), (long) map.aggregate(Aggregators.integerSum()));
+    }
+
+    @Test
+    public void testMergeOnPartitionThread_fallsBack() throws Exception {
+        HazelcastInstance instance = createHazelcastInstance(getConfig(4));
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        for (int i = 0; i < 100; i++) {
+            map.put(i, i);
+        }
+        MapServiceContext mapServiceContext = getMapServiceContext(instance);
+        MaterializedAggregation aggregation = getAggregations(instance, map.getName())
+                .getOrRegister(Aggregators.count(), Predicates.alwaysTrue());
+        int partitionId = partitionOf(instance, 0);
+        PartitionIdSet partitions = new PartitionIdSet(instance.getPartitionService().getPartitions().size());
+        partitions.add(partitionId);
+
+        // materializing its own partition would block the partition thread forever
+        CompletableFuture<Object> merged = new CompletableFuture<>();
+        getNodeEngineImpl(instance).getOperationService().execute(new PartitionSpecificRunnable() {
+            @Override
+            public int getPartitionId() {
+                return partitionId;
+            }
+
+            @Override
+            public void run() {
+                merged.complete(aggregation.merge(partitions, mapServiceContext, map.getName(), Long.MAX_VALUE));
+            }
+        });
+
+        assertNull(merged.get(ASSERT_TRUE_EVENTUALLY_TIMEOUT, SECONDS));
+        assertFalse(aggregation.isMaterialized(partitionId));
+        assertEquals(100, (long) map.aggregate(Aggregators.count()));
+    }
+
+    @Test
+    public void testQueryOperationNotStolen() throws Exception {
+        // a single generic thread, kept busy while partition threads are idle,
+        // a query operation scans partitions and must not be stolen by them
+        Config config = getConfig(4)
+                .setProperty(GENERIC_WORK_STEALING_ENABLED.getName(), "true")
+                .setProperty(GENERIC_OPERATION_THREAD_COUNT.getName(), "1");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        Predicate<Integer, Integer> predicate = Predicates.greaterEqual("this", 500);
+        for (int i = 0; i < ENTRY_COUNT; i++) {
+            map.put(i, i);
+        }
+        long expectedSum = expectedSum(map, predicate);
+
+        NodeEngineImpl nodeEngine = getNodeEngineImpl(instance);
+        CountDownLatch genericThreadBusy = new CountDownLatch(1);
+        CountDownLatch genericThreadReleased = new CountDownLatch(1);
+        nodeEngine.getOperationService().execute(new Operation() {
+            @Override
+            public void run() throws Exception {
+                genericThreadBusy.countDown();
+                genericThreadReleased.await();
+            }
+        });
+        assertOpenEventually(genericThreadBusy);
+
+        try {
+            Query query = Query.of()
+                    .mapName(map.getName())
+                    .predicate(predicate)
+                    .iterationType(IterationType.ENTRY)
+                    .aggregator(Aggregators.integerSum())
+                    .build();
+            Operation operation = getMapServiceContext(instance).getMapOperationProvider(map.getName())
+                    .createQueryOperation(query)
+                    .setServiceName(MapService.SERVICE_NAME)
+                    .setNodeEngine(nodeEngine)
+                    .setCallerUuid(nodeEngine.getLocalMember().getUuid());
+            CompletableFuture<Object> response = new CompletableFuture<>();
+            operation.setOperationResponseHandler((op, result) -> response.complete(result));
+            nodeEngine.getOperationService().execute(operation);
+
+            assertTrueAllTheTime(() -> assertFalse(response.isDone()), 2);
+            genericThreadReleased.countDown();
+            AggregationResult result = (AggregationResult) response.get(ASSERT_TRUE_EVENTUALLY_TIMEOUT, SECONDS);
+            Object sum = result.getAggregator().aggregate();
+            assertEquals(expectedSum, ((Number) sum).longValue());
+        } finally {
+            genericThreadReleased.countDown();
+        }
+    }
+
+    private static long expectedSum(IMap<Integer, Integer> map, Predicate<Integer, Integer> predicate) {
+        long sum = 0;
+        for (Integer value : map.values(predicate)) {
+            sum += value;
+        }
+        return sum;
+    }
+
+    private Config getConfig(int limit) {
+        return smallInstanceConfig()
+                .setProperty(MATERIALIZED_AGGREGATION_LIMIT.getName(), String.valueOf(limit));
+    }
+
+    private static int partitionOf(HazelcastInstance instance, int key) {
+        return instance.getPartitionService().getPartition(key).getPartitionId();
+    }
+
+    private static MaterializedAggregations getAggregations(HazelcastInstance instance, String mapName) {
+        return getMapServiceContext(instance).getMapContainer(mapName).getMaterializedAggregations();
+    }
+
+    private static MapServiceContext getMapServiceContext(HazelcastInstance instance) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        return mapService.getMapServiceContext();
+    }
+}
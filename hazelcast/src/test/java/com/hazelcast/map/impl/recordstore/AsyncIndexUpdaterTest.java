@@ -0,0 +1,189 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.ExecutorConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapContainer;
+import com.hazelcast.map.impl.proxy.MapProxyImpl;
+import com.hazelcast.query.SampleTestObjects.Employee;
+import com.hazelcast.query.impl.Indexes;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.TestHazelcastInstanceFactory;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.CountDownLatch;
+
+import static com.hazelcast.map.impl.recordstore.AsyncIndexUpdater.ASYNC_INDEX_ENABLED;
+import static com.hazelcast.map.impl.recordstore.AsyncIndexUpdater.ASYNC_INDEX_READ_YOUR_WRITES;
+import static com.hazelcast.map.impl.recordstore.AsyncIndexUpdater.ASYNC_INDEX_STALENESS_BOUND;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.spi.impl.executionservice.ExecutionService.MAP_INDEX_EXECUTOR;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static com.hazelcast.query.Predicates.greaterEqual;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class AsyncIndexUpdaterTest extends HazelcastTestSupport {
+
+    private static final int ENTRY_COUNT = 1000;
+
+    @Test
+    public void testDisabledByDefault() {
+        IMap<Integer, Employee> map = createMap(smallInstanceConfig());
+
+        assertNull(mapContainer(map).getAsyncIndexUpdater());
+    }
+
+    @Test
+    public void testReadYourWrites() {
+        IMap<Integer, Employee> map = createMap(smallInstanceConfig()
+                .setProperty(ASYNC_INDEX_ENABLED.getName(), "true")
+                .setProperty(ASYNC_INDEX_READ_YOUR_WRITES.getName(), "true")
+                .setProperty(ASYNC_INDEX_STALENESS_BOUND.getName(), "3600000"));
+
+        verifyWrites(map);
+    }
+
+    @Test
+    public void testZeroStalenessBound() {
+        IMap<Integer, Employee> map = createMap(smallInstanceConfig()
+                .setProperty(ASYNC_INDEX_ENABLED.getName(), "true")
+                .setProperty(ASYNC_INDEX_STALENESS_BOUND.getName(), "0"));
+
+        verifyWrites(map);
+    }
+
+    @Test
+    public void testUpdatesAppliedInBackground() {
+        IMap<Integer, Employee> map = createMap(smallInstanceConfig()
+                .setProperty(ASYNC_INDEX_ENABLED.getName(), "true")
+                .setProperty(ASYNC_INDEX_STALENESS_BOUND.getName(), "3600000"));
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            map.put(i, new Employee(i, "name" + i, i % 10, true, i));
+        }
+
+        AsyncIndexUpdater updater = mapContainer(map).getAsyncIndexUpdater();
+        assertTrueEventually(() -> assertEquals(0, updater.getQueuedUpdateCount()));
+        assertEquals(ENTRY_COUNT / 10, map.values(equal("age", 3)).size());
+    }
+
+    @Test
+    public void testClear() {
+        IMap<Integer, Employee> map = createMap(smallInstanceConfig()
+                .setProperty(ASYNC_INDEX_ENABLED.getName(), "true")
+                .setProperty(ASYNC_INDEX_STALENESS_BOUND.getName(), "3600000"));
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            map.put(i, new Employee(i, "name" + i, i % 10, true, i));
+        }
+
+        map.clear();
+
+        AsyncIndexUpdater updater = mapContainer(map).getAsyncIndexUpdater();
+        assertTrueEventually(() -> assertEquals(0, updater.getQueuedUpdateCount()));
+        assertEquals(0, map.values(greaterEqual("age", 0)).size());
+    }
+
+    @Test
+    public void testMigration() {
+        // a single blocked thread keeps the updates queued until released
+        Config config = smallInstanceConfig()
+                .setProperty(ASYNC_INDEX_ENABLED.getName(), "true")
+                .setProperty(ASYNC_INDEX_STALENESS_BOUND.getName(), "3600000")
+                .addExecutorConfig(new ExecutorConfig(MAP_INDEX_EXECUTOR).setPoolSize(1));
+        TestHazelcastInstanceFactory factory = createHazelcastInstanceFactory(2);
+        HazelcastInstance instance1 = factory.newHazelcastInstance(config);
+        IMap<Integer, Employee> map = instance1.getMap(randomMapName());
+        map.addIndex(IndexType.HASH, "age");
+        map.addIndex(IndexType.SORTED, "age");
+
+        CountDownLatch blocked = new CountDownLatch(1);
+        getNodeEngineImpl(instance1).getExecutionService().execute(MAP_INDEX_EXECUTOR, () -> assertOpenEventually(blocked));
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            map.put(i, new Employee(i, "name" + i, i % 10, true, i));
+        }
+        AsyncIndexUpdater updater1 = mapContainer(map).getAsyncIndexUpdater();
+        assertEquals(ENTRY_COUNT, updater1.getQueuedUpdateCount());
+
+        HazelcastInstance instance2 = factory.newHazelcastInstance(config);
+        waitAllForSafeState(instance1, instance2);
+        blocked.countDown();
+        assertTrueEventually(() -> assertEquals(0, updater1.getQueuedUpdateCount()));
+
+        // no member indexes the entries of the partitions it doesn't own
+        for (int age = 0; age < 10; ++age) {
+            for (int index = 0; index < 2; ++index) {
+                int indexedCount = 0;
+                for (HazelcastInstance instance : factory.getAllHazelcastInstances()) {
+                    Indexes indexes = mapContainer(instance.getMap(map.getName())).getIndexes();
+                    for (QueryableEntry entry : indexes.getIndexes()[index].getRecords(age)) {
+                        assertTrue(instance.getPartitionService().getPartition(entry.getKey()).getOwner().localMember());
+                        ++indexedCount;
+                    }
+                }
+                assertEquals(ENTRY_COUNT / 10, indexedCount);
+            }
+        }
+        assertEquals(ENTRY_COUNT / 10, map.values(equal("age", 3)).size());
+    }
+
+    private static void verifyWrites(IMap<Integer, Employee> map) {
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            map.put(i, new Employee(i, "name" + i, i % 10, true, i));
+        }
+        assertEquals(ENTRY_COUNT / 10, map.values(equal("age", 3)).size());
+
+        // move the age 3 to 4, remove the age 5
+        for (int i = 0; i < ENTRY_COUNT; ++i) {
+            if (i % 10 == 3) {
+                map.set(i, new Employee(i, "name" + i, 4, true, i));
+            } else if (i % 10 == 5) {
+                map.delete(i);
+            }
+        }
+        assertEquals(0, map.values(equal("age", 3)).size());
+        assertEquals(2 * ENTRY_COUNT / 10, map.values(equal("age", 4)).size());
+        assertEquals(0, map.values(equal("age", 5)).size());
+        assertEquals(ENTRY_COUNT - ENTRY_COUNT / 10, map.values(greaterEqual("age", 0)).size());
+    }
+
+    private IMap<Integer, Employee> createMap(Config config) {
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Employee> map = instance.getMap(randomMapName());
+        map.addIndex(IndexType.HASH, "age");
+        map.addIndex(IndexType.SORTED, "age");
+        return map;
+    }
+
+    private static MapContainer mapContainer(IMap<?, ?> map) {
+        MapProxyImpl<?, ?> proxy = (MapProxyImpl<?, ?>) map;
+        return proxy.getService().getMapServiceContext().getMapContainer(map.getName());
+    }
+
+}
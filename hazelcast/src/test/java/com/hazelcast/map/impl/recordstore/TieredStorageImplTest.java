@@ -0,0 +1,264 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.map.impl.recordstore;
+
+import com.hazelcast.config.Config;
+import com.hazelcast.config.MapConfig;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.SerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.IMap;
+import com.hazelcast.map.impl.MapService;
+import com.hazelcast.map.impl.MapServiceContext;
+import com.hazelcast.map.impl.record.DataRecordFactory;
+import com.hazelcast.map.impl.record.Record;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.spi.properties.HazelcastProperties;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Rule;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.rules.TemporaryFolder;
+import org.junit.runner.RunWith;
+
+import java.io.File;
+import java.util.Iterator;
+import java.util.Map;
+import java.util.Properties;
+
+import static com.hazelcast.config.InMemoryFormat.BINARY;
+import static com.hazelcast.map.impl.recordstore.TieredStorageImpl.TIERED_STORAGE_DIRECTORY;
+import static com.hazelcast.map.impl.recordstore.TieredStorageImpl.TIERED_STORAGE_ENABLED;
+import static com.hazelcast.map.impl.recordstore.TieredStorageImpl.TIERED_STORAGE_HOT_ENTRY_COUNT;
+import static com.hazelcast.test.Accessors.getNodeEngineImpl;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class TieredStorageImplTest extends HazelcastTestSupport {
+
+    private static final int HOT_ENTRY_COUNT = 10;
+
+    @Rule
+    public TemporaryFolder temporaryFolder = new TemporaryFolder();
+
+    private File directory;
+    private SerializationService serializationService;
+    private DataRecordFactory recordFactory;
+    private TieredStorageImpl<Record> storage;
+
+    @Before
+    public void setUp() throws Exception {
+        directory = temporaryFolder.newFolder();
+        serializationService = new DefaultSerializationServiceBuilder().build();
+        recordFactory = new DataRecordFactory(new MapConfig(), serializationService);
+
+        Properties properties = new Properties();
+        properties.setProperty(TIERED_STORAGE_DIRECTORY.getName(), directory.getAbsolutePath());
+        properties.setProperty(TIERED_STORAGE_HOT_ENTRY_COUNT.getName(), String.valueOf(HOT_ENTRY_COUNT));
+        storage = new TieredStorageImpl<>(BINARY, serializationService, new HazelcastProperties(properties), 0);
+    }
+
+    @After
+    public void tearDown() {
+        storage.destroy(false);
+    }
+
+    @Test
+    public void test_entriesAboveHotEntryCount_areDemoted() {
+        putEntries(100);
+
+        assertEquals(100, storage.size());
+        assertEquals(HOT_ENTRY_COUNT, storage.getHotEntryCount());
+        assertEquals(90, storage.getColdEntryCount());
+        assertEquals(90, storage.getDemotions());
+        assertTrue(storage.getColdLiveBytes() > 0);
+    }
+
+    @Test
+    public void test_getOffPartitionThread_doesNotPromoteColdEntry() {
+        putEntries(100);
+
+        Data coldKey = findColdEntry().getKey();
+        Record record = storage.get(coldKey);
+
+        assertTrue(record.getValue() instanceof ColdData);
+        assertEquals("value-" + serializationService.toObject(coldKey), serializationService.toObject(record.getValue()));
+        assertEquals(1, storage.getColdHits());
+        assertEquals(0, storage.getPromotions());
+        assertEquals(90, storage.getColdEntryCount());
+    }
+
+    @Test
+    public void test_coldValues_readableInPlace() {
+        putEntries(100);
+
+        int coldValueCount = 0;
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            Object value = entry.getValue().getValue();
+            if (value instanceof ColdData) {
+                coldValueCount++;
+            }
+            int key = serializationService.toObject(entry.getKey());
+            assertEquals("value-" + key, serializationService.toObject(value));
+        }
+        assertEquals(90, coldValueCount);
+        assertEquals(0, storage.getPromotions());
+    }
+
+    @Test
+    public void test_removeColdEntry() {
+        putEntries(100);
+
+        Map.Entry<Data, Record> coldEntry = findColdEntry();
+        Data key = coldEntry.getKey();
+        storage.removeRecord(key, coldEntry.getValue());
+
+        assertFalse(storage.containsKey(key));
+        assertEquals(99, storage.size());
+        assertEquals(89, storage.getColdEntryCount());
+    }
+
+    @Test
+    public void test_compaction_keepsLiveValues() {
+        int entryCount = 5000;
+        String padding = new String(new char[500]).replace('\0', 'x');
+        putEntries(entryCount, padding);
+        // overwrite everything twice, all cold values become garbage and the
+        // compaction started by the first round completes during the second
+        putEntries(entryCount, padding);
+        putEntries(entryCount, padding);
+
+        assertTrue(storage.getCompactions() > 0);
+        assertTrue(directory.list().length <= 2);
+        for (int i = 0; i < entryCount; i++) {
+            Record record = storage.get(toData(i));
+            assertEquals("value-" + i + padding, serializationService.toObject(record.getValue()));
+        }
+    }
+
+    @Test
+    public void test_compaction_isIncremental() {
+        int entryCount = 5000;
+        String padding = new String(new char[500]).replace('\0', 'x');
+        putEntries(entryCount, padding);
+
+        // overwrite everything twice, the compaction spans several mutations
+        // during which the compacted file and the new one both exist
+        boolean compactionInProgressSeen = false;
+        for (int i = 0; i < 2 * entryCount; i++) {
+            Data key = toData(i % entryCount);
+            storage.updateRecordValue(key, storage.get(key), "value-" + i + padding);
+            int fileCount = directory.list().length;
+            assertTrue(fileCount <= 2);
+            compactionInProgressSeen |= fileCount == 2;
+        }
+
+        assertTrue(compactionInProgressSeen);
+        assertTrue(storage.getCompactions() > 0);
+    }
+
+    @Test
+    public void test_clear_deletesSegmentFile() {
+        putEntries(100);
+        assertEquals(1, directory.list().length);
+
+        storage.clear(false);
+
+        assertEquals(0, storage.size());
+        assertEquals(0, storage.getColdEntryCount());
+        assertEquals(0, directory.list().length);
+    }
+
+    @Test
+    public void test_mapOperationsAndQueries_seeColdEntries() {
+        Config config = smallInstanceConfig()
+                .setProperty(TIERED_STORAGE_ENABLED.getName(), "true")
+                .setProperty(TIERED_STORAGE_DIRECTORY.getName(), directory.getAbsolutePath())
+                .setProperty(TIERED_STORAGE_HOT_ENTRY_COUNT.getName(), "1");
+        HazelcastInstance instance = createHazelcastInstance(config);
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i);
+        }
+
+        assertEquals(1000, map.size());
+        assertEquals(500, map.values(Predicates.greaterEqual("this", 500)).size());
+        assertEquals(1000, map.entrySet().size());
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(i, (int) map.get(i));
+        }
+        // map.get runs on the partition threads, which promote cold values
+        assertTrue(totalPromotions(instance, map.getName()) > 0);
+        map.clear();
+        assertEquals(0, map.size());
+    }
+
+    private void putEntries(int count) {
+        putEntries(count, "");
+    }
+
+    private void putEntries(int count, String suffix) {
+        for (int i = 0; i < count; i++) {
+            Data key = toData(i);
+            Record record = storage.get(key);
+            if (record == null) {
+                storage.put(key, recordFactory.newRecord("value-" + i + suffix));
+            } else {
+                storage.updateRecordValue(key, record, "value-" + i + suffix);
+            }
+        }
+    }
+
+    private static long totalPromotions(HazelcastInstance instance, String mapName) {
+        MapService mapService = getNodeEngineImpl(instance).getService(MapService.SERVICE_NAME);
+        MapServiceContext mapServiceContext = mapService.getMapServiceContext();
+        long promotions = 0;
+        for (int partitionId = 0; partitionId < instance.getPartitionService().getPartitions().size(); partitionId++) {
+            RecordStore recordStore = mapServiceContext.getExistingRecordStore(partitionId, mapName);
+            if (recordStore != null) {
+                promotions += ((TieredStorageImpl) recordStore.getStorage()).getPromotions();
+            }
+        }
+        return promotions;
+    }
+
+    private Map.Entry<Data, Record> findColdEntry() {
+        Iterator<Map.Entry<Data, Record>> iterator = storage.mutationTolerantIterator();
+        while (iterator.hasNext()) {
+            Map.Entry<Data, Record> entry = iterator.next();
+            if (entry.getValue().getValue() instanceof ColdData) {
+                return entry;
+            }
+        }
+        throw new AssertionError("No cold entry found");
+    }
+
+    private Data toData(int key) {
+        return serializationService.toData(key);
+    }
+}
@@ -0,0 +1,349 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.config.IndexType;
+import com.hazelcast.config.SortedIndexStructure;
+import com.hazelcast.core.HazelcastInstance;
+import com.hazelcast.internal.monitor.impl.GlobalIndexOperationStats;
+import com.hazelcast.internal.monitor.impl.IndexOperationStats;
+import com.hazelcast.internal.monitor.impl.LocalIndexStatsImpl;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.map.IMap;
+import com.hazelcast.query.Predicates;
+import com.hazelcast.query.impl.getters.MultiResult;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+import java.util.TreeMap;
+
+import static com.hazelcast.query.impl.AbstractIndex.NULL;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class BTreeIndexStoreTest extends HazelcastTestSupport {
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+    private final BTreeIndexStore store = new BTreeIndexStore(IndexCopyBehavior.COPY_ON_READ);
+    private final Map<Integer, QueryableEntry> entries = new HashMap<>();
+    // key -> indexed value, the expected content of the store
+    private final Map<Integer, Integer> model = new HashMap<>();
+
+    @Test
+    public void testRandomUpdatesMatchModel() {
+        Random random = new Random(42);
+        for (int i = 0; i < 20000; i++) {
+            int key = random.nextInt(5000);
+            Integer oldValue = model.get(key);
+            if (oldValue != null && random.nextInt(4) == 0) {
+                store.remove(oldValue, entry(key).getKeyData(), null, IndexOperationStats.EMPTY);
+                model.remove(key);
+            } else {
+                int value = random.nextInt(300);
+                if (oldValue == null) {
+                    store.insert(value, entry(key), IndexOperationStats.EMPTY);
+                } else {
+                    store.update(oldValue, value, entry(key), IndexOperationStats.EMPTY);
+                }
+                model.put(key, value);
+            }
+        }
+        assertTrue(store.depth() > 1);
+
+        assertIteratesInOrder(store.getSqlRecordIterator(), model.size());
+        for (int value = -1; value <= 300; value += 7) {
+            assertEquals(expectedKeys(value, true, value, true), keys(store.getRecords(value)));
+            assertEquals(expectedKeys(value, true, value, true), keys(store.getSqlRecordIterator(value)));
+            assertEquals(expectedKeys(value, false, value + 50, true), keys(store.getRecords(value, false, value + 50, true)));
+            assertEquals(expectedKeys(value, true, value + 50, false),
+                    keys(store.getSqlRecordIterator(value, true, value + 50, false)));
+            assertEquals(expectedKeys(null, false, value, false), keys(store.getRecords(Comparison.LESS, value)));
+            assertEquals(expectedKeys(null, false, value, true), keys(store.getRecords(Comparison.LESS_OR_EQUAL, value)));
+            assertEquals(expectedKeys(value, false, null, false), keys(store.getRecords(Comparison.GREATER, value)));
+            assertEquals(expectedKeys(value, true, null, false),
+                    keys(store.getSqlRecordIterator(Comparison.GREATER_OR_EQUAL, value)));
+        }
+    }
+
+    @Test
+    public void testRemoveAll() {
+        for (int key = 0; key < 1000; key++) {
+            store.insert(key % 10, entry(key), IndexOperationStats.EMPTY);
+        }
+        for (int key = 0; key < 1000; key++) {
+            store.remove(key % 10, entry(key).getKeyData(), null, IndexOperationStats.EMPTY);
+        }
+        assertFalse(store.getSqlRecordIterator().hasNext());
+        assertEquals(1, store.depth());
+        assertTrue(store.getRecords(Comparison.GREATER_OR_EQUAL, 0).isEmpty());
+    }
+
+    @Test
+    public void testNullValues() {
+        store.insert(null, entry(1), IndexOperationStats.EMPTY);
+        store.insert(5, entry(2), IndexOperationStats.EMPTY);
+
+        assertEquals(set(1), keys(store.getRecords(NULL)));
+        assertEquals(set(2), keys(store.getRecords(Comparison.GREATER_OR_EQUAL, 0)));
+        assertEquals(set(1, 2), keys(store.getSqlRecordIterator()));
+
+        store.remove(null, entry(1).getKeyData(), null, IndexOperationStats.EMPTY);
+        assertTrue(store.getRecords(NULL).isEmpty());
+    }
+
+    @Test
+    public void testEntryCountAndDistinctValues() {
+        for (int key = 0; key < 1000; key++) {
+            store.insert(key % 37, entry(key), IndexOperationStats.EMPTY);
+        }
+        store.insert(null, entry(1000), IndexOperationStats.EMPTY);
+        assertEquals(1001, store.getEntryCount());
+
+        Set<Integer> distinct = new HashSet<>();
+        assertTrue(store.visitDistinctValues(entry -> {
+            int key = ss.toObject(entry.getKeyData());
+            assertTrue(distinct.add(key == 1000 ? -1 : key % 37));
+        }));
+        assertEquals(38, distinct.size());
+
+        List<Integer> extremes = new ArrayList<>();
+        assertTrue(store.visitExtremeValues(entry -> extremes.add((Integer) ss.toObject(entry.getKeyData()) % 37)));
+        assertEquals(asList(0, 36), extremes);
+
+        // the entry is indexed twice
+        MultiResult<Integer> values = new MultiResult<>();
+        values.add(1);
+        values.add(2);
+        store.insert(values, entry(1001), IndexOperationStats.EMPTY);
+        assertEquals(-1, store.getEntryCount());
+        assertFalse(store.visitDistinctValues(entry -> { }));
+        assertFalse(store.visitExtremeValues(entry -> { }));
+    }
+
+    @Test
+    public void testBulkLoadIntoEmptyStore() {
+        Random random = new Random(42);
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 0; key < 10000; key++) {
+            keys.add(key);
+            model.put(key, random.nextInt(500));
+        }
+        Collections.shuffle(keys, random);
+
+        long entryCountDelta = insertAll(keys);
+
+        assertEquals(10000, entryCountDelta);
+        assertIteratesInOrder(store.getSqlRecordIterator(), 10000);
+        assertEquals(expectedKeys(100, true, 200, false), keys(store.getRecords(100, true, 200, false)));
+        // 10000 slots fit into 157 full leaves under 3 inner pages and a root
+        assertEquals(3, store.depth());
+    }
+
+    @Test
+    public void testBulkLoadMergesWithExistingEntries() {
+        for (int key = 0; key < 100; key++) {
+            model.put(key, key % 10);
+            store.insert(key % 10, entry(key), IndexOperationStats.EMPTY);
+        }
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 50; key < 1050; key++) {
+            keys.add(key);
+            model.put(key, key % 10);
+        }
+
+        // the first 50 keys are already indexed under the same values
+        assertEquals(950, insertAll(keys));
+        assertIteratesInOrder(store.getSqlRecordIterator(), 1050);
+        assertEquals(expectedKeys(3, true, 3, true), keys(store.getRecords(3)));
+    }
+
+    @Test
+    public void testSmallBatchIsInsertedIntoLargeStore() {
+        List<Integer> keys = new ArrayList<>();
+        for (int key = 0; key < 1000; key++) {
+            keys.add(key);
+            model.put(key, key);
+        }
+        insertAll(keys);
+        store.insert(null, entry(-1), IndexOperationStats.EMPTY);
+
+        keys.clear();
+        for (int key = 1000; key < 1010; key++) {
+            keys.add(key);
+            model.put(key, key - 1000);
+        }
+        assertEquals(10, insertAll(keys));
+
+        assertEquals(set(0, 1000), keys(store.getRecords(0)));
+        assertEquals(set(-1), keys(store.getRecords(NULL)));
+        assertEquals(1011, keys(store.getSqlRecordIterator()).size());
+    }
+
+    @Test
+    public void testMapIndexPopulationStats() {
+        HazelcastInstance instance = createHazelcastInstance(smallInstanceConfig());
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i % 100);
+        }
+        map.addIndex(new IndexConfig(IndexType.SORTED, "this").setName("index")
+                .setSortedIndexStructure(SortedIndexStructure.B_TREE));
+
+        LocalIndexStatsImpl stats = (LocalIndexStatsImpl) map.getLocalMapStats().getIndexStats().get("index");
+        assertEquals(1000, stats.getPopulatedEntryCount());
+        assertTrue(stats.getPopulationCount() > 0);
+        assertTrue(stats.getTotalPopulationLatency() > 0);
+        assertEquals(10, map.keySet(Predicates.equal("this", 1)).size());
+    }
+
+    @Test
+    public void testIteratorWorksOnSnapshot() {
+        for (int key = 0; key < 500; key++) {
+            store.insert(key, entry(key), IndexOperationStats.EMPTY);
+        }
+        Iterator<QueryableEntry> iterator = store.getSqlRecordIterator(Comparison.GREATER_OR_EQUAL, 100);
+        store.clear();
+        for (int key = 0; key < 500; key++) {
+            store.insert(key, entry(key + 1000), IndexOperationStats.EMPTY);
+        }
+        int count = 0;
+        while (iterator.hasNext()) {
+            assertTrue((Integer) ss.toObject(iterator.next().getKeyData()) < 500);
+            count++;
+        }
+        assertEquals(400, count);
+    }
+
+    @Test
+    public void testMapWithBTreeIndex() {
+        HazelcastInstance instance = createHazelcastInstance(smallInstanceConfig());
+        IMap<Integer, Integer> map = instance.getMap(randomMapName());
+        map.addIndex(new IndexConfig(IndexType.SORTED, "this").setSortedIndexStructure(SortedIndexStructure.B_TREE));
+        for (int i = 0; i < 1000; i++) {
+            map.put(i, i % 100);
+        }
+        map.addIndex(new IndexConfig(IndexType.SORTED, "__key").setSortedIndexStructure(SortedIndexStructure.B_TREE));
+        for (int i = 0; i < 1000; i += 2) {
+            map.remove(i);
+        }
+
+        assertEquals(250, map.keySet(Predicates.lessThan("this", 50)).size());
+        assertEquals(50, map.keySet(Predicates.between("this", 11, 20)).size());
+        assertEquals(10, map.keySet(Predicates.between("__key", 101, 120)).size());
+        assertEquals(10, map.keySet(Predicates.equal("this", 1)).size());
+    }
+
+    private QueryableEntry entry(int key) {
+        return entries.computeIfAbsent(key, k -> {
+            QueryableEntry entry = mock(QueryableEntry.class);
+            Data keyData = ss.toData(k);
+            when(entry.getKeyData()).thenReturn(keyData);
+            return entry;
+        });
+    }
+
+    private long insertAll(List<Integer> keys) {
+        Object[] values = new Object[keys.size()];
+        QueryableEntry[] batch = new QueryableEntry[keys.size()];
+        IndexOperationStats[] operationStats = new IndexOperationStats[keys.size()];
+        for (int i = 0; i < keys.size(); i++) {
+            values[i] = model.get(keys.get(i));
+            batch[i] = entry(keys.get(i));
+            operationStats[i] = new GlobalIndexOperationStats();
+        }
+        store.insertAll(values, batch, operationStats);
+
+        long entryCountDelta = 0;
+        for (IndexOperationStats stats : operationStats) {
+            entryCountDelta += stats.getEntryCountDelta();
+        }
+        return entryCountDelta;
+    }
+
+    private Set<Integer> expectedKeys(Integer from, boolean fromInclusive, Integer to, boolean toInclusive) {
+        Set<Integer> keys = new HashSet<>();
+        for (Map.Entry<Integer, Integer> entry : model.entrySet()) {
+            int value = entry.getValue();
+            boolean aboveFrom = from == null || (fromInclusive ? value >= from : value > from);
+            boolean belowTo = to == null || (toInclusive ? value <= to : value < to);
+            if (aboveFrom && belowTo) {
+                keys.add(entry.getKey());
+            }
+        }
+        return keys;
+    }
+
+    private void assertIteratesInOrder(Iterator<QueryableEntry> iterator, int expectedCount) {
+        TreeMap<Integer, Integer> seen = new TreeMap<>();
+        int previous = Integer.MIN_VALUE;
+        int count = 0;
+        while (iterator.hasNext()) {
+            int key = ss.toObject(iterator.next().getKeyData());
+            int value = model.isEmpty() ? key : model.get(key);
+            assertTrue(value >= previous);
+            previous = value;
+            seen.put(key, value);
+            count++;
+        }
+        assertEquals(expectedCount, count);
+        assertEquals(expectedCount, seen.size());
+    }
+
+    private Set<Integer> keys(Set<QueryableEntry> result) {
+        return keys(result.iterator());
+    }
+
+    private Set<Integer> keys(Iterator<QueryableEntry> iterator) {
+        Set<Integer> keys = new HashSet<>();
+        while (iterator.hasNext()) {
+            keys.add(ss.toObject(iterator.next().getKeyData()));
+        }
+        return keys;
+    }
+
+    private static Set<Integer> set(Integer... values) {
+        Set<Integer> set = new HashSet<>();
+        for (Integer value : values) {
+            set.add(value);
+        }
+        return set;
+    }
+}
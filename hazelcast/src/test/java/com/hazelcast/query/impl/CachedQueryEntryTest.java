@@ -28,6 +28,12 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertFalse;
 import static org.junit.Assert.assertSame;
@@ -39,6 +45,8 @@ import static org.mockito.Mockito.when;
 @Category({QuickTest.class, ParallelJVMTest.class})
 public class CachedQueryEntryTest extends QueryEntryTest {
 
+    private static final int CONCURRENCY = 4;
+
     @Test
     public void getKey_caching() {
         QueryableEntry entry = createEntry("key", "value");
@@ -67,6 +75,70 @@ public class CachedQueryEntryTest extends QueryEntryTest {
         assertSame(entry.getValueData(), entry.getValueData());
     }
 
+    @Test
+    public void getAttributeValue_caching() {
+        CountingValue value = new CountingValue();
+        CachedQueryEntry entry = (CachedQueryEntry) createEntry(serializationService.toData("key"), value, newExtractor());
+        entry.memoizeAttributeValues();
+
+        assertEquals(1, entry.getAttributeValue("name"));
+        assertEquals(1, entry.getAttributeValue("name"));
+        assertEquals(1, value.count);
+
+        // the memoized values are forgotten on the reinitialization
+        initEntry(entry, serializationService, serializationService.toData("key"), value, newExtractor());
+        assertEquals(2, entry.getAttributeValue("name"));
+    }
+
+    @Test
+    public void getAttributeValue_notCachedByDefault() {
+        CountingValue value = new CountingValue();
+        CachedQueryEntry entry = (CachedQueryEntry) createEntry(serializationService.toData("key"), value, newExtractor());
+
+        assertEquals(1, entry.getAttributeValue("name"));
+        assertEquals(2, entry.getAttributeValue("name"));
+    }
+
+    @Test
+    public void getAttributeValue_concurrently() throws Exception {
+        CountingValue value = new CountingValue();
+        // like the entries stored in the indexes and read by the queries
+        CachedQueryEntry entry = (CachedQueryEntry) createEntry(serializationService.toData("key"), value, newExtractor());
+
+        ExecutorService executor = Executors.newFixedThreadPool(CONCURRENCY);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int i = 0; i < CONCURRENCY; ++i) {
+                int offset = i;
+                futures.add(executor.submit(() -> {
+                    for (int j = 0; j < 10000; ++j) {
+                        int attribute = (j + offset) % CachedQueryEntry.MAX_MEMOIZED_ATTRIBUTES;
+                        assertEquals(attribute, entry.getAttributeValue("other" + attribute));
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void getAttributeValue_cachingIsBounded() {
+        CountingValue value = new CountingValue();
+        CachedQueryEntry entry = (CachedQueryEntry) createEntry(serializationService.toData("key"), value, newExtractor());
+        entry.memoizeAttributeValues();
+
+        for (int i = 0; i < CachedQueryEntry.MAX_MEMOIZED_ATTRIBUTES; ++i) {
+            entry.getAttributeValue("other" + i);
+        }
+        entry.getAttributeValue("name");
+        entry.getAttributeValue("name");
+        assertEquals(2, value.count);
+    }
+
     @Test(expected = IllegalArgumentException.class)
     public void testInit_whenKeyIsNull_thenThrowIllegalArgumentException() {
         createEntry(null, new Object(), newExtractor());
@@ -215,6 +287,25 @@ public class CachedQueryEntryTest extends QueryEntryTest {
                 newExtractor());
     }
 
+    public static class CountingValue {
+
+        public int other0;
+        public int other1 = 1;
+        public int other2 = 2;
+        public int other3 = 3;
+        public int other4 = 4;
+        public int other5 = 5;
+        public int other6 = 6;
+        public int other7 = 7;
+
+        private int count;
+
+        public int getName() {
+            return ++count;
+        }
+
+    }
+
     private Extractors newExtractor() {
         return Extractors.newBuilder(serializationService).build();
     }
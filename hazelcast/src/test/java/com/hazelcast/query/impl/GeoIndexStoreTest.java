@@ -0,0 +1,168 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl;
+
+import com.hazelcast.internal.monitor.impl.IndexOperationStats;
+import com.hazelcast.internal.serialization.Data;
+import com.hazelcast.internal.serialization.InternalSerializationService;
+import com.hazelcast.internal.serialization.impl.DefaultSerializationServiceBuilder;
+import com.hazelcast.query.impl.predicates.GeoDistancePredicate;
+import com.hazelcast.query.impl.predicates.GeoPredicate;
+import com.hazelcast.query.impl.predicates.GeoWithinPredicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class GeoIndexStoreTest {
+
+    private final InternalSerializationService ss = new DefaultSerializationServiceBuilder().build();
+    private final GeoIndexStore store = new GeoIndexStore();
+    private final Map<Integer, QueryableEntry> entries = new HashMap<>();
+    // key -> {latitude, longitude}, the expected content of the store
+    private final Map<Integer, double[]> model = new HashMap<>();
+    private final Random random = new Random();
+
+    @Test
+    public void testMovingPositionsMatchModel() {
+        for (int i = 0; i < 20000; ++i) {
+            int key = random.nextInt(2000);
+            if (model.containsKey(key) && random.nextInt(4) == 0) {
+                store.remove(value(model.get(key)), entry(key).getKeyData(), null, IndexOperationStats.EMPTY);
+                model.remove(key);
+            } else {
+                // positions cluster around a few spots to exercise both
+                // query strategies
+                double[] position = {random.nextInt(3) * 10 + random.nextDouble(), random.nextInt(3) * 10 + random.nextDouble()};
+                if (model.containsKey(key)) {
+                    store.update(value(model.get(key)), value(position), entry(key), IndexOperationStats.EMPTY);
+                } else {
+                    store.insert(value(position), entry(key), IndexOperationStats.EMPTY);
+                }
+                model.put(key, position);
+            }
+        }
+
+        verify(new GeoWithinPredicate("lat", "lon", 0.2, 0.3, 0.7, 0.5));
+        verify(new GeoWithinPredicate("lat", "lon", 0.5, 0.5, 20.5, 20.5));
+        verify(new GeoWithinPredicate("lat", "lon", -90, -180, 90, 180));
+        verify(new GeoDistancePredicate("lat", "lon", 10.5, 10.5, 30000));
+        verify(new GeoDistancePredicate("lat", "lon", 10.5, 10.5, 3000000));
+
+        Set<Integer> cells = new HashSet<>();
+        for (double[] position : model.values()) {
+            cells.add((int) Math.floor((position[0] + 90) * GeoIndexStore.CELLS_PER_DEGREE) * 100000
+                    + (int) Math.floor((position[1] + 180) * GeoIndexStore.CELLS_PER_DEGREE));
+        }
+        assertEquals(cells.size(), store.getOccupiedCellCount());
+    }
+
+    @Test
+    public void testAntimeridianAndPoles() {
+        insert(1, 0.0, 179.99);
+        insert(2, 0.0, -179.99);
+        insert(3, 0.0, 0.0);
+        insert(4, 89.99, 45.0);
+        insert(5, 89.99, -135.0);
+
+        verify(new GeoWithinPredicate("lat", "lon", -1, 179, 1, -179), 1, 2);
+        verify(new GeoDistancePredicate("lat", "lon", 0.0, 180.0, 5000), 1, 2);
+        verify(new GeoDistancePredicate("lat", "lon", 89.99, 45.0, 5000), 4, 5);
+    }
+
+    @Test
+    public void testInvalidPositionsAreNotIndexed() {
+        insert(1, 10.0, 10.0);
+        store.insert(new CompositeValue(new Comparable[]{"10", 10.0}), entry(2), IndexOperationStats.EMPTY);
+        store.insert(new CompositeValue(new Comparable[]{null, 10.0}), entry(3), IndexOperationStats.EMPTY);
+        store.insert(new CompositeValue(new Comparable[]{91.0, 10.0}), entry(4), IndexOperationStats.EMPTY);
+        verify(new GeoWithinPredicate("lat", "lon", -90, -180, 90, 180), 1);
+
+        // moving to an invalid position unindexes the entry
+        store.update(value(new double[]{10.0, 10.0}), new CompositeValue(new Comparable[]{10.0, null}), entry(1),
+                IndexOperationStats.EMPTY);
+        model.remove(1);
+        verify(new GeoWithinPredicate("lat", "lon", -90, -180, 90, 180));
+        assertEquals(0, store.getOccupiedCellCount());
+    }
+
+    private void insert(int key, double latitude, double longitude) {
+        double[] position = {latitude, longitude};
+        store.insert(value(position), entry(key), IndexOperationStats.EMPTY);
+        model.put(key, position);
+    }
+
+    private void verify(GeoPredicate predicate, int... expectedKeys) {
+        Set<Data> expected = new HashSet<>();
+        for (int key : expectedKeys) {
+            expected.add(entry(key).getKeyData());
+        }
+        assertEquals(expected, keys(store.evaluate(predicate, null)));
+    }
+
+    private void verify(GeoPredicate predicate) {
+        Set<Data> expected = new HashSet<>();
+        for (Map.Entry<Integer, double[]> entry : model.entrySet()) {
+            if (predicate.contains(entry.getValue()[0], entry.getValue()[1])) {
+                expected.add(entry(entry.getKey()).getKeyData());
+            }
+        }
+        Set<Data> actual = keys(store.evaluate(predicate, null));
+        assertEquals(predicate.toString(), expected, actual);
+        assertFalse(predicate.toString(), model.size() > 100 && actual.isEmpty());
+        assertTrue(actual.size() <= model.size());
+    }
+
+    private static Set<Data> keys(Set<QueryableEntry> entries) {
+        Set<Data> keys = new HashSet<>();
+        for (QueryableEntry entry : entries) {
+            keys.add(entry.getKeyData());
+        }
+        return keys;
+    }
+
+    private static CompositeValue value(double[] position) {
+        return new CompositeValue(new Comparable[]{position[0], position[1]});
+    }
+
+    private QueryableEntry entry(int key) {
+        return entries.computeIfAbsent(key, k -> {
+            QueryableEntry entry = mock(QueryableEntry.class);
+            Data keyData = ss.toData(k);
+            when(entry.getKeyData()).thenReturn(keyData);
+            return entry;
+        });
+    }
+
+}
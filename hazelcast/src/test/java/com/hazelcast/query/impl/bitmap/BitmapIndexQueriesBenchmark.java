@@ -52,10 +52,17 @@ public class BitmapIndexQueriesBenchmark {
     private static final int HABITS = 5000;
     private static final int DOMAIN = 25000;
 
+    // a dense low-cardinality attribute: most of the entries, inserted one
+    // after another, share the same status, producing long runs of members
+    private static final int STATUS_SIZE = 200000;
+    private static final int STATUSES = 8;
+    private static final double ARCHIVED_FRACTION = 0.8;
+
     private final Random random = new Random(303);
     private HazelcastInstance instance;
     private IMap<Integer, Person> personsBitmap;
     private IMap<Integer, Person> personsHash;
+    private IMap<Integer, Person> statusesBitmap;
 
     @Setup
     public void setup() {
@@ -71,6 +78,15 @@ public class BitmapIndexQueriesBenchmark {
         personsHashConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
         personsHashConfig.addIndexConfig(new IndexConfig(IndexType.HASH, "habits[any]"));
 
+        MapConfig statusesPlainConfig = config.getMapConfig("statusesPlain");
+        statusesPlainConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+
+        MapConfig statusesBitmapConfig = config.getMapConfig("statusesBitmap");
+        statusesBitmapConfig.setInMemoryFormat(InMemoryFormat.OBJECT);
+        IndexConfig statusIndexConfig = new IndexConfig(IndexType.BITMAP, "status");
+        statusIndexConfig.getBitmapIndexOptions().setUniqueKeyTransformation(RAW);
+        statusesBitmapConfig.addIndexConfig(statusIndexConfig);
+
         instance = Hazelcast.newHazelcastInstance(config);
 
         personsBitmap = instance.getMap("personsBitmap");
@@ -85,6 +101,32 @@ public class BitmapIndexQueriesBenchmark {
             personsBitmap.put(i, person);
             personsHash.put(i, person);
         }
+
+        // The index memory is the difference between the heap taken by the
+        // indexed map and by the same map without the index.
+        long heapBefore = usedHeap();
+        populateStatuses(instance.getMap("statusesPlain"));
+        long plainHeap = usedHeap() - heapBefore;
+        statusesBitmap = instance.getMap("statusesBitmap");
+        populateStatuses(statusesBitmap);
+        long indexedHeap = usedHeap() - heapBefore - plainHeap;
+        System.out.println("Bitmap index memory per entry: " + (indexedHeap - plainHeap) / STATUS_SIZE + " bytes");
+    }
+
+    private void populateStatuses(IMap<Integer, Person> map) {
+        Random statusRandom = new Random(404);
+        for (int i = 0; i < STATUS_SIZE; ++i) {
+            int status = i < STATUS_SIZE * ARCHIVED_FRACTION ? 0 : statusRandom.nextInt(STATUSES);
+            map.put(i, new Person(new int[0], status));
+        }
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; ++i) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
     }
 
     @TearDown
@@ -132,6 +174,16 @@ public class BitmapIndexQueriesBenchmark {
         personsHash.entrySet(not(equal("habits[any]", random.nextInt(DOMAIN))));
     }
 
+    @Benchmark
+    public void bitmapQueriesStatusEqual() {
+        statusesBitmap.keySet(equal("status", random.nextInt(STATUSES)));
+    }
+
+    @Benchmark
+    public void bitmapQueriesStatusAnd() {
+        statusesBitmap.keySet(and(equal("status", 0), not(equal("status", random.nextInt(STATUSES)))));
+    }
+
     public static void main(String[] args) throws RunnerException {
         // @formatter:off
         Options opt = new OptionsBuilder()
@@ -152,9 +204,15 @@ public class BitmapIndexQueriesBenchmark {
     public static class Person implements Serializable {
 
         private final int[] habits;
+        private final int status;
 
         public Person(int[] habits) {
+            this(habits, 0);
+        }
+
+        public Person(int[] habits, int status) {
             this.habits = habits;
+            this.status = status;
         }
 
         @SuppressWarnings("unused")
@@ -162,6 +220,11 @@ public class BitmapIndexQueriesBenchmark {
             return habits;
         }
 
+        @SuppressWarnings("unused")
+        public int getStatus() {
+            return status;
+        }
+
     }
 
 }
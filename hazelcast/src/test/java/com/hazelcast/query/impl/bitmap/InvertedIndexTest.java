@@ -0,0 +1,108 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.bitmap;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.Set;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.match;
+import static com.hazelcast.query.Predicates.not;
+import static com.hazelcast.query.Predicates.or;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class InvertedIndexTest {
+
+    private final InvertedIndex<String> index = new InvertedIndex<>();
+
+    @Test
+    public void testTermsAndPrefixes() {
+        insert(0, "red", "shoes");
+        insert(1, "red", "shirt");
+        insert(2, "blue", "shoes");
+        insert(3);
+
+        assertEquals(set("0", "1"), evaluate(match("a", "red")));
+        assertEquals(set("0"), evaluate(match("a", "red shoes")));
+        assertEquals(set("0", "1", "2"), evaluate(match("a", "sh*")));
+        assertEquals(set("0", "1"), evaluate(match("a", "RED sh*")));
+        assertEquals(set(), evaluate(match("a", "green")));
+        assertEquals(set(), evaluate(match("a", "x*")));
+        assertEquals(set(), evaluate(match("a", "")));
+    }
+
+    @Test
+    public void testCompoundPredicates() {
+        insert(0, "red", "shoes");
+        insert(1, "red", "shirt");
+        insert(2, "blue", "shoes");
+        insert(3);
+
+        assertEquals(set("1", "2"), evaluate(or(match("a", "shirt"), match("a", "blue"))));
+        assertEquals(set("1"), evaluate(and(match("a", "red"), match("a", "shi*"))));
+        assertEquals(set("2", "3"), evaluate(not(match("a", "red"))));
+    }
+
+    @Test
+    public void testUpdateAndRemove() {
+        insert(0, "red", "shoes");
+        insert(1, "red", "shirt");
+
+        index.update(Arrays.asList("red", "shirt").iterator(), Arrays.asList("green", "shirt").iterator(), 1, "1");
+        assertEquals(set("0"), evaluate(match("a", "red")));
+        assertEquals(set("1"), evaluate(match("a", "green")));
+
+        index.remove(Arrays.asList("red", "shoes").iterator(), 0);
+        assertEquals(set(), evaluate(match("a", "red")));
+        assertEquals(2, index.getTermCount());
+
+        index.purge(1);
+        assertEquals(set(), evaluate(match("a", "shirt")));
+        assertEquals(0, index.getTermCount());
+    }
+
+    private void insert(long key, String... terms) {
+        index.insert(Arrays.asList(terms).iterator(), key, Long.toString(key));
+    }
+
+    private Set<String> evaluate(Predicate predicate) {
+        Set<String> result = new HashSet<>();
+        Iterator<String> iterator = index.evaluate(predicate);
+        while (iterator.hasNext()) {
+            result.add(iterator.next());
+        }
+        return result;
+    }
+
+    private static Set<String> set(String... values) {
+        return new HashSet<>(Arrays.asList(values));
+    }
+
+}
@@ -24,11 +24,14 @@ import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
 import java.util.NavigableSet;
+import java.util.Random;
 import java.util.SortedSet;
 import java.util.TreeSet;
 
 import static com.hazelcast.query.impl.bitmap.SparseBitSet.ARRAY_STORAGE_16_MAX_SIZE;
 import static com.hazelcast.query.impl.bitmap.SparseBitSet.ARRAY_STORAGE_32_MAX_SIZE;
+import static com.hazelcast.query.impl.bitmap.SparseBitSet.RUN_CHECK_INTERVAL;
+import static com.hazelcast.query.impl.bitmap.SparseBitSet.RUN_STORAGE_16_MAX_RUNS;
 import static org.junit.Assert.assertEquals;
 import static org.junit.Assert.assertNull;
 
@@ -264,6 +267,87 @@ public class SparseBitSetTest {
         }
     }
 
+    @Test
+    public void testRunStorage16() {
+        // a single run upgrades to a run storage
+        for (long i = 555; i < 555 + ARRAY_STORAGE_16_MAX_SIZE + 10; ++i) {
+            set(i);
+        }
+        verify();
+        verifyAdvanceAtLeastTo();
+
+        // split the run until the run storage is upgraded to a bit set
+        // storage and then join the runs back
+        for (long i = 556; i < 555 + ARRAY_STORAGE_16_MAX_SIZE; i += 2) {
+            clear(i);
+            if (i % 100 == 0) {
+                verify();
+            }
+        }
+        verify();
+        verifyAdvanceAtLeastTo();
+        for (long i = 556; i < 555 + ARRAY_STORAGE_16_MAX_SIZE; i += 2) {
+            set(i);
+        }
+        verify();
+        verifyAdvanceAtLeastTo();
+
+        // extend, join and shrink the runs at their edges
+        set(554);
+        set(556 + ARRAY_STORAGE_16_MAX_SIZE + 10);
+        set(555 + ARRAY_STORAGE_16_MAX_SIZE + 10);
+        clear(554);
+        clear(555);
+        verify();
+        verifyAdvanceAtLeastTo();
+
+        for (long i = 555; i < 555 + ARRAY_STORAGE_16_MAX_SIZE + 20; ++i) {
+            clear(i);
+        }
+        verify();
+    }
+
+    @Test
+    public void testBitSetStorage16Compaction() {
+        // alternating bits produce a bit set storage with too many runs
+        for (long i = 0; i < 4 * RUN_CHECK_INTERVAL + 2 * ARRAY_STORAGE_16_MAX_SIZE; i += 2) {
+            set(i);
+        }
+        verify();
+
+        // filling the gaps merges the runs, so the storage is eventually
+        // compacted into a run storage
+        for (long i = 1; i < 4 * RUN_CHECK_INTERVAL + 2 * ARRAY_STORAGE_16_MAX_SIZE; i += 2) {
+            set(i);
+            if (i % 1001 == 0) {
+                verify();
+            }
+        }
+        verify();
+        verifyAdvanceAtLeastTo();
+    }
+
+    @Test
+    public void testRandomUpdatesAcrossStorage16Flavors() {
+        Random random = new Random();
+        for (int round = 0; round < 20; ++round) {
+            // dense runs of random lengths in a few 16-bit storages
+            long base = random.nextInt(4) * (1L << Short.SIZE);
+            long start = base + random.nextInt(1 << Short.SIZE - 1);
+            int length = random.nextInt(RUN_STORAGE_16_MAX_RUNS * 4);
+            boolean add = random.nextInt(3) != 0;
+            for (long i = start; i < start + length; i += 1 + random.nextInt(3) / 2) {
+                if (add) {
+                    set(i);
+                } else {
+                    clear(i);
+                }
+            }
+            verify();
+        }
+        verifyAdvanceAtLeastTo();
+    }
+
     @Test
     public void testIteratorAdvanceAtLeastTo() {
         // try empty set
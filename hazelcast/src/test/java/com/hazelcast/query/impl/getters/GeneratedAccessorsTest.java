@@ -0,0 +1,138 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.getters;
+
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+
+import static com.hazelcast.query.impl.getters.GeneratedAccessors.REFLECTIVE;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class GeneratedAccessorsTest {
+
+    @Test
+    public void testMethod() throws Exception {
+        assertEquals(7, GeneratedAccessors.generate(PublicValue.class.getMethod("getPrimitive")).apply(new PublicValue()));
+        assertEquals("value", GeneratedAccessors.generate(PublicValue.class.getMethod("getName")).apply(new PublicValue()));
+        assertNotSame(REFLECTIVE, GeneratedAccessors.generate(PublicValue.class.getMethod("getName")));
+    }
+
+    @Test
+    public void testMethod_notLinkable() throws Exception {
+        assertSame(REFLECTIVE, GeneratedAccessors.generate(PackagePrivateValue.class.getMethod("getName")));
+        assertSame(REFLECTIVE, GeneratedAccessors.generate(PublicValue.class.getMethod("getStatic")));
+        assertSame(REFLECTIVE, GeneratedAccessors.generate(PublicValue.class.getMethod("doNothing")));
+    }
+
+    @Test
+    public void testMethodGetter_reflectiveSemanticsPreserved() throws Exception {
+        Method method = PublicValue.class.getMethod("getFailing");
+        MethodGetter getter = new MethodGetter(null, method, null, null);
+
+        try {
+            getter.getValue(new PublicValue());
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        try {
+            getter.getValue("not a value");
+            fail();
+        } catch (IllegalArgumentException expected) {
+            // the reflective invocation reports the unexpected targets
+        }
+    }
+
+    @Test
+    public void testMethodGetter_linkageErrorOfGetterReported() throws Exception {
+        Method method = PublicValue.class.getMethod("getUnlinkable");
+        MethodGetter getter = new MethodGetter(null, method, null, null);
+        PublicValue value = new PublicValue();
+
+        try {
+            getter.getValue(value);
+            fail();
+        } catch (InvocationTargetException e) {
+            assertTrue(e.getCause() instanceof NoClassDefFoundError);
+        }
+        // not retried reflectively
+        assertEquals(1, value.unlinkableCalls);
+    }
+
+    @Test
+    public void testMethodGetter_packagePrivateClass() throws Exception {
+        Method method = PackagePrivateValue.class.getMethod("getName");
+        method.setAccessible(true);
+
+        assertEquals("value", new MethodGetter(null, method, null, null).getValue(new PackagePrivateValue()));
+    }
+
+    @SuppressWarnings("unused")
+    public static class PublicValue {
+
+        public static final long STATIC = 1;
+
+        int unlinkableCalls;
+
+        public static long getStatic() {
+            return STATIC;
+        }
+
+        public int getPrimitive() {
+            return 7;
+        }
+
+        public String getName() {
+            return "value";
+        }
+
+        public String getFailing() {
+            throw new IllegalStateException();
+        }
+
+        public String getUnlinkable() {
+            unlinkableCalls++;
+            throw new NoClassDefFoundError();
+        }
+
+        public void doNothing() {
+        }
+
+    }
+
+    static class PackagePrivateValue {
+
+        public String getName() {
+            return "value";
+        }
+
+    }
+
+}
@@ -0,0 +1,119 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import static com.hazelcast.query.Predicates.within;
+import static com.hazelcast.query.Predicates.withinDistance;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class GeoPredicateTest {
+
+    @Test
+    public void testEqualsAndHashCode() {
+        EqualsVerifier.forClass(GeoWithinPredicate.class)
+            .suppress(Warning.NONFINAL_FIELDS, Warning.STRICT_INHERITANCE)
+            .withRedefinedSuperclass()
+            .allFieldsShouldBeUsed()
+            .verify();
+        EqualsVerifier.forClass(GeoDistancePredicate.class)
+            .suppress(Warning.NONFINAL_FIELDS, Warning.STRICT_INHERITANCE)
+            .withRedefinedSuperclass()
+            .allFieldsShouldBeUsed()
+            .verify();
+    }
+
+    @Test
+    public void testWithin() {
+        assertTrue(within("lat", "lon", 10, 20, 11, 21).apply(entry(10.5, 20.5)));
+        assertTrue(within("lat", "lon", 10, 20, 11, 21).apply(entry(10, 21)));
+        assertFalse(within("lat", "lon", 10, 20, 11, 21).apply(entry(10.5, 21.5)));
+        assertFalse(within("lat", "lon", 10, 20, 11, 21).apply(entry(9.5, 20.5)));
+
+        // crossing the antimeridian
+        assertTrue(within("lat", "lon", -1, 179, 1, -179).apply(entry(0, 179.5)));
+        assertTrue(within("lat", "lon", -1, 179, 1, -179).apply(entry(0, -179.5)));
+        assertFalse(within("lat", "lon", -1, 179, 1, -179).apply(entry(0, 0)));
+    }
+
+    @Test
+    public void testWithinDistance() {
+        // Paris to London is about 343.5 km
+        assertEquals(343500, GeoDistancePredicate.distance(48.8566, 2.3522, 51.5074, -0.1278), 500);
+        assertTrue(withinDistance("lat", "lon", 48.8566, 2.3522, 344000).apply(entry(51.5074, -0.1278)));
+        assertFalse(withinDistance("lat", "lon", 48.8566, 2.3522, 343000).apply(entry(51.5074, -0.1278)));
+    }
+
+    @Test
+    public void testInvalidPositionsNeverPass() {
+        assertFalse(within("lat", "lon", -90, -180, 90, 180).apply(entry(null, 10.0)));
+        assertFalse(within("lat", "lon", -90, -180, 90, 180).apply(entry("10", 10.0)));
+        assertFalse(within("lat", "lon", -90, -180, 90, 180).apply(entry(91.0, 10.0)));
+        assertFalse(withinDistance("lat", "lon", 0, 0, 1e9).apply(entry(0.0, 181.0)));
+    }
+
+    @Test
+    public void testBoundingBox() {
+        GeoDistancePredicate predicate = new GeoDistancePredicate("lat", "lon", 0, 179.99, 10000);
+        assertTrue(predicate.getMinLongitude() > predicate.getMaxLongitude());
+        assertTrue(predicate.contains(0, -179.99));
+
+        GeoDistancePredicate polar = new GeoDistancePredicate("lat", "lon", 89.99, 0, 10000);
+        assertEquals(90, polar.getMaxLatitude(), 0);
+        assertEquals(-180, polar.getMinLongitude(), 0);
+        assertEquals(180, polar.getMaxLongitude(), 0);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidBox() {
+        within("lat", "lon", 11, 20, 10, 21);
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testNegativeDistance() {
+        withinDistance("lat", "lon", 0, 0, -1);
+    }
+
+    @Test
+    public void testIndexPattern() {
+        assertEquals("lat,position.lon", new GeoWithinPredicate("this.lat", "position.lon", 0, 0, 1, 1).getIndexPattern());
+    }
+
+    private static QueryableEntry entry(Object latitude, Object longitude) {
+        QueryableEntry entry = mock(QueryableEntry.class);
+        when(entry.getAttributeValue("lat")).thenReturn(latitude);
+        when(entry.getAttributeValue("lon")).thenReturn(longitude);
+        return entry;
+    }
+
+}
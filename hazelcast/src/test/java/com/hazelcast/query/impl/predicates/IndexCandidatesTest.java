@@ -0,0 +1,82 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.config.IndexConfig;
+import com.hazelcast.query.Predicate;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static com.hazelcast.query.Predicates.and;
+import static com.hazelcast.query.Predicates.between;
+import static com.hazelcast.query.Predicates.equal;
+import static com.hazelcast.query.Predicates.greaterThan;
+import static com.hazelcast.query.Predicates.in;
+import static com.hazelcast.query.Predicates.like;
+import static com.hazelcast.query.Predicates.not;
+import static com.hazelcast.query.Predicates.notEqual;
+import static com.hazelcast.query.Predicates.or;
+import static java.util.Arrays.asList;
+import static java.util.Collections.emptyList;
+import static org.junit.Assert.assertEquals;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class IndexCandidatesTest {
+
+    @Test
+    public void testSingleAttribute() {
+        verify(equal("name", "a"), "HASH[name]");
+        verify(in("name", "a", "b"), "HASH[name]");
+        verify(greaterThan("age", 10), "SORTED[age]");
+        verify(between("age", 10, 20), "SORTED[age]");
+        verify(like("name", "a%"));
+        verify(notEqual("name", "a"));
+        verify(equal("this.name", "a"), "HASH[name]");
+    }
+
+    @Test
+    public void testComposite() {
+        verify(and(equal("b", 1), equal("a", 2)), "HASH[b]", "HASH[a]", "HASH[a, b]");
+        verify(and(greaterThan("c", 1), equal("b", 1), equal("a", 2)),
+                "SORTED[c]", "HASH[b]", "HASH[a]", "SORTED[a, b, c]");
+        verify(and(equal("a", 1), greaterThan("a", 0)), "HASH[a]", "SORTED[a]");
+        verify(and(equal("tags[any]", 1), equal("a", 2)), "HASH[tags[any]]", "HASH[a]");
+    }
+
+    @Test
+    public void testNested() {
+        verify(or(equal("a", 1), not(greaterThan("b", 1))), "HASH[a]", "SORTED[b]");
+        verify(or(equal("a", 1), equal("a", 2)), "HASH[a]");
+    }
+
+    private static void verify(Predicate predicate, String... expected) {
+        List<String> actual = new ArrayList<>();
+        for (IndexConfig config : IndexCandidates.of(predicate)) {
+            actual.add(config.getType() + config.getAttributes().toString());
+        }
+        assertEquals(expected.length == 0 ? emptyList() : asList(expected), actual);
+    }
+
+}
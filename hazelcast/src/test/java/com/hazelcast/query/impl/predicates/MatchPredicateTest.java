@@ -0,0 +1,100 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.query.impl.predicates;
+
+import com.hazelcast.query.Predicate;
+import com.hazelcast.query.impl.QueryableEntry;
+import com.hazelcast.query.impl.getters.MultiResult;
+import com.hazelcast.test.HazelcastParallelClassRunner;
+import com.hazelcast.test.annotation.ParallelJVMTest;
+import com.hazelcast.test.annotation.QuickTest;
+import nl.jqno.equalsverifier.EqualsVerifier;
+import nl.jqno.equalsverifier.Warning;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static com.hazelcast.query.Predicates.match;
+import static java.util.Arrays.asList;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+@RunWith(HazelcastParallelClassRunner.class)
+@Category({QuickTest.class, ParallelJVMTest.class})
+public class MatchPredicateTest {
+
+    @Test
+    public void testEqualsAndHashCode() {
+        EqualsVerifier.forClass(MatchPredicate.class)
+            .suppress(Warning.NONFINAL_FIELDS, Warning.STRICT_INHERITANCE)
+            .withRedefinedSuperclass()
+            .allFieldsShouldBeUsed()
+            .verify();
+    }
+
+    @Test
+    public void testApply() {
+        Predicate predicate = match("name", "red sho*");
+
+        assertTrue(predicate.apply(entry("Red Shoes, size 42")));
+        assertTrue(predicate.apply(entry("shopping bag (red)")));
+        assertFalse(predicate.apply(entry("red shirt")));
+        assertFalse(predicate.apply(entry("reddish shoes")));
+        assertFalse(predicate.apply(entry(null)));
+        assertFalse(match("name", "").apply(entry("red")));
+    }
+
+    @Test
+    public void testApply_multiValueAttribute() {
+        MultiResult<String> values = new MultiResult<>();
+        values.add("red");
+        values.add("shoes");
+
+        assertTrue(match("name", "red shoes").apply(entry(values)));
+    }
+
+    @Test
+    public void testParseQuery() {
+        MatchPredicate predicate = new MatchPredicate("name", "Red  sho* 42-b*");
+
+        assertEquals(asSet("red", "42"), predicate.getTerms());
+        assertEquals(asSet("sho", "b"), predicate.getPrefixes());
+    }
+
+    @Test
+    public void testSql() {
+        assertEquals(match("name", "red sho*"), new SqlPredicate("name MATCH 'red sho*'").getPredicate());
+    }
+
+    private static QueryableEntry entry(Object attributeValue) {
+        QueryableEntry entry = mock(QueryableEntry.class);
+        when(entry.getAttributeValue("name")).thenReturn(attributeValue);
+        return entry;
+    }
+
+    private static Set<String> asSet(String... values) {
+        return new HashSet<>(asList(values));
+    }
+
+}
@@ -17,6 +17,7 @@
 package com.hazelcast.spi.impl.operationexecutor.impl;
 
 import com.hazelcast.spi.impl.operationservice.Operation;
+import com.hazelcast.spi.impl.operationservice.StealableOperation;
 import com.hazelcast.test.AssertTask;
 import com.hazelcast.test.HazelcastSerialClassRunner;
 import com.hazelcast.test.annotation.QuickTest;
@@ -24,8 +25,13 @@ import org.junit.Test;
 import org.junit.experimental.categories.Category;
 import org.junit.runner.RunWith;
 
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicInteger;
 import java.util.concurrent.atomic.AtomicReference;
 
+import static com.hazelcast.spi.properties.ClusterProperty.GENERIC_OPERATION_THREAD_COUNT;
+import static org.junit.Assert.assertNull;
+
 @RunWith(HazelcastSerialClassRunner.class)
 @Category(QuickTest.class)
 public class OperationExecutorImpl_ExecuteOperationTest extends OperationExecutorImpl_AbstractTest {
@@ -59,6 +65,97 @@ public class OperationExecutorImpl_ExecuteOperationTest extends OperationExecuto
         });
     }
 
+    @Test
+    public void whenPartitionSpecific_andRingBufferQueue() {
+        config.setProperty("hazelcast.operation.partitionthread.queue", "ringbuffer");
+        config.setProperty("hazelcast.operation.partitionthread.queue.capacity", "2");
+        initExecutor();
+
+        final AtomicInteger executed = new AtomicInteger();
+        for (int k = 0; k < 100; k++) {
+            Operation op = new Operation() {
+                @Override
+                public void run() throws Exception {
+                    assertInstanceOf(PartitionOperationThread.class, Thread.currentThread());
+                    executed.incrementAndGet();
+                }
+            };
+            executor.execute(op.setPartitionId(k % executor.getPartitionOperationRunners().length));
+        }
+
+        assertEqualsEventually(100, executed);
+    }
+
+    @Test
+    public void whenGeneric_andGenericThreadBusy_thenStolenByPartitionThread() {
+        config.setProperty(OperationExecutorImpl.GENERIC_WORK_STEALING_ENABLED.getName(), "true");
+        config.setProperty(GENERIC_OPERATION_THREAD_COUNT.getName(), "1");
+        initExecutor();
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        executor.execute(new Operation() {
+            @Override
+            public void run() throws Exception {
+                started.countDown();
+                completed.await();
+            }
+        }.setPartitionId(-1));
+        assertOpenEventually(started);
+
+        final StealableDummyOperation op = new StealableDummyOperation();
+        executor.execute(op.setPartitionId(-1));
+
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertInstanceOf(PartitionOperationThread.class, op.executingThread.get());
+            }
+        });
+        completed.countDown();
+    }
+
+    @Test
+    public void whenGeneric_andNotStealable_thenNotStolen() {
+        config.setProperty(OperationExecutorImpl.GENERIC_WORK_STEALING_ENABLED.getName(), "true");
+        config.setProperty(GENERIC_OPERATION_THREAD_COUNT.getName(), "1");
+        initExecutor();
+
+        final CountDownLatch started = new CountDownLatch(1);
+        final CountDownLatch completed = new CountDownLatch(1);
+        executor.execute(new Operation() {
+            @Override
+            public void run() throws Exception {
+                started.countDown();
+                completed.await();
+            }
+        }.setPartitionId(-1));
+        assertOpenEventually(started);
+
+        final AtomicReference<Thread> executingThread = new AtomicReference<Thread>();
+        Operation op = new Operation() {
+            @Override
+            public void run() throws Exception {
+                executingThread.set(Thread.currentThread());
+            }
+        };
+        executor.execute(op.setPartitionId(-1));
+
+        assertTrueAllTheTime(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertNull(executingThread.get());
+            }
+        }, 2);
+        completed.countDown();
+        assertTrueEventually(new AssertTask() {
+            @Override
+            public void run() throws Exception {
+                assertInstanceOf(GenericOperationThread.class, executingThread.get());
+            }
+        });
+    }
+
     @Test
     public void whenGeneric() {
         initExecutor();
@@ -80,4 +177,14 @@ public class OperationExecutorImpl_ExecuteOperationTest extends OperationExecuto
             }
         });
     }
+
+    private static class StealableDummyOperation extends Operation implements StealableOperation {
+
+        private final AtomicReference<Thread> executingThread = new AtomicReference<Thread>();
+
+        @Override
+        public void run() throws Exception {
+            executingThread.set(Thread.currentThread());
+        }
+    }
 }
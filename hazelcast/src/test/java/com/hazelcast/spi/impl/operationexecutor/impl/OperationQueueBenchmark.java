@@ -0,0 +1,111 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.internal.util.concurrent.MPSCQueue;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures the throughput of adding tasks to the queue of a partition thread
+ * by many producer threads, while a single consumer thread takes them.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Threads(8)
+public class OperationQueueBenchmark {
+
+    private static final Object TASK = new Object();
+    private static final Object POISON = new Object();
+    // producers back off when this many tasks are pending, so the queues
+    // don't grow unbounded if the consumer can't keep up
+    private static final int MAX_PENDING = 4096;
+
+    @Param({"linked", "ringbuffer"})
+    public String queueType;
+
+    private OperationQueue queue;
+    private Thread consumer;
+
+    @Setup
+    public void setup() {
+        if ("linked".equals(queueType)) {
+            MPSCQueue<Object> normalQueue = new MPSCQueue<>(null);
+            queue = new OperationQueueImpl(normalQueue, new ConcurrentLinkedQueue<>());
+            consumer = new Thread(this::consume);
+            normalQueue.setConsumerThread(consumer);
+        } else {
+            queue = new RingBufferOperationQueue(2 * MAX_PENDING, null);
+            consumer = new Thread(this::consume);
+        }
+        consumer.start();
+    }
+
+    @TearDown
+    public void tearDown() throws InterruptedException {
+        queue.add(POISON, false);
+        consumer.join();
+    }
+
+    private void consume() {
+        try {
+            while (queue.take(false) != POISON) {
+                // consumed
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    @Benchmark
+    public void add() {
+        while (queue.normalSize() > MAX_PENDING) {
+            Thread.yield();
+        }
+        queue.add(TASK, false);
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options opt = new OptionsBuilder()
+                .include(OperationQueueBenchmark.class.getSimpleName())
+                .warmupIterations(5)
+                .measurementIterations(5)
+                .addProfiler(GCProfiler.class)
+                .forks(1)
+                .build();
+
+        new Runner(opt).run();
+    }
+}
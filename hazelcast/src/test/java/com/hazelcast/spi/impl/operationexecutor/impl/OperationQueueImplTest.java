@@ -31,6 +31,7 @@ import java.util.Queue;
 import java.util.concurrent.ArrayBlockingQueue;
 
 import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
 import static org.junit.Assert.assertSame;
 
 @RunWith(HazelcastSerialClassRunner.class)
@@ -217,6 +218,50 @@ public class OperationQueueImplTest extends HazelcastTestSupport {
         //assertContent(normalQueue, OperationQueueImpl.TRIGGER_TASK);
     }
 
+    // ================== pollStealable =====================
+
+    @Test
+    public void pollStealable_whenEmpty() {
+        assertNull(operationQueue.pollStealable());
+    }
+
+    @Test
+    public void pollStealable_whenNormalAndPriority_thenNotPolled() {
+        operationQueue.add(new Object(), false);
+        operationQueue.add(new Object(), true);
+
+        assertNull(operationQueue.pollStealable());
+    }
+
+    @Test
+    public void pollStealable_whenStealable() throws InterruptedException {
+        Object normalTask = new Object();
+        Object stealableTask = new Object();
+        operationQueue.add(normalTask, false);
+        operationQueue.addStealable(stealableTask);
+
+        assertSame(stealableTask, operationQueue.pollStealable());
+        assertNull(operationQueue.pollStealable());
+
+        // the trigger task of the stolen task is skipped
+        Object nextTask = new Object();
+        operationQueue.add(nextTask, false);
+        assertSame(normalTask, operationQueue.take(false));
+        assertSame(nextTask, operationQueue.take(false));
+    }
+
+    @Test
+    public void take_whenStealableNotStolen() throws InterruptedException {
+        Object normalTask = new Object();
+        Object stealableTask = new Object();
+        operationQueue.addStealable(stealableTask);
+        operationQueue.add(normalTask, false);
+
+        assertSame(stealableTask, operationQueue.take(false));
+        assertSame(normalTask, operationQueue.take(false));
+        assertNull(operationQueue.pollStealable());
+    }
+
     public void assertEmpty(Queue<Object> q) {
         assertEquals("expecting an empty operationQueue, but the operationQueue is:" + q, 0, q.size());
     }
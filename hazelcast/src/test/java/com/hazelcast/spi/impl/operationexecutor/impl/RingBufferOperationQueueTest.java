@@ -0,0 +1,106 @@
+/*
+ * Copyright (c) 2008-2020, Hazelcast, Inc. All Rights Reserved.
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+
+
+package com.hazelcast.spi.impl.operationexecutor.impl;
+
+import com.hazelcast.internal.util.concurrent.BusySpinIdleStrategy;
+import com.hazelcast.test.HazelcastSerialClassRunner;
+import com.hazelcast.test.HazelcastTestSupport;
+import com.hazelcast.test.annotation.QuickTest;
+import org.junit.Test;
+import org.junit.experimental.categories.Category;
+import org.junit.runner.RunWith;
+
+import java.util.concurrent.Future;
+
+import static java.util.concurrent.TimeUnit.SECONDS;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+
+@RunWith(HazelcastSerialClassRunner.class)
+@Category(QuickTest.class)
+public class RingBufferOperationQueueTest extends HazelcastTestSupport {
+
+    private RingBufferOperationQueue operationQueue = new RingBufferOperationQueue(4, null);
+
+    @Test(expected = NullPointerException.class)
+    public void add_whenNull() {
+        operationQueue.add(null, false);
+    }
+
+    @Test
+    public void take_priorityFirst() throws InterruptedException {
+        Object normalTask = new Object();
+        Object priorityTask = new Object();
+        operationQueue.add(normalTask, false);
+        operationQueue.add(priorityTask, true);
+
+        assertEquals(1, operationQueue.normalSize());
+        assertEquals(1, operationQueue.prioritySize());
+        assertEquals(2, operationQueue.size());
+        assertSame(priorityTask, operationQueue.take(false));
+        assertSame(normalTask, operationQueue.take(false));
+        assertEquals(0, operationQueue.size());
+    }
+
+    @Test
+    public void take_whenOverflown_thenOrderPreserved() throws InterruptedException {
+        Object[] tasks = new Object[10];
+        for (int i = 0; i < tasks.length; i++) {
+            tasks[i] = new Object();
+            operationQueue.add(tasks[i], false);
+            if (i == 5) {
+                // frees a slot in the ring buffer while the overflow queue isn't empty
+                assertSame(tasks[0], operationQueue.take(false));
+            }
+        }
+
+        assertEquals(tasks.length - 1, operationQueue.normalSize());
+        for (int i = 1; i < tasks.length; i++) {
+            assertSame(tasks[i], operationQueue.take(false));
+        }
+    }
+
+    @Test
+    public void take_whenEmpty_thenWokenUpByAdd() throws Exception {
+        assertTakeWaitsForAdd();
+    }
+
+    @Test
+    public void take_whenEmptyAndIdleStrategy_thenTakesAddedTask() throws Exception {
+        operationQueue = new RingBufferOperationQueue(4, new BusySpinIdleStrategy());
+        assertTakeWaitsForAdd();
+    }
+
+    @Test(expected = InterruptedException.class)
+    public void take_whenInterrupted() throws InterruptedException {
+        Thread.currentThread().interrupt();
+        operationQueue.take(false);
+    }
+
+    private void assertTakeWaitsForAdd() throws Exception {
+        Future<Object> future = spawn(() -> operationQueue.take(false));
+
+        sleepMillis(100);
+        assertFalse(future.isDone());
+
+        Object task = new Object();
+        operationQueue.add(task, false);
+        assertSame(task, future.get(ASSERT_TRUE_EVENTUALLY_TIMEOUT, SECONDS));
+    }
+}